@@ -108,6 +108,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
     private ThriftTransportConfig thriftTransportConfig;
 
     private boolean traceAgentActiveThread = true;
+    private boolean traceAgentActiveThreadStriped = false;
 
     private boolean traceAgentDataSource = false;
     private int dataSourceTraceLimitSize = 20;
@@ -118,6 +119,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
     private int callStackMaxDepth = 512;
 
     private int jdbcSqlCacheSize = 1024;
+    private boolean metadataOffHeapCacheEnable = false;
     private boolean traceSqlBindValue = false;
     private int maxSqlBindValueSize = 1024;
 
@@ -126,10 +128,17 @@ public class DefaultProfilerConfig implements ProfilerConfig {
     private int samplingRate = 1;
     private int samplingNewThroughput = 0;
     private int samplingContinueThroughput = 0;
+    private int samplingAdaptiveTargetThroughput = 0;
+    private boolean samplingTailEnable = false;
+    private int samplingTailSlowThreshold = 3000;
+    private int samplingTailBufferSize = 200;
+    private int samplingTailMaxActive = 200;
 
     // span buffering
     private boolean ioBufferingEnable;
     private int ioBufferingBufferSize;
+    private boolean ioBufferingRecycleEnable;
+    private int ioBufferingRecyclePoolSize;
 
     private String profileJvmVendorName;
     private String profileOsName;
@@ -450,6 +459,11 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         return traceAgentActiveThread;
     }
 
+    @Override
+    public boolean isTraceAgentActiveThreadStriped() {
+        return traceAgentActiveThreadStriped;
+    }
+
     @Override
     public boolean isTraceAgentDataSource() {
         return traceAgentDataSource;
@@ -480,6 +494,11 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         return jdbcSqlCacheSize;
     }
 
+    @Override
+    public boolean isMetadataOffHeapCacheEnable() {
+        return metadataOffHeapCacheEnable;
+    }
+
     @Override
     public boolean isTraceSqlBindValue() {
         return traceSqlBindValue;
@@ -510,6 +529,31 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         return samplingContinueThroughput;
     }
 
+    @Override
+    public int getSamplingAdaptiveTargetThroughput() {
+        return samplingAdaptiveTargetThroughput;
+    }
+
+    @Override
+    public boolean isSamplingTailEnable() {
+        return samplingTailEnable;
+    }
+
+    @Override
+    public int getSamplingTailSlowThreshold() {
+        return samplingTailSlowThreshold;
+    }
+
+    @Override
+    public int getSamplingTailBufferSize() {
+        return samplingTailBufferSize;
+    }
+
+    @Override
+    public int getSamplingTailMaxActive() {
+        return samplingTailMaxActive;
+    }
+
     @Override
     public boolean isIoBufferingEnable() {
         return ioBufferingEnable;
@@ -520,6 +564,16 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         return ioBufferingBufferSize;
     }
 
+    @Override
+    public boolean isIoBufferingRecycleEnable() {
+        return ioBufferingRecycleEnable;
+    }
+
+    @Override
+    public int getIoBufferingRecyclePoolSize() {
+        return ioBufferingRecyclePoolSize;
+    }
+
     @Override
     public String getProfilerJvmVendorName() {
         return profileJvmVendorName;
@@ -669,6 +723,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         this.thriftTransportConfig = readThriftTransportConfig(this);
 
         this.traceAgentActiveThread = readBoolean("profiler.pinpoint.activethread", true);
+        this.traceAgentActiveThreadStriped = readBoolean("profiler.pinpoint.activethread.striped", false);
 
         this.traceAgentDataSource = readBoolean("profiler.pinpoint.datasource", false);
         this.dataSourceTraceLimitSize = readInt("profiler.pinpoint.datasource.tracelimitsize", 20);
@@ -684,6 +739,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
 
         // JDBC
         this.jdbcSqlCacheSize = readInt("profiler.jdbc.sqlcachesize", 1024);
+        this.metadataOffHeapCacheEnable = readBoolean("profiler.metadata.cache.offheap.enable", false);
         this.traceSqlBindValue = readBoolean("profiler.jdbc.tracesqlbindvalue", false);
 
 
@@ -692,12 +748,22 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         // Throughput sampling
         this.samplingNewThroughput = readInt("profiler.sampling.new.throughput", 0);
         this.samplingContinueThroughput = readInt("profiler.sampling.continue.throughput", 0);
+        // Adaptive sampling
+        this.samplingAdaptiveTargetThroughput = readInt("profiler.sampling.adaptive.target.throughput", 0);
+        // Tail sampling
+        this.samplingTailEnable = readBoolean("profiler.sampling.tail.enable", false);
+        this.samplingTailSlowThreshold = readInt("profiler.sampling.tail.slow.threshold", 3000);
+        this.samplingTailBufferSize = readInt("profiler.sampling.tail.buffer.size", 200);
+        this.samplingTailMaxActive = readInt("profiler.sampling.tail.max.active", 200);
 
         // configuration for sampling and IO buffer 
         this.ioBufferingEnable = readBoolean("profiler.io.buffering.enable", true);
 
         // it may be a problem to be here.  need to modify(delete or move or .. )  this configuration.
         this.ioBufferingBufferSize = readInt("profiler.io.buffering.buffersize", 20);
+        // reuse span event buffers and SpanChunk once the sender has serialized them
+        this.ioBufferingRecycleEnable = readBoolean("profiler.io.buffering.recycle.enable", false);
+        this.ioBufferingRecyclePoolSize = readInt("profiler.io.buffering.recycle.poolsize", 64);
 
         //OS
         this.profileOsName = readString("profiler.os.name", null);
@@ -859,20 +925,29 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         sb.append(", thriftTransportConfig=").append(thriftTransportConfig).append('\'');
         sb.append(", staticResourceCleanup=").append(staticResourceCleanup);
         sb.append(", traceAgentActiveThread=").append(traceAgentActiveThread);
+        sb.append(", traceAgentActiveThreadStriped=").append(traceAgentActiveThreadStriped);
         sb.append(", traceAgentDataSource=").append(traceAgentDataSource);
         sb.append(", dataSourceTraceLimitSize=").append(dataSourceTraceLimitSize);
         sb.append(", deadlockMonitorEnable=").append(deadlockMonitorEnable);
         sb.append(", deadlockMonitorInterval=").append(deadlockMonitorInterval);
         sb.append(", callStackMaxDepth=").append(callStackMaxDepth);
         sb.append(", jdbcSqlCacheSize=").append(jdbcSqlCacheSize);
+        sb.append(", metadataOffHeapCacheEnable=").append(metadataOffHeapCacheEnable);
         sb.append(", traceSqlBindValue=").append(traceSqlBindValue);
         sb.append(", maxSqlBindValueSize=").append(maxSqlBindValueSize);
         sb.append(", samplingEnable=").append(samplingEnable);
         sb.append(", samplingRate=").append(samplingRate);
         sb.append(", samplingNewThroughput=").append(samplingNewThroughput);
         sb.append(", samplingContinueThroughput=").append(samplingContinueThroughput);
+        sb.append(", samplingAdaptiveTargetThroughput=").append(samplingAdaptiveTargetThroughput);
+        sb.append(", samplingTailEnable=").append(samplingTailEnable);
+        sb.append(", samplingTailSlowThreshold=").append(samplingTailSlowThreshold);
+        sb.append(", samplingTailBufferSize=").append(samplingTailBufferSize);
+        sb.append(", samplingTailMaxActive=").append(samplingTailMaxActive);
         sb.append(", ioBufferingEnable=").append(ioBufferingEnable);
         sb.append(", ioBufferingBufferSize=").append(ioBufferingBufferSize);
+        sb.append(", ioBufferingRecycleEnable=").append(ioBufferingRecycleEnable);
+        sb.append(", ioBufferingRecyclePoolSize=").append(ioBufferingRecyclePoolSize);
         sb.append(", profileJvmVendorName='").append(profileJvmVendorName).append('\'');
         sb.append(", profileOsName='").append(profileOsName).append('\'');
         sb.append(", profileJvmStatCollectIntervalMs=").append(profileJvmStatCollectIntervalMs);
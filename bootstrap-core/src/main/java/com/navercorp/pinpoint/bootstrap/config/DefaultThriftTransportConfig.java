@@ -54,6 +54,11 @@ public class DefaultThriftTransportConfig implements ThriftTransportConfig {
     private String statDataSenderTransportType = "UDP";
     private String statDataSenderSocketType = "OIO";
 
+    private String dataSenderExecutorQueueType = "BLOCKING";
+    private String dataSenderExecutorWaitStrategy = "PARK";
+    private int dataSenderExecutorMinDrainSize = 10;
+    private int dataSenderExecutorMaxDrainSize = 10;
+
     private boolean tcpDataSenderCommandAcceptEnable = false;
     private boolean tcpDataSenderCommandActiveThreadEnable = false;
     private boolean tcpDataSenderCommandActiveThreadCountEnable = false;
@@ -107,6 +112,11 @@ public class DefaultThriftTransportConfig implements ThriftTransportConfig {
         this.statDataSenderSocketType = profilerConfig.readString("profiler.statdatasender.socket.type", "OIO");
         this.statDataSenderTransportType = profilerConfig.readString("profiler.statdatasender.transport.type", "UDP");
 
+        this.dataSenderExecutorQueueType = profilerConfig.readString("profiler.datasender.executor.queue.type", "BLOCKING");
+        this.dataSenderExecutorWaitStrategy = profilerConfig.readString("profiler.datasender.executor.wait.strategy", "PARK");
+        this.dataSenderExecutorMinDrainSize = profilerConfig.readInt("profiler.datasender.executor.drain.size.min", 10);
+        this.dataSenderExecutorMaxDrainSize = profilerConfig.readInt("profiler.datasender.executor.drain.size.max", 10);
+
         this.tcpDataSenderCommandAcceptEnable = profilerConfig.readBoolean("profiler.tcpdatasender.command.accept.enable", false);
         this.tcpDataSenderCommandActiveThreadEnable = profilerConfig.readBoolean("profiler.tcpdatasender.command.activethread.enable", false);
         this.tcpDataSenderCommandActiveThreadCountEnable = profilerConfig.readBoolean("profiler.tcpdatasender.command.activethread.count.enable", false);
@@ -292,6 +302,26 @@ public class DefaultThriftTransportConfig implements ThriftTransportConfig {
         return statDataSenderChunkSize;
     }
 
+    @Override
+    public String getDataSenderExecutorQueueType() {
+        return dataSenderExecutorQueueType;
+    }
+
+    @Override
+    public String getDataSenderExecutorWaitStrategy() {
+        return dataSenderExecutorWaitStrategy;
+    }
+
+    @Override
+    public int getDataSenderExecutorMinDrainSize() {
+        return dataSenderExecutorMinDrainSize;
+    }
+
+    @Override
+    public int getDataSenderExecutorMaxDrainSize() {
+        return dataSenderExecutorMaxDrainSize;
+    }
+
     @Override
     public String toString() {
         return "DefaultThriftTransportConfig{" +
@@ -317,6 +347,10 @@ public class DefaultThriftTransportConfig implements ThriftTransportConfig {
                 ", statDataSenderWriteBufferLowWaterMark=" + statDataSenderWriteBufferLowWaterMark +
                 ", statDataSenderTransportType='" + statDataSenderTransportType + '\'' +
                 ", statDataSenderSocketType='" + statDataSenderSocketType + '\'' +
+                ", dataSenderExecutorQueueType='" + dataSenderExecutorQueueType + '\'' +
+                ", dataSenderExecutorWaitStrategy='" + dataSenderExecutorWaitStrategy + '\'' +
+                ", dataSenderExecutorMinDrainSize=" + dataSenderExecutorMinDrainSize +
+                ", dataSenderExecutorMaxDrainSize=" + dataSenderExecutorMaxDrainSize +
                 ", tcpDataSenderCommandAcceptEnable=" + tcpDataSenderCommandAcceptEnable +
                 ", tcpDataSenderCommandActiveThreadEnable=" + tcpDataSenderCommandActiveThreadEnable +
                 ", tcpDataSenderCommandActiveThreadCountEnable=" + tcpDataSenderCommandActiveThreadCountEnable +
@@ -205,6 +205,8 @@ public interface ProfilerConfig {
 
     boolean isTraceAgentActiveThread();
 
+    boolean isTraceAgentActiveThreadStriped();
+
     boolean isTraceAgentDataSource();
 
     int getDataSourceTraceLimitSize();
@@ -218,6 +220,8 @@ public interface ProfilerConfig {
 
     int getJdbcSqlCacheSize();
 
+    boolean isMetadataOffHeapCacheEnable();
+
     boolean isTraceSqlBindValue();
 
     int getMaxSqlBindValueSize();
@@ -230,10 +234,24 @@ public interface ProfilerConfig {
 
     int getSamplingContinueThroughput();
 
+    int getSamplingAdaptiveTargetThroughput();
+
+    boolean isSamplingTailEnable();
+
+    int getSamplingTailSlowThreshold();
+
+    int getSamplingTailBufferSize();
+
+    int getSamplingTailMaxActive();
+
     boolean isIoBufferingEnable();
 
     int getIoBufferingBufferSize();
 
+    boolean isIoBufferingRecycleEnable();
+
+    int getIoBufferingRecyclePoolSize();
+
     String getProfilerJvmVendorName();
 
     String getProfilerOSName();
@@ -93,4 +93,12 @@ public interface ThriftTransportConfig {
 
     int getStatDataSenderChunkSize();
 
+    String getDataSenderExecutorQueueType();
+
+    String getDataSenderExecutorWaitStrategy();
+
+    int getDataSenderExecutorMinDrainSize();
+
+    int getDataSenderExecutorMaxDrainSize();
+
 }
@@ -67,6 +67,11 @@ public class DefaultRequestTraceWriter<T> implements RequestTraceWriter<T> {
     @Override
     public void write(T header, final TraceId traceId, final String host) {
         Assert.requireNonNull(traceId, "traceId must not be null");
+        if (SamplingFlagUtils.isUnsampledTraceFlag(traceId.getFlags())) {
+            // recorded locally, but not sampled
+            write(header);
+            return;
+        }
 
         if (isDebug) {
             logger.debug("Set request header. traceId={}, applicationName={}, serverTypeCode={}, applicationNamespace={}", traceId, applicationName, serverTypeCode, applicationNamespace);
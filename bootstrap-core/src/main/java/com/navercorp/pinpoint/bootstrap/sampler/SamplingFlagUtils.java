@@ -28,6 +28,9 @@ public final class SamplingFlagUtils {
     public static final String SAMPLING_RATE_FALSE = SAMPLING_RATE_PREFIX +  "0";
     public static final String SAMPLING_RATE_TRUE = SAMPLING_RATE_PREFIX +  "1";
 
+    // TraceId flag of a transaction recorded only by the local agent, the next node must not sample it
+    public static final short TRACE_FLAG_UNSAMPLED = 0x01;
+
     private SamplingFlagUtils() {
     }
 
@@ -42,5 +45,9 @@ public final class SamplingFlagUtils {
         }
         return true;
     }
+
+    public static boolean isUnsampledTraceFlag(short flags) {
+        return (flags & TRACE_FLAG_UNSAMPLED) != 0;
+    }
 }
 
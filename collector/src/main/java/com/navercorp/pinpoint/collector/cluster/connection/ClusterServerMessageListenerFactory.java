@@ -63,7 +63,9 @@ class ClusterServerMessageListenerFactory implements ServerMessageListenerFactor
 
         @Override
         public void handleSend(SendPacket sendPacket, PinpointSocket pinpointSocket) {
-            logger.info("handleSend packet:{}, remote:{}", sendPacket, pinpointSocket.getRemoteAddress());
+            logger.debug("handleSend packet:{}, remote:{}", sendPacket, pinpointSocket.getRemoteAddress());
+
+            routeMessageListener.handleSend(sendPacket, pinpointSocket);
         }
 
         @Override
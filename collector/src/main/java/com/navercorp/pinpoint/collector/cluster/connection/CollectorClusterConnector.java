@@ -78,7 +78,7 @@ public class CollectorClusterConnector implements CollectorClusterConnectionProv
         logger.info("{} destroying completed.", ClassUtils.simpleClassName(this));
     }
 
-    PinpointSocket connect(Address address) {
+    public PinpointSocket connect(Address address) {
         if (clientFactory == null) {
             throw new IllegalStateException("not started.");
         }
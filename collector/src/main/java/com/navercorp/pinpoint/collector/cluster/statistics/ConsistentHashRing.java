@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.statistics;
+
+import com.navercorp.pinpoint.collector.util.Address;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable consistent hash ring of collector addresses.
+ * Every collector builds the ring from the same member list, so they all agree on the owner of a key.
+ * Adding or removing a member only moves the keys of its own virtual nodes.
+ */
+public class ConsistentHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODE_COUNT = 128;
+
+    private final TreeMap<Long, Address> ring = new TreeMap<>();
+    private final List<Address> members;
+
+    public ConsistentHashRing(Collection<? extends Address> members) {
+        this(members, DEFAULT_VIRTUAL_NODE_COUNT);
+    }
+
+    public ConsistentHashRing(Collection<? extends Address> members, int virtualNodeCount) {
+        Objects.requireNonNull(members, "members must not be null");
+        if (virtualNodeCount <= 0) {
+            throw new IllegalArgumentException("virtualNodeCount must be greater than 0");
+        }
+        this.members = Collections.unmodifiableList(new ArrayList<>(members));
+        for (Address member : this.members) {
+            final String memberKey = member.getHost() + ':' + member.getPort();
+            for (int i = 0; i < virtualNodeCount; i++) {
+                final long hash = hash(memberKey + '#' + i);
+                // keep the first member on a (very unlikely) collision, whatever the member order
+                final Address before = ring.get(hash);
+                if (before == null || compare(member, before) < 0) {
+                    ring.put(hash, member);
+                }
+            }
+        }
+    }
+
+    private static int compare(Address address1, Address address2) {
+        final int compareHost = address1.getHost().compareTo(address2.getHost());
+        if (compareHost != 0) {
+            return compareHost;
+        }
+        return Integer.compare(address1.getPort(), address2.getPort());
+    }
+
+    /**
+     * @return owner of the key, or null if the ring has no member
+     */
+    public Address getOwner(String key) {
+        Objects.requireNonNull(key, "key must not be null");
+        if (ring.isEmpty()) {
+            return null;
+        }
+        final SortedMap<Long, Address> tail = ring.tailMap(hash(key));
+        if (tail.isEmpty()) {
+            return ring.firstEntry().getValue();
+        }
+        return tail.get(tail.firstKey());
+    }
+
+    public List<Address> getMembers() {
+        return members;
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    /**
+     * 64 bit FNV-1a followed by the murmur3 finalizer, so that similar keys spread over the whole ring
+     */
+    static long hash(String key) {
+        final byte[] bytes = BytesUtils.toBytes(key);
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ConsistentHashRing{");
+        sb.append("members=").append(members);
+        sb.append(", virtualNodes=").append(ring.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.statistics;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Updates forwarded to an owner collector in one request.
+ * {@code senderId} and {@code sequence} identify the batch, so that the owner applies a resent batch only once.
+ */
+public class StatisticsBatch {
+
+    private final String senderId;
+    private final long sequence;
+    private final List<StatisticsUpdate> updates;
+
+    public StatisticsBatch(String senderId, long sequence, List<StatisticsUpdate> updates) {
+        this.senderId = Objects.requireNonNull(senderId, "senderId must not be null");
+        this.sequence = sequence;
+        this.updates = Objects.requireNonNull(updates, "updates must not be null");
+    }
+
+    public String getSenderId() {
+        return senderId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<StatisticsUpdate> getUpdates() {
+        return updates;
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticsBatch{" +
+                "senderId='" + senderId + '\'' +
+                ", sequence=" + sequence +
+                ", updates=" + updates.size() +
+                '}';
+    }
+}
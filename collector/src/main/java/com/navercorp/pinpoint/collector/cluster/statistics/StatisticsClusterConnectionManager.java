@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.statistics;
+
+import com.navercorp.pinpoint.collector.cluster.connection.ClusterConnectionManager;
+import com.navercorp.pinpoint.collector.cluster.connection.CollectorClusterAcceptor;
+import com.navercorp.pinpoint.collector.cluster.connection.CollectorClusterConnector;
+import com.navercorp.pinpoint.collector.util.Address;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.rpc.PinpointSocket;
+import com.navercorp.pinpoint.rpc.util.ClassUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a connection to every collector registered for statistics routing, and the routing ring in sync with them.
+ * The local collector is a ring member without a connection.
+ */
+public class StatisticsClusterConnectionManager implements ClusterConnectionManager {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final Address localAddress;
+    private final CollectorClusterConnector clusterConnector;
+    private final CollectorClusterAcceptor clusterAcceptor;
+    private final StatisticsRouter statisticsRouter;
+
+    // guarded by this
+    private final Set<Address> members = new LinkedHashSet<>();
+    private final Map<Address, PinpointSocket> sockets = new HashMap<>();
+
+    public StatisticsClusterConnectionManager(Address localAddress, CollectorClusterConnector clusterConnector, CollectorClusterAcceptor clusterAcceptor, StatisticsRouter statisticsRouter) {
+        this.localAddress = Assert.requireNonNull(localAddress, "localAddress must not be null");
+        this.clusterConnector = Assert.requireNonNull(clusterConnector, "clusterConnector must not be null");
+        this.clusterAcceptor = Assert.requireNonNull(clusterAcceptor, "clusterAcceptor must not be null");
+        this.statisticsRouter = Assert.requireNonNull(statisticsRouter, "statisticsRouter must not be null");
+    }
+
+    @Override
+    public void start() {
+        logger.info("{} initialization started.", ClassUtils.simpleClassName(this));
+
+        clusterConnector.start();
+        clusterAcceptor.start();
+        statisticsRouter.setLocalAddress(localAddress);
+
+        logger.info("{} initialization completed.", ClassUtils.simpleClassName(this));
+    }
+
+    @Override
+    public void stop() {
+        logger.info("{} destroying started.", ClassUtils.simpleClassName(this));
+
+        synchronized (this) {
+            // every update is applied locally from now on
+            statisticsRouter.setLocalAddress(null);
+            for (Map.Entry<Address, PinpointSocket> entry : sockets.entrySet()) {
+                statisticsRouter.removePeer(entry.getKey());
+                entry.getValue().close();
+            }
+            sockets.clear();
+            members.clear();
+            updateRing();
+        }
+
+        clusterConnector.stop();
+        clusterAcceptor.stop();
+
+        logger.info("{} destroying completed.", ClassUtils.simpleClassName(this));
+    }
+
+    @Override
+    public synchronized void connectPointIfAbsent(Address address) {
+        if (members.contains(address)) {
+            return;
+        }
+        if (!localAddress.equals(address)) {
+            logger.info("localhost -> {} connect started.", address);
+            final PinpointSocket socket = clusterConnector.connect(address);
+            sockets.put(address, socket);
+            statisticsRouter.addPeer(address, socket);
+            logger.info("localhost -> {} connect completed.", address);
+        }
+        members.add(address);
+        updateRing();
+    }
+
+    @Override
+    public synchronized void disconnectPoint(Address address) {
+        if (!members.remove(address)) {
+            return;
+        }
+        // drop the member first, so that new updates are no longer routed to it
+        updateRing();
+
+        final PinpointSocket socket = sockets.remove(address);
+        if (socket != null) {
+            statisticsRouter.removePeer(address);
+            socket.close();
+            logger.info("localhost -> {} disconnect completed.", address);
+        }
+    }
+
+    @Override
+    public synchronized List<Address> getConnectedAddressList() {
+        return new ArrayList<>(members);
+    }
+
+    private void updateRing() {
+        statisticsRouter.updateMembers(members);
+    }
+
+}
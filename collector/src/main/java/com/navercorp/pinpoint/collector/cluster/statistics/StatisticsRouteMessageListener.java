@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.statistics;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.rpc.MessageListener;
+import com.navercorp.pinpoint.rpc.PinpointSocket;
+import com.navercorp.pinpoint.rpc.packet.RequestPacket;
+import com.navercorp.pinpoint.rpc.packet.SendPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Receives statistics batches forwarded by other collectors.
+ */
+public class StatisticsRouteMessageListener implements MessageListener {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final StatisticsRouter statisticsRouter;
+
+    public StatisticsRouteMessageListener(StatisticsRouter statisticsRouter) {
+        this.statisticsRouter = Assert.requireNonNull(statisticsRouter, "statisticsRouter must not be null");
+    }
+
+    @Override
+    public void handleSend(SendPacket sendPacket, PinpointSocket pinpointSocket) {
+        // batches are sent as requests, so that the sender knows they were applied
+        logger.info("Unsupported send. packet:{}, remote:{}", sendPacket, pinpointSocket.getRemoteAddress());
+    }
+
+    @Override
+    public void handleRequest(RequestPacket requestPacket, PinpointSocket pinpointSocket) {
+        final byte[] payload = requestPacket.getPayload();
+        if (!StatisticsUpdateCodec.isStatisticsPayload(payload)) {
+            logger.info("Unknown payload. packet:{}, remote:{}", requestPacket, pinpointSocket.getRemoteAddress());
+            return;
+        }
+        try {
+            final StatisticsBatch batch = StatisticsUpdateCodec.decode(payload);
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} received from {}", batch, pinpointSocket.getRemoteAddress());
+            }
+            statisticsRouter.receive(batch);
+            // acknowledged only after the updates were applied, a resent batch that was skipped is acknowledged as well
+            pinpointSocket.response(requestPacket.getRequestId(), StatisticsUpdateCodec.encodeAck(batch.getSequence()));
+        } catch (Exception e) {
+            // not acknowledged, the sender resends the batch
+            logger.warn("Failed to handle statistics updates from {}. Caused:{}", pinpointSocket.getRemoteAddress(), e.getMessage(), e);
+        }
+    }
+}
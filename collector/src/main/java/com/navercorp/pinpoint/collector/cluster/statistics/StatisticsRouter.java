@@ -0,0 +1,511 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.statistics;
+
+import com.navercorp.pinpoint.collector.dao.MapResponseTimeDao;
+import com.navercorp.pinpoint.collector.dao.MapStatisticsCalleeDao;
+import com.navercorp.pinpoint.collector.dao.MapStatisticsCallerDao;
+import com.navercorp.pinpoint.collector.util.Address;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.navercorp.pinpoint.loader.service.ServiceTypeRegistryService;
+import com.navercorp.pinpoint.rpc.Future;
+import com.navercorp.pinpoint.rpc.PinpointSocket;
+import com.navercorp.pinpoint.rpc.ResponseMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes map statistics updates to the collector owning the row, chosen by consistent hashing of the row's application name.
+ * <p>
+ * Without routing, every collector an application's agents connect to increments the same rows,
+ * so each cell costs one hbase increment per collector per flush. With routing, updates for rows owned by
+ * another collector are merged locally and sent to the owner as a batch every flush period,
+ * and only the owner increments the row.
+ * <p>
+ * Batches are sent by the flushing thread. A buffer that reaches {@code maxBatchSize} is handed to the flush executor,
+ * so the threads receiving spans never wait for an acknowledgement.
+ * <p>
+ * Batches are sent as requests and the owner acknowledges a batch only after applying it.
+ * A batch that is not acknowledged is resent to the owner with the same sender id, sequence and update order.
+ * The owner records how many updates of a batch it has applied, skips batches it has fully applied
+ * and resumes a partially applied batch after its last applied update, so retries never apply an update twice.
+ * <p>
+ * A batch is applied locally instead when the owner is not connected, or when it is still not acknowledged
+ * after {@code MAX_SEND_ATTEMPTS}. Delivery is at-least-once in the latter case:
+ * if the owner applied the batch but every acknowledgement was lost, the batch is counted twice.
+ * Counts are not lost unless the owner crashes after acknowledging and before its increments reach hbase,
+ * same as for the statistics it receives from agents.
+ * Routing is inactive until the ring has members.
+ */
+public class StatisticsRouter {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 10000;
+    public static final long DEFAULT_ACK_TIMEOUT_MILLIS = 3000;
+    static final int MAX_SEND_ATTEMPTS = 3;
+    // batch ids remembered by the owner to skip resent batches, a sender resends within MAX_SEND_ATTEMPTS flushes
+    private static final int MAX_APPLIED_BATCHES = 65536;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final MapStatisticsCallerDao mapStatisticsCallerDao;
+    private final MapStatisticsCalleeDao mapStatisticsCalleeDao;
+    private final MapResponseTimeDao mapResponseTimeDao;
+    private final AcceptedTimeService acceptedTimeService;
+    private final TimeSlot timeSlot;
+    private final ServiceTypeRegistryService registry;
+    private final int maxBatchSize;
+    private final long ackTimeoutMillis;
+    private final Executor flushExecutor;
+
+    // restarted collectors start a new sequence under a new id
+    private final String senderId = UUID.randomUUID().toString();
+    private final AtomicLong batchSequence = new AtomicLong();
+    private final AppliedBatches appliedBatches = new AppliedBatches(MAX_APPLIED_BATCHES);
+
+    private volatile Address localAddress;
+    private volatile ConsistentHashRing ring = new ConsistentHashRing(Collections.<Address>emptyList());
+
+    private final ConcurrentMap<Address, PinpointSocket> peers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Address, ForwardBuffer> forwardBuffers = new ConcurrentHashMap<>();
+
+    private final AtomicLong forwardedCount = new AtomicLong();
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+
+    public StatisticsRouter(MapStatisticsCallerDao mapStatisticsCallerDao, MapStatisticsCalleeDao mapStatisticsCalleeDao, MapResponseTimeDao mapResponseTimeDao,
+                            AcceptedTimeService acceptedTimeService, TimeSlot timeSlot, ServiceTypeRegistryService registry, Executor flushExecutor) {
+        this(mapStatisticsCallerDao, mapStatisticsCalleeDao, mapResponseTimeDao, acceptedTimeService, timeSlot, registry, flushExecutor, DEFAULT_MAX_BATCH_SIZE, DEFAULT_ACK_TIMEOUT_MILLIS);
+    }
+
+    public StatisticsRouter(MapStatisticsCallerDao mapStatisticsCallerDao, MapStatisticsCalleeDao mapStatisticsCalleeDao, MapResponseTimeDao mapResponseTimeDao,
+                            AcceptedTimeService acceptedTimeService, TimeSlot timeSlot, ServiceTypeRegistryService registry, Executor flushExecutor,
+                            int maxBatchSize, long ackTimeoutMillis) {
+        this.mapStatisticsCallerDao = Assert.requireNonNull(mapStatisticsCallerDao, "mapStatisticsCallerDao must not be null");
+        this.mapStatisticsCalleeDao = Assert.requireNonNull(mapStatisticsCalleeDao, "mapStatisticsCalleeDao must not be null");
+        this.mapResponseTimeDao = Assert.requireNonNull(mapResponseTimeDao, "mapResponseTimeDao must not be null");
+        this.acceptedTimeService = Assert.requireNonNull(acceptedTimeService, "acceptedTimeService must not be null");
+        this.timeSlot = Assert.requireNonNull(timeSlot, "timeSlot must not be null");
+        this.registry = Assert.requireNonNull(registry, "registry must not be null");
+        this.flushExecutor = Assert.requireNonNull(flushExecutor, "flushExecutor must not be null");
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+        if (ackTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("ackTimeoutMillis must be greater than 0");
+        }
+        this.ackTimeoutMillis = ackTimeoutMillis;
+    }
+
+    public boolean isActive() {
+        return localAddress != null && !ring.isEmpty();
+    }
+
+    public void setLocalAddress(Address localAddress) {
+        this.localAddress = localAddress;
+    }
+
+    public Address getLocalAddress() {
+        return localAddress;
+    }
+
+    /**
+     * replaces the ring. every collector must be given the same members, the local collector included.
+     */
+    public void updateMembers(Collection<? extends Address> members) {
+        final ConsistentHashRing newRing = new ConsistentHashRing(members);
+        logger.info("statistics routing ring updated. {}", newRing);
+        this.ring = newRing;
+    }
+
+    public void addPeer(Address address, PinpointSocket socket) {
+        Assert.requireNonNull(address, "address must not be null");
+        Assert.requireNonNull(socket, "socket must not be null");
+        peers.put(address, socket);
+    }
+
+    public void removePeer(Address address) {
+        peers.remove(address);
+    }
+
+    Address getOwner(String applicationName) {
+        return ring.getOwner(applicationName);
+    }
+
+    /**
+     * @return true if the update was forwarded to another collector, false if it must be applied locally
+     */
+    public boolean routeCaller(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError, long count) {
+        final Address owner = getRemoteOwner(callerApplicationName);
+        if (owner == null) {
+            return false;
+        }
+        final short histogramSlot = ApplicationMapStatisticsUtils.getSlotNumber(calleeServiceType, elapsed, isError);
+        final StatisticsUpdate update = new StatisticsUpdate(StatisticsUpdate.Type.CALLER, getRowTimeSlot(), callerApplicationName, callerServiceType.getCode(), callerAgentId,
+                calleeApplicationName, calleeServiceType.getCode(), calleeHost, histogramSlot, elapsed, isError, count);
+        forward(owner, update);
+        return true;
+    }
+
+    /**
+     * @return true if the update was forwarded to another collector, false if it must be applied locally
+     */
+    public boolean routeCallee(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError, long count) {
+        final Address owner = getRemoteOwner(calleeApplicationName);
+        if (owner == null) {
+            return false;
+        }
+        final short histogramSlot = ApplicationMapStatisticsUtils.getSlotNumber(calleeServiceType, elapsed, isError);
+        final StatisticsUpdate update = new StatisticsUpdate(StatisticsUpdate.Type.CALLEE, getRowTimeSlot(), calleeApplicationName, calleeServiceType.getCode(), null,
+                callerApplicationName, callerServiceType.getCode(), callerHost, histogramSlot, elapsed, isError, count);
+        forward(owner, update);
+        return true;
+    }
+
+    /**
+     * @return true if the update was forwarded to another collector, false if it must be applied locally
+     */
+    public boolean routeResponseTime(String applicationName, ServiceType serviceType, String agentId, int elapsed, boolean isError, long count) {
+        final Address owner = getRemoteOwner(applicationName);
+        if (owner == null) {
+            return false;
+        }
+        final short histogramSlot = ApplicationMapStatisticsUtils.getSlotNumber(serviceType, elapsed, isError);
+        final StatisticsUpdate update = new StatisticsUpdate(StatisticsUpdate.Type.RESPONSE_TIME, getRowTimeSlot(), applicationName, serviceType.getCode(), agentId,
+                null, (short) 0, null, histogramSlot, elapsed, isError, count);
+        forward(owner, update);
+        return true;
+    }
+
+    private Address getRemoteOwner(String applicationName) {
+        final Address localAddress = this.localAddress;
+        if (localAddress == null || applicationName == null) {
+            return null;
+        }
+        final Address owner = ring.getOwner(applicationName);
+        if (owner == null || owner.equals(localAddress)) {
+            return null;
+        }
+        return owner;
+    }
+
+    private long getRowTimeSlot() {
+        return timeSlot.getTimeSlot(acceptedTimeService.getAcceptedTime());
+    }
+
+    private void forward(Address owner, StatisticsUpdate update) {
+        ForwardBuffer buffer = forwardBuffers.get(owner);
+        if (buffer == null) {
+            final ForwardBuffer newBuffer = new ForwardBuffer();
+            final ForwardBuffer before = forwardBuffers.putIfAbsent(owner, newBuffer);
+            buffer = before != null ? before : newBuffer;
+        }
+        final boolean flushRequired = buffer.add(update, maxBatchSize);
+        if (flushRequired) {
+            requestFlush(owner, buffer);
+        }
+    }
+
+    private void requestFlush(final Address owner, final ForwardBuffer buffer) {
+        try {
+            flushExecutor.execute(() -> earlyFlush(owner, buffer));
+        } catch (RejectedExecutionException e) {
+            // the buffer is drained by the next scheduled flush
+            logger.warn("early flush to {} rejected. Caused:{}", owner, e.getMessage());
+        }
+    }
+
+    private void earlyFlush(Address owner, ForwardBuffer buffer) {
+        try {
+            flush(owner, buffer);
+        } catch (Exception e) {
+            logger.warn("early flush to {} failed. Caused:{}", owner, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * sends the pending updates of every owner
+     */
+    public void flushAll() {
+        for (Map.Entry<Address, ForwardBuffer> entry : forwardBuffers.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * sends the pending updates, and applies locally the batches that would otherwise wait for a retry
+     */
+    public void close() {
+        flushAll();
+        for (Map.Entry<Address, ForwardBuffer> entry : forwardBuffers.entrySet()) {
+            for (PendingBatch batch : entry.getValue().drainRetries()) {
+                logger.info("batch:{} to {} not acknowledged on close. apply {} updates locally", batch.sequence, entry.getKey(), batch.updates.size());
+                fallback(batch.updates);
+            }
+        }
+    }
+
+    private void flush(Address owner, ForwardBuffer buffer) {
+        final List<PendingBatch> batches = buffer.drainRetries();
+        final List<StatisticsUpdate> updates = buffer.drain();
+        if (!updates.isEmpty()) {
+            batches.add(new PendingBatch(batchSequence.incrementAndGet(), updates));
+        }
+        if (batches.isEmpty()) {
+            return;
+        }
+        final PinpointSocket socket = peers.get(owner);
+        for (PendingBatch batch : batches) {
+            if (socket == null) {
+                logger.info("owner {} is not connected. apply {} updates locally", owner, batch.updates.size());
+                fallback(batch.updates);
+                continue;
+            }
+            send(owner, socket, buffer, batch);
+        }
+    }
+
+    private void send(Address owner, PinpointSocket socket, ForwardBuffer buffer, PendingBatch batch) {
+        batch.attempts++;
+        try {
+            final byte[] payload = StatisticsUpdateCodec.encode(senderId, batch.sequence, batch.updates);
+            final Future<ResponseMessage> future = socket.request(payload);
+            if (future.await(ackTimeoutMillis) && future.isSuccess() && isAck(future.getResult(), batch.sequence)) {
+                forwardedCount.addAndGet(batch.updates.size());
+                return;
+            }
+            logger.info("batch:{} to {} not acknowledged. attempts:{}", batch.sequence, owner, batch.attempts);
+        } catch (Exception e) {
+            logger.warn("Failed to forward batch:{} to {}. attempts:{} Caused:{}", batch.sequence, owner, batch.attempts, e.getMessage(), e);
+        }
+
+        // the owner may have applied it, resend the same batch so that the owner can skip it
+        if (batch.attempts < MAX_SEND_ATTEMPTS) {
+            retryCount.incrementAndGet();
+            buffer.retry(batch);
+            return;
+        }
+        logger.warn("batch:{} to {} not acknowledged after {} attempts. apply {} updates locally", batch.sequence, owner, batch.attempts, batch.updates.size());
+        fallback(batch.updates);
+    }
+
+    private boolean isAck(ResponseMessage response, long sequence) {
+        if (response == null) {
+            return false;
+        }
+        final byte[] message = response.getMessage();
+        return StatisticsUpdateCodec.isStatisticsPayload(message) && StatisticsUpdateCodec.decodeAck(message) == sequence;
+    }
+
+    private void fallback(List<StatisticsUpdate> updates) {
+        fallbackCount.addAndGet(updates.size());
+        apply(updates);
+    }
+
+    /**
+     * applies a batch forwarded by another collector, unless it was already applied.
+     * a batch that failed part way is resumed after its last applied update when it is resent.
+     * the batch may be acknowledged once this method returns.
+     *
+     * @return false if the batch was already applied
+     */
+    public boolean receive(StatisticsBatch batch) {
+        Assert.requireNonNull(batch, "batch must not be null");
+        final BatchProgress progress = appliedBatches.get(batch.getSenderId(), batch.getSequence());
+        // a resent batch waits for an attempt that is still being applied
+        synchronized (progress) {
+            if (progress.completed) {
+                duplicateCount.incrementAndGet();
+                return false;
+            }
+            apply(batch.getUpdates(), progress);
+            progress.completed = true;
+        }
+        receivedCount.addAndGet(batch.getUpdates().size());
+        return true;
+    }
+
+    private void apply(List<StatisticsUpdate> updates) {
+        apply(updates, new BatchProgress());
+    }
+
+    private void apply(List<StatisticsUpdate> updates, BatchProgress progress) {
+        // the daos read the row time slot from the accepted time of the current thread
+        final long acceptedTime = acceptedTimeService.getAcceptedTime();
+        try {
+            for (int i = progress.appliedCount; i < updates.size(); i++) {
+                final StatisticsUpdate update = updates.get(i);
+                acceptedTimeService.accept(update.getRowTimeSlot());
+                apply(update);
+                progress.appliedCount = i + 1;
+            }
+        } finally {
+            acceptedTimeService.accept(acceptedTime);
+        }
+    }
+
+    private void apply(StatisticsUpdate update) {
+        final ServiceType serviceType = registry.findServiceType(update.getServiceType());
+        switch (update.getType()) {
+            case CALLER:
+                mapStatisticsCallerDao.update(update.getApplicationName(), serviceType, update.getAgentId(), update.getTargetApplicationName(),
+                        registry.findServiceType(update.getTargetServiceType()), update.getHost(), update.getElapsed(), update.isError(), update.getCount());
+                break;
+            case CALLEE:
+                mapStatisticsCalleeDao.update(update.getApplicationName(), serviceType, update.getTargetApplicationName(),
+                        registry.findServiceType(update.getTargetServiceType()), update.getHost(), update.getElapsed(), update.isError(), update.getCount());
+                break;
+            case RESPONSE_TIME:
+                mapResponseTimeDao.received(update.getApplicationName(), serviceType, update.getAgentId(), update.getElapsed(), update.isError(), update.getCount());
+                break;
+            default:
+                logger.warn("Unknown update type. {}", update);
+        }
+    }
+
+    public long getForwardedCount() {
+        return forwardedCount.get();
+    }
+
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.get();
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    private static class PendingBatch {
+        private final long sequence;
+        private final List<StatisticsUpdate> updates;
+        // accessed by the flushing thread only, a batch is owned by one flush at a time
+        private int attempts;
+
+        private PendingBatch(long sequence, List<StatisticsUpdate> updates) {
+            this.sequence = sequence;
+            this.updates = updates;
+        }
+    }
+
+    // guarded by its own monitor while the batch is applied
+    private static class BatchProgress {
+        private int appliedCount;
+        private boolean completed;
+    }
+
+    // progress of the batches received recently, oldest first
+    private static class AppliedBatches {
+
+        private final Map<String, BatchProgress> batches;
+
+        private AppliedBatches(final int maxSize) {
+            this.batches = new LinkedHashMap<String, BatchProgress>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BatchProgress> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private synchronized BatchProgress get(String senderId, long sequence) {
+            final String key = key(senderId, sequence);
+            BatchProgress progress = batches.get(key);
+            if (progress == null) {
+                progress = new BatchProgress();
+                batches.put(key, progress);
+            }
+            return progress;
+        }
+
+        private String key(String senderId, long sequence) {
+            return senderId + '#' + sequence;
+        }
+    }
+
+    private static class ForwardBuffer {
+
+        private Map<StatisticsUpdate, StatisticsUpdate> updates = new HashMap<>();
+        private List<PendingBatch> retries = new ArrayList<>();
+        private boolean flushRequested;
+
+        /**
+         * @return true if the buffer reached maxBatchSize and no flush has been requested since the last drain
+         */
+        private synchronized boolean add(StatisticsUpdate update, int maxBatchSize) {
+            final StatisticsUpdate before = updates.get(update);
+            if (before != null) {
+                before.addCount(update.getCount());
+                return false;
+            }
+            updates.put(update, update);
+            if (updates.size() < maxBatchSize || flushRequested) {
+                return false;
+            }
+            flushRequested = true;
+            return true;
+        }
+
+        private synchronized void retry(PendingBatch batch) {
+            retries.add(batch);
+        }
+
+        private synchronized List<PendingBatch> drainRetries() {
+            final List<PendingBatch> drained = this.retries;
+            this.retries = new ArrayList<>();
+            return drained;
+        }
+
+        private synchronized List<StatisticsUpdate> drain() {
+            flushRequested = false;
+            if (updates.isEmpty()) {
+                return Collections.emptyList();
+            }
+            final List<StatisticsUpdate> drained = new ArrayList<>(updates.values());
+            updates = new HashMap<>();
+            return drained;
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.statistics;
+
+import java.util.Objects;
+
+/**
+ * A map statistics update forwarded to the collector owning its row.
+ * <p>
+ * Updates with the same row, column and response histogram slot are merged by adding their counts,
+ * {@code elapsed} keeps the value of the first update since every elapsed time of the slot is recorded to the same column.
+ * <pre>
+ * CALLER        : applicationName=caller, agentId=caller agent, targetApplicationName=callee, host=callee host
+ * CALLEE        : applicationName=callee, targetApplicationName=caller, host=caller host
+ * RESPONSE_TIME : applicationName, agentId
+ * </pre>
+ */
+public class StatisticsUpdate {
+
+    public enum Type {
+        CALLER((byte) 1),
+        CALLEE((byte) 2),
+        RESPONSE_TIME((byte) 3);
+
+        private final byte code;
+
+        Type(byte code) {
+            this.code = code;
+        }
+
+        public byte getCode() {
+            return code;
+        }
+
+        public static Type valueOf(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown type code:" + code);
+        }
+    }
+
+    private final Type type;
+    private final long rowTimeSlot;
+    private final String applicationName;
+    private final short serviceType;
+    private final String agentId;
+    private final String targetApplicationName;
+    private final short targetServiceType;
+    private final String host;
+    private final short histogramSlot;
+
+    private final int elapsed;
+    private final boolean error;
+    private long count;
+
+    public StatisticsUpdate(Type type, long rowTimeSlot, String applicationName, short serviceType, String agentId,
+                            String targetApplicationName, short targetServiceType, String host,
+                            short histogramSlot, int elapsed, boolean error, long count) {
+        this.type = Objects.requireNonNull(type, "type must not be null");
+        this.rowTimeSlot = rowTimeSlot;
+        this.applicationName = Objects.requireNonNull(applicationName, "applicationName must not be null");
+        this.serviceType = serviceType;
+        this.agentId = agentId;
+        this.targetApplicationName = targetApplicationName;
+        this.targetServiceType = targetServiceType;
+        this.host = host;
+        this.histogramSlot = histogramSlot;
+        this.elapsed = elapsed;
+        this.error = error;
+        this.count = count;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getRowTimeSlot() {
+        return rowTimeSlot;
+    }
+
+    public String getApplicationName() {
+        return applicationName;
+    }
+
+    public short getServiceType() {
+        return serviceType;
+    }
+
+    public String getAgentId() {
+        return agentId;
+    }
+
+    public String getTargetApplicationName() {
+        return targetApplicationName;
+    }
+
+    public short getTargetServiceType() {
+        return targetServiceType;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public short getHistogramSlot() {
+        return histogramSlot;
+    }
+
+    public int getElapsed() {
+        return elapsed;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    void addCount(long count) {
+        this.count += count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        StatisticsUpdate that = (StatisticsUpdate) o;
+
+        if (rowTimeSlot != that.rowTimeSlot) return false;
+        if (serviceType != that.serviceType) return false;
+        if (targetServiceType != that.targetServiceType) return false;
+        if (histogramSlot != that.histogramSlot) return false;
+        if (type != that.type) return false;
+        if (!applicationName.equals(that.applicationName)) return false;
+        if (!Objects.equals(agentId, that.agentId)) return false;
+        if (!Objects.equals(targetApplicationName, that.targetApplicationName)) return false;
+        return Objects.equals(host, that.host);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type.hashCode();
+        result = 31 * result + (int) (rowTimeSlot ^ (rowTimeSlot >>> 32));
+        result = 31 * result + applicationName.hashCode();
+        result = 31 * result + (int) serviceType;
+        result = 31 * result + (agentId != null ? agentId.hashCode() : 0);
+        result = 31 * result + (targetApplicationName != null ? targetApplicationName.hashCode() : 0);
+        result = 31 * result + (int) targetServiceType;
+        result = 31 * result + (host != null ? host.hashCode() : 0);
+        result = 31 * result + (int) histogramSlot;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticsUpdate{" +
+                "type=" + type +
+                ", rowTimeSlot=" + rowTimeSlot +
+                ", applicationName='" + applicationName + '\'' +
+                ", serviceType=" + serviceType +
+                ", agentId='" + agentId + '\'' +
+                ", targetApplicationName='" + targetApplicationName + '\'' +
+                ", targetServiceType=" + targetServiceType +
+                ", host='" + host + '\'' +
+                ", histogramSlot=" + histogramSlot +
+                ", elapsed=" + elapsed +
+                ", error=" + error +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.statistics;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Payloads of a batch of forwarded statistics updates and of its acknowledgement.
+ * <pre>
+ * batch  : magic(short) version(byte) kind=BATCH(byte) senderId batchSequence(vlong) count(vint) update[count]
+ * ack    : magic(short) version(byte) kind=ACK(byte) batchSequence(vlong)
+ * update : type(byte) rowTimeSlot(vlong) applicationName serviceType(short) agentId
+ *          targetApplicationName targetServiceType(short) host histogramSlot(short) elapsed(svint) error(boolean) count(vlong)
+ * </pre>
+ * strings are prefixed strings, which may be null.
+ */
+public final class StatisticsUpdateCodec {
+
+    static final short MAGIC = (short) 0xCAFE;
+    static final byte VERSION = 2;
+    static final byte KIND_BATCH = 1;
+    static final byte KIND_ACK = 2;
+
+    private StatisticsUpdateCodec() {
+    }
+
+    public static byte[] encode(String senderId, long batchSequence, Collection<StatisticsUpdate> updates) {
+        Objects.requireNonNull(senderId, "senderId must not be null");
+        Objects.requireNonNull(updates, "updates must not be null");
+
+        final Buffer buffer = new AutomaticBuffer(64 * updates.size() + 64);
+        buffer.putShort(MAGIC);
+        buffer.putByte(VERSION);
+        buffer.putByte(KIND_BATCH);
+        buffer.putPrefixedString(senderId);
+        buffer.putVLong(batchSequence);
+        buffer.putVInt(updates.size());
+        for (StatisticsUpdate update : updates) {
+            buffer.putByte(update.getType().getCode());
+            buffer.putVLong(update.getRowTimeSlot());
+            buffer.putPrefixedString(update.getApplicationName());
+            buffer.putShort(update.getServiceType());
+            buffer.putPrefixedString(update.getAgentId());
+            buffer.putPrefixedString(update.getTargetApplicationName());
+            buffer.putShort(update.getTargetServiceType());
+            buffer.putPrefixedString(update.getHost());
+            buffer.putShort(update.getHistogramSlot());
+            buffer.putSVInt(update.getElapsed());
+            buffer.putBoolean(update.isError());
+            buffer.putVLong(update.getCount());
+        }
+        return buffer.getBuffer();
+    }
+
+    /**
+     * @return true if the payload was encoded by this codec
+     */
+    public static boolean isStatisticsPayload(byte[] payload) {
+        if (payload == null || payload.length < 3) {
+            return false;
+        }
+        final short magic = (short) (((payload[0] & 0xff) << 8) | (payload[1] & 0xff));
+        return magic == MAGIC;
+    }
+
+    public static StatisticsBatch decode(byte[] payload) {
+        final Buffer buffer = readHeader(payload, KIND_BATCH);
+        final String senderId = buffer.readPrefixedString();
+        final long batchSequence = buffer.readVLong();
+        final int count = buffer.readVInt();
+        final List<StatisticsUpdate> updates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final StatisticsUpdate.Type type = StatisticsUpdate.Type.valueOf(buffer.readByte());
+            final long rowTimeSlot = buffer.readVLong();
+            final String applicationName = buffer.readPrefixedString();
+            final short serviceType = buffer.readShort();
+            final String agentId = buffer.readPrefixedString();
+            final String targetApplicationName = buffer.readPrefixedString();
+            final short targetServiceType = buffer.readShort();
+            final String host = buffer.readPrefixedString();
+            final short histogramSlot = buffer.readShort();
+            final int elapsed = buffer.readSVInt();
+            final boolean error = buffer.readBoolean();
+            final long updateCount = buffer.readVLong();
+            updates.add(new StatisticsUpdate(type, rowTimeSlot, applicationName, serviceType, agentId,
+                    targetApplicationName, targetServiceType, host, histogramSlot, elapsed, error, updateCount));
+        }
+        return new StatisticsBatch(senderId, batchSequence, updates);
+    }
+
+    public static byte[] encodeAck(long batchSequence) {
+        final Buffer buffer = new AutomaticBuffer(16);
+        buffer.putShort(MAGIC);
+        buffer.putByte(VERSION);
+        buffer.putByte(KIND_ACK);
+        buffer.putVLong(batchSequence);
+        return buffer.getBuffer();
+    }
+
+    /**
+     * @return sequence of the acknowledged batch
+     */
+    public static long decodeAck(byte[] payload) {
+        final Buffer buffer = readHeader(payload, KIND_ACK);
+        return buffer.readVLong();
+    }
+
+    private static Buffer readHeader(byte[] payload, byte expectedKind) {
+        if (!isStatisticsPayload(payload)) {
+            throw new IllegalArgumentException("not a statistics payload");
+        }
+        final Buffer buffer = new FixedBuffer(payload);
+        buffer.readShort();
+        final byte version = buffer.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported version:" + version);
+        }
+        final byte kind = buffer.readByte();
+        if (kind != expectedKind) {
+            throw new IllegalArgumentException("Unexpected kind:" + kind);
+        }
+        return buffer;
+    }
+}
@@ -23,14 +23,22 @@ import com.navercorp.pinpoint.collector.cluster.connection.CollectorClusterConne
 import com.navercorp.pinpoint.collector.cluster.connection.CollectorClusterConnectionManager;
 import com.navercorp.pinpoint.collector.cluster.connection.CollectorClusterConnectionRepository;
 import com.navercorp.pinpoint.collector.cluster.connection.CollectorClusterConnector;
+import com.navercorp.pinpoint.collector.cluster.statistics.StatisticsClusterConnectionManager;
+import com.navercorp.pinpoint.collector.cluster.statistics.StatisticsRouteMessageListener;
+import com.navercorp.pinpoint.collector.cluster.statistics.StatisticsRouter;
 import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.util.Address;
 import com.navercorp.pinpoint.collector.util.CollectorUtils;
+import com.navercorp.pinpoint.collector.util.DefaultAddress;
+import com.navercorp.pinpoint.common.server.cluster.zookeeper.CreateNodeMessage;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.CuratorZookeeperClient;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.ZookeeperClient;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.ZookeeperConstants;
 import com.navercorp.pinpoint.common.server.cluster.zookeeper.ZookeeperEventWatcher;
 import com.navercorp.pinpoint.common.server.util.concurrent.CommonState;
 import com.navercorp.pinpoint.common.server.util.concurrent.CommonStateContext;
+import com.navercorp.pinpoint.common.util.NetUtils;
+import com.navercorp.pinpoint.rpc.stream.ServerStreamChannelMessageHandler;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.zookeeper.KeeperException;
@@ -67,6 +75,11 @@ public class ZookeeperClusterService extends AbstractClusterService {
     // ProfilerClusterManager detects/manages profiler -> collector connections, and saves their information in Zookeeper.
     private ZookeeperProfilerClusterManager profilerClusterManager;
 
+    // StatisticsClusterManager checks Zookeeper for the collectors routing map statistics, and manages collector -> collector connections.
+    private StatisticsRouter statisticsRouter;
+    private Address statisticsRoutingAddress;
+    private ZookeeperClusterManager statisticsClusterManager;
+
     public ZookeeperClusterService(CollectorConfiguration config, ClusterPointRouter clusterPointRouter) {
         super(config, clusterPointRouter);
 
@@ -86,6 +99,10 @@ public class ZookeeperClusterService extends AbstractClusterService {
 
     }
 
+    public void setStatisticsRouter(StatisticsRouter statisticsRouter) {
+        this.statisticsRouter = statisticsRouter;
+    }
+
     @PostConstruct
     @Override
     public void setUp() throws KeeperException, IOException, InterruptedException {
@@ -109,6 +126,11 @@ public class ZookeeperClusterService extends AbstractClusterService {
                     this.webClusterManager = new ZookeeperClusterManager(client, ZookeeperConstants.PINPOINT_WEB_CLUSTER_PATH, clusterConnectionManager);
                     this.webClusterManager.start();
 
+                    this.statisticsClusterManager = createStatisticsClusterManager();
+                    if (this.statisticsClusterManager != null) {
+                        this.statisticsClusterManager.start();
+                    }
+
                     this.serviceState.changeStateStarted();
                     logger.info("{} initialization completed.", this.getClass().getSimpleName());
 
@@ -157,6 +179,10 @@ public class ZookeeperClusterService extends AbstractClusterService {
             webClusterManager.stop();
         }
 
+        if (this.statisticsClusterManager != null) {
+            statisticsClusterManager.stop();
+        }
+
         if (client != null) {
             client.close();
         }
@@ -174,6 +200,46 @@ public class ZookeeperClusterService extends AbstractClusterService {
         return config.isClusterEnable();
     }
 
+    private ZookeeperClusterManager createStatisticsClusterManager() {
+        if (!config.isStatisticsRoutingEnable()) {
+            return null;
+        }
+        if (statisticsRouter == null) {
+            logger.warn("statistics routing disabled. statisticsRouter not set.");
+            return null;
+        }
+        final int listenPort = config.getStatisticsRoutingListenPort();
+        if (listenPort <= 0) {
+            logger.warn("statistics routing disabled. invalid listen port:{}", listenPort);
+            return null;
+        }
+
+        final String listenIp = StringUtils.defaultIfEmpty(config.getStatisticsRoutingListenIp(), "0.0.0.0");
+        // other collectors connect to the registered address, so a wildcard address is replaced by the representative ip
+        final String registerIp = "0.0.0.0".equals(listenIp) ? NetUtils.getLocalV4Ip() : listenIp;
+        this.statisticsRoutingAddress = new DefaultAddress(registerIp, listenPort);
+
+        final StatisticsRouteMessageListener messageListener = new StatisticsRouteMessageListener(statisticsRouter);
+        final CollectorClusterConnectionFactory connectionFactory = new CollectorClusterConnectionFactory(serverIdentifier, messageListener, ServerStreamChannelMessageHandler.DISABLED_INSTANCE);
+        final CollectorClusterConnector connector = connectionFactory.createConnector();
+        final CollectorClusterAcceptor acceptor = connectionFactory.createAcceptor(new InetSocketAddress(listenIp, listenPort), new CollectorClusterConnectionRepository());
+
+        final StatisticsClusterConnectionManager connectionManager = new StatisticsClusterConnectionManager(statisticsRoutingAddress, connector, acceptor, statisticsRouter);
+        logger.info("statistics routing enabled. address:{}", statisticsRoutingAddress);
+        return new ZookeeperClusterManager(client, ZookeeperConstants.PINPOINT_COLLECTOR_STATISTICS_CLUSTER_PATH, connectionManager);
+    }
+
+    private void registerStatisticsRoutingAddress() {
+        final String nodeName = statisticsRoutingAddress.getHost() + ":" + statisticsRoutingAddress.getPort();
+        final String nodePath = ZookeeperConstants.PINPOINT_COLLECTOR_STATISTICS_CLUSTER_PATH + ZookeeperConstants.PATH_SEPARATOR + nodeName;
+        try {
+            client.createOrSetNode(new CreateNodeMessage(nodePath, new byte[0], true));
+            logger.info("statistics routing address registered. path:{}", nodePath);
+        } catch (Exception e) {
+            logger.warn("Failed to register statistics routing address. path:{}. Caused:{}", nodePath, e.getMessage(), e);
+        }
+    }
+
     public ZookeeperProfilerClusterManager getProfilerClusterManager() {
         return profilerClusterManager;
     }
@@ -197,6 +263,8 @@ public class ZookeeperClusterService extends AbstractClusterService {
 
                     if (ZookeeperConstants.PINPOINT_WEB_CLUSTER_PATH.equals(path)) {
                         webClusterManager.handleAndRegisterWatcher(path);
+                    } else if (statisticsClusterManager != null && ZookeeperConstants.PINPOINT_COLLECTOR_STATISTICS_CLUSTER_PATH.equals(path)) {
+                        statisticsClusterManager.handleAndRegisterWatcher(path);
                     } else {
                         logger.warn("Unknown Path ChildrenChanged {}.", path);
                     }
@@ -209,6 +277,11 @@ public class ZookeeperClusterService extends AbstractClusterService {
             if (serviceState.isStarted()) {
                 profilerClusterManager.initZookeeperClusterData();
                 webClusterManager.handleAndRegisterWatcher(ZookeeperConstants.PINPOINT_WEB_CLUSTER_PATH);
+                if (statisticsClusterManager != null) {
+                    // the ephemeral node is gone after a session expiration
+                    registerStatisticsRoutingAddress();
+                    statisticsClusterManager.handleAndRegisterWatcher(ZookeeperConstants.PINPOINT_COLLECTOR_STATISTICS_CLUSTER_PATH);
+                }
                 return true;
             } else {
                 return false;
@@ -54,6 +54,12 @@ public class CollectorConfiguration implements InitializingBean {
     private int agentEventWorkerThreadSize;
     private int agentEventWorkerQueueSize;
 
+    private int spanEventStatisticsWorkerThreadSize;
+    private int spanEventStatisticsWorkerQueueSize;
+    private int spanEventStatisticsSplitSize;
+
+    private boolean applicationScatterEnable;
+
     private List<String> l4IpList = Collections.emptyList();
 
     private boolean clusterEnable;
@@ -63,6 +69,10 @@ public class CollectorConfiguration implements InitializingBean {
     private String clusterListenIp;
     private int clusterListenPort;
 
+    private boolean statisticsRoutingEnable;
+    private String statisticsRoutingListenIp;
+    private int statisticsRoutingListenPort;
+
     public int getAgentEventWorkerThreadSize() {
         return this.agentEventWorkerThreadSize;
     }
@@ -79,6 +89,38 @@ public class CollectorConfiguration implements InitializingBean {
         this.agentEventWorkerQueueSize = agentEventWorkerQueueSize;
     }
 
+    public int getSpanEventStatisticsWorkerThreadSize() {
+        return spanEventStatisticsWorkerThreadSize;
+    }
+
+    public void setSpanEventStatisticsWorkerThreadSize(int spanEventStatisticsWorkerThreadSize) {
+        this.spanEventStatisticsWorkerThreadSize = spanEventStatisticsWorkerThreadSize;
+    }
+
+    public int getSpanEventStatisticsWorkerQueueSize() {
+        return spanEventStatisticsWorkerQueueSize;
+    }
+
+    public void setSpanEventStatisticsWorkerQueueSize(int spanEventStatisticsWorkerQueueSize) {
+        this.spanEventStatisticsWorkerQueueSize = spanEventStatisticsWorkerQueueSize;
+    }
+
+    public int getSpanEventStatisticsSplitSize() {
+        return spanEventStatisticsSplitSize;
+    }
+
+    public void setSpanEventStatisticsSplitSize(int spanEventStatisticsSplitSize) {
+        this.spanEventStatisticsSplitSize = spanEventStatisticsSplitSize;
+    }
+
+    public boolean isApplicationScatterEnable() {
+        return applicationScatterEnable;
+    }
+
+    public void setApplicationScatterEnable(boolean applicationScatterEnable) {
+        this.applicationScatterEnable = applicationScatterEnable;
+    }
+
     public List<String> getL4IpList() {
         return l4IpList;
     }
@@ -129,6 +171,30 @@ public class CollectorConfiguration implements InitializingBean {
         this.clusterListenPort = clusterListenPort;
     }
 
+    public boolean isStatisticsRoutingEnable() {
+        return statisticsRoutingEnable;
+    }
+
+    public void setStatisticsRoutingEnable(boolean statisticsRoutingEnable) {
+        this.statisticsRoutingEnable = statisticsRoutingEnable;
+    }
+
+    public String getStatisticsRoutingListenIp() {
+        return statisticsRoutingListenIp;
+    }
+
+    public void setStatisticsRoutingListenIp(String statisticsRoutingListenIp) {
+        this.statisticsRoutingListenIp = statisticsRoutingListenIp;
+    }
+
+    public int getStatisticsRoutingListenPort() {
+        return statisticsRoutingListenPort;
+    }
+
+    public void setStatisticsRoutingListenPort(int statisticsRoutingListenPort) {
+        this.statisticsRoutingListenPort = statisticsRoutingListenPort;
+    }
+
     //文件形式读取pinpoint-collector.properties
     public void readConfigFile() {
 
@@ -164,6 +230,12 @@ public class CollectorConfiguration implements InitializingBean {
         this.agentEventWorkerThreadSize = readInt(properties, "collector.agentEventWorker.threadSize", 32);
         this.agentEventWorkerQueueSize = readInt(properties, "collector.agentEventWorker.queueSize", 1024 * 5);
 
+        this.spanEventStatisticsWorkerThreadSize = readInt(properties, "collector.spanEventStatisticsWorker.threadSize", 4);
+        this.spanEventStatisticsWorkerQueueSize = readInt(properties, "collector.spanEventStatisticsWorker.queueSize", 1024);
+        this.spanEventStatisticsSplitSize = readInt(properties, "collector.spanEventStatistics.splitSize", 1000);
+
+        this.applicationScatterEnable = readBoolean(properties, "collector.applicationScatter.enable");
+
         String[] l4Ips = StringUtils.split(readString(properties, "collector.l4.ip", null), ",");
         if (l4Ips == null) {
             this.l4IpList = Collections.emptyList();
@@ -182,6 +254,10 @@ public class CollectorConfiguration implements InitializingBean {
 
         this.clusterListenIp = readString(properties, "cluster.listen.ip", "");
         this.clusterListenPort = readInt(properties, "cluster.listen.port", -1);
+
+        this.statisticsRoutingEnable = readBoolean(properties, "cluster.statistics.routing.enable");
+        this.statisticsRoutingListenIp = readString(properties, "cluster.statistics.routing.listen.ip", DEFAULT_LISTEN_IP);
+        this.statisticsRoutingListenPort = readInt(properties, "cluster.statistics.routing.listen.port", -1);
     }
 
     protected static String readString(Properties properties, String propertyName, String defaultValue) {
@@ -228,12 +304,19 @@ public class CollectorConfiguration implements InitializingBean {
         final StringBuilder sb = new StringBuilder("CollectorConfiguration{");
         sb.append("agentEventWorkerThreadSize=").append(agentEventWorkerThreadSize);
         sb.append(", agentEventWorkerQueueSize=").append(agentEventWorkerQueueSize);
+        sb.append(", spanEventStatisticsWorkerThreadSize=").append(spanEventStatisticsWorkerThreadSize);
+        sb.append(", spanEventStatisticsWorkerQueueSize=").append(spanEventStatisticsWorkerQueueSize);
+        sb.append(", spanEventStatisticsSplitSize=").append(spanEventStatisticsSplitSize);
+        sb.append(", applicationScatterEnable=").append(applicationScatterEnable);
         sb.append(", l4IpList=").append(l4IpList);
         sb.append(", clusterEnable=").append(clusterEnable);
         sb.append(", clusterAddress='").append(clusterAddress).append('\'');
         sb.append(", clusterSessionTimeout=").append(clusterSessionTimeout);
         sb.append(", clusterListenIp='").append(clusterListenIp).append('\'');
         sb.append(", clusterListenPort=").append(clusterListenPort);
+        sb.append(", statisticsRoutingEnable=").append(statisticsRoutingEnable);
+        sb.append(", statisticsRoutingListenIp='").append(statisticsRoutingListenIp).append('\'');
+        sb.append(", statisticsRoutingListenPort=").append(statisticsRoutingListenPort);
         sb.append('}');
         return sb.toString();
     }
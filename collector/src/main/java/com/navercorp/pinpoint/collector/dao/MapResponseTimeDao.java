@@ -23,4 +23,9 @@ import com.navercorp.pinpoint.common.trace.ServiceType;
  */
 public interface MapResponseTimeDao extends CachedStatisticsDao {
     void received(String applicationName, ServiceType serviceType, String agentId, int elapsed, boolean isError);
+
+    /**
+     * records {@code count} responses of the same response histogram slot at once
+     */
+    void received(String applicationName, ServiceType serviceType, String agentId, int elapsed, boolean isError, long count);
 }
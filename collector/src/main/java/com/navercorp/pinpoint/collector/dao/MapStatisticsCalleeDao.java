@@ -25,4 +25,9 @@ import com.navercorp.pinpoint.common.trace.ServiceType;
  */
 public interface MapStatisticsCalleeDao extends CachedStatisticsDao {
     void update(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError);
+
+    /**
+     * records {@code count} calls of the same response histogram slot at once
+     */
+    void update(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError, long count);
 }
@@ -25,4 +25,9 @@ import com.navercorp.pinpoint.common.trace.ServiceType;
  */
 public interface MapStatisticsCallerDao extends CachedStatisticsDao {
     void update(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError);
+
+    /**
+     * records {@code count} calls of the same response histogram slot at once
+     */
+    void update(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError, long count);
 }
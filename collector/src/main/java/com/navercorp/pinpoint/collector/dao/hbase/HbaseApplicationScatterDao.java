@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import com.navercorp.pinpoint.collector.dao.ApplicationScatterDao;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.BulkIncrementer;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.ColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.RowKey;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.ScatterColumnName;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.ScatterRowKey;
+import com.navercorp.pinpoint.common.hbase.HbaseColumnFamily;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.TableDescriptor;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.server.util.ApplicationScatterUtils;
+
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Increment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the dots of the scatter chart per minute, x bucket, log scaled y bucket and error,
+ * so that a wide scatter chart is drawn without scanning every dot in ApplicationTraceIndex.
+ */
+@Repository
+public class HbaseApplicationScatterDao implements ApplicationScatterDao {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private HbaseOperations2 hbaseTemplate;
+
+    @Autowired
+    private AcceptedTimeService acceptedTimeService;
+
+    @Autowired
+    @Qualifier("scatterBulkIncrementer")
+    private BulkIncrementer bulkIncrementer;
+
+    @Autowired
+    @Qualifier("statisticsFlushExecutor")
+    private TaskExecutor flushExecutor;
+
+    @Autowired
+    @Qualifier("applicationScatterRowKeyDistributor")
+    private RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
+
+    @Autowired
+    private TableDescriptor<HbaseColumnFamily.ApplicationScatterStatistics> descriptor;
+
+    @Override
+    public void insert(SpanBo span) {
+        if (span == null) {
+            throw new NullPointerException("span must not be null");
+        }
+
+        // same x coordinate as ApplicationTraceIndex
+        final long acceptedTime = acceptedTimeService.getAcceptedTime();
+        final long rowTimeSlot = ApplicationScatterUtils.getTimeSlot(acceptedTime);
+        final RowKey rowKey = new ScatterRowKey(span.getApplicationId(), rowTimeSlot);
+
+        final int xBucket = ApplicationScatterUtils.getXBucket(acceptedTime);
+        final int yBucket = ApplicationScatterUtils.getYBucket(span.getElapsed());
+        final ColumnName columnName = new ScatterColumnName(xBucket, yBucket, span.getErrCode() != 0);
+
+        final TableName applicationScatterTableName = descriptor.getTableName();
+        final boolean flushRequired = bulkIncrementer.increment(applicationScatterTableName, rowKey, columnName);
+        if (flushRequired) {
+            // too many pending cells, flush on the flush executor instead of waiting for the next scheduled flush
+            requestFlush();
+        }
+    }
+
+    @Override
+    public void flushAll() {
+        Map<TableName, List<Increment>> incrementMap = bulkIncrementer.getIncrements(rowKeyDistributorByHashPrefix);
+        final long startTime = System.currentTimeMillis();
+        for (Map.Entry<TableName, List<Increment>> e : incrementMap.entrySet()) {
+            TableName tableName = e.getKey();
+            List<Increment> increments = e.getValue();
+            if (logger.isDebugEnabled()) {
+                logger.debug("flush {} to [{}] Increment:{}", this.getClass().getSimpleName(), tableName.getNameAsString(), increments.size());
+            }
+            hbaseTemplate.increment(tableName, increments);
+        }
+        bulkIncrementer.recordWriteLatency(System.currentTimeMillis() - startTime);
+    }
+
+    private void requestFlush() {
+        try {
+            flushExecutor.execute(this::earlyFlush);
+        } catch (TaskRejectedException e) {
+            // the pending cells are drained by the next scheduled flush
+            logger.warn("early flush rejected. Caused:{}", e.getMessage());
+        }
+    }
+
+    private void earlyFlush() {
+        try {
+            flushAll();
+        } catch (Exception e) {
+            logger.warn("early flush failed. Caused:{}", e.getMessage(), e);
+        }
+    }
+}
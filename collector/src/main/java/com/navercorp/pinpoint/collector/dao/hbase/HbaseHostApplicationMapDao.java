@@ -17,7 +17,6 @@
 package com.navercorp.pinpoint.collector.dao.hbase;
 
 import com.navercorp.pinpoint.collector.dao.HostApplicationMapDao;
-import com.navercorp.pinpoint.collector.util.AtomicLongUpdateMap;
 import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
 import com.navercorp.pinpoint.common.buffer.Buffer;
 import com.navercorp.pinpoint.common.hbase.HbaseColumnFamily;
@@ -30,14 +29,24 @@ import com.navercorp.pinpoint.common.util.TimeUtils;
 
 import com.sematext.hbase.wd.AbstractRowKeyDistributor;
 import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 /**
- * 
+ * Mappings are written behind: distinct mappings of a time slot are collected in memory
+ * and written as a single batch once the slot is over. see {@link #flushAll()}
+ *
  * @author netspider
  * @author emeroad
  */
@@ -59,8 +68,7 @@ public class HbaseHostApplicationMapDao implements HostApplicationMapDao {
     @Qualifier("acceptApplicationRowKeyDistributor")
     private AbstractRowKeyDistributor rowKeyDistributor;
 
-    // FIXME should modify to save a cachekey at each 30~50 seconds instead of saving at each time
-    private final AtomicLongUpdateMap<CacheKey> updater = new AtomicLongUpdateMap<>();
+    private final HostApplicationMapBuffer buffer = new HostApplicationMapBuffer();
 
     @Autowired
     private TableDescriptor<HbaseColumnFamily.HostStatMap> descriptor;
@@ -77,13 +85,28 @@ public class HbaseHostApplicationMapDao implements HostApplicationMapDao {
 
         final long statisticsRowSlot = getSlotTime();
 
-        final CacheKey cacheKey = new CacheKey(host, bindApplicationName, bindServiceType, parentApplicationName, parentServiceType);
-        final boolean needUpdate = updater.update(cacheKey, statisticsRowSlot);
-        if (needUpdate) {
-            insertHostVer2(host, bindApplicationName, bindServiceType, statisticsRowSlot, parentApplicationName, parentServiceType);
-        }
+        buffer.add(statisticsRowSlot, host, bindApplicationName, bindServiceType, parentApplicationName, parentServiceType);
+    }
+
+    /**
+     * writes the mappings of every slot before the current one
+     */
+    public void flushAll() {
+        // called by the scheduler thread, which has no accepted time
+        flush(timeSlot.getTimeSlot(System.currentTimeMillis()));
     }
 
+    @PreDestroy
+    public void destroy() {
+        // the current slot is not over yet, but its mappings would be lost otherwise
+        flush(Long.MAX_VALUE);
+    }
+
+    void flush(long currentSlot) {
+        for (Long slot : buffer.getSlotsBefore(currentSlot)) {
+            flushSlot(slot);
+        }
+    }
 
     private long getSlotTime() {
         final long acceptedTime = acceptedTimeService.getAcceptedTime();
@@ -92,25 +115,38 @@ public class HbaseHostApplicationMapDao implements HostApplicationMapDao {
 
 
 
-    private void insertHostVer2(String host, String bindApplicationName, short bindServiceType, long statisticsRowSlot, String parentApplicationName, short parentServiceType) {
+    private void flushSlot(final long statisticsRowSlot) {
+        final byte[] columnFamily = descriptor.getColumnFamilyName();
+        // one put per parent application row of the slot
+        final Map<ParentKey, Put> puts = new HashMap<>();
+        final int count = buffer.drain(statisticsRowSlot, (host, bindApplicationName, bindServiceType, parentApplicationName, parentServiceType) -> {
+            final ParentKey parentKey = new ParentKey(parentApplicationName, parentServiceType);
+            Put put = puts.get(parentKey);
+            if (put == null) {
+                // TODO should consider to add bellow codes again later.
+                //String parentAgentId = null;
+                //final byte[] rowKey = createRowKey(parentApplicationName, parentServiceType, statisticsRowSlot, parentAgentId);
+                final byte[] rowKey = createRowKey(parentApplicationName, parentServiceType, statisticsRowSlot, null);
+                put = new Put(rowKey);
+                puts.put(parentKey, put);
+            }
+            final byte[] columnName = createColumnName(host, bindApplicationName, bindServiceType);
+            put.addColumn(columnFamily, columnName, null);
+        });
+        if (puts.isEmpty()) {
+            return;
+        }
         if (logger.isDebugEnabled()) {
-            logger.debug("Insert host-application map. host={}, bindApplicationName={}, bindServiceType={}, parentApplicationName={}, parentServiceType={}",
-                    host, bindApplicationName, bindServiceType, parentApplicationName, parentServiceType);
+            logger.debug("Insert host-application map. slot={}, mappings={}, rows={}", statisticsRowSlot, count, puts.size());
         }
 
-        // TODO should consider to add bellow codes again later.
-        //String parentAgentId = null;
-        //final byte[] rowKey = createRowKey(parentApplicationName, parentServiceType, statisticsRowSlot, parentAgentId);
-        final byte[] rowKey = createRowKey(parentApplicationName, parentServiceType, statisticsRowSlot, null);
-
-        byte[] columnName = createColumnName(host, bindApplicationName, bindServiceType);
-
-        TableName hostApplicationMapTableName = descriptor.getTableName();
+        final List<Put> putList = new ArrayList<>(puts.values());
+        final TableName hostApplicationMapTableName = descriptor.getTableName();
         try {
-            hbaseTemplate.put(hostApplicationMapTableName, rowKey, descriptor.getColumnFamilyName(), columnName, null);
+            hbaseTemplate.put(hostApplicationMapTableName, putList);
         } catch (Exception ex) {
             logger.warn("retry one. Caused:{}", ex.getCause(), ex);
-            hbaseTemplate.put(hostApplicationMapTableName, rowKey, descriptor.getColumnFamilyName(), columnName, null);
+            hbaseTemplate.put(hostApplicationMapTableName, putList);
         }
     }
 
@@ -142,26 +178,12 @@ public class HbaseHostApplicationMapDao implements HostApplicationMapDao {
         return rowKeyBuffer.getBuffer();
     }
 
-    private static final class CacheKey {
-        private final String host;
-        private final String applicationName;
-        private final short serviceType;
-
+    private static final class ParentKey {
+        // may be null
         private final String parentApplicationName;
         private final short parentServiceType;
 
-        public CacheKey(String host, String applicationName, short serviceType, String parentApplicationName, short parentServiceType) {
-            if (host == null) {
-                throw new NullPointerException("host must not be null");
-            }
-            if (applicationName == null) {
-                throw new NullPointerException("bindApplicationName must not be null");
-            }
-            this.host = host;
-            this.applicationName = applicationName;
-            this.serviceType = serviceType;
-
-            // may be null for below two parent values.
+        private ParentKey(String parentApplicationName, short parentServiceType) {
             this.parentApplicationName = parentApplicationName;
             this.parentServiceType = parentServiceType;
         }
@@ -171,24 +193,15 @@ public class HbaseHostApplicationMapDao implements HostApplicationMapDao {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
 
-            CacheKey cacheKey = (CacheKey) o;
-
-            if (parentServiceType != cacheKey.parentServiceType) return false;
-            if (serviceType != cacheKey.serviceType) return false;
-            if (!applicationName.equals(cacheKey.applicationName)) return false;
-            if (!host.equals(cacheKey.host)) return false;
-            if (parentApplicationName != null ? !parentApplicationName.equals(cacheKey.parentApplicationName) : cacheKey.parentApplicationName != null)
-                return false;
+            ParentKey parentKey = (ParentKey) o;
 
-            return true;
+            if (parentServiceType != parentKey.parentServiceType) return false;
+            return Objects.equals(parentApplicationName, parentKey.parentApplicationName);
         }
 
         @Override
         public int hashCode() {
-            int result = host.hashCode();
-            result = 31 * result + applicationName.hashCode();
-            result = 31 * result + (int) serviceType;
-            result = 31 * result + (parentApplicationName != null ? parentApplicationName.hashCode() : 0);
+            int result = parentApplicationName != null ? parentApplicationName.hashCode() : 0;
             result = 31 * result + (int) parentServiceType;
             return result;
         }
@@ -37,6 +37,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -68,6 +70,10 @@ public class HbaseMapResponseTimeDao implements MapResponseTimeDao {
     @Qualifier("selfBulkIncrementer")
     private BulkIncrementer bulkIncrementer;
 
+    @Autowired
+    @Qualifier("statisticsFlushExecutor")
+    private TaskExecutor flushExecutor;
+
     @Autowired
     @Qualifier("statisticsSelfRowKeyDistributor")
     private RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
@@ -87,6 +93,11 @@ public class HbaseMapResponseTimeDao implements MapResponseTimeDao {
 
     @Override
     public void received(String applicationName, ServiceType applicationServiceType, String agentId, int elapsed, boolean isError) {
+        received(applicationName, applicationServiceType, agentId, elapsed, isError, 1L);
+    }
+
+    @Override
+    public void received(String applicationName, ServiceType applicationServiceType, String agentId, int elapsed, boolean isError, long count) {
         if (applicationName == null) {
             throw new NullPointerException("applicationName must not be null");
         }
@@ -107,12 +118,16 @@ public class HbaseMapResponseTimeDao implements MapResponseTimeDao {
         final ColumnName selfColumnName = new ResponseColumnName(agentId, slotNumber);
         if (useBulk) {
             TableName mapStatisticsSelfTableName = descriptor.getTableName();
-            bulkIncrementer.increment(mapStatisticsSelfTableName, selfRowKey, selfColumnName);
+            final boolean flushRequired = bulkIncrementer.increment(mapStatisticsSelfTableName, selfRowKey, selfColumnName, count);
+            if (flushRequired) {
+                // too many pending cells, flush on the flush executor instead of waiting for the next scheduled flush
+                requestFlush();
+            }
         } else {
             final byte[] rowKey = getDistributedKey(selfRowKey.getRowKey());
             // column name is the name of caller app.
             byte[] columnName = selfColumnName.getColumnName();
-            increment(rowKey, columnName, 1L);
+            increment(rowKey, columnName, count);
         }
     }
 
@@ -135,6 +150,7 @@ public class HbaseMapResponseTimeDao implements MapResponseTimeDao {
         }
 
         Map<TableName, List<Increment>> incrementMap = bulkIncrementer.getIncrements(rowKeyDistributorByHashPrefix);
+        final long startTime = System.currentTimeMillis();
         for (Map.Entry<TableName, List<Increment>> e : incrementMap.entrySet()) {
             TableName tableName = e.getKey();
             List<Increment> increments = e.getValue();
@@ -143,6 +159,24 @@ public class HbaseMapResponseTimeDao implements MapResponseTimeDao {
             }
             hbaseTemplate.increment(tableName, increments);
         }
+        bulkIncrementer.recordWriteLatency(System.currentTimeMillis() - startTime);
+    }
+
+    private void requestFlush() {
+        try {
+            flushExecutor.execute(this::earlyFlush);
+        } catch (TaskRejectedException e) {
+            // the pending cells are drained by the next scheduled flush
+            logger.warn("early flush rejected. Caused:{}", e.getMessage());
+        }
+    }
+
+    private void earlyFlush() {
+        try {
+            flushAll();
+        } catch (Exception e) {
+            logger.warn("early flush failed. Caused:{}", e.getMessage(), e);
+        }
     }
 
     private byte[] getDistributedKey(byte[] rowKey) {
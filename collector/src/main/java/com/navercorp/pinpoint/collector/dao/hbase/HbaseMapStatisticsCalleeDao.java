@@ -38,6 +38,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -68,6 +70,10 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
     @Qualifier("calleeBulkIncrementer")
     private BulkIncrementer bulkIncrementer;
 
+    @Autowired
+    @Qualifier("statisticsFlushExecutor")
+    private TaskExecutor flushExecutor;
+
     @Autowired
     @Qualifier("statisticsCalleeRowKeyDistributor")
     private RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
@@ -87,6 +93,11 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
 
     @Override
     public void update(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError) {
+        update(calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType, callerHost, elapsed, isError, 1L);
+    }
+
+    @Override
+    public void update(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError, long count) {
         if (callerApplicationName == null) {
             throw new NullPointerException("callerApplicationName must not be null");
         }
@@ -112,13 +123,17 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
 
         if (useBulk) {
             TableName mapStatisticsCallerTableName = descriptor.getTableName();
-            bulkIncrementer.increment(mapStatisticsCallerTableName, calleeRowKey, callerColumnName);
+            final boolean flushRequired = bulkIncrementer.increment(mapStatisticsCallerTableName, calleeRowKey, callerColumnName, count);
+            if (flushRequired) {
+                // too many pending cells, flush on the flush executor instead of waiting for the next scheduled flush
+                requestFlush();
+            }
         } else {
             final byte[] rowKey = getDistributedKey(calleeRowKey.getRowKey());
 
             // column name is the name of caller app.
             byte[] columnName = callerColumnName.getColumnName();
-            increment(rowKey, columnName, 1L);
+            increment(rowKey, columnName, count);
         }
     }
 
@@ -141,6 +156,7 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
 
         Map<TableName, List<Increment>> incrementMap = bulkIncrementer.getIncrements(rowKeyDistributorByHashPrefix);
 
+        final long startTime = System.currentTimeMillis();
         for (Map.Entry<TableName, List<Increment>> e : incrementMap.entrySet()) {
             TableName tableName = e.getKey();
             List<Increment> increments = e.getValue();
@@ -149,9 +165,27 @@ public class HbaseMapStatisticsCalleeDao implements MapStatisticsCalleeDao {
             }
             hbaseTemplate.increment(tableName, increments);
         }
+        bulkIncrementer.recordWriteLatency(System.currentTimeMillis() - startTime);
 
     }
 
+    private void requestFlush() {
+        try {
+            flushExecutor.execute(this::earlyFlush);
+        } catch (TaskRejectedException e) {
+            // the pending cells are drained by the next scheduled flush
+            logger.warn("early flush rejected. Caused:{}", e.getMessage());
+        }
+    }
+
+    private void earlyFlush() {
+        try {
+            flushAll();
+        } catch (Exception e) {
+            logger.warn("early flush failed. Caused:{}", e.getMessage(), e);
+        }
+    }
+
     private byte[] getDistributedKey(byte[] rowKey) {
         return rowKeyDistributorByHashPrefix.getDistributedKey(rowKey);
     }
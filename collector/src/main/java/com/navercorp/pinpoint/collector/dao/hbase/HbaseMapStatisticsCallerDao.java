@@ -38,6 +38,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -68,6 +70,10 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
     @Qualifier("callerBulkIncrementer")
     private BulkIncrementer bulkIncrementer;
 
+    @Autowired
+    @Qualifier("statisticsFlushExecutor")
+    private TaskExecutor flushExecutor;
+
     @Autowired
     @Qualifier("statisticsCallerRowKeyDistributor")
     private RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
@@ -87,6 +93,11 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
 
     @Override
     public void update(String callerApplicationName, ServiceType callerServiceType, String callerAgentid, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError) {
+        update(callerApplicationName, callerServiceType, callerAgentid, calleeApplicationName, calleeServiceType, calleeHost, elapsed, isError, 1L);
+    }
+
+    @Override
+    public void update(String callerApplicationName, ServiceType callerServiceType, String callerAgentid, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError, long count) {
         if (callerApplicationName == null) {
             throw new NullPointerException("callerApplicationName must not be null");
         }
@@ -111,12 +122,16 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
         final ColumnName calleeColumnName = new CalleeColumnName(callerAgentid, calleeServiceType.getCode(), calleeApplicationName, calleeHost, calleeSlotNumber);
         if (useBulk) {
             TableName mapStatisticsCalleeTableName = descriptor.getTableName();
-            bulkIncrementer.increment(mapStatisticsCalleeTableName, callerRowKey, calleeColumnName);
+            final boolean flushRequired = bulkIncrementer.increment(mapStatisticsCalleeTableName, callerRowKey, calleeColumnName, count);
+            if (flushRequired) {
+                // too many pending cells, flush on the flush executor instead of waiting for the next scheduled flush
+                requestFlush();
+            }
         } else {
             final byte[] rowKey = getDistributedKey(callerRowKey.getRowKey());
             // column name is the name of caller app.
             byte[] columnName = calleeColumnName.getColumnName();
-            increment(rowKey, columnName, 1L);
+            increment(rowKey, columnName, count);
         }
     }
 
@@ -139,6 +154,7 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
         // update statistics by rowkey and column for now. need to update it by rowkey later.
         Map<TableName, List<Increment>> incrementMap = bulkIncrementer.getIncrements(rowKeyDistributorByHashPrefix);
 
+        final long startTime = System.currentTimeMillis();
         for (Map.Entry<TableName, List<Increment>> e : incrementMap.entrySet()) {
             TableName tableName = e.getKey();
             List<Increment> increments = e.getValue();
@@ -147,6 +163,24 @@ public class HbaseMapStatisticsCallerDao implements MapStatisticsCallerDao {
             }
             hbaseTemplate.increment(tableName, increments);
         }
+        bulkIncrementer.recordWriteLatency(System.currentTimeMillis() - startTime);
+    }
+
+    private void requestFlush() {
+        try {
+            flushExecutor.execute(this::earlyFlush);
+        } catch (TaskRejectedException e) {
+            // the pending cells are drained by the next scheduled flush
+            logger.warn("early flush rejected. Caused:{}", e.getMessage());
+        }
+    }
+
+    private void earlyFlush() {
+        try {
+            flushAll();
+        } catch (Exception e) {
+            logger.warn("early flush failed. Caused:{}", e.getMessage(), e);
+        }
     }
 
     private byte[] getDistributedKey(byte[] rowKey) {
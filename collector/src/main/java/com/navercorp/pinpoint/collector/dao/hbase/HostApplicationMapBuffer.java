@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects distinct host-application mappings per time slot until the slot is flushed.
+ * <p>
+ * Each slot keeps its mappings in lock-striped open addressing sets of parallel arrays,
+ * so a duplicate mapping is detected without allocating a key object.
+ */
+class HostApplicationMapBuffer {
+
+    static final int DEFAULT_STRIPE_COUNT = 16;
+
+    private final int stripeCount;
+    private final ConcurrentMap<Long, HostApplicationSet[]> slots = new ConcurrentHashMap<>();
+
+    HostApplicationMapBuffer() {
+        this(DEFAULT_STRIPE_COUNT);
+    }
+
+    HostApplicationMapBuffer(int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("stripeCount must be a power of 2. stripeCount:" + stripeCount);
+        }
+        this.stripeCount = stripeCount;
+    }
+
+    /**
+     * @return true if the mapping was not collected yet for the slot
+     */
+    boolean add(long slot, String host, String applicationName, short serviceType, String parentApplicationName, short parentServiceType) {
+        Objects.requireNonNull(host, "host must not be null");
+        Objects.requireNonNull(applicationName, "applicationName must not be null");
+
+        final int hash = hash(host, applicationName, serviceType, parentApplicationName, parentServiceType);
+        while (true) {
+            final HostApplicationSet[] stripes = getStripes(slot);
+            final HostApplicationSet set = stripes[(hash >>> 16) & (stripeCount - 1)];
+            final int result = set.add(hash, host, applicationName, serviceType, parentApplicationName, parentServiceType);
+            if (result != HostApplicationSet.CLOSED) {
+                return result == HostApplicationSet.ADDED;
+            }
+            // the slot was drained concurrently, collect the mapping into a new set of the same slot
+            slots.remove(slot, stripes);
+        }
+    }
+
+    private HostApplicationSet[] getStripes(long slot) {
+        final Long key = slot;
+        final HostApplicationSet[] stripes = slots.get(key);
+        if (stripes != null) {
+            return stripes;
+        }
+        final HostApplicationSet[] newStripes = new HostApplicationSet[stripeCount];
+        for (int i = 0; i < newStripes.length; i++) {
+            newStripes[i] = new HostApplicationSet();
+        }
+        final HostApplicationSet[] before = slots.putIfAbsent(key, newStripes);
+        if (before != null) {
+            return before;
+        }
+        return newStripes;
+    }
+
+    /**
+     * @return slots collected before the given slot, in no particular order
+     */
+    List<Long> getSlotsBefore(long slot) {
+        final List<Long> result = new ArrayList<>();
+        for (Long collectedSlot : slots.keySet()) {
+            if (collectedSlot < slot) {
+                result.add(collectedSlot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the slot and hands every mapping collected for it to the visitor.
+     * Mappings added for the slot afterwards are collected again and drained on the next call.
+     *
+     * @return number of visited mappings
+     */
+    int drain(long slot, HostApplicationVisitor visitor) {
+        Objects.requireNonNull(visitor, "visitor must not be null");
+
+        final HostApplicationSet[] stripes = slots.remove(slot);
+        if (stripes == null) {
+            return 0;
+        }
+        int count = 0;
+        for (HostApplicationSet set : stripes) {
+            count += set.drain(visitor);
+        }
+        return count;
+    }
+
+    int size() {
+        int size = 0;
+        for (HostApplicationSet[] stripes : slots.values()) {
+            for (HostApplicationSet set : stripes) {
+                size += set.size();
+            }
+        }
+        return size;
+    }
+
+    static int hash(String host, String applicationName, short serviceType, String parentApplicationName, short parentServiceType) {
+        int result = host.hashCode();
+        result = 31 * result + applicationName.hashCode();
+        result = 31 * result + serviceType;
+        result = 31 * result + (parentApplicationName != null ? parentApplicationName.hashCode() : 0);
+        result = 31 * result + parentServiceType;
+        // spread the high bits, the stripe index uses the upper half and the table index the lower half
+        return result ^ (result >>> 16);
+    }
+
+    interface HostApplicationVisitor {
+        void visit(String host, String applicationName, short serviceType, String parentApplicationName, short parentServiceType);
+    }
+
+    /**
+     * Open addressing set with linear probing. An empty bucket is marked by a null host.
+     */
+    static final class HostApplicationSet {
+
+        static final int ADDED = 0;
+        static final int DUPLICATED = 1;
+        static final int CLOSED = 2;
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] hashes;
+        private String[] hosts;
+        private String[] applicationNames;
+        private short[] serviceTypes;
+        private String[] parentApplicationNames;
+        private short[] parentServiceTypes;
+
+        private int size;
+        private boolean closed;
+
+        HostApplicationSet() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        private void allocate(int capacity) {
+            this.hashes = new int[capacity];
+            this.hosts = new String[capacity];
+            this.applicationNames = new String[capacity];
+            this.serviceTypes = new short[capacity];
+            this.parentApplicationNames = new String[capacity];
+            this.parentServiceTypes = new short[capacity];
+        }
+
+        synchronized int add(int hash, String host, String applicationName, short serviceType, String parentApplicationName, short parentServiceType) {
+            if (closed) {
+                return CLOSED;
+            }
+            final int mask = hosts.length - 1;
+            int index = hash & mask;
+            while (hosts[index] != null) {
+                if (hashes[index] == hash && serviceTypes[index] == serviceType && parentServiceTypes[index] == parentServiceType
+                        && hosts[index].equals(host) && applicationNames[index].equals(applicationName)
+                        && Objects.equals(parentApplicationNames[index], parentApplicationName)) {
+                    return DUPLICATED;
+                }
+                index = (index + 1) & mask;
+            }
+            set(index, hash, host, applicationName, serviceType, parentApplicationName, parentServiceType);
+            size++;
+            // keep the load factor at or below 0.5 so probe sequences stay short
+            if (size * 2 > hosts.length) {
+                resize();
+            }
+            return ADDED;
+        }
+
+        private void set(int index, int hash, String host, String applicationName, short serviceType, String parentApplicationName, short parentServiceType) {
+            hashes[index] = hash;
+            hosts[index] = host;
+            applicationNames[index] = applicationName;
+            serviceTypes[index] = serviceType;
+            parentApplicationNames[index] = parentApplicationName;
+            parentServiceTypes[index] = parentServiceType;
+        }
+
+        private void resize() {
+            final int[] oldHashes = hashes;
+            final String[] oldHosts = hosts;
+            final String[] oldApplicationNames = applicationNames;
+            final short[] oldServiceTypes = serviceTypes;
+            final String[] oldParentApplicationNames = parentApplicationNames;
+            final short[] oldParentServiceTypes = parentServiceTypes;
+
+            allocate(oldHosts.length * 2);
+            final int mask = hosts.length - 1;
+            for (int i = 0; i < oldHosts.length; i++) {
+                if (oldHosts[i] == null) {
+                    continue;
+                }
+                int index = oldHashes[i] & mask;
+                while (hosts[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                set(index, oldHashes[i], oldHosts[i], oldApplicationNames[i], oldServiceTypes[i], oldParentApplicationNames[i], oldParentServiceTypes[i]);
+            }
+        }
+
+        synchronized int drain(HostApplicationVisitor visitor) {
+            closed = true;
+            for (int i = 0; i < hosts.length; i++) {
+                if (hosts[i] != null) {
+                    visitor.visit(hosts[i], applicationNames[i], serviceTypes[i], parentApplicationNames[i], parentServiceTypes[i]);
+                }
+            }
+            final int drained = size;
+            // release the arrays, a closed set is never used again
+            allocate(0);
+            size = 0;
+            return drained;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+}
@@ -76,6 +76,12 @@ public class TableDescriptorConfig extends TableDescriptors {
         return super.getApplicationStatStatistics();
     }
 
+    @Bean
+    @Override
+    public TableDescriptor<HbaseColumnFamily.ApplicationScatterStatistics> getApplicationScatterStatistics() {
+        return super.getApplicationScatterStatistics();
+    }
+
     @Bean
     @Override
     public TableDescriptor<HbaseColumnFamily.ApplicationTraceIndexTrace> getApplicationTraceIndexTrace() {
@@ -16,36 +16,290 @@
 
 package com.navercorp.pinpoint.collector.dao.hbase.statistics;
 
-import com.google.common.util.concurrent.AtomicLongMap;
-import com.navercorp.pinpoint.collector.util.AtomicLongMapUtils;
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Increment;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Accumulates counter increments until they are flushed to hbase.
+ * <p>
+ * Counters are spread over lock striped shards. Each shard looks up cells with a reusable probe key
+ * so that incrementing an existing cell does not allocate.
+ * {@code maxPendingSize} is only a flush trigger, it does not bound memory.
+ * The increment that reaches it requests an early flush, which the caller runs on another thread.
+ * Increments are never discarded, cells added above the limit until the flush drains them are kept and counted as overflow.
+ *
  * @author HyunGil Jeong
  */
 public class BulkIncrementer {
 
+    public static final int DEFAULT_SHARD_COUNT = 16;
+    public static final int DEFAULT_MAX_PENDING_SIZE = 100000;
+
     private final RowKeyMerge rowKeyMerge;
 
-    private final AtomicLongMap<RowInfo> counter = AtomicLongMap.create();
+    private final Shard[] shards;
+    private final int maxPendingSize;
+
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong earlyFlushCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private volatile long lastDrainLatency;
+    private volatile long lastWriteLatency;
+    private volatile int lastFlushSize;
 
     public BulkIncrementer(RowKeyMerge rowKeyMerge) {
+        this(rowKeyMerge, DEFAULT_SHARD_COUNT, DEFAULT_MAX_PENDING_SIZE);
+    }
+
+    public BulkIncrementer(RowKeyMerge rowKeyMerge, int shardCount, int maxPendingSize) {
         this.rowKeyMerge = Objects.requireNonNull(rowKeyMerge, "rowKeyMerge must not be null");
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be greater than 0");
+        }
+        if (maxPendingSize <= 0) {
+            throw new IllegalArgumentException("maxPendingSize must be greater than 0");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.maxPendingSize = maxPendingSize;
+    }
+
+    /**
+     * @return {@code true} if the pending cells reached {@code maxPendingSize} and the caller should flush early
+     */
+    public boolean increment(TableName tableName, RowKey rowKey, ColumnName columnName) {
+        return increment(tableName, rowKey, columnName, 1L);
+    }
+
+    /**
+     * @return {@code true} if the pending cells reached {@code maxPendingSize} and the caller should flush early
+     */
+    public boolean increment(TableName tableName, RowKey rowKey, ColumnName columnName, long addition) {
+        Objects.requireNonNull(tableName, "tableName must not be null");
+        Objects.requireNonNull(rowKey, "rowKey must not be null");
+        Objects.requireNonNull(columnName, "columnName must not be null");
+
+        final int hash = Cell.hash(tableName, rowKey, columnName);
+        final Shard shard = shards[(hash & Integer.MAX_VALUE) % shards.length];
+        synchronized (shard) {
+            final Cell cell = shard.get(tableName, rowKey, columnName, hash);
+            if (cell != null) {
+                cell.count += addition;
+                return false;
+            }
+            shard.put(new Cell(tableName, rowKey, columnName, hash, addition));
+            final int newPendingSize = pendingSize.incrementAndGet();
+            if (newPendingSize < maxPendingSize) {
+                return false;
+            }
+            if (newPendingSize > maxPendingSize) {
+                overflowCount.incrementAndGet();
+            }
+            return requestFlush();
+        }
     }
 
-    public void increment(TableName tableName, RowKey rowKey, ColumnName columnName) {
-        RowInfo rowInfo = new DefaultRowInfo(tableName, rowKey, columnName);
-        counter.incrementAndGet(rowInfo);
+    private boolean requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            earlyFlushCount.incrementAndGet();
+            return true;
+        }
+        return false;
     }
 
     public Map<TableName, List<Increment>> getIncrements(RowKeyDistributorByHashPrefix rowKeyDistributor) {
-        final Map<RowInfo, Long> snapshot = AtomicLongMapUtils.remove(counter);
-        return rowKeyMerge.createBulkIncrement(snapshot, rowKeyDistributor);
+        final long startTime = System.currentTimeMillis();
+
+        final Map<RowInfo, Long> snapshot = new HashMap<>();
+        for (Shard shard : shards) {
+            final Map<Cell, Cell> cells;
+            synchronized (shard) {
+                cells = shard.drain();
+            }
+            if (cells.isEmpty()) {
+                continue;
+            }
+            pendingSize.addAndGet(-cells.size());
+            for (Cell cell : cells.values()) {
+                snapshot.put(cell, cell.count);
+            }
+        }
+        flushRequested.set(false);
+
+        final Map<TableName, List<Increment>> increments = rowKeyMerge.createBulkIncrement(snapshot, rowKeyDistributor);
+
+        this.lastFlushSize = snapshot.size();
+        this.lastDrainLatency = System.currentTimeMillis() - startTime;
+        this.flushCount.incrementAndGet();
+        return increments;
+    }
+
+    /**
+     * @param writeLatency time in milliseconds taken by the caller to write the increments of the last flush to hbase
+     */
+    public void recordWriteLatency(long writeLatency) {
+        this.lastWriteLatency = writeLatency;
+    }
+
+    public int getPendingSize() {
+        return pendingSize.get();
+    }
+
+    public int getMaxPendingSize() {
+        return maxPendingSize;
+    }
+
+    /**
+     * @return number of cells added while the pending cells were above {@code maxPendingSize}
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    public long getEarlyFlushCount() {
+        return earlyFlushCount.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public int getLastFlushSize() {
+        return lastFlushSize;
+    }
+
+    /**
+     * @return time in milliseconds taken by the last {@link #getIncrements(RowKeyDistributorByHashPrefix)} to drain and merge the pending cells
+     */
+    public long getLastDrainLatency() {
+        return lastDrainLatency;
+    }
+
+    /**
+     * @return time in milliseconds taken to write the increments of the last flush to hbase
+     */
+    public long getLastWriteLatency() {
+        return lastWriteLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkIncrementer{" +
+                "shardCount=" + shards.length +
+                ", maxPendingSize=" + maxPendingSize +
+                ", pendingSize=" + pendingSize +
+                ", overflowCount=" + overflowCount +
+                ", earlyFlushCount=" + earlyFlushCount +
+                ", flushCount=" + flushCount +
+                '}';
+    }
+
+    // guarded by the shard's monitor
+    private static class Shard {
+
+        private final Cell probe = new Cell();
+        private HashMap<Cell, Cell> cells = new HashMap<>();
+
+        private Cell get(TableName tableName, RowKey rowKey, ColumnName columnName, int hash) {
+            probe.set(tableName, rowKey, columnName, hash);
+            try {
+                return cells.get(probe);
+            } finally {
+                probe.set(null, null, null, 0);
+            }
+        }
+
+        private void put(Cell cell) {
+            cells.put(cell, cell);
+        }
+
+        private Map<Cell, Cell> drain() {
+            final HashMap<Cell, Cell> drained = this.cells;
+            if (drained.isEmpty()) {
+                return drained;
+            }
+            // cells repeat across flush intervals, so start with the capacity of the previous interval
+            this.cells = new HashMap<>(drained.size() * 4 / 3 + 1);
+            return drained;
+        }
+    }
+
+    private static class Cell implements RowInfo {
+
+        private TableName tableName;
+        private RowKey rowKey;
+        private ColumnName columnName;
+        private int hash;
+
+        private long count;
+
+        private Cell() {
+        }
+
+        private Cell(TableName tableName, RowKey rowKey, ColumnName columnName, int hash, long count) {
+            set(tableName, rowKey, columnName, hash);
+            this.count = count;
+        }
+
+        private static int hash(TableName tableName, RowKey rowKey, ColumnName columnName) {
+            int result = tableName.hashCode();
+            result = 31 * result + rowKey.hashCode();
+            result = 31 * result + columnName.hashCode();
+            return result ^ (result >>> 16);
+        }
+
+        private void set(TableName tableName, RowKey rowKey, ColumnName columnName, int hash) {
+            this.tableName = tableName;
+            this.rowKey = rowKey;
+            this.columnName = columnName;
+            this.hash = hash;
+        }
+
+        @Override
+        public TableName getTableName() {
+            return tableName;
+        }
+
+        @Override
+        public RowKey getRowKey() {
+            return rowKey;
+        }
+
+        @Override
+        public ColumnName getColumnName() {
+            return columnName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Cell that = (Cell) o;
+
+            if (hash != that.hash) return false;
+            if (!tableName.equals(that.tableName)) return false;
+            if (!rowKey.equals(that.rowKey)) return false;
+            return columnName.equals(that.columnName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
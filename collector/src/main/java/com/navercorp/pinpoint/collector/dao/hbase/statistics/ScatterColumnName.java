@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase.statistics;
+
+import com.navercorp.pinpoint.common.server.util.ApplicationScatterUtils;
+
+public class ScatterColumnName implements ColumnName {
+
+    private final int xBucket;
+    private final int yBucket;
+    private final boolean error;
+
+    private long callCount;
+
+    public ScatterColumnName(int xBucket, int yBucket, boolean error) {
+        this.xBucket = xBucket;
+        this.yBucket = yBucket;
+        this.error = error;
+    }
+
+    @Override
+    public byte[] getColumnName() {
+        return ApplicationScatterUtils.makeColumnName(xBucket, yBucket, error);
+    }
+
+    @Override
+    public long getCallCount() {
+        return callCount;
+    }
+
+    @Override
+    public void setCallCount(long callCount) {
+        this.callCount = callCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ScatterColumnName that = (ScatterColumnName) o;
+
+        if (xBucket != that.xBucket) return false;
+        if (yBucket != that.yBucket) return false;
+        return error == that.error;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = xBucket;
+        result = 31 * result + yBucket;
+        result = 31 * result + (error ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ScatterColumnName{" +
+                "xBucket=" + xBucket +
+                ", yBucket=" + yBucket +
+                ", error=" + error +
+                ", callCount=" + callCount +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.monitor;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.BulkIncrementer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class BulkIncrementerMetrics implements MetricSet {
+
+    private static final String BULK_INCREMENTER = "statistics.bulk";
+
+    private final String pendingSize;
+    private final String overflowCount;
+    private final String earlyFlushCount;
+    private final String flushSize;
+    private final String drainLatency;
+    private final String writeLatency;
+
+    private final BulkIncrementer bulkIncrementer;
+
+    public BulkIncrementerMetrics(String name, BulkIncrementer bulkIncrementer) {
+        Objects.requireNonNull(name, "name must not be null");
+        this.bulkIncrementer = Objects.requireNonNull(bulkIncrementer, "bulkIncrementer must not be null");
+
+        final String prefix = BULK_INCREMENTER + "." + name;
+        this.pendingSize = prefix + ".pending.size";
+        this.overflowCount = prefix + ".overflow.count";
+        this.earlyFlushCount = prefix + ".earlyflush.count";
+        this.flushSize = prefix + ".flush.size";
+        this.drainLatency = prefix + ".drain.latency.value";
+        this.writeLatency = prefix + ".write.latency.value";
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> gauges = new HashMap<>(6);
+        gauges.put(pendingSize, new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return bulkIncrementer.getPendingSize();
+            }
+        });
+        gauges.put(overflowCount, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return bulkIncrementer.getOverflowCount();
+            }
+        });
+        gauges.put(earlyFlushCount, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return bulkIncrementer.getEarlyFlushCount();
+            }
+        });
+        gauges.put(flushSize, new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return bulkIncrementer.getLastFlushSize();
+            }
+        });
+        gauges.put(drainLatency, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return bulkIncrementer.getLastDrainLatency();
+            }
+        });
+        gauges.put(writeLatency, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return bulkIncrementer.getLastWriteLatency();
+            }
+        });
+
+        return Collections.unmodifiableMap(gauges);
+    }
+
+}
@@ -24,6 +24,7 @@ import com.codahale.metrics.Slf4jReporter;
 import com.codahale.metrics.jvm.GarbageCollectorMetricSet;
 import com.codahale.metrics.jvm.MemoryUsageGaugeSet;
 import com.codahale.metrics.jvm.ThreadStatesGaugeSet;
+import com.navercorp.pinpoint.collector.dao.hbase.statistics.BulkIncrementer;
 import com.navercorp.pinpoint.collector.util.LoggerUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +52,9 @@ public class CollectorMetric {
     @Autowired(required = false)
     private HBaseAsyncOperationMetrics hBaseAsyncOperationMetrics;
 
+    @Autowired(required = false)
+    private Map<String, BulkIncrementer> bulkIncrementers;
+
     private ScheduledReporter reporter;
 
     private final boolean isEnable = isEnable0(REPORTER_LOGGER_NAME);
@@ -87,6 +91,12 @@ public class CollectorMetric {
                 metricRegistry.register(metric.getKey(), metric.getValue());
             }
         }
+
+        if (bulkIncrementers != null) {
+            for (Map.Entry<String, BulkIncrementer> entry : bulkIncrementers.entrySet()) {
+                metricRegistry.registerAll(new BulkIncrementerMetrics(entry.getKey(), entry.getValue()));
+            }
+        }
     }
 
     private void initReporters() {
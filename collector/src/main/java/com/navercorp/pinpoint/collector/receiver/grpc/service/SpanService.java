@@ -25,6 +25,7 @@ import com.navercorp.pinpoint.grpc.StatusErrors;
 import com.navercorp.pinpoint.grpc.trace.PSpan;
 import com.navercorp.pinpoint.grpc.trace.PSpanChunk;
 import com.navercorp.pinpoint.grpc.trace.PSpanMessage;
+import com.navercorp.pinpoint.grpc.trace.PSpanMessageBatch;
 import com.navercorp.pinpoint.grpc.trace.SpanGrpc;
 import com.navercorp.pinpoint.io.header.Header;
 import com.navercorp.pinpoint.io.header.HeaderEntity;
@@ -64,16 +65,16 @@ public class SpanService extends SpanGrpc.SpanImplBase {
                 if (isDebug) {
                     logger.debug("Send PSpan={}", MessageFormatUtils.debugLog(spanMessage));
                 }
-                if (spanMessage.hasSpan()) {
-                    final Message<PSpan> message = newMessage(spanMessage.getSpan(), DefaultTBaseLocator.SPAN);
-                    send(responseObserver, message);
-                } else if (spanMessage.hasSpanChunk()) {
-                    final Message<PSpanChunk> message = newMessage(spanMessage.getSpanChunk(), DefaultTBaseLocator.SPANCHUNK);
-                    send(responseObserver, message);
-                } else {
-                    if (isDebug) {
-                        logger.debug("Found empty span message {}", MessageFormatUtils.debugLog(spanMessage));
+                if (spanMessage.hasSpanMessageBatch()) {
+                    final PSpanMessageBatch spanMessageBatch = spanMessage.getSpanMessageBatch();
+                    for (PSpanMessage batchedSpanMessage : spanMessageBatch.getSpanMessageList()) {
+                        if (!handleSpanMessage(batchedSpanMessage, responseObserver)) {
+                            // stream already closed by onError
+                            break;
+                        }
                     }
+                } else {
+                    handleSpanMessage(spanMessage, responseObserver);
                 }
             }
 
@@ -97,17 +98,34 @@ public class SpanService extends SpanGrpc.SpanImplBase {
         return observer;
     }
 
+    private boolean handleSpanMessage(PSpanMessage spanMessage, StreamObserver<Empty> responseObserver) {
+        if (spanMessage.hasSpan()) {
+            final Message<PSpan> message = newMessage(spanMessage.getSpan(), DefaultTBaseLocator.SPAN);
+            return send(responseObserver, message);
+        }
+        if (spanMessage.hasSpanChunk()) {
+            final Message<PSpanChunk> message = newMessage(spanMessage.getSpanChunk(), DefaultTBaseLocator.SPANCHUNK);
+            return send(responseObserver, message);
+        }
+        // nested batch is not allowed
+        if (isDebug) {
+            logger.debug("Found empty span message {}", MessageFormatUtils.debugLog(spanMessage));
+        }
+        return true;
+    }
+
     private <T> Message<T> newMessage(T requestData, short serviceType) {
         final Header header = new HeaderV2(Header.SIGNATURE, HeaderV2.VERSION, serviceType);
         final HeaderEntity headerEntity = new HeaderEntity(new HashMap<>());
         return new DefaultMessage<>(header, headerEntity, requestData);
     }
 
-    private void send(StreamObserver<Empty> responseObserver, final Message<? extends GeneratedMessageV3> message) {
+    private boolean send(StreamObserver<Empty> responseObserver, final Message<? extends GeneratedMessageV3> message) {
         ServerRequest<? extends GeneratedMessageV3> request;
         try {
             request = serverRequestFactory.newServerRequest(message);
             this.dispatchHandler.dispatchSendMessage(request);
+            return true;
         } catch (Exception e) {
             logger.warn("Failed to request. message={}", message, e);
             if (e instanceof StatusException || e instanceof StatusRuntimeException) {
@@ -116,6 +134,7 @@ public class SpanService extends SpanGrpc.SpanImplBase {
                 // Avoid detailed exception
                 responseObserver.onError(Status.INTERNAL.withDescription("Bad Request").asException());
             }
+            return false;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Statistics of the span events of a single span, merged by callee and response histogram slot
+ * so that the map statistics daos are updated once per distinct cell instead of once per span event.
+ * Not thread safe.
+ */
+class SpanEventStatistics {
+
+    private final Map<CalleeKey, Callee> callees = new HashMap<>();
+    private final List<SpanEventBo> aliasEvents = new ArrayList<>();
+
+    void addCallee(ServiceType spanEventType, String destinationId, String endPoint, int elapsed, boolean hasException) {
+        final short slotNumber = ApplicationMapStatisticsUtils.getSlotNumber(spanEventType, elapsed, hasException);
+        final CalleeKey key = new CalleeKey(spanEventType, destinationId, endPoint, slotNumber);
+        final Callee callee = callees.get(key);
+        if (callee == null) {
+            // any elapsed time of the same slot is recorded to the same histogram column
+            callees.put(key, new Callee(key, elapsed, hasException, 1));
+        } else {
+            callee.count++;
+        }
+    }
+
+    void addAlias(SpanEventBo spanEvent) {
+        aliasEvents.add(spanEvent);
+    }
+
+    void merge(SpanEventStatistics other) {
+        Objects.requireNonNull(other, "other must not be null");
+
+        for (Callee otherCallee : other.callees.values()) {
+            final Callee callee = callees.get(otherCallee.key);
+            if (callee == null) {
+                callees.put(otherCallee.key, otherCallee);
+            } else {
+                callee.count += otherCallee.count;
+            }
+        }
+        aliasEvents.addAll(other.aliasEvents);
+    }
+
+    Collection<Callee> getCallees() {
+        return callees.values();
+    }
+
+    List<SpanEventBo> getAliasEvents() {
+        return aliasEvents;
+    }
+
+    static class Callee {
+        private final CalleeKey key;
+        private final int elapsed;
+        private final boolean hasException;
+        private long count;
+
+        private Callee(CalleeKey key, int elapsed, boolean hasException, long count) {
+            this.key = key;
+            this.elapsed = elapsed;
+            this.hasException = hasException;
+            this.count = count;
+        }
+
+        ServiceType getSpanEventType() {
+            return key.spanEventType;
+        }
+
+        String getDestinationId() {
+            return key.destinationId;
+        }
+
+        String getEndPoint() {
+            return key.endPoint;
+        }
+
+        int getElapsed() {
+            return elapsed;
+        }
+
+        boolean hasException() {
+            return hasException;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    private static final class CalleeKey {
+        private final ServiceType spanEventType;
+        // may be null
+        private final String destinationId;
+        private final String endPoint;
+        private final short slotNumber;
+
+        private CalleeKey(ServiceType spanEventType, String destinationId, String endPoint, short slotNumber) {
+            this.spanEventType = Objects.requireNonNull(spanEventType, "spanEventType must not be null");
+            this.destinationId = destinationId;
+            this.endPoint = endPoint;
+            this.slotNumber = slotNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            CalleeKey calleeKey = (CalleeKey) o;
+
+            if (slotNumber != calleeKey.slotNumber) return false;
+            if (spanEventType.getCode() != calleeKey.spanEventType.getCode()) return false;
+            if (!Objects.equals(destinationId, calleeKey.destinationId)) return false;
+            return Objects.equals(endPoint, calleeKey.endPoint);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = spanEventType.getCode();
+            result = 31 * result + (destinationId != null ? destinationId.hashCode() : 0);
+            result = 31 * result + (endPoint != null ? endPoint.hashCode() : 0);
+            result = 31 * result + (int) slotNumber;
+            return result;
+        }
+    }
+}
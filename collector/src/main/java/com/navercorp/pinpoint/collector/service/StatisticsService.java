@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.collector.service;
 
+import com.navercorp.pinpoint.collector.cluster.statistics.StatisticsRouter;
 import com.navercorp.pinpoint.collector.dao.MapResponseTimeDao;
 import com.navercorp.pinpoint.collector.dao.MapStatisticsCalleeDao;
 import com.navercorp.pinpoint.collector.dao.MapStatisticsCallerDao;
@@ -41,6 +42,9 @@ public class StatisticsService {
     @Autowired
     private MapResponseTimeDao mapResponseTimeDao;
 
+    @Autowired(required = false)
+    private StatisticsRouter statisticsRouter;
+
     /**
      * Calling MySQL from Tomcat generates the following message for the caller(Tomcat) :<br/>
      * emeroad-app (TOMCAT) -> MySQL_DB_ID (MYSQL)[10.25.141.69:3306] <br/>
@@ -56,7 +60,18 @@ public class StatisticsService {
      * @param isError
      */
     public void updateCaller(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError) {
-        mapStatisticsCallerDao.update(callerApplicationName, callerServiceType, callerAgentId, calleeApplicationName, calleeServiceType, calleeHost, elapsed, isError);
+        updateCaller(callerApplicationName, callerServiceType, callerAgentId, calleeApplicationName, calleeServiceType, calleeHost, elapsed, isError, 1L);
+    }
+
+    /**
+     * Same as {@link #updateCaller(String, ServiceType, String, String, ServiceType, String, int, boolean)} for {@code count} calls
+     * that fall into the same response histogram slot.
+     */
+    public void updateCaller(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError, long count) {
+        if (statisticsRouter != null && statisticsRouter.routeCaller(callerApplicationName, callerServiceType, callerAgentId, calleeApplicationName, calleeServiceType, calleeHost, elapsed, isError, count)) {
+            return;
+        }
+        mapStatisticsCallerDao.update(callerApplicationName, callerServiceType, callerAgentId, calleeApplicationName, calleeServiceType, calleeHost, elapsed, isError, count);
     }
 
     /**
@@ -74,10 +89,24 @@ public class StatisticsService {
      * @param isError
      */
     public void updateCallee(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError) {
-        mapStatisticsCalleeDao.update(calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType, callerHost, elapsed, isError);
+        updateCallee(calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType, callerHost, elapsed, isError, 1L);
+    }
+
+    /**
+     * Same as {@link #updateCallee(String, ServiceType, String, ServiceType, String, int, boolean)} for {@code count} calls
+     * that fall into the same response histogram slot.
+     */
+    public void updateCallee(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError, long count) {
+        if (statisticsRouter != null && statisticsRouter.routeCallee(calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType, callerHost, elapsed, isError, count)) {
+            return;
+        }
+        mapStatisticsCalleeDao.update(calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType, callerHost, elapsed, isError, count);
     }
 
     public void updateResponseTime(String applicationName, ServiceType serviceType, String agentId, int elapsed, boolean isError) {
+        if (statisticsRouter != null && statisticsRouter.routeResponseTime(applicationName, serviceType, agentId, elapsed, isError, 1L)) {
+            return;
+        }
         mapResponseTimeDao.received(applicationName, serviceType, agentId, elapsed, isError);
     }
 }
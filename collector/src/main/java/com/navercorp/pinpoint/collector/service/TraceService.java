@@ -16,6 +16,11 @@
 
 package com.navercorp.pinpoint.collector.service;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.navercorp.pinpoint.collector.config.CollectorConfiguration;
+import com.navercorp.pinpoint.collector.dao.ApplicationScatterDao;
 import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexDao;
 import com.navercorp.pinpoint.collector.dao.HostApplicationMapDao;
 import com.navercorp.pinpoint.collector.dao.TraceDao;
@@ -28,9 +33,16 @@ import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class TraceService {
@@ -42,6 +54,9 @@ public class TraceService {
     @Autowired
     private ApplicationTraceIndexDao applicationTraceIndexDao;
 
+    @Autowired
+    private ApplicationScatterDao applicationScatterDao;
+
     @Autowired
     private HostApplicationMapDao hostApplicationMapDao;
 
@@ -51,6 +66,27 @@ public class TraceService {
     @Autowired
     private ServiceTypeRegistryService registry;
 
+    @Autowired
+    private CollectorConfiguration collectorConfiguration;
+
+    @Autowired
+    @Qualifier("spanEventStatisticsWorker")
+    private ExecutorService spanEventStatisticsWorker;
+
+    @Autowired
+    private MetricRegistry metricRegistry;
+
+    private int spanEventStatisticsSplitSize;
+    private Timer spanEventStatisticsTimer;
+    private Histogram spanEventSizeHistogram;
+
+    @PostConstruct
+    public void setup() {
+        this.spanEventStatisticsSplitSize = Math.max(collectorConfiguration.getSpanEventStatisticsSplitSize(), 1);
+        this.spanEventStatisticsTimer = metricRegistry.timer("span.event.statistics.process.time");
+        this.spanEventSizeHistogram = metricRegistry.histogram("span.event.statistics.event.size");
+    }
+
     public void insertSpanChunk(final SpanChunkBo spanChunkBo) {
         traceDao.insertSpanChunk(spanChunkBo);
         final ServiceType applicationServiceType = getApplicationServiceType(spanChunkBo);
@@ -69,6 +105,9 @@ public class TraceService {
     public void insertSpan(final SpanBo spanBo) {
         traceDao.insert(spanBo);
         applicationTraceIndexDao.insert(spanBo);
+        if (collectorConfiguration.isApplicationScatterEnable()) {
+            applicationScatterDao.insert(spanBo);
+        }
         insertAcceptorHost(spanBo);
         insertSpanStat(spanBo);
         insertSpanEventStat(spanBo);
@@ -193,12 +232,84 @@ public class TraceService {
     }
 
     private void insertSpanEventList(List<SpanEventBo> spanEventList, ServiceType applicationServiceType, String applicationId, String agentId, String endPoint) {
+        final Timer.Context timerContext = spanEventStatisticsTimer.time();
+        try {
+            spanEventSizeHistogram.update(spanEventList.size());
+            final SpanEventStatistics statistics = aggregateSpanEventList(spanEventList);
+
+            // dao updates stay in the receiver thread, they rely on its accepted time
+            for (SpanEventBo aliasEvent : statistics.getAliasEvents()) {
+                insertAcceptorHost(aliasEvent, applicationId, applicationServiceType);
+            }
+            for (SpanEventStatistics.Callee callee : statistics.getCallees()) {
+                /*
+                 * save information to draw a server map based on statistics
+                 */
+                // save the information of caller (the spanevent that called span)
+                statisticsService.updateCaller(applicationId, applicationServiceType, agentId, callee.getDestinationId(), callee.getSpanEventType(), callee.getEndPoint(), callee.getElapsed(), callee.hasException(), callee.getCount());
+
+                // save the information of callee (the span that spanevent called)
+                statisticsService.updateCallee(callee.getDestinationId(), callee.getSpanEventType(), applicationId, applicationServiceType, endPoint, callee.getElapsed(), callee.hasException(), callee.getCount());
+            }
+        } finally {
+            timerContext.stop();
+        }
+    }
 
-        for (SpanEventBo spanEvent : spanEventList) {
+    private SpanEventStatistics aggregateSpanEventList(List<SpanEventBo> spanEventList) {
+        final int size = spanEventList.size();
+        if (size <= spanEventStatisticsSplitSize) {
+            return aggregateSpanEventList(spanEventList, 0, size);
+        }
+
+        // the first chunk is aggregated by the receiver thread while the workers take the rest
+        final List<Future<SpanEventStatistics>> futures = new ArrayList<>();
+        final List<int[]> inlineChunks = new ArrayList<>();
+        for (int from = spanEventStatisticsSplitSize; from < size; from += spanEventStatisticsSplitSize) {
+            final int chunkFrom = from;
+            final int chunkTo = Math.min(from + spanEventStatisticsSplitSize, size);
+            try {
+                futures.add(spanEventStatisticsWorker.submit(() -> aggregateSpanEventList(spanEventList, chunkFrom, chunkTo)));
+            } catch (RejectedExecutionException e) {
+                // workers are saturated
+                inlineChunks.add(new int[]{chunkFrom, chunkTo});
+            }
+        }
+
+        final SpanEventStatistics statistics = aggregateSpanEventList(spanEventList, 0, spanEventStatisticsSplitSize);
+        for (int[] chunk : inlineChunks) {
+            statistics.merge(aggregateSpanEventList(spanEventList, chunk[0], chunk[1]));
+        }
+        for (Future<SpanEventStatistics> future : futures) {
+            statistics.merge(getChunkStatistics(future));
+        }
+        return statistics;
+    }
+
+    private SpanEventStatistics getChunkStatistics(Future<SpanEventStatistics> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("interrupted while aggregating span events", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("span event aggregation failed", cause);
+        }
+    }
+
+    private SpanEventStatistics aggregateSpanEventList(List<SpanEventBo> spanEventList, int from, int to) {
+        final SpanEventStatistics statistics = new SpanEventStatistics();
+        for (int i = from; i < to; i++) {
+            final SpanEventBo spanEvent = spanEventList.get(i);
             final ServiceType spanEventType = registry.findServiceType(spanEvent.getServiceType());
 
             if (isAlias(spanEventType, spanEvent)) {
-                insertAcceptorHost(spanEvent, applicationId, applicationServiceType);
+                statistics.addAlias(spanEvent);
                 continue;
             }
 
@@ -206,22 +317,10 @@ public class TraceService {
                 continue;
             }
 
-            final String spanEventApplicationName = spanEvent.getDestinationId();
-            final String spanEventEndPoint = spanEvent.getEndPoint();
-
             // if terminal update statistics
-            final int elapsed = spanEvent.getEndElapsed();
-            final boolean hasException = spanEvent.hasException();
-
-            /*
-             * save information to draw a server map based on statistics
-             */
-            // save the information of caller (the spanevent that called span)
-            statisticsService.updateCaller(applicationId, applicationServiceType, agentId, spanEventApplicationName, spanEventType, spanEventEndPoint, elapsed, hasException);
-
-            // save the information of callee (the span that spanevent called)
-            statisticsService.updateCallee(spanEventApplicationName, spanEventType, applicationId, applicationServiceType, endPoint, elapsed, hasException);
+            statistics.addCallee(spanEventType, spanEvent.getDestinationId(), spanEvent.getEndPoint(), spanEvent.getEndElapsed(), spanEvent.hasException());
         }
+        return statistics;
     }
 
     private boolean isAlias(ServiceType spanEventType, SpanEventBo forDebugEvent) {
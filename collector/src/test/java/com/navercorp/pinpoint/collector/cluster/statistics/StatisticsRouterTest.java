@@ -0,0 +1,618 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.cluster.statistics;
+
+import com.navercorp.pinpoint.collector.cluster.connection.CollectorClusterConnectionFactory;
+import com.navercorp.pinpoint.collector.cluster.connection.CollectorClusterConnectionRepository;
+import com.navercorp.pinpoint.collector.dao.MapResponseTimeDao;
+import com.navercorp.pinpoint.collector.dao.MapStatisticsCalleeDao;
+import com.navercorp.pinpoint.collector.dao.MapStatisticsCallerDao;
+import com.navercorp.pinpoint.collector.util.Address;
+import com.navercorp.pinpoint.collector.util.DefaultAddress;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
+import com.navercorp.pinpoint.common.util.DefaultTimeSlot;
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.navercorp.pinpoint.loader.service.ServiceTypeRegistryService;
+import com.navercorp.pinpoint.rpc.DefaultFuture;
+import com.navercorp.pinpoint.rpc.Future;
+import com.navercorp.pinpoint.rpc.PinpointSocket;
+import com.navercorp.pinpoint.rpc.ResponseMessage;
+import com.navercorp.pinpoint.rpc.cluster.ClusterOption;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannel;
+import com.navercorp.pinpoint.rpc.stream.ClientStreamChannelEventHandler;
+import com.navercorp.pinpoint.rpc.stream.ServerStreamChannelMessageHandler;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.SocketUtils;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs several collectors in one process and compares the hbase increments they issue with and without statistics routing.
+ * <p>
+ * Most tests connect the routers with {@link LoopbackSocket}s, which call {@link StatisticsRouter#receive(StatisticsBatch)} in-process.
+ * {@link #forwardOverPinpointSockets()} connects two routers with pinpoint sockets through
+ * {@link StatisticsClusterConnectionManager} and {@link StatisticsRouteMessageListener}.
+ * Membership from zookeeper is not exercised, the members are given to the connection managers directly.
+ */
+public class StatisticsRouterTest {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final int COLLECTOR_COUNT = 4;
+    private static final int APPLICATION_COUNT = 40;
+    private static final int AGENT_PER_APPLICATION = 8;
+    private static final int CALL_PER_AGENT = 100;
+
+    private final TimeSlot timeSlot = new DefaultTimeSlot();
+    private final ServiceTypeRegistryService registry = new TestServiceTypeRegistryService();
+
+    @Test
+    public void ringOwner() {
+        List<Address> members = newAddresses(COLLECTOR_COUNT);
+        ConsistentHashRing ring = new ConsistentHashRing(members);
+        List<Address> reversed = new ArrayList<>(members);
+        Collections.reverse(reversed);
+        ConsistentHashRing reversedRing = new ConsistentHashRing(reversed);
+
+        Set<Address> owners = new HashSet<>();
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            String applicationName = "application-" + i;
+            Address owner = ring.getOwner(applicationName);
+            Assert.assertEquals("member order must not change the owner", owner, reversedRing.getOwner(applicationName));
+            owners.add(owner);
+        }
+        Assert.assertEquals("every collector owns some applications", COLLECTOR_COUNT, owners.size());
+
+        // removing a member only moves its own keys
+        List<Address> shrunk = new ArrayList<>(members);
+        Address removed = shrunk.remove(0);
+        ConsistentHashRing shrunkRing = new ConsistentHashRing(shrunk);
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            String applicationName = "application-" + i;
+            Address owner = ring.getOwner(applicationName);
+            if (!owner.equals(removed)) {
+                Assert.assertEquals(owner, shrunkRing.getOwner(applicationName));
+            }
+        }
+    }
+
+    @Test
+    public void codec() {
+        StatisticsUpdate caller = new StatisticsUpdate(StatisticsUpdate.Type.CALLER, 60000, "caller", (short) 1000, "agent",
+                "callee", (short) 2100, "host:80", (short) 3, 150, false, 5);
+        StatisticsUpdate responseTime = new StatisticsUpdate(StatisticsUpdate.Type.RESPONSE_TIME, 60000, "app", (short) 1000, "agent",
+                null, (short) 0, null, (short) -1, -1, true, 1);
+
+        byte[] payload = StatisticsUpdateCodec.encode("sender", 7, Arrays.asList(caller, responseTime));
+        Assert.assertTrue(StatisticsUpdateCodec.isStatisticsPayload(payload));
+
+        StatisticsBatch batch = StatisticsUpdateCodec.decode(payload);
+        Assert.assertEquals("sender", batch.getSenderId());
+        Assert.assertEquals(7, batch.getSequence());
+        List<StatisticsUpdate> decoded = batch.getUpdates();
+        Assert.assertEquals(2, decoded.size());
+        assertUpdate(caller, decoded.get(0));
+        assertUpdate(responseTime, decoded.get(1));
+
+        Assert.assertEquals(7, StatisticsUpdateCodec.decodeAck(StatisticsUpdateCodec.encodeAck(7)));
+    }
+
+    private void assertUpdate(StatisticsUpdate expected, StatisticsUpdate actual) {
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(expected.getElapsed(), actual.getElapsed());
+        Assert.assertEquals(expected.isError(), actual.isError());
+        Assert.assertEquals(expected.getCount(), actual.getCount());
+    }
+
+    @Test
+    public void reduceIncrements() {
+        Cluster localOnly = new Cluster(false);
+        localOnly.run();
+        Cluster routed = new Cluster(true);
+        routed.run();
+
+        logger.debug("increments local:{} routed:{}", localOnly.incrementCount(), routed.incrementCount());
+
+        // same statistics
+        Assert.assertEquals(localOnly.totalCount(), routed.totalCount());
+        Assert.assertEquals(localOnly.distinctCells(), routed.distinctCells());
+
+        // every application sends to every collector, so every collector increments every row without routing
+        final int rowCount = APPLICATION_COUNT * 3;
+        Assert.assertEquals(rowCount * COLLECTOR_COUNT, localOnly.incrementCount());
+        // only the owner increments a row
+        Assert.assertEquals(rowCount, routed.incrementCount());
+    }
+
+    @Test
+    public void fallbackWhenOwnerIsNotConnected() {
+        Cluster routed = new Cluster(true);
+        // collector 0 lost its connections, the updates it does not own are applied locally
+        routed.routers.get(0).removePeer(routed.addresses.get(1));
+        routed.routers.get(0).removePeer(routed.addresses.get(2));
+        routed.routers.get(0).removePeer(routed.addresses.get(3));
+        routed.run();
+
+        Assert.assertTrue(routed.routers.get(0).getFallbackCount() > 0);
+        Cluster localOnly = new Cluster(false);
+        localOnly.run();
+        Assert.assertEquals(localOnly.totalCount(), routed.totalCount());
+    }
+
+    @Test
+    public void skipDuplicateBatch() {
+        Cluster cluster = new Cluster(false);
+        StatisticsRouter router = cluster.routers.get(0);
+        StatisticsUpdate update = new StatisticsUpdate(StatisticsUpdate.Type.RESPONSE_TIME, 60000, "app", ServiceType.STAND_ALONE.getCode(), "agent",
+                null, (short) 0, null, (short) 1, 100, false, 5);
+        StatisticsBatch batch = new StatisticsBatch("sender", 1, Collections.singletonList(update));
+
+        Assert.assertTrue(router.receive(batch));
+        Assert.assertFalse(router.receive(batch));
+        Assert.assertTrue(router.receive(new StatisticsBatch("sender", 2, Collections.singletonList(update))));
+        Assert.assertTrue(router.receive(new StatisticsBatch("other", 1, Collections.singletonList(update))));
+
+        Assert.assertEquals(1, router.getDuplicateCount());
+        Assert.assertEquals(15, cluster.totalCount());
+    }
+
+    @Test
+    public void resumePartiallyAppliedBatch() {
+        Cluster cluster = new Cluster(false);
+        StatisticsRouter router = cluster.routers.get(0);
+        List<StatisticsUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            updates.add(new StatisticsUpdate(StatisticsUpdate.Type.RESPONSE_TIME, 60000, "app", ServiceType.STAND_ALONE.getCode(), "agent-" + i,
+                    null, (short) 0, null, (short) 1, 100, false, 1));
+        }
+        StatisticsBatch batch = new StatisticsBatch("sender", 1, updates);
+
+        // the third update fails, the batch is not acknowledged and resent
+        cluster.daos.get(0).failOnIncrement = 3;
+        try {
+            router.receive(batch);
+            Assert.fail("receive must fail");
+        } catch (IllegalStateException expected) {
+        }
+        Assert.assertEquals(2, cluster.totalCount());
+
+        // resumed after the applied updates
+        Assert.assertTrue(router.receive(batch));
+        Assert.assertEquals(3, cluster.totalCount());
+        Assert.assertFalse(router.receive(batch));
+        Assert.assertEquals(3, cluster.totalCount());
+    }
+
+    @Test
+    public void forwardOverPinpointSockets() {
+        final int port0 = SocketUtils.findAvailableTcpPort(19990);
+        final int port1 = SocketUtils.findAvailableTcpPort(port0 + 1);
+        List<Address> addresses = Arrays.<Address>asList(new DefaultAddress("127.0.0.1", port0), new DefaultAddress("127.0.0.1", port1));
+
+        List<TestAcceptedTimeService> acceptedTimeServices = new ArrayList<>();
+        List<RowCountingDao> daos = new ArrayList<>();
+        List<StatisticsRouter> routers = new ArrayList<>();
+        List<StatisticsClusterConnectionManager> connectionManagers = new ArrayList<>();
+        for (int i = 0; i < addresses.size(); i++) {
+            TestAcceptedTimeService acceptedTimeService = new TestAcceptedTimeService();
+            RowCountingDao dao = new RowCountingDao(acceptedTimeService);
+            StatisticsRouter router = new StatisticsRouter(dao, dao, dao, acceptedTimeService, timeSlot, registry, Runnable::run);
+            acceptedTimeServices.add(acceptedTimeService);
+            daos.add(dao);
+            routers.add(router);
+
+            Address address = addresses.get(i);
+            CollectorClusterConnectionFactory connectionFactory = new CollectorClusterConnectionFactory("collector-" + i,
+                    new StatisticsRouteMessageListener(router), ServerStreamChannelMessageHandler.DISABLED_INSTANCE);
+            InetSocketAddress bindAddress = new InetSocketAddress(address.getHost(), address.getPort());
+            connectionManagers.add(new StatisticsClusterConnectionManager(address, connectionFactory.createConnector(),
+                    connectionFactory.createAcceptor(bindAddress, new CollectorClusterConnectionRepository()), router));
+        }
+
+        try {
+            for (StatisticsClusterConnectionManager connectionManager : connectionManagers) {
+                connectionManager.start();
+            }
+            for (StatisticsClusterConnectionManager connectionManager : connectionManagers) {
+                for (Address address : addresses) {
+                    connectionManager.connectPointIfAbsent(address);
+                }
+            }
+
+            String applicationName = null;
+            for (int i = 0; applicationName == null; i++) {
+                if (addresses.get(1).equals(routers.get(0).getOwner("application-" + i))) {
+                    applicationName = "application-" + i;
+                }
+            }
+            acceptedTimeServices.get(0).accept(System.currentTimeMillis());
+            Assert.assertTrue(routers.get(0).routeResponseTime(applicationName, ServiceType.STAND_ALONE, "agent", 100, false, 5));
+            routers.get(0).flushAll();
+
+            Assert.assertEquals(1, routers.get(0).getForwardedCount());
+            Assert.assertEquals(0, routers.get(0).getFallbackCount());
+            Assert.assertEquals(1, routers.get(1).getReceivedCount());
+            Assert.assertTrue(daos.get(0).cells.isEmpty());
+            synchronized (daos.get(1)) {
+                Assert.assertEquals(Long.valueOf(5), daos.get(1).cells.values().iterator().next());
+            }
+        } finally {
+            for (StatisticsClusterConnectionManager connectionManager : connectionManagers) {
+                connectionManager.stop();
+            }
+        }
+    }
+
+    @Test
+    public void resendWhenAckIsLost() {
+        Cluster routed = new Cluster(true, 10);
+        // collector 0 reaches the owners, but the first acknowledgement of every batch is lost
+        for (int i = 1; i < COLLECTOR_COUNT; i++) {
+            routed.routers.get(0).addPeer(routed.addresses.get(i), new LoopbackSocket(routed.routers.get(i), 1));
+        }
+        routed.run();
+        Assert.assertTrue(routed.routers.get(0).getRetryCount() > 0);
+        // applied on the first attempt, acknowledged on the second one
+        routed.flushAll();
+
+        Cluster localOnly = new Cluster(false);
+        localOnly.run();
+        Assert.assertEquals(localOnly.totalCount(), routed.totalCount());
+        Assert.assertEquals(0, routed.routers.get(0).getFallbackCount());
+        Assert.assertTrue(routed.duplicateCount() > 0);
+    }
+
+    @Test
+    public void fallbackWhenAckIsNeverReceived() {
+        Cluster routed = new Cluster(true, 10);
+        for (int i = 1; i < COLLECTOR_COUNT; i++) {
+            routed.routers.get(0).addPeer(routed.addresses.get(i), new LoopbackSocket(routed.routers.get(i), Integer.MAX_VALUE));
+        }
+        routed.run();
+        for (int i = 1; i < StatisticsRouter.MAX_SEND_ATTEMPTS; i++) {
+            routed.flushAll();
+        }
+
+        // applied by the owner and again locally, delivery is at-least-once when every acknowledgement is lost
+        Assert.assertTrue(routed.routers.get(0).getFallbackCount() > 0);
+        Cluster localOnly = new Cluster(false);
+        localOnly.run();
+        Assert.assertTrue(routed.totalCount() > localOnly.totalCount());
+    }
+
+    private static List<Address> newAddresses(int count) {
+        List<Address> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            addresses.add(new DefaultAddress("127.0.0.1", 19990 + i));
+        }
+        return addresses;
+    }
+
+    private class Cluster {
+        private final List<Address> addresses = newAddresses(COLLECTOR_COUNT);
+        private final List<TestAcceptedTimeService> acceptedTimeServices = new ArrayList<>();
+        private final List<RowCountingDao> daos = new ArrayList<>();
+        private final List<StatisticsRouter> routers = new ArrayList<>();
+
+        private Cluster(boolean routing) {
+            this(routing, StatisticsRouter.DEFAULT_ACK_TIMEOUT_MILLIS);
+        }
+
+        private Cluster(boolean routing, long ackTimeoutMillis) {
+            for (int i = 0; i < COLLECTOR_COUNT; i++) {
+                TestAcceptedTimeService acceptedTimeService = new TestAcceptedTimeService();
+                RowCountingDao dao = new RowCountingDao(acceptedTimeService);
+                acceptedTimeServices.add(acceptedTimeService);
+                daos.add(dao);
+                // flush on the calling thread, so that every test flush is finished when flushAll() returns
+                routers.add(new StatisticsRouter(dao, dao, dao, acceptedTimeService, timeSlot, registry, Runnable::run, StatisticsRouter.DEFAULT_MAX_BATCH_SIZE, ackTimeoutMillis));
+            }
+            if (!routing) {
+                return;
+            }
+            for (int i = 0; i < COLLECTOR_COUNT; i++) {
+                StatisticsRouter router = routers.get(i);
+                router.setLocalAddress(addresses.get(i));
+                router.updateMembers(addresses);
+                for (int j = 0; j < COLLECTOR_COUNT; j++) {
+                    if (i != j) {
+                        router.addPeer(addresses.get(j), new LoopbackSocket(routers.get(j)));
+                    }
+                }
+            }
+        }
+
+        private void run() {
+            final long acceptedTime = System.currentTimeMillis();
+            for (int app = 0; app < APPLICATION_COUNT; app++) {
+                String applicationName = "application-" + app;
+                for (int agent = 0; agent < AGENT_PER_APPLICATION; agent++) {
+                    String agentId = applicationName + "-agent-" + agent;
+                    // agents of an application are spread over every collector
+                    int collector = agent % COLLECTOR_COUNT;
+                    acceptedTimeServices.get(collector).accept(acceptedTime);
+                    for (int call = 0; call < CALL_PER_AGENT; call++) {
+                        receive(collector, applicationName, agentId, call);
+                    }
+                }
+            }
+            flushAll();
+        }
+
+        private void flushAll() {
+            for (StatisticsRouter router : routers) {
+                router.flushAll();
+            }
+        }
+
+        private long duplicateCount() {
+            long count = 0;
+            for (StatisticsRouter router : routers) {
+                count += router.getDuplicateCount();
+            }
+            return count;
+        }
+
+        // same as StatisticsService
+        private void receive(int collector, String applicationName, String agentId, int call) {
+            StatisticsRouter router = routers.get(collector);
+            RowCountingDao dao = daos.get(collector);
+            int elapsed = call * 10;
+            boolean isError = call % 10 == 0;
+            if (!router.routeResponseTime(applicationName, ServiceType.STAND_ALONE, agentId, elapsed, isError, 1)) {
+                dao.received(applicationName, ServiceType.STAND_ALONE, agentId, elapsed, isError, 1);
+            }
+            if (!router.routeCaller(applicationName, ServiceType.STAND_ALONE, agentId, "database", ServiceType.UNKNOWN_DB, "db:3306", elapsed, isError, 1)) {
+                dao.update(applicationName, ServiceType.STAND_ALONE, agentId, "database", ServiceType.UNKNOWN_DB, "db:3306", elapsed, isError, 1);
+            }
+            String calleeApplicationName = applicationName + "-callee";
+            if (!router.routeCallee(calleeApplicationName, ServiceType.STAND_ALONE, applicationName, ServiceType.STAND_ALONE, "host:8080", elapsed, isError, 1)) {
+                dao.update(calleeApplicationName, ServiceType.STAND_ALONE, applicationName, ServiceType.STAND_ALONE, "host:8080", elapsed, isError, 1);
+            }
+        }
+
+        /**
+         * rows are merged into one increment per flush, so this is the number of increments sent to hbase
+         */
+        private int incrementCount() {
+            int count = 0;
+            for (RowCountingDao dao : daos) {
+                count += dao.rows.size();
+            }
+            return count;
+        }
+
+        private Set<String> distinctCells() {
+            Set<String> cells = new HashSet<>();
+            for (RowCountingDao dao : daos) {
+                cells.addAll(dao.cells.keySet());
+            }
+            return cells;
+        }
+
+        private long totalCount() {
+            long count = 0;
+            for (RowCountingDao dao : daos) {
+                for (Long cellCount : dao.cells.values()) {
+                    count += cellCount;
+                }
+            }
+            return count;
+        }
+    }
+
+    private class RowCountingDao implements MapStatisticsCallerDao, MapStatisticsCalleeDao, MapResponseTimeDao {
+
+        private final AcceptedTimeService acceptedTimeService;
+        private final Set<String> rows = new HashSet<>();
+        private final Map<String, Long> cells = new HashMap<>();
+        // the nth increment fails once, 0 for never
+        private int failOnIncrement;
+        private int incrementCount;
+
+        private RowCountingDao(AcceptedTimeService acceptedTimeService) {
+            this.acceptedTimeService = acceptedTimeService;
+        }
+
+        @Override
+        public void update(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError) {
+            update(callerApplicationName, callerServiceType, callerAgentId, calleeApplicationName, calleeServiceType, calleeHost, elapsed, isError, 1);
+        }
+
+        @Override
+        public void update(String callerApplicationName, ServiceType callerServiceType, String callerAgentId, String calleeApplicationName, ServiceType calleeServiceType, String calleeHost, int elapsed, boolean isError, long count) {
+            increment("caller|" + callerApplicationName, callerAgentId + "|" + calleeApplicationName + "|" + calleeHost + "|" + slot(calleeServiceType, elapsed, isError), count);
+        }
+
+        @Override
+        public void update(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError) {
+            update(calleeApplicationName, calleeServiceType, callerApplicationName, callerServiceType, callerHost, elapsed, isError, 1);
+        }
+
+        @Override
+        public void update(String calleeApplicationName, ServiceType calleeServiceType, String callerApplicationName, ServiceType callerServiceType, String callerHost, int elapsed, boolean isError, long count) {
+            increment("callee|" + calleeApplicationName, callerApplicationName + "|" + callerHost + "|" + slot(calleeServiceType, elapsed, isError), count);
+        }
+
+        @Override
+        public void received(String applicationName, ServiceType serviceType, String agentId, int elapsed, boolean isError) {
+            received(applicationName, serviceType, agentId, elapsed, isError, 1);
+        }
+
+        @Override
+        public void received(String applicationName, ServiceType serviceType, String agentId, int elapsed, boolean isError, long count) {
+            increment("response|" + applicationName, agentId + "|" + slot(serviceType, elapsed, isError), count);
+        }
+
+        private short slot(ServiceType serviceType, int elapsed, boolean isError) {
+            return ApplicationMapStatisticsUtils.getSlotNumber(serviceType, elapsed, isError);
+        }
+
+        // synchronized, batches forwarded over pinpoint sockets are applied on the socket threads
+        private synchronized void increment(String row, String column, long count) {
+            if (++incrementCount == failOnIncrement) {
+                failOnIncrement = 0;
+                throw new IllegalStateException("increment failed");
+            }
+            final String rowKey = row + "|" + timeSlot.getTimeSlot(acceptedTimeService.getAcceptedTime());
+            rows.add(rowKey);
+            final String cell = rowKey + "|" + column;
+            final Long before = cells.get(cell);
+            cells.put(cell, before == null ? count : before + count);
+        }
+
+        @Override
+        public void flushAll() {
+        }
+    }
+
+    private static class LoopbackSocket implements PinpointSocket {
+
+        private final StatisticsRouter target;
+        // acknowledgements lost after applying the batch
+        private final int lostAcks;
+        private final Map<Long, Integer> requestCounts = new HashMap<>();
+
+        private LoopbackSocket(StatisticsRouter target) {
+            this(target, 0);
+        }
+
+        private LoopbackSocket(StatisticsRouter target, int lostAcks) {
+            this.target = target;
+            this.lostAcks = lostAcks;
+        }
+
+        @Override
+        public void send(byte[] payload) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<ResponseMessage> request(byte[] payload) {
+            StatisticsBatch batch = StatisticsUpdateCodec.decode(payload);
+            target.receive(batch);
+
+            Integer requestCount = requestCounts.get(batch.getSequence());
+            requestCount = requestCount == null ? 1 : requestCount + 1;
+            requestCounts.put(batch.getSequence(), requestCount);
+
+            DefaultFuture<ResponseMessage> future = new DefaultFuture<>();
+            if (requestCount > lostAcks) {
+                ResponseMessage response = new ResponseMessage();
+                response.setMessage(StatisticsUpdateCodec.encodeAck(batch.getSequence()));
+                future.setResult(response);
+            }
+            return future;
+        }
+
+        @Override
+        public void response(int requestId, byte[] payload) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ClientStreamChannel openStream(byte[] payload, ClientStreamChannelEventHandler streamChannelEventHandler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return new InetSocketAddress("127.0.0.1", 0);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public ClusterOption getLocalClusterOption() {
+            return null;
+        }
+
+        @Override
+        public ClusterOption getRemoteClusterOption() {
+            return null;
+        }
+    }
+
+    private static class TestAcceptedTimeService implements AcceptedTimeService {
+
+        private final ThreadLocal<Long> local = new ThreadLocal<>();
+
+        @Override
+        public void accept() {
+            accept(System.currentTimeMillis());
+        }
+
+        @Override
+        public void accept(long time) {
+            local.set(time);
+        }
+
+        @Override
+        public long getAcceptedTime() {
+            Long acceptedTime = local.get();
+            if (acceptedTime == null) {
+                return System.currentTimeMillis();
+            }
+            return acceptedTime;
+        }
+    }
+
+    private static class TestServiceTypeRegistryService implements ServiceTypeRegistryService {
+
+        private final Map<Short, ServiceType> serviceTypes = new HashMap<>();
+
+        private TestServiceTypeRegistryService() {
+            serviceTypes.put(ServiceType.STAND_ALONE.getCode(), ServiceType.STAND_ALONE);
+            serviceTypes.put(ServiceType.UNKNOWN_DB.getCode(), ServiceType.UNKNOWN_DB);
+        }
+
+        @Override
+        public ServiceType findServiceType(short serviceType) {
+            ServiceType found = serviceTypes.get(serviceType);
+            if (found == null) {
+                return ServiceType.UNDEFINED;
+            }
+            return found;
+        }
+
+        @Override
+        public ServiceType findServiceTypeByName(String typeName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<ServiceType> findDesc(String desc) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
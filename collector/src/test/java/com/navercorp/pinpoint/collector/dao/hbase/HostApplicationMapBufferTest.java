@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.dao.hbase;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class HostApplicationMapBufferTest {
+
+    private static final long SLOT = 60000;
+    private static final long NEXT_SLOT = SLOT * 2;
+
+    @Test
+    public void deduplicate() {
+        HostApplicationMapBuffer buffer = new HostApplicationMapBuffer();
+
+        Assert.assertTrue(buffer.add(SLOT, "host", "app", (short) 1000, "parentApp", (short) 1000));
+        Assert.assertFalse(buffer.add(SLOT, "host", "app", (short) 1000, "parentApp", (short) 1000));
+        Assert.assertTrue(buffer.add(SLOT, "host", "app", (short) 1000, "parentApp", (short) 1001));
+        Assert.assertTrue(buffer.add(SLOT, "host", "app", (short) 1000, null, (short) 1000));
+        Assert.assertFalse(buffer.add(SLOT, "host", "app", (short) 1000, null, (short) 1000));
+        Assert.assertTrue(buffer.add(NEXT_SLOT, "host", "app", (short) 1000, "parentApp", (short) 1000));
+
+        Assert.assertEquals(4, buffer.size());
+    }
+
+    @Test
+    public void resize() {
+        HostApplicationMapBuffer buffer = new HostApplicationMapBuffer(1);
+        final int count = 10000;
+        for (int i = 0; i < count; i++) {
+            Assert.assertTrue(buffer.add(SLOT, "host" + i, "app", (short) 1000, "parentApp", (short) 1000));
+        }
+        for (int i = 0; i < count; i++) {
+            Assert.assertFalse(buffer.add(SLOT, "host" + i, "app", (short) 1000, "parentApp", (short) 1000));
+        }
+        Assert.assertEquals(count, buffer.size());
+
+        final Set<String> hosts = new HashSet<>();
+        Assert.assertEquals(count, buffer.drain(SLOT, (host, applicationName, serviceType, parentApplicationName, parentServiceType) -> hosts.add(host)));
+        Assert.assertEquals(count, hosts.size());
+    }
+
+    @Test
+    public void drain() {
+        HostApplicationMapBuffer buffer = new HostApplicationMapBuffer();
+        buffer.add(SLOT, "host1", "app", (short) 1000, "parentApp", (short) 1000);
+        buffer.add(SLOT, "host2", "app", (short) 1000, "parentApp", (short) 1000);
+        buffer.add(NEXT_SLOT, "host3", "app", (short) 1000, "parentApp", (short) 1000);
+
+        Assert.assertEquals(Collections.singletonList(SLOT), buffer.getSlotsBefore(NEXT_SLOT));
+
+        final List<String> hosts = new ArrayList<>();
+        Assert.assertEquals(2, buffer.drain(SLOT, (host, applicationName, serviceType, parentApplicationName, parentServiceType) -> hosts.add(host)));
+        Collections.sort(hosts);
+        Assert.assertEquals(2, hosts.size());
+        Assert.assertEquals("host1", hosts.get(0));
+        Assert.assertEquals("host2", hosts.get(1));
+        Assert.assertEquals(0, buffer.drain(SLOT, (host, applicationName, serviceType, parentApplicationName, parentServiceType) -> hosts.add(host)));
+
+        // collected again after the slot was drained
+        Assert.assertTrue(buffer.add(SLOT, "host1", "app", (short) 1000, "parentApp", (short) 1000));
+        Assert.assertEquals(2, buffer.size());
+    }
+}
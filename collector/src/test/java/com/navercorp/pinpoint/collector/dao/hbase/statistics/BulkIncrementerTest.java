@@ -225,6 +225,42 @@ public class BulkIncrementerTest {
         }
     }
 
+    @Test
+    public void maxPendingSize() {
+        // Given
+        final BulkIncrementer boundedIncrementer = new BulkIncrementer(new RowKeyMerge(CF), 4, 2);
+        TableName tableA = TableName.valueOf("A");
+        TestDataSet testDataSetA_0_0 = new TestDataSet(tableA, 0, 0, 10);
+        TestDataSet testDataSetA_0_1 = new TestDataSet(tableA, 0, 1, 1);
+        TestDataSet testDataSetA_1_0 = new TestDataSet(tableA, 1, 0, 1);
+
+        // When
+        for (TestData testData : testDataSetA_0_0.getTestDatas()) {
+            Assert.assertFalse(boundedIncrementer.increment(testData.getTableName(), testData.getRowKey(), testData.getColumnName()));
+        }
+        Assert.assertTrue(boundedIncrementer.increment(tableA, testDataSetA_0_1.getRowKey(), testDataSetA_0_1.getColumnName()));
+        // flush already requested, the cell is kept above the soft limit
+        Assert.assertFalse(boundedIncrementer.increment(tableA, testDataSetA_1_0.getRowKey(), testDataSetA_1_0.getColumnName()));
+        Assert.assertEquals(3, boundedIncrementer.getPendingSize());
+        Assert.assertEquals(1, boundedIncrementer.getOverflowCount());
+        Assert.assertEquals(1, boundedIncrementer.getEarlyFlushCount());
+
+        // Then
+        Map<TableName, List<Increment>> incrementMap = boundedIncrementer.getIncrements(rowKeyDistributor);
+        TestVerifier verifier = new TestVerifier(incrementMap);
+        verifier.verify(testDataSetA_0_0);
+        verifier.verify(testDataSetA_0_1);
+        verifier.verify(testDataSetA_1_0);
+        Assert.assertEquals(0, boundedIncrementer.getPendingSize());
+        Assert.assertEquals(3, boundedIncrementer.getLastFlushSize());
+        Assert.assertEquals(1, boundedIncrementer.getFlushCount());
+
+        Assert.assertFalse(boundedIncrementer.increment(tableA, testDataSetA_1_0.getRowKey(), testDataSetA_1_0.getColumnName()));
+        Assert.assertEquals(1, boundedIncrementer.getPendingSize());
+        verifier = new TestVerifier(boundedIncrementer.getIncrements(rowKeyDistributor));
+        verifier.verify(testDataSetA_1_0);
+    }
+
     private class Incrementer implements Runnable {
 
         private final Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.service;
+
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.ApplicationMapStatisticsUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SpanEventStatisticsTest {
+
+    private final ServiceType serviceType = ServiceType.STAND_ALONE;
+
+    @Test
+    public void mergeSameSlot() {
+        SpanEventStatistics statistics = new SpanEventStatistics();
+        statistics.addCallee(serviceType, "dest", "endPoint", 10, false);
+        statistics.addCallee(serviceType, "dest", "endPoint", 20, false);
+        statistics.addCallee(serviceType, "dest", "endPoint", 10, true);
+        statistics.addCallee(serviceType, "dest", "endPoint2", 10, false);
+        statistics.addCallee(serviceType, "dest", "endPoint", 100000, false);
+
+        Map<Short, Long> counts = new HashMap<>();
+        for (SpanEventStatistics.Callee callee : statistics.getCallees()) {
+            if (!"endPoint".equals(callee.getEndPoint())) {
+                Assert.assertEquals(1, callee.getCount());
+                continue;
+            }
+            short slotNumber = ApplicationMapStatisticsUtils.getSlotNumber(callee.getSpanEventType(), callee.getElapsed(), callee.hasException());
+            counts.put(slotNumber, callee.getCount());
+        }
+        Assert.assertEquals(4, statistics.getCallees().size());
+        Assert.assertEquals(Long.valueOf(2), counts.get(ApplicationMapStatisticsUtils.getSlotNumber(serviceType, 10, false)));
+        Assert.assertEquals(Long.valueOf(1), counts.get(ApplicationMapStatisticsUtils.getSlotNumber(serviceType, 10, true)));
+        Assert.assertEquals(Long.valueOf(1), counts.get(ApplicationMapStatisticsUtils.getSlotNumber(serviceType, 100000, false)));
+    }
+
+    @Test
+    public void merge() {
+        SpanEventStatistics statistics = new SpanEventStatistics();
+        statistics.addCallee(serviceType, "dest", "endPoint", 10, false);
+
+        SpanEventStatistics other = new SpanEventStatistics();
+        other.addCallee(serviceType, "dest", "endPoint", 10, false);
+        other.addCallee(serviceType, "dest2", "endPoint", 10, false);
+
+        statistics.merge(other);
+
+        Assert.assertEquals(2, statistics.getCallees().size());
+        long total = 0;
+        for (SpanEventStatistics.Callee callee : statistics.getCallees()) {
+            total += callee.getCount();
+        }
+        Assert.assertEquals(3, total);
+    }
+}
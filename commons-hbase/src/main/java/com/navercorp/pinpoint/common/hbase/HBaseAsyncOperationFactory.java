@@ -17,13 +17,18 @@
 
 package com.navercorp.pinpoint.common.hbase;
 
+import com.navercorp.pinpoint.common.hbase.spill.DisabledSpillStore;
+import com.navercorp.pinpoint.common.hbase.spill.SpillStore;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.HTableMultiplexer;
+import org.apache.hadoop.hbase.client.Put;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * @author Taejin Koo
@@ -32,6 +37,13 @@ public class HBaseAsyncOperationFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HBaseAsyncOperationFactory.class);
 
+    private static final HBaseAsyncFailureListener LOGGING_FAILURE_LISTENER = new HBaseAsyncFailureListener() {
+        @Override
+        public void onFailure(TableName tableName, List<Put> puts) {
+            LOGGER.warn("drop {} failed puts of table:{}", puts.size(), tableName);
+        }
+    };
+
     public static final String ENABLE_ASYNC_METHOD = "hbase.client.async.enable";
     public static final boolean DEFAULT_ENABLE_ASYNC_METHOD = false;
 
@@ -44,6 +56,18 @@ public class HBaseAsyncOperationFactory {
     public static final String ASYNC_MAX_RETRIES_IN_QUEUE = HTableMultiplexer.TABLE_MULTIPLEXER_MAX_RETRIES_IN_QUEUE;
     public static final int DEFAULT_ASYNC_RETRY_COUNT = 10000;
 
+    public static final String ENABLE_ASYNC_BUFFERED_MUTATOR = "hbase.client.async.buffered.enable";
+    public static final boolean DEFAULT_ENABLE_ASYNC_BUFFERED_MUTATOR = false;
+
+    public static final String ASYNC_BUFFERED_WRITE_BUFFER_SIZE = "hbase.client.async.buffered.writebuffersize";
+    public static final long DEFAULT_ASYNC_BUFFERED_WRITE_BUFFER_SIZE = 2 * 1024 * 1024;
+
+    public static final String ASYNC_BUFFERED_MAX_BATCH_SIZE = "hbase.client.async.buffered.maxbatchsize";
+    public static final int DEFAULT_ASYNC_BUFFERED_MAX_BATCH_SIZE = 1000;
+
+    public static final String ASYNC_BUFFERED_PUT_TIMEOUT = "hbase.client.async.buffered.put.timeout.ms";
+    public static final long DEFAULT_ASYNC_BUFFERED_PUT_TIMEOUT = 0;
+
     public static HBaseAsyncOperation create(Configuration configuration) throws IOException {
         boolean enableAsyncMethod = configuration.getBoolean(ENABLE_ASYNC_METHOD, DEFAULT_ENABLE_ASYNC_METHOD);
         if (!enableAsyncMethod) {
@@ -64,6 +88,10 @@ public class HBaseAsyncOperationFactory {
     }
 
     public static HBaseAsyncOperation create(Connection connection, Configuration configuration) throws IOException {
+        return create(connection, configuration, DisabledSpillStore.INSTANCE);
+    }
+
+    public static HBaseAsyncOperation create(Connection connection, Configuration configuration, SpillStore spillStore) throws IOException {
         boolean enableAsyncMethod = configuration.getBoolean(ENABLE_ASYNC_METHOD, DEFAULT_ENABLE_ASYNC_METHOD);
         if (!enableAsyncMethod) {
             return DisabledHBaseAsyncOperation.INSTANCE;
@@ -71,6 +99,11 @@ public class HBaseAsyncOperationFactory {
 
         int queueSize = configuration.getInt(ASYNC_IN_QUEUE_SIZE, DEFAULT_ASYNC_IN_QUEUE_SIZE);
 
+        boolean enableBufferedMutator = configuration.getBoolean(ENABLE_ASYNC_BUFFERED_MUTATOR, DEFAULT_ENABLE_ASYNC_BUFFERED_MUTATOR);
+        if (enableBufferedMutator) {
+            return createBufferedAsyncTemplate(connection, configuration, queueSize, spillStore);
+        }
+
         if (configuration.get(ASYNC_PERIODIC_FLUSH_TIME, null) == null) {
             configuration.setInt(ASYNC_PERIODIC_FLUSH_TIME, DEFAULT_ASYNC_PERIODIC_FLUSH_TIME);
         }
@@ -82,4 +115,32 @@ public class HBaseAsyncOperationFactory {
         return new HBaseAsyncTemplate(connection, configuration, queueSize);
     }
 
-}
\ No newline at end of file
+    private static HBaseAsyncOperation createBufferedAsyncTemplate(Connection connection, Configuration configuration, int queueSize, SpillStore spillStore) {
+        long writeBufferSize = configuration.getLong(ASYNC_BUFFERED_WRITE_BUFFER_SIZE, DEFAULT_ASYNC_BUFFERED_WRITE_BUFFER_SIZE);
+        int maxBatchSize = configuration.getInt(ASYNC_BUFFERED_MAX_BATCH_SIZE, DEFAULT_ASYNC_BUFFERED_MAX_BATCH_SIZE);
+        long flushPeriod = configuration.getLong(ASYNC_PERIODIC_FLUSH_TIME, DEFAULT_ASYNC_PERIODIC_FLUSH_TIME);
+        long putTimeout = configuration.getLong(ASYNC_BUFFERED_PUT_TIMEOUT, DEFAULT_ASYNC_BUFFERED_PUT_TIMEOUT);
+
+        LOGGER.info("create HBaseBufferedAsyncTemplate queueSize:{} writeBufferSize:{} maxBatchSize:{} flushPeriod:{} putTimeout:{}",
+                queueSize, writeBufferSize, maxBatchSize, flushPeriod, putTimeout);
+        final HBaseAsyncFailureListener failureListener = spillStore.isAvailable() ? new SpillFailureListener(spillStore) : LOGGING_FAILURE_LISTENER;
+        return new HBaseBufferedAsyncTemplate(connection, queueSize, maxBatchSize, writeBufferSize, flushPeriod, putTimeout, failureListener);
+    }
+
+    private static class SpillFailureListener implements HBaseAsyncFailureListener {
+
+        private final SpillStore spillStore;
+
+        private SpillFailureListener(SpillStore spillStore) {
+            this.spillStore = spillStore;
+        }
+
+        @Override
+        public void onFailure(TableName tableName, List<Put> puts) {
+            if (!spillStore.spillPuts(tableName, puts)) {
+                LOGGING_FAILURE_LISTENER.onFailure(tableName, puts);
+            }
+        }
+    }
+
+}
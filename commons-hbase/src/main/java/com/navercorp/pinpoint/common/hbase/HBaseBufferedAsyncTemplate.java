@@ -0,0 +1,377 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous put pipeline backed by a {@link BufferedMutator} per table.
+ * <p>
+ * Puts are handed to a single writer thread through a bounded queue. The writer feeds them to the mutators,
+ * which group them by region server and send a batch whenever {@code writeBufferSize} bytes are buffered.
+ * Buffered puts are flushed at least every {@code flushPeriodMillis}.
+ * <p>
+ * When the queue is full, {@link #put(TableName, Put)} waits up to {@code putTimeoutMillis} before rejecting the put,
+ * which slows down the receiver workers instead of letting the queue grow while hbase is slow.
+ * Puts that still fail after the client retries are handed to the {@link HBaseAsyncFailureListener}.
+ * {@link #destroy()} lets the writer drain the queue and flush the mutators. Puts still queued when the writer
+ * does not finish in time are handed to the {@link HBaseAsyncFailureListener} as well.
+ */
+public class HBaseBufferedAsyncTemplate implements HBaseAsyncOperation, DisposableBean {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final long DEFAULT_CLOSE_TIMEOUT = 3000;
+
+    private final Connection connection;
+    private final BlockingQueue<TablePut> queue;
+    private final int maxBatchSize;
+    private final long writeBufferSize;
+    private final long flushPeriodMillis;
+    private final long putTimeoutMillis;
+    private final HBaseAsyncFailureListener failureListener;
+
+    // accessed by the writer thread only
+    private final Map<TableName, BufferedMutator> mutators = new HashMap<>();
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final AtomicLong opsCount = new AtomicLong();
+    private final AtomicLong opsRejectCount = new AtomicLong();
+    private final AtomicLong opsFailedCount = new AtomicLong();
+    private final AtomicLong currentOpsCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushTotalLatency = new AtomicLong();
+
+    public HBaseBufferedAsyncTemplate(Connection connection, int queueSize, int maxBatchSize, long writeBufferSize,
+                                      long flushPeriodMillis, long putTimeoutMillis, HBaseAsyncFailureListener failureListener) {
+        this.connection = Objects.requireNonNull(connection, "connection must not be null");
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("queueSize must be greater than 0");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        }
+        if (writeBufferSize <= 0) {
+            throw new IllegalArgumentException("writeBufferSize must be greater than 0");
+        }
+        if (flushPeriodMillis <= 0) {
+            throw new IllegalArgumentException("flushPeriodMillis must be greater than 0");
+        }
+        if (putTimeoutMillis < 0) {
+            throw new IllegalArgumentException("putTimeoutMillis must not be negative");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.maxBatchSize = maxBatchSize;
+        this.writeBufferSize = writeBufferSize;
+        this.flushPeriodMillis = flushPeriodMillis;
+        this.putTimeoutMillis = putTimeoutMillis;
+        this.failureListener = Objects.requireNonNull(failureListener, "failureListener must not be null");
+
+        this.writerThread = new PinpointThreadFactory("Pinpoint-HBaseBufferedAsync-Writer", true).newThread(new Writer());
+        this.writerThread.start();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public boolean put(TableName tableName, Put put) {
+        Objects.requireNonNull(tableName, "tableName must not be null");
+        Objects.requireNonNull(put, "put must not be null");
+
+        opsCount.incrementAndGet();
+        if (running && offer(new TablePut(tableName, put))) {
+            currentOpsCount.incrementAndGet();
+            return true;
+        }
+        opsRejectCount.incrementAndGet();
+        return false;
+    }
+
+    private boolean offer(TablePut tablePut) {
+        if (queue.offer(tablePut)) {
+            return true;
+        }
+        if (putTimeoutMillis == 0) {
+            return false;
+        }
+        try {
+            return queue.offer(tablePut, putTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public List<Put> put(TableName tableName, List<Put> puts) {
+        Objects.requireNonNull(puts, "puts must not be null");
+
+        List<Put> rejectPuts = null;
+        for (Put put : puts) {
+            if (!put(tableName, put)) {
+                if (rejectPuts == null) {
+                    rejectPuts = new ArrayList<>();
+                }
+                rejectPuts.add(put);
+            }
+        }
+        if (rejectPuts == null) {
+            return Collections.emptyList();
+        }
+        return rejectPuts;
+    }
+
+    @Override
+    public Long getOpsCount() {
+        return opsCount.get();
+    }
+
+    @Override
+    public Long getOpsRejectedCount() {
+        return opsRejectCount.get();
+    }
+
+    @Override
+    public Long getCurrentOpsCount() {
+        return currentOpsCount.get();
+    }
+
+    @Override
+    public Long getOpsFailedCount() {
+        return opsFailedCount.get();
+    }
+
+    @Override
+    public Long getOpsAverageLatency() {
+        final long flushCount = this.flushCount.get();
+        if (flushCount == 0) {
+            return 0L;
+        }
+        return flushTotalLatency.get() / flushCount;
+    }
+
+    /**
+     * puts are grouped by region server inside the mutators, so per region server statistics are not available
+     */
+    @Override
+    public Map<String, Long> getCurrentOpsCountForEachRegionServer() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Map<String, Long> getOpsFailedCountForEachRegionServer() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Map<String, Long> getOpsAverageLatencyForEachRegionServer() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (!running) {
+            return;
+        }
+        logger.info("HBaseBufferedAsyncTemplate.destroy() queued:{}", queue.size());
+        // the writer polls at least every flushPeriodMillis, so it notices the flag without being interrupted in the middle of a flush
+        running = false;
+        writerThread.join(DEFAULT_CLOSE_TIMEOUT);
+        if (writerThread.isAlive()) {
+            abandonQueuedPuts();
+        }
+    }
+
+    // the writer did not drain the queue in time, hand the remaining puts to the failure listener instead of losing them silently
+    private void abandonQueuedPuts() {
+        final List<TablePut> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        logger.warn("writer did not finish in {}ms. abandon queued:{} buffered:{}", DEFAULT_CLOSE_TIMEOUT, remaining.size(),
+                currentOpsCount.get() - remaining.size());
+        if (remaining.isEmpty()) {
+            return;
+        }
+        currentOpsCount.addAndGet(-remaining.size());
+
+        final Map<TableName, List<Put>> putsByTable = new HashMap<>();
+        for (TablePut tablePut : remaining) {
+            List<Put> puts = putsByTable.get(tablePut.tableName);
+            if (puts == null) {
+                puts = new ArrayList<>();
+                putsByTable.put(tablePut.tableName, puts);
+            }
+            puts.add(tablePut.put);
+        }
+        for (Map.Entry<TableName, List<Put>> entry : putsByTable.entrySet()) {
+            onFailure(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private class Writer implements Runnable {
+
+        // puts handed to the mutators since the last flush
+        private int bufferedCount = 0;
+
+        @Override
+        public void run() {
+            final List<TablePut> batch = new ArrayList<>(maxBatchSize);
+            long nextFlushTime = System.currentTimeMillis() + flushPeriodMillis;
+            while (running || !queue.isEmpty()) {
+                try {
+                    final long waitTime = Math.max(nextFlushTime - System.currentTimeMillis(), 0);
+                    final TablePut first = running ? queue.poll(waitTime, TimeUnit.MILLISECONDS) : queue.poll();
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, maxBatchSize - 1);
+                        mutate(batch);
+                        batch.clear();
+                    }
+                } catch (InterruptedException e) {
+                    logger.info("writer interrupted, keep writing until destroy()");
+                } catch (Exception e) {
+                    logger.warn("Failed to write puts. Caused:{}", e.getMessage(), e);
+                }
+
+                if (!running || System.currentTimeMillis() >= nextFlushTime) {
+                    flush();
+                    nextFlushTime = System.currentTimeMillis() + flushPeriodMillis;
+                }
+            }
+            flush();
+            closeMutators();
+        }
+
+        private void mutate(List<TablePut> batch) {
+            for (TablePut tablePut : batch) {
+                try {
+                    final BufferedMutator mutator = getMutator(tablePut.tableName);
+                    mutator.mutate(tablePut.put);
+                    bufferedCount++;
+                } catch (IOException e) {
+                    logger.warn("Failed to mutate table:{}. Caused:{}", tablePut.tableName, e.getMessage(), e);
+                    currentOpsCount.decrementAndGet();
+                    onFailure(tablePut.tableName, Collections.singletonList(tablePut.put));
+                }
+            }
+        }
+
+        private void flush() {
+            if (bufferedCount == 0) {
+                return;
+            }
+            final long startTime = System.currentTimeMillis();
+            for (Map.Entry<TableName, BufferedMutator> entry : mutators.entrySet()) {
+                try {
+                    entry.getValue().flush();
+                } catch (IOException e) {
+                    logger.warn("Failed to flush table:{}. Caused:{}", entry.getKey(), e.getMessage(), e);
+                }
+            }
+            flushTotalLatency.addAndGet(System.currentTimeMillis() - startTime);
+            flushCount.incrementAndGet();
+
+            currentOpsCount.addAndGet(-bufferedCount);
+            bufferedCount = 0;
+        }
+
+        private BufferedMutator getMutator(TableName tableName) throws IOException {
+            BufferedMutator mutator = mutators.get(tableName);
+            if (mutator == null) {
+                BufferedMutatorParams params = new BufferedMutatorParams(tableName);
+                params.writeBufferSize(writeBufferSize);
+                params.listener(new FailureHandler());
+                mutator = connection.getBufferedMutator(params);
+                mutators.put(tableName, mutator);
+            }
+            return mutator;
+        }
+
+        private void closeMutators() {
+            for (Map.Entry<TableName, BufferedMutator> entry : mutators.entrySet()) {
+                try {
+                    entry.getValue().close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close mutator of table:{}. Caused:{}", entry.getKey(), e.getMessage(), e);
+                }
+            }
+            mutators.clear();
+        }
+    }
+
+    private void onFailure(TableName tableName, List<Put> puts) {
+        opsFailedCount.addAndGet(puts.size());
+        try {
+            failureListener.onFailure(tableName, puts);
+        } catch (Exception e) {
+            logger.warn("failureListener error. table:{} puts:{}. Caused:{}", tableName, puts.size(), e.getMessage(), e);
+        }
+    }
+
+    private class FailureHandler implements BufferedMutator.ExceptionListener {
+        @Override
+        public void onException(RetriesExhaustedWithDetailsException exception, BufferedMutator mutator) {
+            final int numExceptions = exception.getNumExceptions();
+            final List<Put> failedPuts = new ArrayList<>(numExceptions);
+            for (int i = 0; i < numExceptions; i++) {
+                final Row row = exception.getRow(i);
+                if (row instanceof Put) {
+                    failedPuts.add((Put) row);
+                }
+            }
+            logger.warn("{} puts failed on table:{}. Caused:{}", numExceptions, mutator.getName(), exception.getMessage());
+            onFailure(mutator.getName(), failedPuts);
+        }
+    }
+
+    private static class TablePut {
+        private final TableName tableName;
+        private final Put put;
+
+        private TablePut(TableName tableName, Put put) {
+            this.tableName = tableName;
+            this.put = put;
+        }
+    }
+
+}
@@ -77,6 +77,13 @@ public class HbaseColumnFamily {
         }
     }
 
+    public static final ApplicationScatterStatistics APPLICATION_SCATTER_STATISTICS = new ApplicationScatterStatistics(HbaseTable.APPLICATION_SCATTER_AGGRE, Bytes.toBytes("C"));
+    public static class ApplicationScatterStatistics extends HbaseColumnFamily {
+        private ApplicationScatterStatistics(HbaseTable hBaseTable, byte[] columnFamilyName) {
+            super(hBaseTable, columnFamilyName);
+        }
+    }
+
     public static final ApplicationStatStatistics APPLICATION_STAT_STATISTICS = new ApplicationStatStatistics(HbaseTable.APPLICATION_STAT_AGGRE, Bytes.toBytes("S"));
     public static class ApplicationStatStatistics extends HbaseColumnFamily {
         public int TIMESPAN_MS = 5 * 60 * 1000;
@@ -28,6 +28,7 @@ public enum HbaseTable {
     AGENT_STAT_VER2("AgentStatV2"),
     API_METADATA("ApiMetaData"),
     APPLICATION_INDEX("ApplicationIndex"),
+    APPLICATION_SCATTER_AGGRE("ApplicationScatterAggre"),
     APPLICATION_STAT_AGGRE("ApplicationStatAggre"),
     APPLICATION_TRACE_INDEX("ApplicationTraceIndex"),
     HOST_APPLICATION_MAP_VER2("HostApplicationMap_Ver2"),
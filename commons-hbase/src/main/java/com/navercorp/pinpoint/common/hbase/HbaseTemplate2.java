@@ -18,7 +18,10 @@ package com.navercorp.pinpoint.common.hbase;
 
 import com.google.common.collect.Lists;
 import com.navercorp.pinpoint.common.hbase.parallel.ParallelResultScanner;
+import com.navercorp.pinpoint.common.hbase.parallel.RegionBoundaryLocator;
 import com.navercorp.pinpoint.common.hbase.parallel.ScanTaskException;
+import com.navercorp.pinpoint.common.hbase.spill.DisabledSpillStore;
+import com.navercorp.pinpoint.common.hbase.spill.SpillStore;
 import com.navercorp.pinpoint.common.util.ExecutorFactory;
 import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.common.util.StopWatch;
@@ -76,6 +79,8 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
     private int maxThreadsPerParallelScan = DEFAULT_MAX_THREADS_PER_PARALLEL_SCAN;
 
     private HBaseAsyncOperation asyncOperation = DisabledHBaseAsyncOperation.INSTANCE;
+    private SpillStore spillStore = DisabledSpillStore.INSTANCE;
+    private RegionBoundaryLocator regionBoundaryLocator;
 
     public HbaseTemplate2() {
     }
@@ -103,6 +108,20 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
         this.asyncOperation = asyncOperation;
     }
 
+    public void setSpillStore(SpillStore spillStore) {
+        if (spillStore == null) {
+            throw new NullPointerException("spillStore");
+        }
+        this.spillStore = spillStore;
+    }
+
+    /**
+     * parallel scans are split along region boundaries if set
+     */
+    public void setRegionBoundaryLocator(RegionBoundaryLocator regionBoundaryLocator) {
+        this.regionBoundaryLocator = regionBoundaryLocator;
+    }
+
     @Override
     public void afterPropertiesSet() {
         Configuration configuration = getConfiguration();
@@ -398,7 +417,10 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
     public boolean asyncPut(TableName tableName, Put put) {
         assertAccessAvailable();
         if (asyncOperation.isAvailable()) {
-            return asyncOperation.put(tableName, put);
+            if (asyncOperation.put(tableName, put)) {
+                return true;
+            }
+            return spillStore.spillPuts(tableName, Collections.singletonList(put));
         } else {
             put(tableName, put);
             return true;
@@ -409,7 +431,11 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
     public List<Put> asyncPut(TableName tableName, List<Put> puts) {
         assertAccessAvailable();
         if (asyncOperation.isAvailable()) {
-            return asyncOperation.put(tableName, puts);
+            final List<Put> rejectedPuts = asyncOperation.put(tableName, puts);
+            if (rejectedPuts != null && !rejectedPuts.isEmpty() && spillStore.spillPuts(tableName, rejectedPuts)) {
+                return Collections.emptyList();
+            }
+            return rejectedPuts;
         } else {
             put(tableName, puts);
             return Collections.emptyList();
@@ -670,17 +696,17 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
                 watch = new StopWatch();
                 watch.start();
             }
-            ParallelResultScanner scanner = new ParallelResultScanner(tableName, this, this.executor, scan, rowKeyDistributor, numParallelThreads);
+            ParallelResultScanner scanner = new ParallelResultScanner(tableName, this, this.executor, scan, rowKeyDistributor, numParallelThreads, this.regionBoundaryLocator);
             if (debugEnabled) {
                 logger.debug("ParallelDistributedScanner createTime: {}ms", watch.stop());
-                watch.start();
             }
             try {
+                // results are mapped as the scan tasks fetch them, early results are released before the scan ends
                 return action.extractData(scanner);
             } finally {
                 scanner.close();
                 if (debugEnabled) {
-                    logger.debug("ParallelDistributedScanner scanTime: {}ms", watch.stop());
+                    logger.debug("ParallelDistributedScanner [{}] {}", tableName, scanner.getParallelScanMetrics());
                 }
             }
         } catch (Throwable th) {
@@ -718,16 +744,22 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
                 final List<Result> resultList = new ArrayList<>(incrementList.size());
 
                 Exception lastException = null;
+                List<Increment> failedIncrements = null;
                 for (Increment increment : incrementList) {
                     try {
                         Result result = table.increment(increment);
                         resultList.add(result);
                     } catch (IOException e) {
+                        // a timed out increment may have been applied, so a spilled increment may be counted twice on replay
                         logger.warn("{} increment error Caused:{}", tableName, e.getMessage(), e);
                         lastException = e;
+                        if (failedIncrements == null) {
+                            failedIncrements = new ArrayList<>();
+                        }
+                        failedIncrements.add(increment);
                     }
                 }
-                if (lastException != null) {
+                if (lastException != null && !spillStore.spillIncrements(tableName, failedIncrements)) {
                     throw lastException;
                 }
                 return resultList;
@@ -57,6 +57,10 @@ public class TableDescriptors {
         return new DefaultTableDescriptor<>(tableNameProvider, HbaseColumnFamily.APPLICATION_STAT_STATISTICS);
     }
 
+    public TableDescriptor<HbaseColumnFamily.ApplicationScatterStatistics> getApplicationScatterStatistics() {
+        return new DefaultTableDescriptor<>(tableNameProvider, HbaseColumnFamily.APPLICATION_SCATTER_STATISTICS);
+    }
+
     public TableDescriptor<HbaseColumnFamily.ApplicationTraceIndexTrace> getApplicationTraceIndexTrace() {
         return new DefaultTableDescriptor<>(tableNameProvider, HbaseColumnFamily.APPLICATION_TRACE_INDEX_TRACE);
     }
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Region boundaries are only used to plan scans, so slightly stale boundaries are fine.
+ * A region split or merge is picked up after the refresh interval.
+ */
+public class CachingRegionBoundaryLocator implements RegionBoundaryLocator {
+
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 60 * 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final Connection connection;
+    private final long refreshIntervalMillis;
+
+    private final ConcurrentMap<TableName, StartKeys> cache = new ConcurrentHashMap<>();
+
+    public CachingRegionBoundaryLocator(Connection connection) {
+        this(connection, DEFAULT_REFRESH_INTERVAL_MILLIS);
+    }
+
+    public CachingRegionBoundaryLocator(Connection connection, long refreshIntervalMillis) {
+        this.connection = Objects.requireNonNull(connection, "connection must not be null");
+        if (refreshIntervalMillis < 0) {
+            throw new IllegalArgumentException("negative refreshIntervalMillis:" + refreshIntervalMillis);
+        }
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    @Override
+    public byte[][] getStartKeys(TableName tableName) {
+        Objects.requireNonNull(tableName, "tableName must not be null");
+
+        final long now = System.currentTimeMillis();
+        final StartKeys cached = cache.get(tableName);
+        if (cached != null && now - cached.loadTime < refreshIntervalMillis) {
+            return cached.keys;
+        }
+        try (RegionLocator regionLocator = connection.getRegionLocator(tableName)) {
+            final byte[][] keys = regionLocator.getStartKeys();
+            cache.put(tableName, new StartKeys(keys, now));
+            return keys;
+        } catch (IOException e) {
+            logger.warn("Failed to get region boundaries of {}. Caused:{}", tableName, e.getMessage(), e);
+            // the last known boundaries are still better than none
+            return cached != null ? cached.keys : null;
+        }
+    }
+
+    private static class StartKeys {
+        private final byte[][] keys;
+        private final long loadTime;
+
+        private StartKeys(byte[][] keys, long loadTime) {
+            this.keys = keys;
+            this.loadTime = loadTime;
+        }
+    }
+}
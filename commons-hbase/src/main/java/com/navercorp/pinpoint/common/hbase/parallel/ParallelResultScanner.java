@@ -39,10 +39,19 @@ public class ParallelResultScanner implements ResultScanner {
 
     private final AbstractRowKeyDistributor keyDistributor;
     private final List<ScanTask> scanTasks;
+    private final ParallelScanMetrics metrics = new ParallelScanMetrics();
     private final Result[] nextResults;
     private Result next = null;
 
     public ParallelResultScanner(TableName tableName, HbaseAccessor hbaseAccessor, ExecutorService executor, Scan originalScan, AbstractRowKeyDistributor keyDistributor, int numParallelThreads) throws IOException {
+        this(tableName, hbaseAccessor, executor, originalScan, keyDistributor, numParallelThreads, null);
+    }
+
+    /**
+     * @param regionBoundaryLocator splits scans along region boundaries if not null
+     */
+    public ParallelResultScanner(TableName tableName, HbaseAccessor hbaseAccessor, ExecutorService executor, Scan originalScan, AbstractRowKeyDistributor keyDistributor, int numParallelThreads,
+                                 RegionBoundaryLocator regionBoundaryLocator) throws IOException {
         if (hbaseAccessor == null) {
             throw new NullPointerException("hbaseAccessor must not be null");
         }
@@ -60,7 +69,13 @@ public class ParallelResultScanner implements ResultScanner {
         final ScanTaskConfig scanTaskConfig = new ScanTaskConfig(tableName, hbaseAccessor, keyDistributor, originalScan.getCaching());
         final Scan[] splitScans = splitScans(originalScan);
 
-        this.scanTasks = createScanTasks(scanTaskConfig, splitScans, numParallelThreads);
+        final byte[][] regionStartKeys = getRegionStartKeys(tableName, originalScan, regionBoundaryLocator);
+        if (regionStartKeys != null) {
+            this.scanTasks = createRegionAwareScanTasks(scanTaskConfig, splitScans, regionStartKeys, numParallelThreads);
+        } else {
+            this.scanTasks = createScanTasks(scanTaskConfig, splitScans, numParallelThreads);
+        }
+        this.metrics.setScanTaskCount(scanTasks.size());
         this.nextResults = new Result[scanTasks.size()];
         for (ScanTask scanTask : scanTasks) {
             executor.execute(scanTask);
@@ -76,11 +91,32 @@ public class ParallelResultScanner implements ResultScanner {
         return scans;
     }
 
+    private byte[][] getRegionStartKeys(TableName tableName, Scan originalScan, RegionBoundaryLocator regionBoundaryLocator) {
+        if (regionBoundaryLocator == null || originalScan.isReversed()) {
+            return null;
+        }
+        final byte[][] regionStartKeys = regionBoundaryLocator.getStartKeys(tableName);
+        if (regionStartKeys == null || regionStartKeys.length == 0) {
+            return null;
+        }
+        return regionStartKeys;
+    }
+
+    private List<ScanTask> createRegionAwareScanTasks(ScanTaskConfig scanTaskConfig, Scan[] splitScans, byte[][] regionStartKeys, int numParallelThreads) throws IOException {
+        final List<List<Scan>> scanDistributions = RegionAwareScanPlanner.plan(splitScans, regionStartKeys, numParallelThreads);
+        final List<ScanTask> scanTasks = new ArrayList<>(scanDistributions.size());
+        for (List<Scan> scanDistribution : scanDistributions) {
+            Scan[] scansForSingleTask = scanDistribution.toArray(new Scan[0]);
+            scanTasks.add(new ScanTask(scanTaskConfig, metrics, scansForSingleTask));
+        }
+        return scanTasks;
+    }
+
     private List<ScanTask> createScanTasks(ScanTaskConfig scanTaskConfig, Scan[] splitScans, int numParallelThreads) {
         if (splitScans.length <= numParallelThreads) {
             List<ScanTask> scanTasks = new ArrayList<>(splitScans.length);
             for (Scan scan : splitScans) {
-                scanTasks.add(new ScanTask(scanTaskConfig, scan));
+                scanTasks.add(new ScanTask(scanTaskConfig, metrics, scan));
             }
             return scanTasks;
         } else {
@@ -95,7 +131,7 @@ public class ParallelResultScanner implements ResultScanner {
             List<ScanTask> scanTasks = new ArrayList<>(numParallelThreads);
             for (List<Scan> scanDistribution : scanDistributions) {
                 Scan[] scansForSingleTask = scanDistribution.toArray(new Scan[0]);
-                scanTasks.add(new ScanTask(scanTaskConfig, scansForSingleTask));
+                scanTasks.add(new ScanTask(scanTaskConfig, metrics, scansForSingleTask));
             }
             return scanTasks;
         }
@@ -134,6 +170,8 @@ public class ParallelResultScanner implements ResultScanner {
                     return null;
                 }
                 if (nextResults[i] == null) {
+                    // the task may have failed after the check above
+                    checkTask(scanTask);
                     continue;
                 }
             }
@@ -145,6 +183,7 @@ public class ParallelResultScanner implements ResultScanner {
         }
         if (indexOfResultToUse >= 0) {
             nextResults[indexOfResultToUse] = null;
+            metrics.consumed();
         }
         return result;
     }
@@ -174,9 +213,21 @@ public class ParallelResultScanner implements ResultScanner {
 
     @Override
     public void close() {
+        boolean terminatedEarly = false;
         for (ScanTask scanTask : this.scanTasks) {
+            if (!scanTask.isScanCompleted()) {
+                terminatedEarly = true;
+            }
             scanTask.close();
         }
+        metrics.closed(terminatedEarly);
+    }
+
+    /**
+     * @return memory and latency statistics of this scan, complete once the scanner is closed
+     */
+    public ParallelScanMetrics getParallelScanMetrics() {
+        return metrics;
     }
 
     public boolean renewLease() {
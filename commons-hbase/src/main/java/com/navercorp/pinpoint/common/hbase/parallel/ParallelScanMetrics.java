@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory and latency statistics of a single parallel scan.
+ * Buffered bytes are results fetched by {@link ScanTask}s but not yet handed to the consumer.
+ */
+public class ParallelScanMetrics {
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong firstResultNanos = new AtomicLong();
+    private volatile long closeNanos;
+
+    private final AtomicLong fetchedRows = new AtomicLong();
+    private final AtomicLong fetchedBytes = new AtomicLong();
+    private final AtomicLong fetchedBatches = new AtomicLong();
+    private final AtomicLong consumedRows = new AtomicLong();
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicLong maxBufferedBytes = new AtomicLong();
+
+    private volatile int scanTaskCount;
+    private volatile boolean terminatedEarly;
+
+    void setScanTaskCount(int scanTaskCount) {
+        this.scanTaskCount = scanTaskCount;
+    }
+
+    void fetched(int rows, long bytes) {
+        fetchedRows.addAndGet(rows);
+        fetchedBytes.addAndGet(bytes);
+        fetchedBatches.incrementAndGet();
+        final long buffered = bufferedBytes.addAndGet(bytes);
+        long max = maxBufferedBytes.get();
+        while (buffered > max) {
+            if (maxBufferedBytes.compareAndSet(max, buffered)) {
+                break;
+            }
+            max = maxBufferedBytes.get();
+        }
+    }
+
+    void released(long bytes) {
+        bufferedBytes.addAndGet(-bytes);
+    }
+
+    void consumed() {
+        if (consumedRows.getAndIncrement() == 0) {
+            firstResultNanos.compareAndSet(0, System.nanoTime());
+        }
+    }
+
+    void closed(boolean terminatedEarly) {
+        this.terminatedEarly = terminatedEarly;
+        this.closeNanos = System.nanoTime();
+    }
+
+    public int getScanTaskCount() {
+        return scanTaskCount;
+    }
+
+    public long getFetchedRows() {
+        return fetchedRows.get();
+    }
+
+    public long getFetchedBytes() {
+        return fetchedBytes.get();
+    }
+
+    public long getFetchedBatches() {
+        return fetchedBatches.get();
+    }
+
+    public long getConsumedRows() {
+        return consumedRows.get();
+    }
+
+    public long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    public long getMaxBufferedBytes() {
+        return maxBufferedBytes.get();
+    }
+
+    /**
+     * @return true if the scan was closed before every scan task reached the end of its scan, i.e. a limit was reached
+     */
+    public boolean isTerminatedEarly() {
+        return terminatedEarly;
+    }
+
+    /**
+     * @return time to the first result handed to the consumer, -1 if there was none
+     */
+    public long getFirstResultTimeMillis() {
+        final long firstResult = firstResultNanos.get();
+        if (firstResult == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(firstResult - startNanos);
+    }
+
+    public long getElapsedTimeMillis() {
+        final long close = closeNanos;
+        final long end = close == 0 ? System.nanoTime() : close;
+        return TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ParallelScanMetrics{");
+        sb.append("scanTaskCount=").append(scanTaskCount);
+        sb.append(", fetchedRows=").append(getFetchedRows());
+        sb.append(", consumedRows=").append(getConsumedRows());
+        sb.append(", fetchedBatches=").append(getFetchedBatches());
+        sb.append(", fetchedBytes=").append(getFetchedBytes());
+        sb.append(", maxBufferedBytes=").append(getMaxBufferedBytes());
+        sb.append(", firstResultTime=").append(getFirstResultTimeMillis()).append("ms");
+        sb.append(", elapsedTime=").append(getElapsedTimeMillis()).append("ms");
+        sb.append(", terminatedEarly=").append(terminatedEarly);
+        sb.append('}');
+        return sb.toString();
+    }
+}
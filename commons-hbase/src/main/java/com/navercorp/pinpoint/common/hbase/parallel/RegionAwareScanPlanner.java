@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Distributes salted scans over scan tasks along region boundaries.
+ * <p>
+ * A salted scan spanning several regions is cut at the region boundaries, and the pieces falling into the same region
+ * are scanned by the same task. Regions are then spread evenly over the tasks.
+ * HBase splits regions by size, so a region is used as the unit of work. A hot salt bucket spanning several regions
+ * is therefore scanned by several tasks, instead of keeping a single task busy while the others are idle.
+ * When there are fewer regions than tasks, the pieces of a region are spread over several tasks as well,
+ * so that up to {@code min(maxTasks, pieces)} tasks scan in parallel.
+ * <p>
+ * Reversed scans are not supported.
+ */
+public class RegionAwareScanPlanner {
+
+    private static final Comparator<RegionScans> LARGEST_FIRST = new Comparator<RegionScans>() {
+        @Override
+        public int compare(RegionScans o1, RegionScans o2) {
+            return Integer.compare(o2.scans.size(), o1.scans.size());
+        }
+    };
+
+    private RegionAwareScanPlanner() {
+    }
+
+    /**
+     * @param scans           salted scans, one for each salt bucket
+     * @param regionStartKeys region start keys in ascending order
+     * @param maxTasks        maximum number of scan tasks
+     * @return scans of each task, at most maxTasks
+     */
+    public static List<List<Scan>> plan(Scan[] scans, byte[][] regionStartKeys, int maxTasks) throws IOException {
+        if (scans == null) {
+            throw new NullPointerException("scans must not be null");
+        }
+        if (regionStartKeys == null) {
+            throw new NullPointerException("regionStartKeys must not be null");
+        }
+        if (maxTasks < 1) {
+            throw new IllegalArgumentException("maxTasks must be greater than 0");
+        }
+
+        final Map<Integer, RegionScans> regionScansMap = new TreeMap<>();
+        for (Scan scan : scans) {
+            if (scan.isReversed()) {
+                throw new IllegalArgumentException("reversed scan is not supported");
+            }
+            for (Scan split : split(scan, regionStartKeys)) {
+                final int regionIndex = getRegionIndex(regionStartKeys, split.getStartRow());
+                RegionScans regionScans = regionScansMap.get(regionIndex);
+                if (regionScans == null) {
+                    regionScans = new RegionScans();
+                    regionScansMap.put(regionIndex, regionScans);
+                }
+                regionScans.scans.add(split);
+            }
+        }
+
+        int pieceCount = 0;
+        for (RegionScans regionScans : regionScansMap.values()) {
+            pieceCount += regionScans.scans.size();
+        }
+        final int taskCount = Math.min(maxTasks, pieceCount);
+        final List<List<Scan>> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add(new ArrayList<Scan>());
+        }
+
+        final List<RegionScans> regionScansList = new ArrayList<>(regionScansMap.values());
+        // regions holding many pieces go first, so that they end up on different tasks
+        Collections.sort(regionScansList, LARGEST_FIRST);
+        if (regionScansList.size() >= taskCount) {
+            assignRegions(regionScansList, tasks);
+        } else {
+            assignPieces(regionScansList, tasks);
+        }
+        return tasks;
+    }
+
+    private static void assignRegions(List<RegionScans> regionScansList, List<List<Scan>> tasks) {
+        final int[] regionCount = new int[tasks.size()];
+        for (RegionScans regionScans : regionScansList) {
+            final int task = getLeastLoadedTask(tasks, regionCount);
+            tasks.get(task).addAll(regionScans.scans);
+            regionCount[task]++;
+        }
+    }
+
+    // fewer regions than tasks : every region gets its own tasks, in proportion to its pieces
+    private static void assignPieces(List<RegionScans> regionScansList, List<List<Scan>> tasks) {
+        final int regionCount = regionScansList.size();
+        final int[] regionTasks = new int[regionCount];
+        Arrays.fill(regionTasks, 1);
+        for (int idleTasks = tasks.size() - regionCount; idleTasks > 0; idleTasks--) {
+            int busiest = -1;
+            for (int i = 0; i < regionCount; i++) {
+                final int pieces = regionScansList.get(i).scans.size();
+                if (regionTasks[i] >= pieces) {
+                    continue;
+                }
+                // pieces per task, compared without division
+                if (busiest == -1 || (long) pieces * regionTasks[busiest] > (long) regionScansList.get(busiest).scans.size() * regionTasks[i]) {
+                    busiest = i;
+                }
+            }
+            // taskCount is at most the number of pieces, so some region still has more pieces than tasks
+            regionTasks[busiest]++;
+        }
+
+        int firstTask = 0;
+        for (int i = 0; i < regionCount; i++) {
+            final List<Scan> pieces = regionScansList.get(i).scans;
+            for (int piece = 0; piece < pieces.size(); piece++) {
+                tasks.get(firstTask + piece % regionTasks[i]).add(pieces.get(piece));
+            }
+            firstTask += regionTasks[i];
+        }
+    }
+
+    private static int getLeastLoadedTask(List<List<Scan>> tasks, int[] regionCount) {
+        int leastLoaded = 0;
+        for (int i = 1; i < regionCount.length; i++) {
+            if (regionCount[i] < regionCount[leastLoaded]) {
+                leastLoaded = i;
+            } else if (regionCount[i] == regionCount[leastLoaded] && tasks.get(i).size() < tasks.get(leastLoaded).size()) {
+                // fewer scanners to open
+                leastLoaded = i;
+            }
+        }
+        return leastLoaded;
+    }
+
+    static List<Scan> split(Scan scan, byte[][] regionStartKeys) throws IOException {
+        final byte[] startRow = scan.getStartRow();
+        final byte[] stopRow = scan.getStopRow();
+        final boolean openEnded = stopRow == null || stopRow.length == 0;
+
+        final List<byte[]> boundaries = new ArrayList<>();
+        for (byte[] regionStartKey : regionStartKeys) {
+            if (Bytes.compareTo(regionStartKey, startRow) <= 0) {
+                continue;
+            }
+            if (!openEnded && Bytes.compareTo(regionStartKey, stopRow) >= 0) {
+                break;
+            }
+            boundaries.add(regionStartKey);
+        }
+        if (boundaries.isEmpty()) {
+            return Collections.singletonList(scan);
+        }
+
+        final List<Scan> splits = new ArrayList<>(boundaries.size() + 1);
+        byte[] splitStartRow = startRow;
+        for (int i = 0; i <= boundaries.size(); i++) {
+            final byte[] splitStopRow = i < boundaries.size() ? boundaries.get(i) : stopRow;
+            final Scan split = new Scan(scan);
+            split.setStartRow(splitStartRow);
+            split.setStopRow(splitStopRow);
+            final String id = scan.getId();
+            if (id != null) {
+                split.setId(id + "-r" + i);
+            }
+            splits.add(split);
+            splitStartRow = splitStopRow;
+        }
+        return splits;
+    }
+
+    static int getRegionIndex(byte[][] regionStartKeys, byte[] row) {
+        int low = 0;
+        int high = regionStartKeys.length - 1;
+        // the last region whose start key is less than or equal to the row
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (Bytes.compareTo(regionStartKeys[mid], row) <= 0) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static class RegionScans {
+        private final List<Scan> scans = new ArrayList<>();
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import org.apache.hadoop.hbase.TableName;
+
+public interface RegionBoundaryLocator {
+
+    /**
+     * @return start keys of the regions of the table in ascending order, the first one being the empty key.
+     * null if the region boundaries are not available.
+     */
+    byte[][] getStartKeys(TableName tableName);
+
+}
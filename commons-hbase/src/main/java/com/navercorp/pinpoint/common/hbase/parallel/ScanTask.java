@@ -26,31 +26,53 @@ import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Scans in a worker thread and hands the results to a single consumer in batches, through a bounded queue.
+ * At most {@link ScanTaskConfig#getScanTaskQueueSize()} batches are buffered, and the task stops fetching
+ * as soon as it is closed, so a consumer that reached its limit does not pull the rest of the scan.
+ *
  * @author HyunGil Jeong
  */
 public class ScanTask implements Runnable {
 
-    private static final Result END_RESULT = new Result();
+    private static final Batch END_BATCH = new Batch(new Result[0], 0);
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
 
     private final TableName tableName;
     private final TableFactory tableFactory;
     private final AbstractRowKeyDistributor rowKeyDistributor;
 
     private final Scan[] scans;
-    private final BlockingQueue<Result> resultQueue;
+    private final int batchSize;
+    private final BlockingQueue<Batch> resultQueue;
+    private final ParallelScanMetrics metrics;
 
     private volatile Throwable throwable;
-    private volatile boolean isQueueClosed = false;
     private volatile boolean isDone = false;
+    private volatile boolean isScanCompleted = false;
+
+    // consumer side
+    private boolean isQueueClosed = false;
+    private Batch currentBatch = END_BATCH;
+    private int currentIndex = 0;
 
     public ScanTask(ScanTaskConfig scanTaskConfig, Scan... scans) {
+        this(scanTaskConfig, new ParallelScanMetrics(), scans);
+    }
+
+    public ScanTask(ScanTaskConfig scanTaskConfig, ParallelScanMetrics metrics, Scan... scans) {
         if (scanTaskConfig == null) {
             throw new NullPointerException("scanTaskConfig must not be null");
         }
+        if (metrics == null) {
+            throw new NullPointerException("metrics must not be null");
+        }
         if (scans == null) {
             throw new NullPointerException("scans must not be null");
         }
@@ -61,7 +83,9 @@ public class ScanTask implements Runnable {
         this.tableFactory = scanTaskConfig.getTableFactory();
         this.rowKeyDistributor = scanTaskConfig.getRowKeyDistributor();
         this.scans = scans;
+        this.batchSize = scanTaskConfig.getScanTaskBatchSize();
         this.resultQueue = new ArrayBlockingQueue<>(scanTaskConfig.getScanTaskQueueSize());
+        this.metrics = metrics;
     }
 
     @Override
@@ -72,26 +96,49 @@ public class ScanTask implements Runnable {
             table = tableFactory.getTable(this.tableName);
             ResultScanner scanner = createResultScanner(table);
             try {
-                for (Result result : scanner) {
-                    this.resultQueue.put(result);
-                    if (this.isDone) {
+                while (!this.isDone) {
+                    final Result[] results = scanner.next(this.batchSize);
+                    if (results == null || results.length == 0) {
+                        this.isScanCompleted = true;
+                        break;
+                    }
+                    final Batch batch = new Batch(results, sizeOf(results));
+                    this.metrics.fetched(results.length, batch.bytes);
+                    if (!offer(batch)) {
+                        // closed by the consumer
                         break;
                     }
                 }
             } finally {
-                this.isDone = true;
-                this.resultQueue.put(END_RESULT);
                 scanner.close();
             }
+            offer(END_BATCH);
         } catch (Throwable th) {
             this.throwable = th;
-            this.resultQueue.clear();
-            this.resultQueue.offer(END_RESULT);
+            discardQueuedBatches();
+            this.resultQueue.offer(END_BATCH);
         } finally {
             tableFactory.releaseTable(table);
         }
     }
 
+    private boolean offer(Batch batch) throws InterruptedException {
+        while (!this.isDone) {
+            if (this.resultQueue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long sizeOf(Result[] batch) {
+        long size = 0;
+        for (Result result : batch) {
+            size += Result.getTotalSizeOfCells(result);
+        }
+        return size;
+    }
+
     private ResultScanner createResultScanner(Table table) throws IOException {
         if (scans.length == 1) {
             Scan scan = scans[0];
@@ -105,27 +152,77 @@ public class ScanTask implements Runnable {
         }
     }
 
+    /**
+     * must be called by a single consumer thread
+     *
+     * @return the next result, or null if there are no more results
+     */
     public Result getResult() throws InterruptedException {
+        if (this.currentIndex < this.currentBatch.results.length) {
+            return nextInBatch();
+        }
         if (this.isQueueClosed) {
             return null;
         }
-        Result take = this.resultQueue.take();
-        if (take == END_RESULT) {
+        releaseCurrentBatch();
+        final Batch batch = this.resultQueue.take();
+        if (batch == END_BATCH) {
             this.isQueueClosed = true;
             return null;
         }
-        return take;
+        this.currentBatch = batch;
+        return nextInBatch();
+    }
+
+    private Result nextInBatch() {
+        final Result[] results = this.currentBatch.results;
+        final Result result = results[this.currentIndex];
+        // let the mapped result be collected
+        results[this.currentIndex++] = null;
+        return result;
+    }
+
+    private void releaseCurrentBatch() {
+        this.metrics.released(this.currentBatch.bytes);
+        this.currentBatch = END_BATCH;
+        this.currentIndex = 0;
     }
 
     public void close() {
         this.isDone = true;
+        releaseCurrentBatch();
         // signal threads blocked on resultQueue
-        this.resultQueue.clear();
-        this.resultQueue.add(END_RESULT);
+        discardQueuedBatches();
+        this.resultQueue.offer(END_BATCH);
+    }
+
+    private void discardQueuedBatches() {
+        final List<Batch> discarded = new ArrayList<>(this.resultQueue.size());
+        this.resultQueue.drainTo(discarded);
+        for (Batch batch : discarded) {
+            this.metrics.released(batch.bytes);
+        }
+    }
+
+    /**
+     * @return true if the scan was read to its end, false if it failed or was closed before that
+     */
+    public boolean isScanCompleted() {
+        return this.isScanCompleted;
     }
 
     public Throwable getThrowable() {
         return this.throwable;
     }
 
+    private static class Batch {
+        private final Result[] results;
+        private final long bytes;
+
+        private Batch(Result[] results, long bytes) {
+            this.results = results;
+            this.bytes = bytes;
+        }
+    }
+
 }
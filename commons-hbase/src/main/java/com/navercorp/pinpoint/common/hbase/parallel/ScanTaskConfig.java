@@ -30,13 +30,23 @@ import java.nio.charset.Charset;
  */
 public class ScanTaskConfig {
 
+    /**
+     * number of result batches a scan task may buffer ahead of the consumer
+     */
+    public static final int DEFAULT_SCAN_TASK_QUEUE_SIZE = 2;
+    /**
+     * hbase 1.x defaults scanner caching to Integer.MAX_VALUE
+     */
+    public static final int MAX_SCAN_TASK_BATCH_SIZE = 1000;
+
     private final TableName tableName;
     private final Configuration configuration;
     private final Charset charset;
     private final TableFactory tableFactory;
 
     private final AbstractRowKeyDistributor rowKeyDistributor;
-    private final int scanTaskQueueSize;
+    private final int scanTaskBatchSize;
+    private final int scanTaskQueueSize = DEFAULT_SCAN_TASK_QUEUE_SIZE;
 
     public ScanTaskConfig(TableName tableName, HbaseAccessor hbaseAccessor, AbstractRowKeyDistributor rowKeyDistributor, int scanCaching) {
         this(tableName, hbaseAccessor.getConfiguration(), hbaseAccessor.getCharset(), hbaseAccessor.getTableFactory(), rowKeyDistributor, scanCaching);
@@ -54,13 +64,14 @@ public class ScanTaskConfig {
         this.charset = charset;
         this.tableFactory = tableFactory;
         this.rowKeyDistributor = rowKeyDistributor;
-        if (scanCaching > 0) {
-            this.scanTaskQueueSize = scanCaching;
-        } else {
-            this.scanTaskQueueSize = configuration.getInt(
+        // a batch is at most what a single scanner rpc returns
+        int caching = scanCaching;
+        if (caching <= 0) {
+            caching = configuration.getInt(
                     HConstants.HBASE_CLIENT_SCANNER_CACHING,
                     HConstants.DEFAULT_HBASE_CLIENT_SCANNER_CACHING);
         }
+        this.scanTaskBatchSize = Math.max(1, Math.min(caching, MAX_SCAN_TASK_BATCH_SIZE));
     }
 
     public TableName getTableName() {
@@ -83,6 +94,10 @@ public class ScanTaskConfig {
         return rowKeyDistributor;
     }
 
+    public int getScanTaskBatchSize() {
+        return scanTaskBatchSize;
+    }
+
     public int getScanTaskQueueSize() {
         return scanTaskQueueSize;
     }
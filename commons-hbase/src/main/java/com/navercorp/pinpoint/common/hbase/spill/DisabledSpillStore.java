@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+
+import java.util.List;
+
+public class DisabledSpillStore implements SpillStore {
+
+    public static final DisabledSpillStore INSTANCE = new DisabledSpillStore();
+
+    @Override
+    public boolean isAvailable() {
+        return false;
+    }
+
+    @Override
+    public boolean spillPuts(TableName tableName, List<Put> puts) {
+        return false;
+    }
+
+    @Override
+    public boolean spillIncrements(TableName tableName, List<Increment> increments) {
+        return false;
+    }
+
+    @Override
+    public SpillRecord peek() {
+        return null;
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public long getSpilledCount() {
+        return -1L;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return -1L;
+    }
+
+    @Override
+    public long getPendingBytes() {
+        return -1L;
+    }
+
+    @Override
+    public void close() {
+    }
+}
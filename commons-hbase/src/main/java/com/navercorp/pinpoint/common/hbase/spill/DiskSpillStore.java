@@ -0,0 +1,263 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Spills records to memory mapped segment files in a local directory.
+ * <p>
+ * Records are appended to the newest segment and replayed from the oldest one.
+ * A segment is deleted once every record in it has been replayed.
+ * At most {@code quota / segmentSize} segments are kept, records that do not fit are dropped.
+ * Segments left by a previous process are replayed after a restart.
+ */
+public class DiskSpillStore implements SpillStore {
+
+    private static final String SEGMENT_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("spill-(\\d+)\\.seg");
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegmentCount;
+
+    private final SpillRecordCodec codec = new SpillRecordCodec();
+
+    // guarded by this
+    private final Deque<SpillSegment> segments = new ArrayDeque<>();
+    private long nextSequence = 0;
+    private byte[] peekedPayload;
+    private SpillSegment peekedSegment;
+
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    public DiskSpillStore(File directory, int segmentSize, long quota) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        if (segmentSize <= SpillSegment.HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid segmentSize " + segmentSize);
+        }
+        if (quota < segmentSize) {
+            throw new IllegalArgumentException("quota must not be smaller than segmentSize");
+        }
+        this.segmentSize = segmentSize;
+        this.maxSegmentCount = (int) Math.min(quota / segmentSize, Integer.MAX_VALUE);
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create spill directory " + directory);
+        }
+        loadSegments();
+    }
+
+    private void loadSegments() {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        final List<SegmentFile> segmentFiles = new ArrayList<>();
+        for (File file : files) {
+            final Matcher matcher = SEGMENT_PATTERN.matcher(file.getName());
+            if (matcher.matches()) {
+                segmentFiles.add(new SegmentFile(file, Long.parseLong(matcher.group(1))));
+            }
+        }
+        Collections.sort(segmentFiles);
+
+        for (SegmentFile segmentFile : segmentFiles) {
+            try {
+                final SpillSegment segment = SpillSegment.open(segmentFile.file, segmentFile.sequence);
+                segments.addLast(segment);
+                logger.info("spill segment loaded {}", segment);
+            } catch (IOException e) {
+                logger.warn("Failed to load spill segment {}. Caused:{}", segmentFile.file, e.getMessage(), e);
+            }
+            nextSequence = Math.max(nextSequence, segmentFile.sequence + 1);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public boolean spillPuts(TableName tableName, List<Put> puts) {
+        if (puts.isEmpty()) {
+            return true;
+        }
+        return spill(SpillRecord.ofPuts(tableName, puts));
+    }
+
+    @Override
+    public boolean spillIncrements(TableName tableName, List<Increment> increments) {
+        if (increments.isEmpty()) {
+            return true;
+        }
+        return spill(SpillRecord.ofIncrements(tableName, increments));
+    }
+
+    private boolean spill(SpillRecord record) {
+        final byte[] payload;
+        try {
+            payload = codec.encode(record);
+        } catch (IOException e) {
+            logger.warn("Failed to encode {}. Caused:{}", record, e.getMessage(), e);
+            return drop(record);
+        }
+
+        synchronized (this) {
+            final SpillSegment last = segments.peekLast();
+            if (last != null && last.append(payload)) {
+                return spilled(record);
+            }
+            if (segments.size() >= maxSegmentCount) {
+                return drop(record);
+            }
+            try {
+                final SpillSegment segment = newSegment();
+                if (segment.append(payload)) {
+                    return spilled(record);
+                }
+                logger.warn("{} is larger than a spill segment. size:{}", record, payload.length);
+                return drop(record);
+            } catch (IOException e) {
+                logger.warn("Failed to create spill segment. Caused:{}", e.getMessage(), e);
+                return drop(record);
+            }
+        }
+    }
+
+    private SpillSegment newSegment() throws IOException {
+        final long sequence = nextSequence++;
+        final File file = new File(directory, String.format("%s%019d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        final SpillSegment segment = SpillSegment.create(file, sequence, segmentSize);
+        segments.addLast(segment);
+        logger.info("spill segment created {}", file);
+        return segment;
+    }
+
+    private boolean spilled(SpillRecord record) {
+        spilledCount.addAndGet(record.size());
+        return true;
+    }
+
+    private boolean drop(SpillRecord record) {
+        droppedCount.addAndGet(record.size());
+        return false;
+    }
+
+    @Override
+    public synchronized SpillRecord peek() throws IOException {
+        while (true) {
+            final SpillSegment first = segments.peekFirst();
+            if (first == null) {
+                return null;
+            }
+            final byte[] payload = first.peek();
+            if (payload == null) {
+                if (first == segments.peekLast()) {
+                    // still being written
+                    return null;
+                }
+                segments.removeFirst();
+                if (!first.delete()) {
+                    logger.warn("Failed to delete spill segment {}", first.getFile());
+                }
+                continue;
+            }
+            try {
+                final SpillRecord record = codec.decode(payload);
+                this.peekedPayload = payload;
+                this.peekedSegment = first;
+                return record;
+            } catch (IOException e) {
+                logger.warn("Skip corrupted spill record in {}. Caused:{}", first, e.getMessage(), e);
+                first.commit(payload);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void commit() {
+        if (peekedPayload == null) {
+            throw new IllegalStateException("peek() not called");
+        }
+        peekedSegment.commit(peekedPayload);
+        this.peekedPayload = null;
+        this.peekedSegment = null;
+    }
+
+    @Override
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public synchronized long getPendingBytes() {
+        long pendingBytes = 0;
+        for (SpillSegment segment : segments) {
+            pendingBytes += segment.getPendingBytes();
+        }
+        return pendingBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (SpillSegment segment : segments) {
+            segment.force();
+        }
+        logger.info("DiskSpillStore closed. pendingBytes:{} segments:{}", getPendingBytes(), segments.size());
+    }
+
+    private static class SegmentFile implements Comparable<SegmentFile> {
+        private final File file;
+        private final long sequence;
+
+        private SegmentFile(File file, long sequence) {
+            this.file = file;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(SegmentFile other) {
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
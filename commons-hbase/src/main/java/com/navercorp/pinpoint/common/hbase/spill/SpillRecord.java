@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Batch of puts or increments of a single table.
+ */
+public class SpillRecord {
+
+    private final TableName tableName;
+    private final List<Put> puts;
+    private final List<Increment> increments;
+
+    public static SpillRecord ofPuts(TableName tableName, List<Put> puts) {
+        return new SpillRecord(tableName, puts, Collections.<Increment>emptyList());
+    }
+
+    public static SpillRecord ofIncrements(TableName tableName, List<Increment> increments) {
+        return new SpillRecord(tableName, Collections.<Put>emptyList(), increments);
+    }
+
+    private SpillRecord(TableName tableName, List<Put> puts, List<Increment> increments) {
+        this.tableName = Objects.requireNonNull(tableName, "tableName must not be null");
+        this.puts = Objects.requireNonNull(puts, "puts must not be null");
+        this.increments = Objects.requireNonNull(increments, "increments must not be null");
+    }
+
+    public TableName getTableName() {
+        return tableName;
+    }
+
+    public List<Put> getPuts() {
+        return puts;
+    }
+
+    public List<Increment> getIncrements() {
+        return increments;
+    }
+
+    public int size() {
+        return puts.size() + increments.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SpillRecord{" +
+                "tableName=" + tableName +
+                ", puts=" + puts.size() +
+                ", increments=" + increments.size() +
+                '}';
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Encodes only what the collector writes: cells of puts and column amounts of increments.
+ * Attributes, durability and time ranges of the mutations are not preserved.
+ */
+class SpillRecordCodec {
+
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_INCREMENT = 2;
+
+    byte[] encode(SpillRecord record) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        final List<Put> puts = record.getPuts();
+        final List<Increment> increments = record.getIncrements();
+        out.writeByte(puts.isEmpty() ? TYPE_INCREMENT : TYPE_PUT);
+        out.writeUTF(record.getTableName().getNameAsString());
+        if (!puts.isEmpty()) {
+            out.writeInt(puts.size());
+            for (Put put : puts) {
+                writePut(out, put);
+            }
+        } else {
+            out.writeInt(increments.size());
+            for (Increment increment : increments) {
+                writeIncrement(out, increment);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writePut(DataOutputStream out, Put put) throws IOException {
+        writeBytes(out, put.getRow());
+        final NavigableMap<byte[], List<Cell>> familyCellMap = put.getFamilyCellMap();
+        int cellCount = 0;
+        for (List<Cell> cells : familyCellMap.values()) {
+            cellCount += cells.size();
+        }
+        out.writeInt(cellCount);
+        for (List<Cell> cells : familyCellMap.values()) {
+            for (Cell cell : cells) {
+                writeBytes(out, CellUtil.cloneFamily(cell));
+                writeBytes(out, CellUtil.cloneQualifier(cell));
+                out.writeLong(cell.getTimestamp());
+                writeBytes(out, CellUtil.cloneValue(cell));
+            }
+        }
+    }
+
+    private void writeIncrement(DataOutputStream out, Increment increment) throws IOException {
+        writeBytes(out, increment.getRow());
+        final Map<byte[], NavigableMap<byte[], Long>> familyMap = increment.getFamilyMapOfLongs();
+        int columnCount = 0;
+        for (NavigableMap<byte[], Long> columns : familyMap.values()) {
+            columnCount += columns.size();
+        }
+        out.writeInt(columnCount);
+        for (Map.Entry<byte[], NavigableMap<byte[], Long>> family : familyMap.entrySet()) {
+            for (Map.Entry<byte[], Long> column : family.getValue().entrySet()) {
+                writeBytes(out, family.getKey());
+                writeBytes(out, column.getKey());
+                out.writeLong(column.getValue());
+            }
+        }
+    }
+
+    private void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    SpillRecord decode(byte[] payload) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        final byte type = in.readByte();
+        final TableName tableName = TableName.valueOf(in.readUTF());
+        final int size = in.readInt();
+        switch (type) {
+            case TYPE_PUT:
+                final List<Put> puts = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    puts.add(readPut(in));
+                }
+                return SpillRecord.ofPuts(tableName, puts);
+            case TYPE_INCREMENT:
+                final List<Increment> increments = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    increments.add(readIncrement(in));
+                }
+                return SpillRecord.ofIncrements(tableName, increments);
+            default:
+                throw new IOException("Unknown spill record type " + type);
+        }
+    }
+
+    private Put readPut(DataInputStream in) throws IOException {
+        final Put put = new Put(readBytes(in));
+        final int cellCount = in.readInt();
+        for (int i = 0; i < cellCount; i++) {
+            final byte[] family = readBytes(in);
+            final byte[] qualifier = readBytes(in);
+            final long timestamp = in.readLong();
+            final byte[] value = readBytes(in);
+            put.addColumn(family, qualifier, timestamp, value);
+        }
+        return put;
+    }
+
+    private Increment readIncrement(DataInputStream in) throws IOException {
+        final Increment increment = new Increment(readBytes(in));
+        final int columnCount = in.readInt();
+        for (int i = 0; i < columnCount; i++) {
+            final byte[] family = readBytes(in);
+            final byte[] qualifier = readBytes(in);
+            final long amount = in.readLong();
+            increment.addColumn(family, qualifier, amount);
+        }
+        return increment;
+    }
+
+    private byte[] readBytes(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
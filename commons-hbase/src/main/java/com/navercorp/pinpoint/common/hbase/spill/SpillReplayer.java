@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import com.navercorp.pinpoint.common.hbase.TableFactory;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes spilled records back to hbase, at most {@code maxReplayPerSecond} mutations per second.
+ * <p>
+ * Records are written directly through the {@link TableFactory} so that a failing replay is not spilled again.
+ * When a write fails, hbase is considered to be still unavailable and the record is retried on the next run.
+ * <p>
+ * Increments are replayed at least once, not exactly once. hbase has no idempotent increment across client calls,
+ * so an increment whose first attempt or replay timed out after being applied is counted twice.
+ * Increments of a record that were applied before a failure are not retried.
+ */
+public class SpillReplayer {
+
+    private static final long REPLAY_INTERVAL_MILLIS = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final SpillStore spillStore;
+    private final TableFactory tableFactory;
+    private final int maxReplayPerSecond;
+
+    private final AtomicLong replayedCount = new AtomicLong();
+    private ScheduledExecutorService executor;
+
+    public SpillReplayer(SpillStore spillStore, TableFactory tableFactory, int maxReplayPerSecond) {
+        this.spillStore = Objects.requireNonNull(spillStore, "spillStore must not be null");
+        this.tableFactory = Objects.requireNonNull(tableFactory, "tableFactory must not be null");
+        if (maxReplayPerSecond <= 0) {
+            throw new IllegalArgumentException("maxReplayPerSecond must be greater than 0");
+        }
+        this.maxReplayPerSecond = maxReplayPerSecond;
+    }
+
+    public void start() {
+        if (!spillStore.isAvailable()) {
+            return;
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(new PinpointThreadFactory("Pinpoint-SpillReplayer", true));
+        this.executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                replay();
+            }
+        }, REPLAY_INTERVAL_MILLIS, REPLAY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("SpillReplayer started. maxReplayPerSecond:{}", maxReplayPerSecond);
+    }
+
+    public void stop() {
+        final ScheduledExecutorService executor = this.executor;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(3000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.executor = null;
+    }
+
+    /**
+     * @return number of mutations replayed
+     */
+    int replay() {
+        int replayed = 0;
+        try {
+            while (replayed < maxReplayPerSecond) {
+                final SpillRecord record = spillStore.peek();
+                if (record == null) {
+                    break;
+                }
+                write(record);
+                spillStore.commit();
+                replayed += record.size();
+            }
+        } catch (IOException e) {
+            logger.info("Replay stopped, hbase not available yet. replayed:{} pendingBytes:{} Caused:{}",
+                    replayed, spillStore.getPendingBytes(), e.getMessage());
+        } catch (Exception e) {
+            logger.warn("Replay failed. Caused:{}", e.getMessage(), e);
+        }
+        if (replayed > 0) {
+            replayedCount.addAndGet(replayed);
+            logger.info("{} spilled mutations replayed. pendingBytes:{}", replayed, spillStore.getPendingBytes());
+        }
+        return replayed;
+    }
+
+    private void write(SpillRecord record) throws IOException {
+        final Table table = tableFactory.getTable(record.getTableName());
+        try {
+            if (!record.getPuts().isEmpty()) {
+                table.put(record.getPuts());
+            } else {
+                writeIncrements(table, record);
+            }
+        } finally {
+            tableFactory.releaseTable(table);
+        }
+    }
+
+    private void writeIncrements(Table table, SpillRecord record) throws IOException {
+        final List<Increment> increments = record.getIncrements();
+        for (int i = 0; i < increments.size(); i++) {
+            try {
+                table.increment(increments.get(i));
+            } catch (IOException e) {
+                if (i == 0) {
+                    throw e;
+                }
+                // increments are not idempotent. spill the rest again instead of retrying the applied ones
+                final List<Increment> remaining = increments.subList(i, increments.size());
+                if (!spillStore.spillIncrements(record.getTableName(), remaining)) {
+                    logger.warn("{} increments of {} dropped", remaining.size(), record.getTableName());
+                }
+                return;
+            }
+        }
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.get();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Memory mapped spill file of a fixed size.
+ * <pre>
+ * header : readPosition(int) writePosition(int)
+ * record : length(int) crc32(int) payload(byte[length])
+ * </pre>
+ * Both positions are kept in the header so that a restarted collector resumes replaying where it stopped.
+ * A record length that does not fit in the written bytes, or a payload that does not match its CRC32,
+ * means the rest of the segment is corrupted, e.g. a partial write of a crashed collector.
+ * The length of a corrupted record can not be trusted, so the segment is truncated at that record.
+ * Not thread safe, guarded by {@link DiskSpillStore}.
+ */
+class SpillSegment {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillSegment.class);
+
+    static final int HEADER_SIZE = 8;
+    private static final int READ_POSITION_OFFSET = 0;
+    private static final int WRITE_POSITION_OFFSET = 4;
+    private static final int LENGTH_SIZE = 4;
+    private static final int CRC_SIZE = 4;
+    private static final int RECORD_HEADER_SIZE = LENGTH_SIZE + CRC_SIZE;
+
+    private final long sequence;
+    private final File file;
+    private final MappedByteBuffer buffer;
+
+    private int readPosition;
+    private int writePosition;
+
+    static SpillSegment create(File file, long sequence, int segmentSize) throws IOException {
+        final SpillSegment segment = new SpillSegment(file, sequence, segmentSize);
+        segment.setReadPosition(HEADER_SIZE);
+        segment.setWritePosition(HEADER_SIZE);
+        return segment;
+    }
+
+    static SpillSegment open(File file, long sequence) throws IOException {
+        final SpillSegment segment = new SpillSegment(file, sequence, (int) file.length());
+        final int capacity = segment.buffer.capacity();
+        final int writePosition = segment.buffer.getInt(WRITE_POSITION_OFFSET);
+        final int readPosition = segment.buffer.getInt(READ_POSITION_OFFSET);
+        if (writePosition < HEADER_SIZE || writePosition > capacity || readPosition < HEADER_SIZE || readPosition > writePosition) {
+            throw new IOException("corrupted spill segment " + file + " read:" + readPosition + " write:" + writePosition);
+        }
+        segment.readPosition = readPosition;
+        segment.writePosition = writePosition;
+        return segment;
+    }
+
+    private SpillSegment(File file, long sequence, int segmentSize) throws IOException {
+        this.file = Objects.requireNonNull(file, "file must not be null");
+        this.sequence = sequence;
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid segmentSize " + segmentSize);
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return false if the segment does not have enough space left for the record
+     */
+    boolean append(byte[] payload) {
+        final int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (writePosition + recordSize > buffer.capacity()) {
+            return false;
+        }
+        final ByteBuffer writeBuffer = buffer.duplicate();
+        writeBuffer.position(writePosition);
+        writeBuffer.putInt(payload.length);
+        writeBuffer.putInt(crc32(payload));
+        writeBuffer.put(payload);
+        setWritePosition(writePosition + recordSize);
+        return true;
+    }
+
+    boolean hasRemaining() {
+        return readPosition < writePosition;
+    }
+
+    /**
+     * @return payload of the next record, or null if every record was read
+     */
+    byte[] peek() {
+        if (!hasRemaining()) {
+            return null;
+        }
+        final int pendingBytes = getPendingBytes();
+        if (pendingBytes < RECORD_HEADER_SIZE) {
+            truncate("pending:" + pendingBytes);
+            return null;
+        }
+        final ByteBuffer readBuffer = buffer.duplicate();
+        readBuffer.position(readPosition);
+        final int length = readBuffer.getInt();
+        final int crc = readBuffer.getInt();
+        if (length < 0 || length > pendingBytes - RECORD_HEADER_SIZE) {
+            truncate("length:" + length + " pending:" + pendingBytes);
+            return null;
+        }
+        final byte[] payload = new byte[length];
+        readBuffer.get(payload);
+        final int actualCrc = crc32(payload);
+        if (actualCrc != crc) {
+            truncate("crc:" + crc + " actual:" + actualCrc);
+            return null;
+        }
+        return payload;
+    }
+
+    private static int crc32(byte[] payload) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(payload, 0, payload.length);
+        return (int) crc32.getValue();
+    }
+
+    // records after the read position can not be located anymore
+    private void truncate(String cause) {
+        logger.warn("Corrupted spill record, skip {} bytes of {}. {}", getPendingBytes(), this, cause);
+        setWritePosition(readPosition);
+    }
+
+    void commit(byte[] payload) {
+        setReadPosition(readPosition + RECORD_HEADER_SIZE + payload.length);
+    }
+
+    int getPendingBytes() {
+        return writePosition - readPosition;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    boolean delete() {
+        // the mapping is released once the buffer is garbage collected
+        return file.delete();
+    }
+
+    private void setReadPosition(int readPosition) {
+        this.readPosition = readPosition;
+        buffer.putInt(READ_POSITION_OFFSET, readPosition);
+    }
+
+    private void setWritePosition(int writePosition) {
+        this.writePosition = writePosition;
+        buffer.putInt(WRITE_POSITION_OFFSET, writePosition);
+    }
+
+    @Override
+    public String toString() {
+        return "SpillSegment{" +
+                "file=" + file +
+                ", readPosition=" + readPosition +
+                ", writePosition=" + writePosition +
+                '}';
+    }
+}
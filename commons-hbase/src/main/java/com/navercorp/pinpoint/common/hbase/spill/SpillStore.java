@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Local buffer for mutations that could not be handed to hbase.
+ * Records are replayed in the order they were spilled.
+ */
+public interface SpillStore extends Closeable {
+
+    boolean isAvailable();
+
+    /**
+     * @return false if the puts were not spilled and must be handled by the caller
+     */
+    boolean spillPuts(TableName tableName, List<Put> puts);
+
+    /**
+     * Increments are replayed at least once. An increment that failed with a timeout may already have been applied
+     * by the region server, and its replay then counts it twice.
+     *
+     * @return false if the increments were not spilled and must be handled by the caller
+     */
+    boolean spillIncrements(TableName tableName, List<Increment> increments);
+
+    /**
+     * @return the oldest record, or null if there is nothing to replay. The same record is returned until {@link #commit()}
+     */
+    SpillRecord peek() throws IOException;
+
+    /**
+     * removes the record returned by the last {@link #peek()}
+     */
+    void commit();
+
+    long getSpilledCount();
+
+    long getDroppedCount();
+
+    long getPendingBytes();
+
+}
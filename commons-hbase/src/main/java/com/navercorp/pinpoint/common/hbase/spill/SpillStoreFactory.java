@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+public class SpillStoreFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillStoreFactory.class);
+
+    public static final String ENABLE_SPILL = "hbase.client.async.spill.enable";
+    public static final boolean DEFAULT_ENABLE_SPILL = false;
+
+    public static final String SPILL_DIRECTORY = "hbase.client.async.spill.dir";
+    public static final String DEFAULT_SPILL_DIRECTORY = new File(System.getProperty("java.io.tmpdir"), "pinpoint-spill").getPath();
+
+    public static final String SPILL_SEGMENT_SIZE = "hbase.client.async.spill.segment.size";
+    public static final int DEFAULT_SPILL_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    public static final String SPILL_QUOTA = "hbase.client.async.spill.quota";
+    public static final long DEFAULT_SPILL_QUOTA = 1024L * 1024 * 1024;
+
+    public static SpillStore create(Configuration configuration) throws IOException {
+        boolean enableSpill = configuration.getBoolean(ENABLE_SPILL, DEFAULT_ENABLE_SPILL);
+        if (!enableSpill) {
+            return DisabledSpillStore.INSTANCE;
+        }
+
+        String directoryName = configuration.getTrimmed(SPILL_DIRECTORY);
+        if (directoryName == null || directoryName.isEmpty()) {
+            directoryName = DEFAULT_SPILL_DIRECTORY;
+        }
+        File directory = new File(directoryName);
+        int segmentSize = configuration.getInt(SPILL_SEGMENT_SIZE, DEFAULT_SPILL_SEGMENT_SIZE);
+        long quota = configuration.getLong(SPILL_QUOTA, DEFAULT_SPILL_QUOTA);
+
+        LOGGER.info("create DiskSpillStore directory:{} segmentSize:{} quota:{}", directory, segmentSize, quota);
+        return new DiskSpillStore(directory, segmentSize, quota);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HBaseBufferedAsyncTemplateTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("test");
+
+    private final List<Put> failedPuts = new CopyOnWriteArrayList<>();
+    private final HBaseAsyncFailureListener failureListener = new HBaseAsyncFailureListener() {
+        @Override
+        public void onFailure(TableName tableName, List<Put> puts) {
+            failedPuts.addAll(puts);
+        }
+    };
+
+    private Connection connection;
+    private BufferedMutator mutator;
+    private HBaseBufferedAsyncTemplate template;
+
+    @Before
+    public void setUp() throws IOException {
+        connection = mock(Connection.class);
+        mutator = mock(BufferedMutator.class);
+        when(mutator.getName()).thenReturn(TABLE_NAME);
+        when(connection.getBufferedMutator(any(BufferedMutatorParams.class))).thenReturn(mutator);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (template != null) {
+            template.destroy();
+        }
+    }
+
+    @Test
+    public void put() throws Exception {
+        template = new HBaseBufferedAsyncTemplate(connection, 10, 10, 1024, 10, 0, failureListener);
+
+        Put put = newPut(1);
+        Assert.assertTrue(template.put(TABLE_NAME, put));
+
+        verify(mutator, timeout(1000)).mutate(put);
+        verify(mutator, timeout(1000).atLeastOnce()).flush();
+        awaitCurrentOpsCleared();
+        Assert.assertEquals(1L, (long) template.getOpsCount());
+        Assert.assertEquals(0L, (long) template.getOpsRejectedCount());
+    }
+
+    @Test
+    public void rejectWhenQueueIsFull() throws Exception {
+        final CountDownLatch mutateLatch = new CountDownLatch(1);
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            mutateLatch.countDown();
+            releaseLatch.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(mutator).mutate(any(Mutation.class));
+
+        template = new HBaseBufferedAsyncTemplate(connection, 1, 1, 1024, 10, 0, failureListener);
+
+        // taken by the writer, blocked in mutate
+        Assert.assertTrue(template.put(TABLE_NAME, newPut(1)));
+        Assert.assertTrue(mutateLatch.await(1, TimeUnit.SECONDS));
+        // fills the queue
+        Assert.assertTrue(template.put(TABLE_NAME, newPut(2)));
+
+        List<Put> rejected = template.put(TABLE_NAME, Collections.singletonList(newPut(3)));
+        Assert.assertEquals(1, rejected.size());
+        Assert.assertEquals(1L, (long) template.getOpsRejectedCount());
+
+        releaseLatch.countDown();
+        awaitCurrentOpsCleared();
+    }
+
+    @Test
+    public void destroyHandsQueuedPutsToFailureListener() throws Exception {
+        final CountDownLatch mutateLatch = new CountDownLatch(1);
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            mutateLatch.countDown();
+            releaseLatch.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(mutator).mutate(any(Mutation.class));
+
+        template = new HBaseBufferedAsyncTemplate(connection, 2, 1, 1024, 10, 0, failureListener);
+
+        // taken by the writer, blocked in mutate until destroy() gives up
+        Assert.assertTrue(template.put(TABLE_NAME, newPut(1)));
+        Assert.assertTrue(mutateLatch.await(1, TimeUnit.SECONDS));
+        Put queued1 = newPut(2);
+        Put queued2 = newPut(3);
+        Assert.assertTrue(template.put(TABLE_NAME, queued1));
+        Assert.assertTrue(template.put(TABLE_NAME, queued2));
+
+        try {
+            template.destroy();
+        } finally {
+            releaseLatch.countDown();
+        }
+
+        Assert.assertEquals(2, failedPuts.size());
+        Assert.assertTrue(failedPuts.contains(queued1));
+        Assert.assertTrue(failedPuts.contains(queued2));
+        Assert.assertEquals(2L, (long) template.getOpsFailedCount());
+    }
+
+    @Test
+    public void failedPuts() throws Exception {
+        template = new HBaseBufferedAsyncTemplate(connection, 10, 10, 1024, 10, 0, failureListener);
+        Assert.assertTrue(template.put(TABLE_NAME, newPut(1)));
+
+        ArgumentCaptor<BufferedMutatorParams> paramsCaptor = ArgumentCaptor.forClass(BufferedMutatorParams.class);
+        verify(connection, timeout(1000)).getBufferedMutator(paramsCaptor.capture());
+        BufferedMutator.ExceptionListener listener = paramsCaptor.getValue().getListener();
+
+        Put failedPut = newPut(2);
+        List<Throwable> exceptions = Collections.<Throwable>singletonList(new IOException("test"));
+        List<Row> rows = Collections.<Row>singletonList(failedPut);
+        listener.onException(new RetriesExhaustedWithDetailsException(exceptions, rows, Collections.singletonList("localhost")), mutator);
+
+        Assert.assertEquals(Collections.singletonList(failedPut), failedPuts);
+        Assert.assertEquals(1L, (long) template.getOpsFailedCount());
+    }
+
+    private Put newPut(int row) {
+        Put put = new Put(Bytes.toBytes(row));
+        put.addColumn(Bytes.toBytes("F"), Bytes.toBytes("Q"), Bytes.toBytes(row));
+        return put;
+    }
+
+    private void awaitCurrentOpsCleared() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (template.getCurrentOpsCount() == 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        Assert.fail("pending puts not flushed. currentOpsCount:" + template.getCurrentOpsCount());
+    }
+}
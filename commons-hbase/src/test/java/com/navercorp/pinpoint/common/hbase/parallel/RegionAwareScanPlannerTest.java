@@ -0,0 +1,253 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class RegionAwareScanPlannerTest {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final int BUCKET_COUNT = 32;
+    private static final int HOT_BUCKET_REGIONS = 4;
+    private static final int[] HOT_BUCKETS = {3, 7};
+
+    @Test
+    public void split() throws Exception {
+        byte[][] regionStartKeys = createRegionStartKeys();
+        Scan scan = bucketScan(3);
+
+        List<Scan> splits = RegionAwareScanPlanner.split(scan, regionStartKeys);
+        Assert.assertEquals(HOT_BUCKET_REGIONS, splits.size());
+        Assert.assertArrayEquals(scan.getStartRow(), splits.get(0).getStartRow());
+        Assert.assertArrayEquals(scan.getStopRow(), splits.get(splits.size() - 1).getStopRow());
+        for (int i = 1; i < splits.size(); i++) {
+            // contiguous
+            Assert.assertArrayEquals(splits.get(i - 1).getStopRow(), splits.get(i).getStartRow());
+        }
+        Set<Integer> regions = new HashSet<>();
+        for (Scan split : splits) {
+            regions.add(RegionAwareScanPlanner.getRegionIndex(regionStartKeys, split.getStartRow()));
+        }
+        Assert.assertEquals(HOT_BUCKET_REGIONS, regions.size());
+
+        // a scan within a single region is not split
+        Scan coldScan = bucketScan(4);
+        Assert.assertSame(coldScan, RegionAwareScanPlanner.split(coldScan, regionStartKeys).get(0));
+    }
+
+    @Test
+    public void splitOpenEndedScan() throws Exception {
+        byte[][] regionStartKeys = createRegionStartKeys();
+        Scan scan = new Scan();
+        scan.setStartRow(new byte[]{(byte) 30});
+
+        List<Scan> splits = RegionAwareScanPlanner.split(scan, regionStartKeys);
+        Assert.assertEquals(2, splits.size());
+        Assert.assertArrayEquals(new byte[]{(byte) 31}, splits.get(0).getStopRow());
+        Assert.assertArrayEquals(HConstants.EMPTY_END_ROW, splits.get(1).getStopRow());
+    }
+
+    @Test
+    public void getRegionIndex() {
+        byte[][] regionStartKeys = createRegionStartKeys();
+        Assert.assertEquals(0, RegionAwareScanPlanner.getRegionIndex(regionStartKeys, HConstants.EMPTY_START_ROW));
+        Assert.assertEquals(0, RegionAwareScanPlanner.getRegionIndex(regionStartKeys, new byte[]{0, 1}));
+        Assert.assertEquals(1, RegionAwareScanPlanner.getRegionIndex(regionStartKeys, new byte[]{1}));
+        Assert.assertEquals(regionStartKeys.length - 1, RegionAwareScanPlanner.getRegionIndex(regionStartKeys, new byte[]{(byte) 31, 5}));
+    }
+
+    @Test
+    public void planCoversEveryScan() throws Exception {
+        byte[][] regionStartKeys = createRegionStartKeys();
+        Scan[] scans = bucketScans();
+
+        List<List<Scan>> tasks = RegionAwareScanPlanner.plan(scans, regionStartKeys, 4);
+        Assert.assertEquals(4, tasks.size());
+
+        int pieces = 0;
+        Map<Integer, Integer> regionTaskMap = new HashMap<>();
+        for (int taskIndex = 0; taskIndex < tasks.size(); taskIndex++) {
+            for (Scan scan : tasks.get(taskIndex)) {
+                int region = RegionAwareScanPlanner.getRegionIndex(regionStartKeys, scan.getStartRow());
+                Integer before = regionTaskMap.put(region, taskIndex);
+                if (before != null) {
+                    Assert.assertEquals("a region is scanned by a single task", before.intValue(), taskIndex);
+                }
+            }
+            pieces += tasks.get(taskIndex).size();
+        }
+        Assert.assertEquals(BUCKET_COUNT + HOT_BUCKETS.length * (HOT_BUCKET_REGIONS - 1), pieces);
+
+        // fewer pieces than tasks
+        List<List<Scan>> singleTask = RegionAwareScanPlanner.plan(new Scan[]{bucketScan(10)}, regionStartKeys, 4);
+        Assert.assertEquals(1, singleTask.size());
+    }
+
+    @Test
+    public void planSpreadsPiecesOfFewRegions() throws Exception {
+        // 2 regions of 16 salt buckets each, 24 pieces in the first one
+        byte[][] regionStartKeys = {HConstants.EMPTY_START_ROW, new byte[]{(byte) 16}};
+        List<Scan> scans = new ArrayList<>(Arrays.asList(bucketScans()));
+        for (int i = 0; i < 8; i++) {
+            scans.add(bucketScan(i));
+        }
+
+        List<List<Scan>> tasks = RegionAwareScanPlanner.plan(scans.toArray(new Scan[0]), regionStartKeys, 4);
+        Assert.assertEquals(4, tasks.size());
+
+        int pieces = 0;
+        Map<Integer, Set<Integer>> regionTasksMap = new HashMap<>();
+        for (int taskIndex = 0; taskIndex < tasks.size(); taskIndex++) {
+            List<Scan> task = tasks.get(taskIndex);
+            Set<Integer> regions = new HashSet<>();
+            for (Scan scan : task) {
+                int region = RegionAwareScanPlanner.getRegionIndex(regionStartKeys, scan.getStartRow());
+                regions.add(region);
+                Set<Integer> regionTasks = regionTasksMap.get(region);
+                if (regionTasks == null) {
+                    regionTasks = new HashSet<>();
+                    regionTasksMap.put(region, regionTasks);
+                }
+                regionTasks.add(taskIndex);
+            }
+            Assert.assertEquals("a task scans a single region", 1, regions.size());
+            pieces += task.size();
+        }
+        Assert.assertEquals(40, pieces);
+        // tasks are given to the region with the most pieces per task : 24 pieces over 2 tasks, 16 pieces over 2 tasks
+        Assert.assertEquals(2, regionTasksMap.get(0).size());
+        Assert.assertEquals(2, regionTasksMap.get(1).size());
+        Assert.assertEquals(12, tasks.get(0).size());
+        Assert.assertEquals(12, tasks.get(1).size());
+        Assert.assertEquals(8, tasks.get(2).size());
+        Assert.assertEquals(8, tasks.get(3).size());
+
+        // no more tasks than pieces
+        List<List<Scan>> twoTasks = RegionAwareScanPlanner.plan(new Scan[]{bucketScan(1), bucketScan(2)}, regionStartKeys, 4);
+        Assert.assertEquals(2, twoTasks.size());
+        Assert.assertEquals(1, twoTasks.get(0).size());
+        Assert.assertEquals(1, twoTasks.get(1).size());
+    }
+
+    @Test
+    public void splitScanWithoutId() throws Exception {
+        byte[][] regionStartKeys = createRegionStartKeys();
+        Scan scan = new Scan();
+        scan.setStartRow(new byte[]{(byte) 3});
+        scan.setStopRow(new byte[]{(byte) 4});
+
+        List<Scan> splits = RegionAwareScanPlanner.split(scan, regionStartKeys);
+        Assert.assertEquals(HOT_BUCKET_REGIONS, splits.size());
+        for (Scan split : splits) {
+            Assert.assertNull(split.getId());
+        }
+    }
+
+    /**
+     * Stand-in for a minicluster : HBase splits regions by size, so every region holds the same number of rows
+     * and a task takes as long as the number of regions it scans.
+     */
+    @Test
+    public void benchmarkMakespan() throws Exception {
+        final byte[][] regionStartKeys = createRegionStartKeys();
+        final int threads = 4;
+
+        // round robin over salt buckets, as without region boundaries
+        List<List<Scan>> roundRobin = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            roundRobin.add(new ArrayList<Scan>());
+        }
+        Scan[] scans = bucketScans();
+        for (int i = 0; i < scans.length; i++) {
+            roundRobin.get(i % threads).add(scans[i]);
+        }
+        final int roundRobinMakespan = makespan(roundRobin, regionStartKeys);
+
+        List<List<Scan>> regionAware = RegionAwareScanPlanner.plan(bucketScans(), regionStartKeys, threads);
+        final int regionAwareMakespan = makespan(regionAware, regionStartKeys);
+
+        logger.debug("makespan (regions scanned by the busiest task) round robin:{} region aware:{}", roundRobinMakespan, regionAwareMakespan);
+
+        final int regionCount = BUCKET_COUNT + HOT_BUCKETS.length * (HOT_BUCKET_REGIONS - 1);
+        Assert.assertEquals((regionCount + threads - 1) / threads, regionAwareMakespan);
+        // both hot buckets fall on the same task with round robin
+        Assert.assertEquals(BUCKET_COUNT / threads + HOT_BUCKETS.length * (HOT_BUCKET_REGIONS - 1), roundRobinMakespan);
+        Assert.assertTrue(regionAwareMakespan < roundRobinMakespan);
+    }
+
+    private int makespan(List<List<Scan>> tasks, byte[][] regionStartKeys) throws Exception {
+        int makespan = 0;
+        for (List<Scan> task : tasks) {
+            int regions = 0;
+            for (Scan scan : task) {
+                regions += RegionAwareScanPlanner.split(scan, regionStartKeys).size();
+            }
+            makespan = Math.max(makespan, regions);
+        }
+        return makespan;
+    }
+
+    private Scan[] bucketScans() {
+        Scan[] scans = new Scan[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            scans[i] = bucketScan(i);
+        }
+        return scans;
+    }
+
+    private Scan bucketScan(int bucket) {
+        Scan scan = new Scan();
+        scan.setStartRow(new byte[]{(byte) bucket});
+        scan.setStopRow(new byte[]{(byte) (bucket + 1)});
+        scan.setId("test-" + bucket);
+        return scan;
+    }
+
+    /**
+     * pre-split by salt bucket, hot buckets split further
+     */
+    private byte[][] createRegionStartKeys() {
+        List<byte[]> startKeys = new ArrayList<>();
+        startKeys.add(HConstants.EMPTY_START_ROW);
+        for (int i = 1; i < BUCKET_COUNT; i++) {
+            startKeys.add(new byte[]{(byte) i});
+        }
+        for (int hotBucket : HOT_BUCKETS) {
+            for (int i = 1; i < HOT_BUCKET_REGIONS; i++) {
+                startKeys.add(new byte[]{(byte) hotBucket, (byte) (i * 256 / HOT_BUCKET_REGIONS)});
+            }
+        }
+        byte[][] keys = startKeys.toArray(new byte[0][]);
+        Arrays.sort(keys, Bytes.BYTES_COMPARATOR);
+        return keys;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import com.navercorp.pinpoint.common.hbase.TableFactory;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ScanTaskTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("test");
+    private static final byte[] FAMILY = Bytes.toBytes("F");
+    private static final byte[] QUALIFIER = Bytes.toBytes("Q");
+
+    private static final int BATCH_SIZE = 10;
+
+    private final AtomicInteger rowCounter = new AtomicInteger();
+    private ResultScanner resultScanner;
+    private ScanTaskConfig scanTaskConfig;
+
+    @Before
+    public void setUp() throws Exception {
+        resultScanner = mock(ResultScanner.class);
+        Table table = mock(Table.class);
+        when(table.getScanner(any(Scan.class))).thenReturn(resultScanner);
+        TableFactory tableFactory = mock(TableFactory.class);
+        when(tableFactory.getTable(TABLE_NAME)).thenReturn(table);
+
+        AbstractRowKeyDistributor rowKeyDistributor = mock(AbstractRowKeyDistributor.class);
+        scanTaskConfig = new ScanTaskConfig(TABLE_NAME, new Configuration(false), StandardCharsets.UTF_8, tableFactory, rowKeyDistributor, BATCH_SIZE);
+    }
+
+    @Test
+    public void streamAllResults() throws Exception {
+        final int totalRows = 95;
+        when(resultScanner.next(anyInt())).thenAnswer(new BatchAnswer(totalRows));
+
+        ParallelScanMetrics metrics = new ParallelScanMetrics();
+        ScanTask scanTask = new ScanTask(scanTaskConfig, metrics, new Scan());
+        Thread thread = new Thread(scanTask);
+        thread.start();
+
+        int rows = 0;
+        Result result;
+        while ((result = scanTask.getResult()) != null) {
+            Assert.assertEquals(rows, Bytes.toInt(result.getRow()));
+            rows++;
+        }
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+
+        Assert.assertEquals(totalRows, rows);
+        Assert.assertTrue(scanTask.isScanCompleted());
+        Assert.assertNull(scanTask.getThrowable());
+        Assert.assertEquals(totalRows, metrics.getFetchedRows());
+        Assert.assertEquals(10, metrics.getFetchedBatches());
+        Assert.assertTrue(metrics.getFetchedBytes() > 0);
+        verify(resultScanner).close();
+    }
+
+    @Test
+    public void stopFetchingWhenClosed() throws Exception {
+        // endless scan
+        when(resultScanner.next(anyInt())).thenAnswer(new BatchAnswer(Integer.MAX_VALUE));
+
+        ParallelScanMetrics metrics = new ParallelScanMetrics();
+        ScanTask scanTask = new ScanTask(scanTaskConfig, metrics, new Scan());
+        Thread thread = new Thread(scanTask);
+        thread.start();
+
+        for (int i = 0; i < BATCH_SIZE + 1; i++) {
+            Assert.assertNotNull(scanTask.getResult());
+        }
+        scanTask.close();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+
+        Assert.assertFalse("scan task must stop once closed", thread.isAlive());
+        Assert.assertFalse(scanTask.isScanCompleted());
+        // consumed batches + queued batches + the batch being offered
+        final int maxBatches = 2 + ScanTaskConfig.DEFAULT_SCAN_TASK_QUEUE_SIZE + 1;
+        Assert.assertTrue("fetched batches:" + metrics.getFetchedBatches(), metrics.getFetchedBatches() <= maxBatches);
+        verify(resultScanner).close();
+    }
+
+    @Test
+    public void scanFailure() throws Exception {
+        when(resultScanner.next(anyInt())).thenThrow(new RuntimeException("test"));
+
+        ScanTask scanTask = new ScanTask(scanTaskConfig, new Scan());
+        scanTask.run();
+
+        Assert.assertNull(scanTask.getResult());
+        Assert.assertNotNull(scanTask.getThrowable());
+        Assert.assertFalse(scanTask.isScanCompleted());
+    }
+
+    @Test
+    public void releaseQueuedBatchesOnFailure() throws Exception {
+        BatchAnswer batchAnswer = new BatchAnswer(Integer.MAX_VALUE);
+        when(resultScanner.next(anyInt())).thenAnswer(batchAnswer).thenAnswer(batchAnswer).thenThrow(new RuntimeException("test"));
+
+        ParallelScanMetrics metrics = new ParallelScanMetrics();
+        ScanTask scanTask = new ScanTask(scanTaskConfig, metrics, new Scan());
+        scanTask.run();
+
+        Assert.assertEquals(2, metrics.getFetchedBatches());
+        Assert.assertEquals("queued batches must be released", 0, metrics.getBufferedBytes());
+        Assert.assertNull(scanTask.getResult());
+        Assert.assertNotNull(scanTask.getThrowable());
+    }
+
+        private class BatchAnswer implements Answer<Result[]> {
+
+        private final int totalRows;
+
+        private BatchAnswer(int totalRows) {
+            this.totalRows = totalRows;
+        }
+
+        @Override
+        public Result[] answer(InvocationOnMock invocation) {
+            final int batchSize = invocation.getArgument(0);
+            final int start = rowCounter.get();
+            final int size = (int) Math.min(batchSize, (long) totalRows - start);
+            final Result[] results = new Result[size];
+            for (int i = 0; i < size; i++) {
+                final byte[] row = Bytes.toBytes(rowCounter.getAndIncrement());
+                results[i] = Result.create(new Cell[]{new KeyValue(row, FAMILY, QUALIFIER, row)});
+            }
+            return results;
+        }
+    }
+}
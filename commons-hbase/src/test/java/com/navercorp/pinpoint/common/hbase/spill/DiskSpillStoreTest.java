@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.hbase.spill;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class DiskSpillStoreTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("ns", "test");
+    private static final byte[] FAMILY = Bytes.toBytes("F");
+    private static final byte[] QUALIFIER = Bytes.toBytes("Q");
+    // length(int) crc32(int)
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void replayInOrder() throws IOException {
+        DiskSpillStore spillStore = new DiskSpillStore(temporaryFolder.getRoot(), 1024, 4096);
+
+        Assert.assertTrue(spillStore.spillPuts(TABLE_NAME, Arrays.asList(newPut(1), newPut(2))));
+        Assert.assertTrue(spillStore.spillIncrements(TABLE_NAME, Collections.singletonList(newIncrement(3, 10))));
+        Assert.assertEquals(3, spillStore.getSpilledCount());
+
+        SpillRecord puts = spillStore.peek();
+        Assert.assertEquals(TABLE_NAME, puts.getTableName());
+        Assert.assertEquals(2, puts.getPuts().size());
+        assertPut(1, puts.getPuts().get(0));
+        assertPut(2, puts.getPuts().get(1));
+        // not committed yet
+        Assert.assertEquals(2, spillStore.peek().getPuts().size());
+        spillStore.commit();
+
+        SpillRecord increments = spillStore.peek();
+        Assert.assertEquals(1, increments.getIncrements().size());
+        Increment increment = increments.getIncrements().get(0);
+        Assert.assertArrayEquals(Bytes.toBytes(3), increment.getRow());
+        Assert.assertEquals(10L, (long) increment.getFamilyMapOfLongs().get(FAMILY).get(QUALIFIER));
+        spillStore.commit();
+
+        Assert.assertNull(spillStore.peek());
+        Assert.assertEquals(0, spillStore.getPendingBytes());
+    }
+
+    @Test
+    public void quota() throws IOException {
+        DiskSpillStore spillStore = new DiskSpillStore(temporaryFolder.getRoot(), 256, 512);
+
+        int spilled = 0;
+        while (spillStore.spillPuts(TABLE_NAME, Collections.singletonList(newPut(spilled)))) {
+            spilled++;
+        }
+        Assert.assertTrue(spilled > 0);
+        Assert.assertEquals(1, spillStore.getDroppedCount());
+        Assert.assertEquals(2, temporaryFolder.getRoot().listFiles().length);
+
+        for (int i = 0; i < spilled; i++) {
+            SpillRecord record = spillStore.peek();
+            assertPut(i, record.getPuts().get(0));
+            spillStore.commit();
+        }
+        Assert.assertNull(spillStore.peek());
+        // replayed segment is deleted
+        Assert.assertEquals(1, temporaryFolder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void reload() throws IOException {
+        File directory = temporaryFolder.getRoot();
+        DiskSpillStore spillStore = new DiskSpillStore(directory, 1024, 4096);
+        spillStore.spillPuts(TABLE_NAME, Collections.singletonList(newPut(1)));
+        spillStore.spillPuts(TABLE_NAME, Collections.singletonList(newPut(2)));
+        spillStore.peek();
+        spillStore.commit();
+        spillStore.close();
+
+        DiskSpillStore reloaded = new DiskSpillStore(directory, 1024, 4096);
+        assertPut(2, reloaded.peek().getPuts().get(0));
+        reloaded.commit();
+        Assert.assertNull(reloaded.peek());
+
+        reloaded.spillPuts(TABLE_NAME, Collections.singletonList(newPut(3)));
+        assertPut(3, reloaded.peek().getPuts().get(0));
+    }
+
+    @Test
+    public void corruptedLength() throws IOException {
+        File directory = temporaryFolder.getRoot();
+        DiskSpillStore spillStore = new DiskSpillStore(directory, 1024, 4096);
+        spillStore.spillPuts(TABLE_NAME, Collections.singletonList(newPut(1)));
+        spillStore.spillPuts(TABLE_NAME, Collections.singletonList(newPut(2)));
+        spillStore.close();
+
+        // length of the second record points past the written bytes
+        File[] files = directory.listFiles();
+        Assert.assertEquals(1, files.length);
+        try (RandomAccessFile file = new RandomAccessFile(files[0], "rw")) {
+            int firstLength = readInt(file, SpillSegment.HEADER_SIZE);
+            writeInt(file, SpillSegment.HEADER_SIZE + RECORD_HEADER_SIZE + firstLength, Integer.MAX_VALUE);
+        }
+
+        DiskSpillStore reloaded = new DiskSpillStore(directory, 1024, 4096);
+        assertPut(1, reloaded.peek().getPuts().get(0));
+        reloaded.commit();
+        Assert.assertNull(reloaded.peek());
+        Assert.assertEquals(0, reloaded.getPendingBytes());
+
+        // the segment is writable again after the corrupted tail was truncated
+        reloaded.spillPuts(TABLE_NAME, Collections.singletonList(newPut(3)));
+        assertPut(3, reloaded.peek().getPuts().get(0));
+    }
+
+    @Test
+    public void corruptedPayload() throws IOException {
+        File directory = temporaryFolder.getRoot();
+        DiskSpillStore spillStore = new DiskSpillStore(directory, 1024, 4096);
+        spillStore.spillPuts(TABLE_NAME, Collections.singletonList(newPut(1)));
+        spillStore.spillPuts(TABLE_NAME, Collections.singletonList(newPut(2)));
+        spillStore.close();
+
+        // flip the last byte of the second payload, its length is still valid
+        File[] files = directory.listFiles();
+        Assert.assertEquals(1, files.length);
+        try (RandomAccessFile file = new RandomAccessFile(files[0], "rw")) {
+            int firstLength = readInt(file, SpillSegment.HEADER_SIZE);
+            long secondPosition = SpillSegment.HEADER_SIZE + RECORD_HEADER_SIZE + firstLength;
+            int secondLength = readInt(file, secondPosition);
+            long lastBytePosition = secondPosition + RECORD_HEADER_SIZE + secondLength - 1;
+            file.seek(lastBytePosition);
+            int lastByte = file.readByte();
+            file.seek(lastBytePosition);
+            file.writeByte(lastByte ^ 0xFF);
+        }
+
+        DiskSpillStore reloaded = new DiskSpillStore(directory, 1024, 4096);
+        assertPut(1, reloaded.peek().getPuts().get(0));
+        reloaded.commit();
+        Assert.assertNull(reloaded.peek());
+        Assert.assertEquals(0, reloaded.getPendingBytes());
+    }
+
+    private int readInt(RandomAccessFile file, long position) throws IOException {
+        file.seek(position);
+        return file.readInt();
+    }
+
+    private void writeInt(RandomAccessFile file, long position, int value) throws IOException {
+        file.seek(position);
+        file.writeInt(value);
+    }
+
+    private Put newPut(int row) {
+        Put put = new Put(Bytes.toBytes(row));
+        put.addColumn(FAMILY, QUALIFIER, 100L, Bytes.toBytes("value" + row));
+        return put;
+    }
+
+    private Increment newIncrement(int row, long amount) {
+        Increment increment = new Increment(Bytes.toBytes(row));
+        increment.addColumn(FAMILY, QUALIFIER, amount);
+        return increment;
+    }
+
+    private void assertPut(int row, Put put) {
+        Assert.assertArrayEquals(Bytes.toBytes(row), put.getRow());
+        List<Cell> cells = put.get(FAMILY, QUALIFIER);
+        Assert.assertEquals(1, cells.size());
+        Assert.assertEquals(100L, cells.get(0).getTimestamp());
+        Assert.assertArrayEquals(Bytes.toBytes("value" + row), CellUtil.cloneValue(cells.get(0)));
+    }
+}
@@ -29,4 +29,7 @@ public class ZookeeperConstants {
 
     public static final String PINPOINT_COLLECTOR_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/collector";
 
+    // collectors routing map statistics to each other, registered as ip:port
+    public static final String PINPOINT_COLLECTOR_STATISTICS_CLUSTER_PATH = PINPOINT_CLUSTER_PATH + "/collector-statistics";
+
 }
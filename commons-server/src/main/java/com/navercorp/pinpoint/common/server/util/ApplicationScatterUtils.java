@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.util;
+
+import com.navercorp.pinpoint.common.PinpointConstants;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.common.util.TimeUtils;
+
+/**
+ * Row key and column name of the pre-aggregated scatter chart (ApplicationScatterAggre).
+ * <pre>
+ * rowkey format = "APPLICATIONNAME(max 24bytes)" + "REVERSED TIMESLOT(8byte)", a row per minute
+ * columnName format = X BUCKET(1byte) + Y BUCKET(7bit) + ERROR(1bit)
+ * </pre>
+ * The x bucket splits the minute into {@link #X_BUCKET_MILLIS} slices.
+ * The y bucket is log scaled with {@link #Y_BUCKETS_PER_DOUBLING} buckets for each doubling of the elapsed time,
+ * so that fast and slow responses are told apart with the same relative precision.
+ */
+public final class ApplicationScatterUtils {
+
+    public static final int TIME_SLOT_MILLIS = 60 * 1000;
+    public static final int X_BUCKET_MILLIS = 10 * 1000;
+    public static final int X_BUCKET_COUNT = TIME_SLOT_MILLIS / X_BUCKET_MILLIS;
+
+    public static final int Y_BUCKETS_PER_DOUBLING = 4;
+    public static final int MAX_Y_BUCKET = 127;
+
+    private static final int COLUMN_NAME_LENGTH = 2;
+
+    private ApplicationScatterUtils() {
+    }
+
+    public static long getTimeSlot(long timestamp) {
+        return timestamp - (timestamp % TIME_SLOT_MILLIS);
+    }
+
+    public static byte[] makeRowKey(String applicationName, long timestamp) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        final byte[] applicationNameBytes = BytesUtils.toBytes(applicationName);
+        return RowKeyUtils.concatFixedByteAndLong(applicationNameBytes, PinpointConstants.APPLICATION_NAME_MAX_LEN, TimeUtils.reverseTimeMillis(getTimeSlot(timestamp)));
+    }
+
+    public static long getTimeSlotFromRowKey(byte[] rowKey) {
+        if (rowKey == null) {
+            throw new NullPointerException("rowKey must not be null");
+        }
+        return TimeUtils.recoveryTimeMillis(BytesUtils.bytesToLong(rowKey, PinpointConstants.APPLICATION_NAME_MAX_LEN));
+    }
+
+    public static int getXBucket(long timestamp) {
+        return (int) ((timestamp % TIME_SLOT_MILLIS) / X_BUCKET_MILLIS);
+    }
+
+    public static int getYBucket(int elapsed) {
+        if (elapsed <= 0) {
+            return 0;
+        }
+        // elapsed + 1 so that 0ms and 1ms are apart
+        final long value = (long) elapsed + 1;
+        final int doubling = 63 - Long.numberOfLeadingZeros(value);
+        // the 2 bits following the leading one
+        final long fraction;
+        if (doubling >= 2) {
+            fraction = (value >> (doubling - 2)) & 0x03;
+        } else {
+            fraction = (value << (2 - doubling)) & 0x03;
+        }
+        final int yBucket = doubling * Y_BUCKETS_PER_DOUBLING + (int) fraction;
+        return Math.min(yBucket, MAX_Y_BUCKET);
+    }
+
+    /**
+     * @return the smallest elapsed time falling into the given y bucket
+     */
+    public static int getYBucketMin(int yBucket) {
+        if (yBucket <= 0) {
+            return 0;
+        }
+        final int doubling = yBucket / Y_BUCKETS_PER_DOUBLING;
+        final int fraction = yBucket % Y_BUCKETS_PER_DOUBLING;
+        final long value = ((long) (Y_BUCKETS_PER_DOUBLING + fraction) << doubling) >> 2;
+        return (int) Math.min(value - 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the smallest elapsed time of the next y bucket
+     */
+    public static int getYBucketMax(int yBucket) {
+        if (yBucket >= MAX_Y_BUCKET) {
+            return Integer.MAX_VALUE;
+        }
+        for (int next = yBucket + 1; next < MAX_Y_BUCKET; next++) {
+            // a few of the buckets below 3ms are never used
+            final int min = getYBucketMin(next);
+            if (min > getYBucketMin(yBucket)) {
+                return min;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    public static byte[] makeColumnName(int xBucket, int yBucket, boolean error) {
+        if (xBucket < 0 || xBucket >= X_BUCKET_COUNT) {
+            throw new IllegalArgumentException("invalid xBucket:" + xBucket);
+        }
+        if (yBucket < 0 || yBucket > MAX_Y_BUCKET) {
+            throw new IllegalArgumentException("invalid yBucket:" + yBucket);
+        }
+        final byte[] columnName = new byte[COLUMN_NAME_LENGTH];
+        columnName[0] = (byte) xBucket;
+        columnName[1] = (byte) ((yBucket << 1) | (error ? 1 : 0));
+        return columnName;
+    }
+
+    public static int getXBucketFromColumnName(byte[] columnName) {
+        return columnName[0] & 0xFF;
+    }
+
+    public static int getYBucketFromColumnName(byte[] columnName) {
+        return (columnName[1] & 0xFF) >>> 1;
+    }
+
+    public static boolean isErrorFromColumnName(byte[] columnName) {
+        return (columnName[1] & 0x01) == 1;
+    }
+}
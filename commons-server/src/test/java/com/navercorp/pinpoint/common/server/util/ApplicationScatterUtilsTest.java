@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.util;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApplicationScatterUtilsTest {
+
+    @Test
+    public void yBucket() {
+        int previous = 0;
+        for (int elapsed = 0; elapsed < 100000; elapsed++) {
+            final int yBucket = ApplicationScatterUtils.getYBucket(elapsed);
+            Assert.assertTrue(yBucket >= previous);
+            Assert.assertTrue(ApplicationScatterUtils.getYBucketMin(yBucket) <= elapsed);
+            Assert.assertTrue(elapsed < ApplicationScatterUtils.getYBucketMax(yBucket));
+            previous = yBucket;
+        }
+        final int maxYBucket = ApplicationScatterUtils.getYBucket(Integer.MAX_VALUE);
+        Assert.assertTrue(maxYBucket <= ApplicationScatterUtils.MAX_Y_BUCKET);
+        Assert.assertTrue(ApplicationScatterUtils.getYBucketMin(maxYBucket) <= Integer.MAX_VALUE);
+
+        // a bucket is at most a quarter of its lower bound wide
+        final int yBucket = ApplicationScatterUtils.getYBucket(10000);
+        final int width = ApplicationScatterUtils.getYBucketMax(yBucket) - ApplicationScatterUtils.getYBucketMin(yBucket);
+        Assert.assertTrue(width <= ApplicationScatterUtils.getYBucketMin(yBucket) / 4 + 1);
+    }
+
+    @Test
+    public void columnName() {
+        for (int xBucket = 0; xBucket < ApplicationScatterUtils.X_BUCKET_COUNT; xBucket++) {
+            for (int yBucket = 0; yBucket <= ApplicationScatterUtils.MAX_Y_BUCKET; yBucket++) {
+                checkColumnName(xBucket, yBucket, true);
+                checkColumnName(xBucket, yBucket, false);
+            }
+        }
+    }
+
+    private void checkColumnName(int xBucket, int yBucket, boolean error) {
+        final byte[] columnName = ApplicationScatterUtils.makeColumnName(xBucket, yBucket, error);
+        Assert.assertEquals(xBucket, ApplicationScatterUtils.getXBucketFromColumnName(columnName));
+        Assert.assertEquals(yBucket, ApplicationScatterUtils.getYBucketFromColumnName(columnName));
+        Assert.assertEquals(error, ApplicationScatterUtils.isErrorFromColumnName(columnName));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void columnNameInvalidXBucket() {
+        ApplicationScatterUtils.makeColumnName(ApplicationScatterUtils.X_BUCKET_COUNT, 0, false);
+    }
+
+    @Test
+    public void rowKey() {
+        final long timestamp = 1546300812345L;
+        final byte[] rowKey = ApplicationScatterUtils.makeRowKey("applicationName", timestamp);
+        Assert.assertEquals(1546300800000L, ApplicationScatterUtils.getTimeSlotFromRowKey(rowKey));
+        Assert.assertEquals(1, ApplicationScatterUtils.getXBucket(timestamp));
+
+        // later time slots come first
+        final byte[] nextRowKey = ApplicationScatterUtils.makeRowKey("applicationName", timestamp + ApplicationScatterUtils.TIME_SLOT_MILLIS);
+        Assert.assertTrue(Bytes.compareTo(nextRowKey, rowKey) < 0);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.util;
+
+/**
+ * Single pass {@link SqlParser} producing the same result as {@link DefaultSqlParser#normalizedSql(String)}.
+ * <ul>
+ *     <li>works over {@link CharSequence}</li>
+ *     <li>unchanged ranges are copied in bulk, and only when a literal is actually replaced</li>
+ *     <li>output buffers are thread-local and reused</li>
+ *     <li>the last result of each thread is reused for the same sql</li>
+ * </ul>
+ */
+public class CharSequenceSqlParser extends DefaultSqlParser {
+
+    private static final NormalizedSql NULL_OBJECT = new DefaultNormalizedSql("", "");
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    // larger buffers are not retained by the thread
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 8;
+
+    private final ThreadLocal<Context> contextLocal = new ThreadLocal<Context>() {
+        @Override
+        protected Context initialValue() {
+            return new Context();
+        }
+    };
+
+    public CharSequenceSqlParser() {
+    }
+
+    @Override
+    public NormalizedSql normalizedSql(final String sql) {
+        if (sql == null) {
+            return NULL_OBJECT;
+        }
+        final Context context = contextLocal.get();
+        if (sql.equals(context.lastSql)) {
+            return context.lastResult;
+        }
+        final NormalizedSql result = normalize(sql, sql, context);
+        context.lastSql = sql;
+        context.lastResult = result;
+        return result;
+    }
+
+    public NormalizedSql normalizedSql(final CharSequence sql) {
+        if (sql == null) {
+            return NULL_OBJECT;
+        }
+        if (sql instanceof String) {
+            return normalizedSql((String) sql);
+        }
+        return normalize(sql, null, contextLocal.get());
+    }
+
+    private NormalizedSql normalize(final CharSequence sql, final String original, final Context context) {
+        final int length = sql.length();
+        final StringBuilder normalized = context.normalized();
+        final StringBuilder parameter = context.parameter();
+
+        boolean change = false;
+        int replaceIndex = 0;
+        boolean numberTokenStartEnable = true;
+        // start of the range not yet copied to normalized
+        int copyFrom = 0;
+        for (int i = 0; i < length; i++) {
+            final char ch = sql.charAt(i);
+            switch (ch) {
+                // COMMENT start check
+                case '/': {
+                    final int lookAhead1Char = lookAhead1(sql, i, length);
+                    // multi line comment and oracle hint /*+ */
+                    if (lookAhead1Char == '*') {
+                        i = skipMultiLineComment(sql, i + 2, length);
+                        break;
+                    }
+                    // single line comment
+                    if (lookAhead1Char == '/') {
+                        i = skipLine(sql, i + 2, length);
+                        break;
+                    }
+                    // unary operator
+                    numberTokenStartEnable = true;
+                    break;
+                }
+                case '-':
+                    // single line comment state
+                    if (lookAhead1(sql, i, length) == '-') {
+                        i = skipLine(sql, i + 2, length);
+                        break;
+                    }
+                    // unary operator
+                    numberTokenStartEnable = true;
+                    break;
+
+                // SYMBOL start check
+                case '\'': {
+                    // empty symbol
+                    if (lookAhead1(sql, i, length) == '\'') {
+                        // same as DefaultSqlParser : the character after '' is dropped
+                        final int skip = i + 2;
+                        if (skip < length) {
+                            normalized.append(sql, copyFrom, skip);
+                            copyFrom = skip + 1;
+                        }
+                        i = skip;
+                        break;
+                    }
+                    change = true;
+                    normalized.append(sql, copyFrom, i + 1);
+                    appendOutputSeparator(parameter);
+                    final int end = readSymbol(sql, i + 1, length, parameter);
+                    if (end < length) {
+                        normalized.append(replaceIndex++);
+                        normalized.append(SYMBOL_REPLACE);
+                        normalized.append('\'');
+                    }
+                    copyFrom = end + 1;
+                    i = end;
+                    break;
+                }
+
+                // number start check
+                case '0':
+                case '1':
+                case '2':
+                case '3':
+                case '4':
+                case '5':
+                case '6':
+                case '7':
+                case '8':
+                case '9':
+                    if (numberTokenStartEnable) {
+                        change = true;
+                        normalized.append(sql, copyFrom, i);
+                        normalized.append(replaceIndex++);
+                        normalized.append(NUMBER_REPLACE);
+                        appendOutputSeparator(parameter);
+                        final int end = readNumber(sql, i + 1, length);
+                        parameter.append(sql, i, end);
+                        copyFrom = end;
+                        i = end - 1;
+                    }
+                    break;
+
+                case '.':
+                case '_':
+                case '@': // Assignment Operator
+                case ':': // Oracle's bind variable is possible with :bindvalue
+                    numberTokenStartEnable = false;
+                    break;
+
+                default:
+                    // empty space, operators and brackets enable the number token
+                    numberTokenStartEnable = !isAlphabet(ch);
+                    break;
+            }
+        }
+        if (change) {
+            if (copyFrom < length) {
+                normalized.append(sql, copyFrom, length);
+            }
+            final String parsedParameterString = parameter.length() > 0 ? parameter.toString() : "";
+            return new DefaultNormalizedSql(normalized.toString(), parsedParameterString);
+        }
+        // Reuse if not modified.
+        final String sqlString = original != null ? original : sql.toString();
+        return new DefaultNormalizedSql(sqlString, "");
+    }
+
+    private static boolean isAlphabet(char ch) {
+        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z';
+    }
+
+    /**
+     * @return index of the '/' closing the comment, or length
+     */
+    private static int skipMultiLineComment(CharSequence sql, int index, int length) {
+        for (; index < length; index++) {
+            if (sql.charAt(index) == '*' && lookAhead1(sql, index, length) == '/') {
+                return index + 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return index of '\n', or length
+     */
+    private static int skipLine(CharSequence sql, int index, int length) {
+        for (; index < length; index++) {
+            if (sql.charAt(index) == '\n') {
+                return index;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return index of the closing quote, or length
+     */
+    private static int readSymbol(CharSequence sql, int index, int length, StringBuilder parameter) {
+        int runStart = index;
+        for (; index < length; index++) {
+            final char ch = sql.charAt(index);
+            if (ch == '\'') {
+                parameter.append(sql, runStart, index);
+                // a consecutive ' is the same as \'
+                if (lookAhead1(sql, index, length) == '\'') {
+                    parameter.append("''");
+                    index++;
+                    runStart = index + 1;
+                    continue;
+                }
+                return index;
+            }
+            if (ch == SEPARATOR) {
+                parameter.append(sql, runStart, index);
+                parameter.append(",,");
+                runStart = index + 1;
+            }
+        }
+        parameter.append(sql, runStart, length);
+        return length;
+    }
+
+    /**
+     * @return index after the number token
+     */
+    private static int readNumber(CharSequence sql, int index, int length) {
+        for (; index < length; index++) {
+            final char ch = sql.charAt(index);
+            if (!(ch >= '0' && ch <= '9' || ch == '.' || ch == 'E' || ch == 'e')) {
+                return index;
+            }
+        }
+        return length;
+    }
+
+    private static int lookAhead1(CharSequence sql, int index, int length) {
+        index++;
+        if (index < length) {
+            return sql.charAt(index);
+        }
+        return -1;
+    }
+
+    private static void appendOutputSeparator(StringBuilder output) {
+        if (output.length() == 0) {
+            // first parameter
+            return;
+        }
+        output.append(SEPARATOR);
+    }
+
+    private static class Context {
+        private StringBuilder normalized = new StringBuilder(INITIAL_BUFFER_SIZE);
+        private StringBuilder parameter = new StringBuilder(INITIAL_BUFFER_SIZE);
+
+        private String lastSql;
+        private NormalizedSql lastResult;
+
+        private StringBuilder normalized() {
+            this.normalized = reset(normalized);
+            return normalized;
+        }
+
+        private StringBuilder parameter() {
+            this.parameter = reset(parameter);
+            return parameter;
+        }
+
+        private static StringBuilder reset(StringBuilder buffer) {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                return new StringBuilder(INITIAL_BUFFER_SIZE);
+            }
+            buffer.setLength(0);
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class CharSequenceSqlParserTest extends DefaultSqlParserTest {
+
+    private static final String ALPHABET = "ab1 2.9eE'',/*-\n\t_@:()=#$?\u00e9";
+
+    @Override
+    protected SqlParser newSqlParser() {
+        return new CharSequenceSqlParser();
+    }
+
+    @Test
+    public void sameAsDefaultSqlParser() {
+        final DefaultSqlParser expectedParser = new DefaultSqlParser();
+        final CharSequenceSqlParser actualParser = new CharSequenceSqlParser();
+
+        final Random random = new Random(31);
+        for (int i = 0; i < 100000; i++) {
+            final String sql = randomSql(random);
+            final NormalizedSql expected = expectedParser.normalizedSql(sql);
+            final NormalizedSql actual = actualParser.normalizedSql(sql);
+
+            Assert.assertEquals(sql, expected.getNormalizedSql(), actual.getNormalizedSql());
+            Assert.assertEquals(sql, expected.getParseParameter(), actual.getParseParameter());
+        }
+    }
+
+    @Test
+    public void charSequence() {
+        final CharSequenceSqlParser parser = new CharSequenceSqlParser();
+        final StringBuilder sql = new StringBuilder("select * from table where a = 1 and b = 'abc'");
+
+        final NormalizedSql normalizedSql = parser.normalizedSql(sql);
+        Assert.assertEquals("select * from table where a = 0# and b = '1$'", normalizedSql.getNormalizedSql());
+        Assert.assertEquals("1,abc", normalizedSql.getParseParameter());
+    }
+
+    @Test
+    public void lastResultReuse() {
+        final CharSequenceSqlParser parser = new CharSequenceSqlParser();
+        final String sql = "select * from table where a = 1";
+
+        final NormalizedSql first = parser.normalizedSql(sql);
+        final NormalizedSql second = parser.normalizedSql(new String(sql));
+        Assert.assertSame(first, second);
+
+        final NormalizedSql other = parser.normalizedSql("select 1");
+        Assert.assertEquals("select 0#", other.getNormalizedSql());
+    }
+
+    private String randomSql(Random random) {
+        final int length = random.nextInt(24);
+        final StringBuilder sql = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sql.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sql.toString();
+    }
+}
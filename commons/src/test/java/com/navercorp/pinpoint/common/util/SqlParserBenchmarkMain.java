@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.common.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rough comparison of {@link DefaultSqlParser} and {@link CharSequenceSqlParser}.
+ * Run each parser in a separate jvm to keep the call sites monomorphic.
+ * <pre>
+ * java SqlParserBenchmarkMain [default|charsequence] [iterations]
+ * </pre>
+ */
+public class SqlParserBenchmarkMain {
+
+    private static final String[] CORPUS = {
+            "select a.id, a.name, b.value from user_table a inner join value_table b on a.id = b.user_id where a.id = ? and b.status = ? order by a.name",
+            "select a.id, a.name, b.value from user_table a inner join value_table b on a.id = b.user_id where a.id = 1234 and b.status = 'ACTIVE' order by a.name",
+            "insert into event_log (id, type, message, created) values (1, 'LOGIN', 'user, admin logged in', 20190101)",
+            "update account set balance = balance - 100.50, updated = now() where id = 77 /* transfer */",
+            "SELECT /*+ INDEX(o order_idx) */ o.* FROM orders o WHERE o.customer_id = :customerId AND o.amount > 1E3",
+            "select count(*) from dual",
+    };
+
+    public static void main(String[] args) {
+        final String type = args.length > 0 ? args[0] : "charsequence";
+        final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5000000;
+
+        final SqlParser sqlParser = "default".equals(type) ? new DefaultSqlParser() : new CharSequenceSqlParser();
+        for (int round = 0; round < 5; round++) {
+            final long start = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < iterations; i++) {
+                final NormalizedSql normalizedSql = sqlParser.normalizedSql(CORPUS[i % CORPUS.length]);
+                checksum += normalizedSql.getNormalizedSql().length();
+            }
+            final long elapsed = System.nanoTime() - start;
+            System.out.println(type + " round:" + round + " " + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms"
+                    + " " + (elapsed / iterations) + "ns/op checksum:" + checksum);
+        }
+    }
+}
@@ -21,19 +21,24 @@ package com.navercorp.pinpoint.flink;
 
 import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
 import com.navercorp.pinpoint.flink.dao.hbase.StatisticsDao;
+import com.navercorp.pinpoint.flink.function.ApplicationStatBoAggregateFunction;
+import com.navercorp.pinpoint.flink.function.ApplicationStatBoAggregateWindow;
 import com.navercorp.pinpoint.flink.function.ApplicationStatBoWindow;
 import com.navercorp.pinpoint.flink.function.Timestamp;
 import com.navercorp.pinpoint.flink.function.ApplicationStatBoFliter;
 import com.navercorp.pinpoint.flink.receiver.TcpSourceFunction;
 import com.navercorp.pinpoint.flink.vo.RawData;
+import org.apache.flink.api.java.tuple.Tuple;
 import org.apache.flink.api.java.tuple.Tuple3;
 import org.apache.flink.streaming.api.TimeCharacteristic;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.DataStreamSource;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
+import org.apache.flink.streaming.api.datastream.WindowedStream;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.streaming.api.windowing.assigners.TumblingEventTimeWindows;
 import org.apache.flink.streaming.api.windowing.time.Time;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,12 +66,18 @@ public class StatStreamingVer2Job implements Serializable {
 
         //1-1 save data processing application stat raw data
         final StatisticsDao statisticsDao = bootstrap.getStatisticsDao();
-        DataStream<Tuple3<String, JoinStatBo, Long>> applicationStatAggregationData = statOperator.filter(new ApplicationStatBoFliter())
+        WindowedStream<Tuple3<String, JoinStatBo, Long>, Tuple, TimeWindow> applicationStatWindow = statOperator.filter(new ApplicationStatBoFliter())
             .assignTimestampsAndWatermarks(new Timestamp())
             .keyBy(0)
             .window(TumblingEventTimeWindows.of(Time.milliseconds(ApplicationStatBoWindow.WINDOW_SIZE)))
-            .allowedLateness(Time.milliseconds(ApplicationStatBoWindow.ALLOWED_LATENESS))
-            .apply(new ApplicationStatBoWindow());
+            .allowedLateness(Time.milliseconds(ApplicationStatBoWindow.ALLOWED_LATENESS));
+        final DataStream<Tuple3<String, JoinStatBo, Long>> applicationStatAggregationData;
+        if (bootstrap.getFlinkConfiguration().isFlinkStatisticsWindowAggregate()) {
+            logger.info("application stat window : incremental aggregate");
+            applicationStatAggregationData = applicationStatWindow.aggregate(new ApplicationStatBoAggregateFunction(), new ApplicationStatBoAggregateWindow());
+        } else {
+            applicationStatAggregationData = applicationStatWindow.apply(new ApplicationStatBoWindow());
+        }
         applicationStatAggregationData.writeUsingOutputFormat(statisticsDao);
 
         // 1-2. aggregate application stat data
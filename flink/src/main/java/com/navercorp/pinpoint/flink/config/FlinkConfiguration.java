@@ -33,6 +33,7 @@ public class FlinkConfiguration extends CollectorConfiguration {
     private int flinkRetryInterval;
     private int flinkClusterTcpPort;
     private String flinkStreamExecutionEnvironment;
+    private boolean flinkStatisticsWindowAggregate;
 
     public boolean isFlinkClusterEnable() {
         return flinkClusterEnable;
@@ -58,6 +59,10 @@ public class FlinkConfiguration extends CollectorConfiguration {
         return "local".equals(flinkStreamExecutionEnvironment) ? true : false;
     }
 
+    public boolean isFlinkStatisticsWindowAggregate() {
+        return flinkStatisticsWindowAggregate;
+    }
+
 
     @Override
     protected void readPropertyValues(Properties properties) {
@@ -70,5 +75,6 @@ public class FlinkConfiguration extends CollectorConfiguration {
         this.flinkRetryInterval =  readInt(properties, "flink.cluster.zookeeper.retry.interval", 60000);
         this.flinkClusterTcpPort = readInt(properties,"flink.cluster.tcp.port", 19994);
         this.flinkStreamExecutionEnvironment = readString(properties, "flink.StreamExecutionEnvironment", "server");
+        this.flinkStatisticsWindowAggregate = readBoolean(properties, "flink.statistics.window.aggregate");
     }
 }
@@ -0,0 +1,458 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.flink.function;
+
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinActiveTraceBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinApplicationStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinCpuLoadBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinDataSourceBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinDataSourceListBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinDataSourceListBo.DataSourceKey;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinDirectBufferBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinFileDescriptorBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinMemoryBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinResponseTimeBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinTransactionBo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running join of the {@link JoinApplicationStatBo}s of one application window.
+ * <p>
+ * Per time slice and stat type only one partial value is kept: min/max and their agent ids are joined as values arrive,
+ * and the fields that are averaged by {@link JoinApplicationStatBo#joinApplicationStatBoByTimeSlice(List)} hold the sum
+ * of the joined values until {@link #getResult()} divides them by the count.
+ * The result is the same as joining the whole list at once.
+ */
+public class ApplicationStatBoAccumulator {
+
+    private static final long SHIFT_RANGE = 1000 * 5;
+
+    private String id;
+
+    private Map<Long, Partial<JoinCpuLoadBo>> cpuLoadMap = new HashMap<Long, Partial<JoinCpuLoadBo>>();
+    private Map<Long, Partial<JoinMemoryBo>> memoryMap = new HashMap<Long, Partial<JoinMemoryBo>>();
+    private Map<Long, Partial<JoinTransactionBo>> transactionMap = new HashMap<Long, Partial<JoinTransactionBo>>();
+    private Map<Long, Partial<JoinActiveTraceBo>> activeTraceMap = new HashMap<Long, Partial<JoinActiveTraceBo>>();
+    private Map<Long, Partial<JoinResponseTimeBo>> responseTimeMap = new HashMap<Long, Partial<JoinResponseTimeBo>>();
+    private Map<Long, DataSourcePartial> dataSourceMap = new HashMap<Long, DataSourcePartial>();
+    private Map<Long, Partial<JoinFileDescriptorBo>> fileDescriptorMap = new HashMap<Long, Partial<JoinFileDescriptorBo>>();
+    private Map<Long, Partial<JoinDirectBufferBo>> directBufferMap = new HashMap<Long, Partial<JoinDirectBufferBo>>();
+
+    public ApplicationStatBoAccumulator() {
+    }
+
+    public void add(JoinApplicationStatBo joinApplicationStatBo) {
+        if (id == null) {
+            id = joinApplicationStatBo.getId();
+        }
+
+        for (JoinCpuLoadBo joinCpuLoadBo : joinApplicationStatBo.getJoinCpuLoadBoList()) {
+            add(cpuLoadMap, CPU_LOAD_JOINER, joinCpuLoadBo, joinCpuLoadBo.getTimestamp());
+        }
+        for (JoinMemoryBo joinMemoryBo : joinApplicationStatBo.getJoinMemoryBoList()) {
+            add(memoryMap, MEMORY_JOINER, joinMemoryBo, joinMemoryBo.getTimestamp());
+        }
+        for (JoinTransactionBo joinTransactionBo : joinApplicationStatBo.getJoinTransactionBoList()) {
+            add(transactionMap, TRANSACTION_JOINER, joinTransactionBo, joinTransactionBo.getTimestamp());
+        }
+        for (JoinActiveTraceBo joinActiveTraceBo : joinApplicationStatBo.getJoinActiveTraceBoList()) {
+            add(activeTraceMap, ACTIVE_TRACE_JOINER, joinActiveTraceBo, joinActiveTraceBo.getTimestamp());
+        }
+        for (JoinResponseTimeBo joinResponseTimeBo : joinApplicationStatBo.getJoinResponseTimeBoList()) {
+            add(responseTimeMap, RESPONSE_TIME_JOINER, joinResponseTimeBo, joinResponseTimeBo.getTimestamp());
+        }
+        for (JoinDataSourceListBo joinDataSourceListBo : joinApplicationStatBo.getJoinDataSourceListBoList()) {
+            addDataSourceList(joinDataSourceListBo);
+        }
+        for (JoinFileDescriptorBo joinFileDescriptorBo : joinApplicationStatBo.getJoinFileDescriptorBoList()) {
+            add(fileDescriptorMap, FILE_DESCRIPTOR_JOINER, joinFileDescriptorBo, joinFileDescriptorBo.getTimestamp());
+        }
+        for (JoinDirectBufferBo joinDirectBufferBo : joinApplicationStatBo.getJoinDirectBufferBoList()) {
+            add(directBufferMap, DIRECT_BUFFER_JOINER, joinDirectBufferBo, joinDirectBufferBo.getTimestamp());
+        }
+    }
+
+    private static <T> void add(Map<Long, Partial<T>> partialMap, Joiner<T> joiner, T value, long timestamp) {
+        final long shiftTimestamp = shiftTimestamp(timestamp);
+        final Partial<T> partial = partialMap.get(shiftTimestamp);
+        if (partial == null) {
+            // partial values are replaced, never modified, so inputs can be shared with the window state
+            partialMap.put(shiftTimestamp, new Partial<T>(joiner.copy(value, shiftTimestamp), 1));
+        } else {
+            partial.value = joiner.sum(partial.value, value, shiftTimestamp);
+            partial.count++;
+        }
+    }
+
+    private void addDataSourceList(JoinDataSourceListBo joinDataSourceListBo) {
+        final long shiftTimestamp = shiftTimestamp(joinDataSourceListBo.getTimestamp());
+        DataSourcePartial dataSourcePartial = dataSourceMap.get(shiftTimestamp);
+        if (dataSourcePartial == null) {
+            dataSourcePartial = new DataSourcePartial(joinDataSourceListBo.getId());
+            dataSourceMap.put(shiftTimestamp, dataSourcePartial);
+        }
+        for (JoinDataSourceBo joinDataSourceBo : joinDataSourceListBo.getJoinDataSourceBoList()) {
+            final DataSourceKey dataSourceKey = new DataSourceKey(joinDataSourceBo.getUrl(), joinDataSourceBo.getServiceTypeCode());
+            add(dataSourcePartial.dataSourceMap, dataSourceKey, joinDataSourceBo);
+        }
+    }
+
+    private static void add(Map<DataSourceKey, Partial<JoinDataSourceBo>> partialMap, DataSourceKey dataSourceKey, JoinDataSourceBo value) {
+        final Partial<JoinDataSourceBo> partial = partialMap.get(dataSourceKey);
+        if (partial == null) {
+            partialMap.put(dataSourceKey, new Partial<JoinDataSourceBo>(DATA_SOURCE_JOINER.copy(value, 0), 1));
+        } else {
+            partial.value = DATA_SOURCE_JOINER.sum(partial.value, value, 0);
+            partial.count++;
+        }
+    }
+
+    public ApplicationStatBoAccumulator merge(ApplicationStatBoAccumulator other) {
+        if (id == null) {
+            id = other.id;
+        }
+        merge(cpuLoadMap, other.cpuLoadMap, CPU_LOAD_JOINER);
+        merge(memoryMap, other.memoryMap, MEMORY_JOINER);
+        merge(transactionMap, other.transactionMap, TRANSACTION_JOINER);
+        merge(activeTraceMap, other.activeTraceMap, ACTIVE_TRACE_JOINER);
+        merge(responseTimeMap, other.responseTimeMap, RESPONSE_TIME_JOINER);
+        for (Map.Entry<Long, DataSourcePartial> entry : other.dataSourceMap.entrySet()) {
+            final DataSourcePartial dataSourcePartial = dataSourceMap.get(entry.getKey());
+            if (dataSourcePartial == null) {
+                dataSourceMap.put(entry.getKey(), entry.getValue());
+            } else {
+                mergeDataSource(dataSourcePartial.dataSourceMap, entry.getValue().dataSourceMap);
+            }
+        }
+        merge(fileDescriptorMap, other.fileDescriptorMap, FILE_DESCRIPTOR_JOINER);
+        merge(directBufferMap, other.directBufferMap, DIRECT_BUFFER_JOINER);
+        return this;
+    }
+
+    private static <T> void merge(Map<Long, Partial<T>> partialMap, Map<Long, Partial<T>> otherPartialMap, Joiner<T> joiner) {
+        for (Map.Entry<Long, Partial<T>> entry : otherPartialMap.entrySet()) {
+            final Partial<T> partial = partialMap.get(entry.getKey());
+            final Partial<T> otherPartial = entry.getValue();
+            if (partial == null) {
+                partialMap.put(entry.getKey(), otherPartial);
+            } else {
+                partial.value = joiner.sum(partial.value, otherPartial.value, entry.getKey());
+                partial.count += otherPartial.count;
+            }
+        }
+    }
+
+    private static void mergeDataSource(Map<DataSourceKey, Partial<JoinDataSourceBo>> partialMap, Map<DataSourceKey, Partial<JoinDataSourceBo>> otherPartialMap) {
+        for (Map.Entry<DataSourceKey, Partial<JoinDataSourceBo>> entry : otherPartialMap.entrySet()) {
+            final Partial<JoinDataSourceBo> partial = partialMap.get(entry.getKey());
+            final Partial<JoinDataSourceBo> otherPartial = entry.getValue();
+            if (partial == null) {
+                partialMap.put(entry.getKey(), otherPartial);
+            } else {
+                partial.value = DATA_SOURCE_JOINER.sum(partial.value, otherPartial.value, 0);
+                partial.count += otherPartial.count;
+            }
+        }
+    }
+
+    /**
+     * Does not modify the accumulator, late elements may still be added after a result was emitted.
+     */
+    public JoinApplicationStatBo getResult() {
+        if (id == null) {
+            return JoinApplicationStatBo.EMPTY_JOIN_APPLICATION_STAT_BO;
+        }
+
+        final JoinApplicationStatBo joinApplicationStatBo = new JoinApplicationStatBo();
+        joinApplicationStatBo.setId(id);
+        joinApplicationStatBo.setJoinCpuLoadBoList(average(cpuLoadMap, CPU_LOAD_JOINER));
+        joinApplicationStatBo.setJoinMemoryBoList(average(memoryMap, MEMORY_JOINER));
+        joinApplicationStatBo.setJoinTransactionBoList(average(transactionMap, TRANSACTION_JOINER));
+        joinApplicationStatBo.setJoinActiveTraceBoList(average(activeTraceMap, ACTIVE_TRACE_JOINER));
+        joinApplicationStatBo.setJoinResponseTimeBoList(average(responseTimeMap, RESPONSE_TIME_JOINER));
+        joinApplicationStatBo.setJoinDataSourceListBoList(averageDataSource());
+        joinApplicationStatBo.setJoinFileDescriptorBoList(average(fileDescriptorMap, FILE_DESCRIPTOR_JOINER));
+        joinApplicationStatBo.setJoinDirectBufferBoList(average(directBufferMap, DIRECT_BUFFER_JOINER));
+        joinApplicationStatBo.setTimestamp(extractMinTimestamp());
+        return joinApplicationStatBo;
+    }
+
+    private static <T> List<T> average(Map<Long, Partial<T>> partialMap, Joiner<T> joiner) {
+        final List<T> result = new ArrayList<T>(partialMap.size());
+        for (Map.Entry<Long, Partial<T>> entry : partialMap.entrySet()) {
+            final Partial<T> partial = entry.getValue();
+            result.add(joiner.average(partial.value, partial.count, entry.getKey()));
+        }
+        return result;
+    }
+
+    private List<JoinDataSourceListBo> averageDataSource() {
+        final List<JoinDataSourceListBo> result = new ArrayList<JoinDataSourceListBo>(dataSourceMap.size());
+        for (Map.Entry<Long, DataSourcePartial> entry : dataSourceMap.entrySet()) {
+            final DataSourcePartial dataSourcePartial = entry.getValue();
+            final List<JoinDataSourceBo> joinDataSourceBoList = new ArrayList<JoinDataSourceBo>(dataSourcePartial.dataSourceMap.size());
+            for (Partial<JoinDataSourceBo> partial : dataSourcePartial.dataSourceMap.values()) {
+                joinDataSourceBoList.add(DATA_SOURCE_JOINER.average(partial.value, partial.count, 0));
+            }
+            final JoinDataSourceListBo joinDataSourceListBo = new JoinDataSourceListBo();
+            joinDataSourceListBo.setId(dataSourcePartial.id);
+            joinDataSourceListBo.setTimestamp(entry.getKey());
+            joinDataSourceListBo.setJoinDataSourceBoList(joinDataSourceBoList);
+            result.add(joinDataSourceListBo);
+        }
+        return result;
+    }
+
+    // every value of a partial map has its time slice as timestamp
+    private long extractMinTimestamp() {
+        long minTimestamp = Long.MAX_VALUE;
+        final List<Map<Long, ?>> maps = Arrays.<Map<Long, ?>>asList(cpuLoadMap, memoryMap, transactionMap, activeTraceMap,
+                responseTimeMap, dataSourceMap, fileDescriptorMap, directBufferMap);
+        for (Map<Long, ?> map : maps) {
+            for (Long timestamp : map.keySet()) {
+                if (timestamp < minTimestamp) {
+                    minTimestamp = timestamp;
+                }
+            }
+        }
+        return minTimestamp;
+    }
+
+    private static long shiftTimestamp(long timestamp) {
+        return timestamp - (timestamp % SHIFT_RANGE);
+    }
+
+    private static class Partial<T> {
+        private T value;
+        private int count;
+
+        private Partial() {
+        }
+
+        private Partial(T value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+    }
+
+    private static class DataSourcePartial {
+        private String id;
+        private Map<DataSourceKey, Partial<JoinDataSourceBo>> dataSourceMap = new HashMap<DataSourceKey, Partial<JoinDataSourceBo>>();
+
+        private DataSourcePartial() {
+        }
+
+        private DataSourcePartial(String id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Uses the join of each stat type for min/max, the averaged fields are handled here.
+     */
+    private interface Joiner<T> {
+        T copy(T value, long timestamp);
+
+        T sum(T sum, T value, long timestamp);
+
+        T average(T sum, int count, long timestamp);
+    }
+
+    private static final Joiner<JoinCpuLoadBo> CPU_LOAD_JOINER = new Joiner<JoinCpuLoadBo>() {
+        @Override
+        public JoinCpuLoadBo copy(JoinCpuLoadBo value, long timestamp) {
+            return JoinCpuLoadBo.joinCpuLoadBoList(Collections.singletonList(value), timestamp);
+        }
+
+        @Override
+        public JoinCpuLoadBo sum(JoinCpuLoadBo sum, JoinCpuLoadBo value, long timestamp) {
+            final JoinCpuLoadBo result = JoinCpuLoadBo.joinCpuLoadBoList(Arrays.asList(sum, value), timestamp);
+            result.setJvmCpuLoad(sum.getJvmCpuLoad() + value.getJvmCpuLoad());
+            result.setSystemCpuLoad(sum.getSystemCpuLoad() + value.getSystemCpuLoad());
+            return result;
+        }
+
+        @Override
+        public JoinCpuLoadBo average(JoinCpuLoadBo sum, int count, long timestamp) {
+            final JoinCpuLoadBo result = copy(sum, timestamp);
+            result.setJvmCpuLoad(sum.getJvmCpuLoad() / (double) count);
+            result.setSystemCpuLoad(sum.getSystemCpuLoad() / (double) count);
+            return result;
+        }
+    };
+
+    private static final Joiner<JoinMemoryBo> MEMORY_JOINER = new Joiner<JoinMemoryBo>() {
+        @Override
+        public JoinMemoryBo copy(JoinMemoryBo value, long timestamp) {
+            return JoinMemoryBo.joinMemoryBoList(Collections.singletonList(value), timestamp);
+        }
+
+        @Override
+        public JoinMemoryBo sum(JoinMemoryBo sum, JoinMemoryBo value, long timestamp) {
+            final JoinMemoryBo result = JoinMemoryBo.joinMemoryBoList(Arrays.asList(sum, value), timestamp);
+            result.setHeapUsed(sum.getHeapUsed() + value.getHeapUsed());
+            result.setNonHeapUsed(sum.getNonHeapUsed() + value.getNonHeapUsed());
+            return result;
+        }
+
+        @Override
+        public JoinMemoryBo average(JoinMemoryBo sum, int count, long timestamp) {
+            final JoinMemoryBo result = copy(sum, timestamp);
+            result.setHeapUsed(sum.getHeapUsed() / (long) count);
+            result.setNonHeapUsed(sum.getNonHeapUsed() / (long) count);
+            return result;
+        }
+    };
+
+    private static final Joiner<JoinTransactionBo> TRANSACTION_JOINER = new Joiner<JoinTransactionBo>() {
+        @Override
+        public JoinTransactionBo copy(JoinTransactionBo value, long timestamp) {
+            return JoinTransactionBo.joinTransactionBoLIst(Collections.singletonList(value), timestamp);
+        }
+
+        @Override
+        public JoinTransactionBo sum(JoinTransactionBo sum, JoinTransactionBo value, long timestamp) {
+            final JoinTransactionBo result = JoinTransactionBo.joinTransactionBoLIst(Arrays.asList(sum, value), timestamp);
+            result.setTotalCount(sum.getTotalCount() + value.getTotalCount());
+            return result;
+        }
+
+        @Override
+        public JoinTransactionBo average(JoinTransactionBo sum, int count, long timestamp) {
+            final JoinTransactionBo result = copy(sum, timestamp);
+            result.setTotalCount(sum.getTotalCount() / (long) count);
+            return result;
+        }
+    };
+
+    private static final Joiner<JoinActiveTraceBo> ACTIVE_TRACE_JOINER = new Joiner<JoinActiveTraceBo>() {
+        @Override
+        public JoinActiveTraceBo copy(JoinActiveTraceBo value, long timestamp) {
+            return JoinActiveTraceBo.joinActiveTraceBoList(Collections.singletonList(value), timestamp);
+        }
+
+        @Override
+        public JoinActiveTraceBo sum(JoinActiveTraceBo sum, JoinActiveTraceBo value, long timestamp) {
+            final JoinActiveTraceBo result = JoinActiveTraceBo.joinActiveTraceBoList(Arrays.asList(sum, value), timestamp);
+            result.setTotalCount(sum.getTotalCount() + value.getTotalCount());
+            return result;
+        }
+
+        @Override
+        public JoinActiveTraceBo average(JoinActiveTraceBo sum, int count, long timestamp) {
+            final JoinActiveTraceBo result = copy(sum, timestamp);
+            result.setTotalCount(sum.getTotalCount() / count);
+            return result;
+        }
+    };
+
+    private static final Joiner<JoinResponseTimeBo> RESPONSE_TIME_JOINER = new Joiner<JoinResponseTimeBo>() {
+        @Override
+        public JoinResponseTimeBo copy(JoinResponseTimeBo value, long timestamp) {
+            return JoinResponseTimeBo.joinResponseTimeBoList(Collections.singletonList(value), timestamp);
+        }
+
+        @Override
+        public JoinResponseTimeBo sum(JoinResponseTimeBo sum, JoinResponseTimeBo value, long timestamp) {
+            final JoinResponseTimeBo result = JoinResponseTimeBo.joinResponseTimeBoList(Arrays.asList(sum, value), timestamp);
+            result.setAvg(sum.getAvg() + value.getAvg());
+            return result;
+        }
+
+        @Override
+        public JoinResponseTimeBo average(JoinResponseTimeBo sum, int count, long timestamp) {
+            final JoinResponseTimeBo result = copy(sum, timestamp);
+            result.setAvg(sum.getAvg() / (long) count);
+            return result;
+        }
+    };
+
+    // data source values have no timestamp of their own
+    private static final Joiner<JoinDataSourceBo> DATA_SOURCE_JOINER = new Joiner<JoinDataSourceBo>() {
+        @Override
+        public JoinDataSourceBo copy(JoinDataSourceBo value, long timestamp) {
+            return JoinDataSourceBo.joinDataSourceBoList(Collections.singletonList(value));
+        }
+
+        @Override
+        public JoinDataSourceBo sum(JoinDataSourceBo sum, JoinDataSourceBo value, long timestamp) {
+            final JoinDataSourceBo result = JoinDataSourceBo.joinDataSourceBoList(Arrays.asList(sum, value));
+            result.setAvgActiveConnectionSize(sum.getAvgActiveConnectionSize() + value.getAvgActiveConnectionSize());
+            return result;
+        }
+
+        @Override
+        public JoinDataSourceBo average(JoinDataSourceBo sum, int count, long timestamp) {
+            final JoinDataSourceBo result = copy(sum, timestamp);
+            result.setAvgActiveConnectionSize(sum.getAvgActiveConnectionSize() / count);
+            return result;
+        }
+    };
+
+    private static final Joiner<JoinFileDescriptorBo> FILE_DESCRIPTOR_JOINER = new Joiner<JoinFileDescriptorBo>() {
+        @Override
+        public JoinFileDescriptorBo copy(JoinFileDescriptorBo value, long timestamp) {
+            return JoinFileDescriptorBo.joinFileDescriptorBoList(Collections.singletonList(value), timestamp);
+        }
+
+        @Override
+        public JoinFileDescriptorBo sum(JoinFileDescriptorBo sum, JoinFileDescriptorBo value, long timestamp) {
+            final JoinFileDescriptorBo result = JoinFileDescriptorBo.joinFileDescriptorBoList(Arrays.asList(sum, value), timestamp);
+            result.setAvgOpenFDCount(sum.getAvgOpenFDCount() + value.getAvgOpenFDCount());
+            return result;
+        }
+
+        @Override
+        public JoinFileDescriptorBo average(JoinFileDescriptorBo sum, int count, long timestamp) {
+            final JoinFileDescriptorBo result = copy(sum, timestamp);
+            result.setAvgOpenFDCount(sum.getAvgOpenFDCount() / count);
+            return result;
+        }
+    };
+
+    private static final Joiner<JoinDirectBufferBo> DIRECT_BUFFER_JOINER = new Joiner<JoinDirectBufferBo>() {
+        @Override
+        public JoinDirectBufferBo copy(JoinDirectBufferBo value, long timestamp) {
+            return JoinDirectBufferBo.joinDirectBufferBoList(Collections.singletonList(value), timestamp);
+        }
+
+        @Override
+        public JoinDirectBufferBo sum(JoinDirectBufferBo sum, JoinDirectBufferBo value, long timestamp) {
+            final JoinDirectBufferBo result = JoinDirectBufferBo.joinDirectBufferBoList(Arrays.asList(sum, value), timestamp);
+            result.setAvgDirectCount(sum.getAvgDirectCount() + value.getAvgDirectCount());
+            result.setAvgDirectMemoryUsed(sum.getAvgDirectMemoryUsed() + value.getAvgDirectMemoryUsed());
+            result.setAvgMappedCount(sum.getAvgMappedCount() + value.getAvgMappedCount());
+            result.setAvgMappedMemoryUsed(sum.getAvgMappedMemoryUsed() + value.getAvgMappedMemoryUsed());
+            return result;
+        }
+
+        @Override
+        public JoinDirectBufferBo average(JoinDirectBufferBo sum, int count, long timestamp) {
+            final JoinDirectBufferBo result = copy(sum, timestamp);
+            result.setAvgDirectCount(sum.getAvgDirectCount() / count);
+            result.setAvgDirectMemoryUsed(sum.getAvgDirectMemoryUsed() / count);
+            result.setAvgMappedCount(sum.getAvgMappedCount() / count);
+            result.setAvgMappedMemoryUsed(sum.getAvgMappedMemoryUsed() / count);
+            return result;
+        }
+    };
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.flink.function;
+
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinApplicationStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.api.java.tuple.Tuple3;
+
+/**
+ * Incremental version of the join done by {@link ApplicationStatBoWindow},
+ * the window state holds one {@link ApplicationStatBoAccumulator} per application instead of every element.
+ */
+public class ApplicationStatBoAggregateFunction implements AggregateFunction<Tuple3<String, JoinStatBo, Long>, ApplicationStatBoAccumulator, JoinApplicationStatBo> {
+
+    @Override
+    public ApplicationStatBoAccumulator createAccumulator() {
+        return new ApplicationStatBoAccumulator();
+    }
+
+    @Override
+    public ApplicationStatBoAccumulator add(Tuple3<String, JoinStatBo, Long> value, ApplicationStatBoAccumulator accumulator) {
+        accumulator.add((JoinApplicationStatBo) value.f1);
+        return accumulator;
+    }
+
+    @Override
+    public JoinApplicationStatBo getResult(ApplicationStatBoAccumulator accumulator) {
+        return accumulator.getResult();
+    }
+
+    @Override
+    public ApplicationStatBoAccumulator merge(ApplicationStatBoAccumulator a, ApplicationStatBoAccumulator b) {
+        return a.merge(b);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.flink.function;
+
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinApplicationStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
+import com.navercorp.pinpoint.flink.Bootstrap;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.api.functions.windowing.RichWindowFunction;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.util.Collector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Emits the result of {@link ApplicationStatBoAggregateFunction}, same output as {@link ApplicationStatBoWindow}.
+ * Unlike {@link ApplicationStatBoWindow}, {@link ApplicationStatBoWindowInterceptor#before(Iterable)}
+ * receives the joined value of the window instead of every stat of the window.
+ */
+public class ApplicationStatBoAggregateWindow extends RichWindowFunction<JoinApplicationStatBo, Tuple3<String, JoinStatBo, Long>, Tuple, TimeWindow> {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private transient ApplicationStatBoWindowInterceptor applicationStatBoWindowInterceptor;
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        applicationStatBoWindowInterceptor = Bootstrap.getInstance().getApplicationStatBoWindowInterceptor();
+    }
+
+    @Override
+    public void apply(Tuple tuple, TimeWindow window, Iterable<JoinApplicationStatBo> values, Collector<Tuple3<String, JoinStatBo, Long>> out) throws Exception {
+        String tupleKey = (String)tuple.getField(0);
+        // single pre-aggregated value, the raw stats of the window are not kept.
+        // the interceptor receives the joined value, see ApplicationStatBoWindowInterceptor.before()
+        JoinApplicationStatBo joinApplicationStatBo = values.iterator().next();
+        List<Tuple3<String, JoinStatBo, Long>> joinedValues = Collections.singletonList(new Tuple3<String, JoinStatBo, Long>(tupleKey, joinApplicationStatBo, joinApplicationStatBo.getTimestamp()));
+        applicationStatBoWindowInterceptor.before(joinedValues);
+        try {
+            ApplicationStatBoWindow.logDelay(logger, joinApplicationStatBo);
+
+            if (joinApplicationStatBo == JoinApplicationStatBo.EMPTY_JOIN_APPLICATION_STAT_BO) {
+                return;
+            }
+
+            Tuple3 resultTuple = applicationStatBoWindowInterceptor.middle(new Tuple3<>(tupleKey, joinApplicationStatBo, joinApplicationStatBo.getTimestamp()));
+            out.collect(resultTuple);
+        } catch (Exception e) {
+            logger.error("window function error", e);
+        } finally {
+            applicationStatBoWindowInterceptor.after();
+        }
+    }
+}
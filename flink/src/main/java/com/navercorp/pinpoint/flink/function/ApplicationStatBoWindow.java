@@ -54,24 +54,7 @@ public class ApplicationStatBoWindow extends RichWindowFunction<Tuple3<String, J
         applicationStatBoWindowInterceptor.before(values);
         try {
             JoinApplicationStatBo joinApplicationStatBo = join(values);
-            long delayTime = new Date().getTime() - joinApplicationStatBo.getTimestamp();
-            if (delayTime > 35000) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("[join][delay3] {} : {}", new Date(joinApplicationStatBo.getTimestamp()), joinApplicationStatBo);
-                }
-            } else if (delayTime > 25000) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("[join][delay2] {} : {}", new Date(joinApplicationStatBo.getTimestamp()), joinApplicationStatBo);
-                }
-            } else if (delayTime > 15000) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("[join][delay1] {} : {}", new Date(joinApplicationStatBo.getTimestamp()), joinApplicationStatBo);
-                }
-            } else {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("[join][non] {} : {}", new Date(joinApplicationStatBo.getTimestamp()), joinApplicationStatBo);
-                }
-            }
+            logDelay(logger, joinApplicationStatBo);
 
             if (joinApplicationStatBo == JoinApplicationStatBo.EMPTY_JOIN_APPLICATION_STAT_BO) {
                 return;
@@ -86,6 +69,22 @@ public class ApplicationStatBoWindow extends RichWindowFunction<Tuple3<String, J
         }
     }
 
+    static void logDelay(Logger logger, JoinApplicationStatBo joinApplicationStatBo) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        long delayTime = new Date().getTime() - joinApplicationStatBo.getTimestamp();
+        if (delayTime > 35000) {
+            logger.debug("[join][delay3] {} : {}", new Date(joinApplicationStatBo.getTimestamp()), joinApplicationStatBo);
+        } else if (delayTime > 25000) {
+            logger.debug("[join][delay2] {} : {}", new Date(joinApplicationStatBo.getTimestamp()), joinApplicationStatBo);
+        } else if (delayTime > 15000) {
+            logger.debug("[join][delay1] {} : {}", new Date(joinApplicationStatBo.getTimestamp()), joinApplicationStatBo);
+        } else {
+            logger.debug("[join][non] {} : {}", new Date(joinApplicationStatBo.getTimestamp()), joinApplicationStatBo);
+        }
+    }
+
     private JoinApplicationStatBo join(Iterable<Tuple3<String, JoinStatBo, Long>> values) {
         List<JoinApplicationStatBo> joinApplicaitonStatBoList = new ArrayList<JoinApplicationStatBo>();
 
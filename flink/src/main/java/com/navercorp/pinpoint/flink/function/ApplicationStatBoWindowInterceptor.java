@@ -22,6 +22,11 @@ import org.apache.flink.api.java.tuple.Tuple3;
  * @author minwoo.jung
  */
 public interface ApplicationStatBoWindowInterceptor {
+    /**
+     * @param values stats of the window. {@link ApplicationStatBoWindow} passes every stat received in the window,
+     *               {@link ApplicationStatBoAggregateWindow} ({@code flink.statistics.window.aggregate=true})
+     *               passes a single value already joined from them.
+     */
     void before(Iterable<Tuple3<String,JoinStatBo,Long>> values);
 
     Tuple3<String, JoinStatBo, Long> middle(Tuple3<String, JoinStatBo, Long> value);
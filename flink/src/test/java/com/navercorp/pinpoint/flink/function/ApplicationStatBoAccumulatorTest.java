@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.flink.function;
+
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinActiveTraceBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinApplicationStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinCpuLoadBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinDataSourceBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinDataSourceListBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinDirectBufferBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinFileDescriptorBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinMemoryBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinResponseTimeBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinTransactionBo;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ApplicationStatBoAccumulatorTest {
+
+    private static final String ID = "test_app";
+    private static final long TIMESTAMP = 1487149800000L;
+
+    private final Random random = new Random(1234);
+
+    @Test
+    public void sameAsJoinByTimeSlice() {
+        final List<JoinApplicationStatBo> joinApplicationStatBoList = new ArrayList<JoinApplicationStatBo>();
+        final ApplicationStatBoAccumulator accumulator = new ApplicationStatBoAccumulator();
+        for (int i = 0; i < 100; i++) {
+            JoinApplicationStatBo joinApplicationStatBo = createJoinApplicationStatBo("agent" + i);
+            joinApplicationStatBoList.add(joinApplicationStatBo);
+            accumulator.add(joinApplicationStatBo);
+        }
+
+        final JoinApplicationStatBo expected = JoinApplicationStatBo.joinApplicationStatBoByTimeSlice(joinApplicationStatBoList);
+        assertJoinApplicationStatBo(expected, accumulator.getResult());
+        // result does not change the accumulator
+        assertJoinApplicationStatBo(expected, accumulator.getResult());
+    }
+
+    @Test
+    public void merge() {
+        final List<JoinApplicationStatBo> joinApplicationStatBoList = new ArrayList<JoinApplicationStatBo>();
+        final ApplicationStatBoAccumulator accumulator1 = new ApplicationStatBoAccumulator();
+        final ApplicationStatBoAccumulator accumulator2 = new ApplicationStatBoAccumulator();
+        for (int i = 0; i < 20; i++) {
+            JoinApplicationStatBo joinApplicationStatBo = createJoinApplicationStatBo("agent" + i);
+            joinApplicationStatBoList.add(joinApplicationStatBo);
+            if (i % 2 == 0) {
+                accumulator1.add(joinApplicationStatBo);
+            } else {
+                accumulator2.add(joinApplicationStatBo);
+            }
+        }
+
+        final JoinApplicationStatBo expected = JoinApplicationStatBo.joinApplicationStatBoByTimeSlice(joinApplicationStatBoList);
+        assertJoinApplicationStatBo(expected, accumulator1.merge(accumulator2).getResult());
+    }
+
+    @Test
+    public void aggregateFunction() {
+        final ApplicationStatBoAggregateFunction aggregateFunction = new ApplicationStatBoAggregateFunction();
+        ApplicationStatBoAccumulator accumulator = aggregateFunction.createAccumulator();
+        assertSame(JoinApplicationStatBo.EMPTY_JOIN_APPLICATION_STAT_BO, aggregateFunction.getResult(accumulator));
+
+        final List<JoinApplicationStatBo> joinApplicationStatBoList = new ArrayList<JoinApplicationStatBo>();
+        for (int i = 0; i < 3; i++) {
+            JoinApplicationStatBo joinApplicationStatBo = createJoinApplicationStatBo("agent" + i);
+            joinApplicationStatBoList.add(joinApplicationStatBo);
+            accumulator = aggregateFunction.add(new Tuple3<String, JoinStatBo, Long>(ID, joinApplicationStatBo, joinApplicationStatBo.getTimestamp()), accumulator);
+        }
+
+        final JoinApplicationStatBo expected = JoinApplicationStatBo.joinApplicationStatBoByTimeSlice(joinApplicationStatBoList);
+        assertJoinApplicationStatBo(expected, aggregateFunction.getResult(accumulator));
+    }
+
+    private void assertJoinApplicationStatBo(JoinApplicationStatBo expected, JoinApplicationStatBo actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(sort(expected.getJoinCpuLoadBoList()), sort(actual.getJoinCpuLoadBoList()));
+        assertEquals(sort(expected.getJoinMemoryBoList()), sort(actual.getJoinMemoryBoList()));
+        assertEquals(sort(expected.getJoinTransactionBoList()), sort(actual.getJoinTransactionBoList()));
+        assertEquals(sort(expected.getJoinActiveTraceBoList()), sort(actual.getJoinActiveTraceBoList()));
+        assertEquals(sort(expected.getJoinResponseTimeBoList()), sort(actual.getJoinResponseTimeBoList()));
+        assertEquals(sortDataSource(expected.getJoinDataSourceListBoList()), sortDataSource(actual.getJoinDataSourceListBoList()));
+        assertEquals(sort(expected.getJoinFileDescriptorBoList()), sort(actual.getJoinFileDescriptorBoList()));
+        assertEquals(sort(expected.getJoinDirectBufferBoList()), sort(actual.getJoinDirectBufferBoList()));
+    }
+
+    private <T extends JoinStatBo> List<T> sort(List<T> joinStatBoList) {
+        List<T> result = new ArrayList<T>(joinStatBoList);
+        Collections.sort(result, new Comparator<T>() {
+            @Override
+            public int compare(T o1, T o2) {
+                return Long.compare(o1.getTimestamp(), o2.getTimestamp());
+            }
+        });
+        return result;
+    }
+
+    private List<JoinDataSourceListBo> sortDataSource(List<JoinDataSourceListBo> joinDataSourceListBoList) {
+        List<JoinDataSourceListBo> result = new ArrayList<JoinDataSourceListBo>();
+        for (JoinDataSourceListBo joinDataSourceListBo : sort(joinDataSourceListBoList)) {
+            List<JoinDataSourceBo> joinDataSourceBoList = new ArrayList<JoinDataSourceBo>(joinDataSourceListBo.getJoinDataSourceBoList());
+            Collections.sort(joinDataSourceBoList, new Comparator<JoinDataSourceBo>() {
+                @Override
+                public int compare(JoinDataSourceBo o1, JoinDataSourceBo o2) {
+                    return o1.getUrl().compareTo(o2.getUrl());
+                }
+            });
+            result.add(new JoinDataSourceListBo(joinDataSourceListBo.getId(), joinDataSourceBoList, joinDataSourceListBo.getTimestamp()));
+        }
+        return result;
+    }
+
+    private JoinApplicationStatBo createJoinApplicationStatBo(String agentId) {
+        final List<JoinCpuLoadBo> joinCpuLoadBoList = new ArrayList<JoinCpuLoadBo>();
+        final List<JoinMemoryBo> joinMemoryBoList = new ArrayList<JoinMemoryBo>();
+        final List<JoinTransactionBo> joinTransactionBoList = new ArrayList<JoinTransactionBo>();
+        final List<JoinActiveTraceBo> joinActiveTraceBoList = new ArrayList<JoinActiveTraceBo>();
+        final List<JoinResponseTimeBo> joinResponseTimeBoList = new ArrayList<JoinResponseTimeBo>();
+        final List<JoinDataSourceListBo> joinDataSourceListBoList = new ArrayList<JoinDataSourceListBo>();
+        final List<JoinFileDescriptorBo> joinFileDescriptorBoList = new ArrayList<JoinFileDescriptorBo>();
+        final List<JoinDirectBufferBo> joinDirectBufferBoList = new ArrayList<JoinDirectBufferBo>();
+
+        // two time slices, not aligned to the slice start
+        for (int slice = 0; slice < 2; slice++) {
+            final long timestamp = TIMESTAMP + (slice * 5000) + random.nextInt(5000);
+            joinCpuLoadBoList.add(new JoinCpuLoadBo(ID, value(), value(), agentId, value(), agentId, value(), value(), agentId, value(), agentId, timestamp));
+            joinMemoryBoList.add(new JoinMemoryBo(ID, timestamp, value(), value(), value(), agentId, agentId, value(), value(), value(), agentId, agentId));
+            joinTransactionBoList.add(new JoinTransactionBo(ID, 5000, value(), value(), agentId, value(), agentId, timestamp));
+            joinActiveTraceBoList.add(new JoinActiveTraceBo(ID, 1, (short) 2, value(), value(), agentId, value(), agentId, timestamp));
+            joinResponseTimeBoList.add(new JoinResponseTimeBo(ID, timestamp, value(), value(), agentId, value(), agentId));
+            final List<JoinDataSourceBo> joinDataSourceBoList = new ArrayList<JoinDataSourceBo>();
+            joinDataSourceBoList.add(new JoinDataSourceBo((short) 1000, "jdbc:mysql", value(), value(), agentId, value(), agentId));
+            if (random.nextBoolean()) {
+                joinDataSourceBoList.add(new JoinDataSourceBo((short) 1000, "jdbc:oracle", value(), value(), agentId, value(), agentId));
+            }
+            joinDataSourceListBoList.add(new JoinDataSourceListBo(ID, joinDataSourceBoList, timestamp));
+            joinFileDescriptorBoList.add(new JoinFileDescriptorBo(ID, value(), value(), agentId, value(), agentId, timestamp));
+            joinDirectBufferBoList.add(new JoinDirectBufferBo(ID, value(), value(), agentId, value(), agentId,
+                    value(), value(), agentId, value(), agentId,
+                    value(), value(), agentId, value(), agentId,
+                    value(), value(), agentId, value(), agentId, timestamp));
+        }
+
+        final JoinApplicationStatBo joinApplicationStatBo = new JoinApplicationStatBo();
+        joinApplicationStatBo.setId(ID);
+        joinApplicationStatBo.setJoinCpuLoadBoList(joinCpuLoadBoList);
+        joinApplicationStatBo.setJoinMemoryBoList(joinMemoryBoList);
+        joinApplicationStatBo.setJoinTransactionBoList(joinTransactionBoList);
+        joinApplicationStatBo.setJoinActiveTraceBoList(joinActiveTraceBoList);
+        joinApplicationStatBo.setJoinResponseTimeBoList(joinResponseTimeBoList);
+        joinApplicationStatBo.setJoinDataSourceListBoList(joinDataSourceListBoList);
+        joinApplicationStatBo.setJoinFileDescriptorBoList(joinFileDescriptorBoList);
+        joinApplicationStatBo.setJoinDirectBufferBoList(joinDirectBufferBoList);
+        joinApplicationStatBo.setTimestamp(TIMESTAMP);
+        return joinApplicationStatBo;
+    }
+
+    private int value() {
+        return random.nextInt(1000);
+    }
+}
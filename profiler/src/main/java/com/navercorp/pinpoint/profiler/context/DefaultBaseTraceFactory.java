@@ -20,11 +20,13 @@ import com.navercorp.pinpoint.bootstrap.context.AsyncState;
 import com.navercorp.pinpoint.bootstrap.context.SpanRecorder;
 import com.navercorp.pinpoint.bootstrap.context.Trace;
 import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.bootstrap.sampler.SamplingFlagUtils;
 import com.navercorp.pinpoint.bootstrap.sampler.TraceSampler;
 import com.navercorp.pinpoint.common.annotations.InterfaceAudience;
 import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.active.ActiveTraceHandle;
 import com.navercorp.pinpoint.profiler.context.active.ActiveTraceRepository;
+import com.navercorp.pinpoint.profiler.context.id.TailSamplingTraceRoot;
 import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
 import com.navercorp.pinpoint.profiler.context.id.TraceRootFactory;
 import com.navercorp.pinpoint.profiler.context.id.ListenableAsyncState;
@@ -32,6 +34,7 @@ import com.navercorp.pinpoint.profiler.context.recorder.RecorderFactory;
 import com.navercorp.pinpoint.profiler.context.recorder.WrappedSpanEventRecorder;
 import com.navercorp.pinpoint.profiler.context.storage.Storage;
 import com.navercorp.pinpoint.profiler.context.storage.StorageFactory;
+import com.navercorp.pinpoint.profiler.context.storage.TailSamplingStorageFactory;
 
 
 /**
@@ -52,9 +55,19 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
 
     private final ActiveTraceRepository activeTraceRepository;
 
+    // @Nullable
+    private final TailSamplingStorageFactory tailSamplingStorageFactory;
+
     public DefaultBaseTraceFactory(TraceRootFactory traceRootFactory, CallStackFactory<SpanEvent> callStackFactory, StorageFactory storageFactory,
                                    TraceSampler traceSampler,
                                    SpanFactory spanFactory, RecorderFactory recorderFactory, ActiveTraceRepository activeTraceRepository) {
+        this(traceRootFactory, callStackFactory, storageFactory, traceSampler, spanFactory, recorderFactory, activeTraceRepository, null);
+    }
+
+    public DefaultBaseTraceFactory(TraceRootFactory traceRootFactory, CallStackFactory<SpanEvent> callStackFactory, StorageFactory storageFactory,
+                                   TraceSampler traceSampler,
+                                   SpanFactory spanFactory, RecorderFactory recorderFactory, ActiveTraceRepository activeTraceRepository,
+                                   TailSamplingStorageFactory tailSamplingStorageFactory) {
 
         this.traceRootFactory = Assert.requireNonNull(traceRootFactory, "traceRootFactory");
         this.callStackFactory = Assert.requireNonNull(callStackFactory, "callStackFactory");
@@ -64,6 +77,7 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
         this.spanFactory = Assert.requireNonNull(spanFactory, "spanFactory");
         this.recorderFactory = Assert.requireNonNull(recorderFactory, "recorderFactory");
         this.activeTraceRepository = Assert.requireNonNull(activeTraceRepository, "activeTraceRepository");
+        this.tailSamplingStorageFactory = tailSamplingStorageFactory;
     }
 
     // continue to trace the request that has been determined to be sampled on previous nodes
@@ -73,6 +87,9 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
         // always set true because the decision of sampling has been  made on previous nodes
         // TODO need to consider as a target to sample in case Trace object has a sampling flag (true) marked on previous node.
         // Check max throughput(permits per seconds)
+        if (SamplingFlagUtils.isUnsampledTraceFlag(traceId.getFlags())) {
+            return disableSampling();
+        }
         final TraceSampler.State state = traceSampler.isContinueSampled();
         if (state.isSampled()) {
             final TraceRoot traceRoot = traceRootFactory.continueTraceRoot(traceId, state.nextId());
@@ -122,16 +139,43 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
 
             return trace;
         } else {
-            return newDisableTrace(state.nextId());
+            final long nextId = state.nextId();
+            if (tailSamplingStorageFactory != null) {
+                final Trace trace = newTailSamplingTraceObject(nextId);
+                if (trace != null) {
+                    return trace;
+                }
+            }
+            return newDisableTrace(nextId);
+        }
+    }
+
+    // record the unsampled transaction and decide whether to send it when the span ends
+    // it is propagated as unsampled, see TailSamplingTraceRoot
+    private Trace newTailSamplingTraceObject(long nextId) {
+        final TraceRoot traceRoot = new TailSamplingTraceRoot(traceRootFactory.newTraceRoot(nextId));
+        final SpanChunkFactory spanChunkFactory = new DefaultSpanChunkFactory(traceRoot);
+        final Storage storage = tailSamplingStorageFactory.createStorage(spanChunkFactory);
+        if (storage == null) {
+            return null;
         }
+        final Span span = spanFactory.newSpan(traceRoot);
+        final CallStack<SpanEvent> callStack = callStackFactory.newCallStack();
+
+        final boolean sampling = true;
+        final TraceId traceId = traceRoot.getTraceId();
+        final SpanRecorder spanRecorder = recorderFactory.newSpanRecorder(span, traceId.isRoot(), sampling);
+        final WrappedSpanEventRecorder wrappedSpanEventRecorder = recorderFactory.newWrappedSpanEventRecorder(traceRoot);
+
+        final ActiveTraceHandle handle = registerActiveTrace(traceRoot);
+        return new DefaultTrace(span, callStack, storage, sampling, spanRecorder, wrappedSpanEventRecorder, handle);
     }
 
     // internal async trace.
     @Override
     public Trace continueAsyncTraceObject(TraceRoot traceRoot, LocalAsyncId localAsyncId) {
 
-        final SpanChunkFactory spanChunkFactory = new AsyncSpanChunkFactory(traceRoot, localAsyncId);
-        final Storage storage = storageFactory.createStorage(spanChunkFactory);
+        final Storage storage = createAsyncStorage(traceRoot, localAsyncId);
 
         final CallStack<SpanEvent> callStack = callStackFactory.newCallStack();
 
@@ -146,10 +190,21 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
     }
 
 
+    private Storage createAsyncStorage(TraceRoot traceRoot, LocalAsyncId localAsyncId) {
+        if (tailSamplingStorageFactory != null && TailSamplingTraceRoot.isTailSampling(traceRoot)) {
+            return tailSamplingStorageFactory.createAsyncStorage();
+        }
+        final SpanChunkFactory spanChunkFactory = new AsyncSpanChunkFactory(traceRoot, localAsyncId);
+        return storageFactory.createStorage(spanChunkFactory);
+    }
+
     // entry point async trace.
     @InterfaceAudience.LimitedPrivate("vert.x")
     @Override
     public Trace continueAsyncTraceObject(final TraceId traceId) {
+        if (SamplingFlagUtils.isUnsampledTraceFlag(traceId.getFlags())) {
+            return disableSampling();
+        }
         final TraceSampler.State state = traceSampler.isContinueSampled();
         final boolean sampling = state.isSampled();
         if (sampling) {
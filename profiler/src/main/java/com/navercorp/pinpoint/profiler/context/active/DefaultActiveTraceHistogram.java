@@ -39,21 +39,25 @@ public class DefaultActiveTraceHistogram implements ActiveTraceHistogram {
     }
 
     public void increment(HistogramSlot slot) {
+        add(slot, 1);
+    }
+
+    public void add(HistogramSlot slot, int count) {
         Assert.requireNonNull(slot, "slot must not be null");
 
         final SlotType slotType = slot.getSlotType();
         switch (slotType) {
             case FAST:
-                this.fastCount++;
+                this.fastCount += count;
                 return;
             case NORMAL:
-                this.normalCount++;
+                this.normalCount += count;
                 return;
             case SLOW:
-                this.slowCount++;
+                this.slowCount += count;
                 return;
             case VERY_SLOW:
-                this.verySlowCount++;
+                this.verySlowCount += count;
                 return;
             default:
                 throw new UnsupportedOperationException("slot type:" + slot);
@@ -0,0 +1,360 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.active;
+
+import com.navercorp.pinpoint.common.trace.BaseHistogramSchema;
+import com.navercorp.pinpoint.common.trace.HistogramSchema;
+import com.navercorp.pinpoint.common.trace.HistogramSlot;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import com.navercorp.pinpoint.profiler.monitor.metric.response.ResponseTimeCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link ActiveTraceRepository} split into independently locked stripes.
+ * <p>
+ * Each stripe counts its active traces per start time bucket of {@value #BUCKET_WIDTH_MILLIS}ms,
+ * so {@link #getActiveTraceHistogram(long)} reads O(stripes * buckets) counters without locking
+ * instead of walking every active trace. Elapsed time is measured from the start of the bucket,
+ * so a trace can be classified into the slower slot up to one bucket width early.
+ * Traces older than the bucket ring are counted as very slow.
+ * <p>
+ * {@link #snapshot()} and {@link #getThreadIdList()} still visit every trace, they are only used by commands.
+ */
+public class StripedActiveTraceRepository implements ActiveTraceRepository {
+
+    // memory leak defense threshold
+    private static final int DEFAULT_MAX_ACTIVE_TRACE_SIZE = 1024 * 10;
+
+    static final int BUCKET_SHIFT = 8;
+    static final long BUCKET_WIDTH_MILLIS = 1 << BUCKET_SHIFT;
+    // 32 * 256ms = 8192ms, longer than the very slow threshold
+    static final int BUCKET_SIZE = 32;
+    private static final int BUCKET_MASK = BUCKET_SIZE - 1;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final boolean isDebug = logger.isDebugEnabled();
+
+    private final ResponseTimeCollector responseTimeCollector;
+
+    private final HistogramSchema histogramSchema = BaseHistogramSchema.NORMAL_SCHEMA;
+    private final ActiveTraceHistogram emptyActiveTraceHistogram = new EmptyActiveTraceHistogram(histogramSchema);
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public StripedActiveTraceRepository(ResponseTimeCollector responseTimeCollector) {
+        this(responseTimeCollector, DEFAULT_MAX_ACTIVE_TRACE_SIZE, defaultStripeSize());
+    }
+
+    public StripedActiveTraceRepository(ResponseTimeCollector responseTimeCollector, int maxActiveTraceSize, int stripeSize) {
+        this.responseTimeCollector = Assert.requireNonNull(responseTimeCollector, "responseTimeCollector must not be null");
+        if (maxActiveTraceSize <= 0) {
+            throw new IllegalArgumentException("Invalid maxActiveTraceSize " + maxActiveTraceSize);
+        }
+        if (stripeSize <= 0) {
+            throw new IllegalArgumentException("Invalid stripeSize " + stripeSize);
+        }
+        final int powerOfTwoStripeSize = nextPowerOfTwo(stripeSize);
+        final int maxStripeTraceSize = Math.max(1, maxActiveTraceSize / powerOfTwoStripeSize);
+
+        this.stripes = new Stripe[powerOfTwoStripeSize];
+        for (int i = 0; i < stripes.length; i++) {
+            this.stripes[i] = new Stripe(maxStripeTraceSize);
+        }
+        this.stripeMask = powerOfTwoStripeSize - 1;
+    }
+
+    private static int defaultStripeSize() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        return Math.min(64, processors * 2);
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        final int highestOneBit = Integer.highestOneBit(value);
+        if (highestOneBit == value) {
+            return value;
+        }
+        return highestOneBit << 1;
+    }
+
+    private Stripe getStripe(long id) {
+        final int hash = (int) (id ^ (id >>> 32));
+        return stripes[hash & stripeMask];
+    }
+
+    @Override
+    public ActiveTraceHandle register(TraceRoot traceRoot) {
+        final ActiveTrace activeTrace = new SampledActiveTrace(traceRoot);
+        return register0(activeTrace);
+    }
+
+    @Override
+    public ActiveTraceHandle register(long localTransactionId, long startTime, long threadId) {
+        final ActiveTrace activeTrace = new UnsampledActiveTrace(localTransactionId, startTime, threadId);
+        return register0(activeTrace);
+    }
+
+    private ActiveTraceHandle register0(ActiveTrace activeTrace) {
+        if (isDebug) {
+            logger.debug("register ActiveTrace key:{}", activeTrace);
+        }
+        final Stripe stripe = getStripe(activeTrace.getId());
+        final StripedActiveTraceHandle handle = new StripedActiveTraceHandle(stripe, activeTrace);
+        if (!stripe.add(handle)) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("too many active traces, not registered:{}", activeTrace);
+            }
+        }
+        return handle;
+    }
+
+    private void remove(StripedActiveTraceHandle handle, long purgeTime) {
+        if (isDebug) {
+            logger.debug("remove ActiveTrace key:{}", handle);
+        }
+        if (handle.stripe.remove(handle)) {
+            final long responseTime = purgeTime - handle.activeTrace.getStartTime();
+            responseTimeCollector.add(responseTime);
+        }
+    }
+
+    // @ThreadSafe
+    @Override
+    public List<ActiveTraceSnapshot> snapshot() {
+        final List<ActiveTraceSnapshot> collectData = new ArrayList<ActiveTraceSnapshot>();
+        for (Stripe stripe : stripes) {
+            for (ActiveTrace trace : stripe.values()) {
+                if (!isStarted(trace.getStartTime())) {
+                    continue;
+                }
+                collectData.add(trace.snapshot());
+            }
+        }
+        if (isDebug) {
+            logger.debug("activeTraceSnapshot size:{}", collectData.size());
+        }
+        return collectData;
+    }
+
+    // @ThreadSafe
+    @Override
+    public List<Long> getThreadIdList() {
+        final List<Long> collectData = new ArrayList<Long>();
+        for (Stripe stripe : stripes) {
+            for (ActiveTrace trace : stripe.values()) {
+                if (!isStarted(trace.getStartTime())) {
+                    continue;
+                }
+                final ActiveTraceSnapshot snapshot = trace.snapshot();
+                collectData.add(snapshot.getThreadId());
+            }
+        }
+        if (isDebug) {
+            logger.debug("activeTraceSnapshot size:{}", collectData.size());
+        }
+        return collectData;
+    }
+
+    // @ThreadSafe
+    @Override
+    public ActiveTraceHistogram getActiveTraceHistogram(long currentTime) {
+        DefaultActiveTraceHistogram histogram = null;
+        for (Stripe stripe : stripes) {
+            if (stripe.size == 0) {
+                continue;
+            }
+            if (histogram == null) {
+                histogram = new DefaultActiveTraceHistogram(histogramSchema);
+            }
+            stripe.collect(histogram, histogramSchema, currentTime);
+        }
+        if (histogram == null) {
+            return emptyActiveTraceHistogram;
+        }
+        return histogram;
+    }
+
+    private static boolean isStarted(long startTime) {
+        return startTime > 0;
+    }
+
+    private static long toBucketEpoch(long startTime) {
+        return startTime >> BUCKET_SHIFT;
+    }
+
+    @SuppressWarnings("unused")
+    private static class StripeLhsPadding {
+        // avoid false sharing with neighbouring stripes
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static class StripeFields extends StripeLhsPadding {
+        // written under the stripe monitor, read without locking
+        protected volatile int size;
+        // traces whose bucket has been reused
+        protected volatile int expiredCount;
+    }
+
+    @SuppressWarnings("unused")
+    private static class StripeRhsPadding extends StripeFields {
+        private long p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    /**
+     * Mutations are serialized by the stripe monitor. Counters are read without locking.
+     * <p>
+     * The bucket arrays are allocated separately from the stripe,
+     * so they are padded at both ends to keep them off the cache lines of other objects.
+     */
+    private static final class Stripe extends StripeRhsPadding {
+        // 64 bytes
+        private static final int LONG_ARRAY_PADDING = 8;
+        private static final int INT_ARRAY_PADDING = 16;
+
+        private final int maxSize;
+        private final Map<StripedActiveTraceHandle, ActiveTrace> activeTraceMap = new HashMap<StripedActiveTraceHandle, ActiveTrace>();
+
+        // bucket epoch of each ring slot
+        private final AtomicLongArray epochs = new AtomicLongArray(BUCKET_SIZE + (LONG_ARRAY_PADDING * 2));
+        private final AtomicIntegerArray counts = new AtomicIntegerArray(BUCKET_SIZE + (INT_ARRAY_PADDING * 2));
+
+        private Stripe(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        private static int epochIndex(int slot) {
+            return slot + LONG_ARRAY_PADDING;
+        }
+
+        private static int countIndex(int slot) {
+            return slot + INT_ARRAY_PADDING;
+        }
+
+        private synchronized boolean add(StripedActiveTraceHandle handle) {
+            if (activeTraceMap.size() >= maxSize) {
+                return false;
+            }
+            activeTraceMap.put(handle, handle.activeTrace);
+            size = activeTraceMap.size();
+            if (!handle.isStarted()) {
+                return true;
+            }
+
+            final long epoch = handle.bucketEpoch;
+            final int slot = (int) (epoch & BUCKET_MASK);
+            final long slotEpoch = epochs.get(epochIndex(slot));
+            if (slotEpoch == epoch) {
+                counts.incrementAndGet(countIndex(slot));
+            } else if (slotEpoch < epoch) {
+                // reuse the slot of an old bucket
+                final int oldCount = counts.get(countIndex(slot));
+                if (oldCount != 0) {
+                    expiredCount += oldCount;
+                }
+                counts.set(countIndex(slot), 0);
+                epochs.set(epochIndex(slot), epoch);
+                counts.set(countIndex(slot), 1);
+            } else {
+                // started before the ring
+                expiredCount++;
+            }
+            return true;
+        }
+
+        private synchronized boolean remove(StripedActiveTraceHandle handle) {
+            final ActiveTrace activeTrace = activeTraceMap.remove(handle);
+            if (activeTrace == null) {
+                return false;
+            }
+            size = activeTraceMap.size();
+            if (!handle.isStarted()) {
+                return true;
+            }
+
+            final long epoch = handle.bucketEpoch;
+            final int slot = (int) (epoch & BUCKET_MASK);
+            if (epochs.get(epochIndex(slot)) == epoch) {
+                counts.decrementAndGet(countIndex(slot));
+            } else {
+                expiredCount--;
+            }
+            return true;
+        }
+
+        private synchronized List<ActiveTrace> values() {
+            if (activeTraceMap.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return new ArrayList<ActiveTrace>(activeTraceMap.values());
+        }
+
+        private void collect(DefaultActiveTraceHistogram histogram, HistogramSchema histogramSchema, long currentTime) {
+            for (int slot = 0; slot < BUCKET_SIZE; slot++) {
+                final int count = counts.get(countIndex(slot));
+                if (count <= 0) {
+                    continue;
+                }
+                final long bucketStartTime = epochs.get(epochIndex(slot)) << BUCKET_SHIFT;
+                final long elapsedTime = Math.max(0, currentTime - bucketStartTime);
+                final HistogramSlot histogramSlot = histogramSchema.findHistogramSlot((int) Math.min(Integer.MAX_VALUE, elapsedTime), false);
+                histogram.add(histogramSlot, count);
+            }
+            final int expired = expiredCount;
+            if (expired > 0) {
+                histogram.add(histogramSchema.getVerySlowSlot(), expired);
+            }
+        }
+    }
+
+    private final class StripedActiveTraceHandle implements ActiveTraceHandle {
+        private final Stripe stripe;
+        private final ActiveTrace activeTrace;
+        private final long bucketEpoch;
+
+        private StripedActiveTraceHandle(Stripe stripe, ActiveTrace activeTrace) {
+            this.stripe = stripe;
+            this.activeTrace = activeTrace;
+            this.bucketEpoch = toBucketEpoch(activeTrace.getStartTime());
+        }
+
+        private boolean isStarted() {
+            return StripedActiveTraceRepository.isStarted(activeTrace.getStartTime());
+        }
+
+        @Override
+        public void purge(long purgeTime) {
+            remove(this, purgeTime);
+        }
+
+        @Override
+        public String toString() {
+            return "StripedActiveTraceHandle{" +
+                    "activeTrace=" + activeTrace +
+                    '}';
+        }
+    }
+}
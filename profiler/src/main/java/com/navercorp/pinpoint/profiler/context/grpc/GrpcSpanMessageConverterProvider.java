@@ -24,6 +24,7 @@ import com.navercorp.pinpoint.grpc.trace.PSpanChunk;
 import com.navercorp.pinpoint.profiler.context.compress.SpanProcessor;
 import com.navercorp.pinpoint.profiler.context.module.AgentId;
 import com.navercorp.pinpoint.profiler.context.module.ApplicationServerType;
+import com.navercorp.pinpoint.profiler.context.storage.RecyclingMessageConverter;
 import com.navercorp.pinpoint.profiler.context.thrift.MessageConverter;
 
 
@@ -50,6 +51,7 @@ public class GrpcSpanMessageConverterProvider implements Provider<MessageConvert
 
     @Override
     public MessageConverter<GeneratedMessageV3> get() {
-        return new GrpcSpanMessageConverter(agentId, applicationServiceTypeCode, spanPostProcessor);
+        final MessageConverter<GeneratedMessageV3> messageConverter = new GrpcSpanMessageConverter(agentId, applicationServiceTypeCode, spanPostProcessor);
+        return new RecyclingMessageConverter<GeneratedMessageV3>(messageConverter);
     }
 }
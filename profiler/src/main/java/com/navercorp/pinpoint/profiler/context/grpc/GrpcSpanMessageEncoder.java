@@ -0,0 +1,647 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.context.grpc;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.StringValue;
+import com.google.protobuf.WireFormat;
+import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.CollectionUtils;
+import com.navercorp.pinpoint.common.util.IntStringValue;
+import com.navercorp.pinpoint.grpc.trace.PAcceptEvent;
+import com.navercorp.pinpoint.grpc.trace.PAnnotation;
+import com.navercorp.pinpoint.grpc.trace.PAnnotationValue;
+import com.navercorp.pinpoint.grpc.trace.PIntStringValue;
+import com.navercorp.pinpoint.grpc.trace.PLocalAsyncId;
+import com.navercorp.pinpoint.grpc.trace.PMessageEvent;
+import com.navercorp.pinpoint.grpc.trace.PNextEvent;
+import com.navercorp.pinpoint.grpc.trace.PParentInfo;
+import com.navercorp.pinpoint.grpc.trace.PSpan;
+import com.navercorp.pinpoint.grpc.trace.PSpanChunk;
+import com.navercorp.pinpoint.grpc.trace.PSpanEvent;
+import com.navercorp.pinpoint.grpc.trace.PSpanMessage;
+import com.navercorp.pinpoint.grpc.trace.PTransactionId;
+import com.navercorp.pinpoint.io.SpanVersion;
+import com.navercorp.pinpoint.profiler.context.Annotation;
+import com.navercorp.pinpoint.profiler.context.AsyncId;
+import com.navercorp.pinpoint.profiler.context.AsyncSpanChunk;
+import com.navercorp.pinpoint.profiler.context.LocalAsyncId;
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanChunk;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.compress.SpanEventSequenceComparator;
+import com.navercorp.pinpoint.profiler.context.id.Shared;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes the {@link PSpanMessage} wire format straight from {@link Span} / {@link SpanChunk}
+ * without building the intermediate protobuf object graph.
+ * <p>
+ * The output is equivalent to {@link GrpcSpanMessageConverter} + GrpcSpanProcessorV2 ({@link SpanVersion#TRACE_V2}).
+ * Encoding is done in two passes: {@link #prepare(Object)} sorts the span events and computes every nested size,
+ * {@link #writeTo(CodedOutputStream)} writes the prepared message.
+ * <p>
+ * WARNING Not thread safe
+ */
+public class GrpcSpanMessageEncoder {
+
+    private static final int VERSION = SpanVersion.TRACE_V2;
+
+    private static final Comparator<SpanEvent> SEQUENCE_COMPARATOR = SpanEventSequenceComparator.INSTANCE;
+
+    private final String agentId;
+    private final short applicationServiceType;
+
+    // WARNING not thread safe
+    private final GrpcAnnotationValueMapper grpcAnnotationValueMapper = new GrpcAnnotationValueMapper();
+
+    // prepared state
+    private Object message;
+    private int messageFieldNumber;
+    private int bodySize;
+    private int transactionIdSize;
+    private int acceptEventSize;
+    private int parentInfoSize;
+    private int exceptionInfoSize;
+    private int localAsyncIdSize;
+    private long keyTime;
+
+    private int eventCount;
+    private int[] eventSize = new int[32];
+    private int[] eventStartElapsed = new int[32];
+    private int[] eventDepth = new int[32];
+    private int[] eventNextEventSize = new int[32];
+    // flattened annotation values in writing order. span annotations first, then each span event
+    private final List<PAnnotationValue> annotationValues = new ArrayList<PAnnotationValue>();
+    private int annotationValueIndex;
+
+    public GrpcSpanMessageEncoder(String agentId, short applicationServiceType) {
+        this.agentId = Assert.requireNonNull(agentId, "agentId must not be null");
+        this.applicationServiceType = applicationServiceType;
+    }
+
+    public boolean isSupported(Object message) {
+        return message instanceof Span || message instanceof SpanChunk;
+    }
+
+    /**
+     * @return serialized size of the whole PSpanMessage
+     */
+    public int prepare(Object message) {
+        clear();
+        if (message instanceof SpanChunk) {
+            this.bodySize = prepareSpanChunk((SpanChunk) message);
+            this.messageFieldNumber = PSpanMessage.SPANCHUNK_FIELD_NUMBER;
+        } else if (message instanceof Span) {
+            this.bodySize = prepareSpan((Span) message);
+            this.messageFieldNumber = PSpanMessage.SPAN_FIELD_NUMBER;
+        } else {
+            throw new IllegalArgumentException("unsupported message " + message);
+        }
+        this.message = message;
+        return messageSize(messageFieldNumber, bodySize);
+    }
+
+    public boolean isPrepared(Object message) {
+        return this.message != null && this.message == message;
+    }
+
+    public void writeTo(CodedOutputStream out) throws IOException {
+        final Object message = this.message;
+        if (message == null) {
+            throw new IllegalStateException("message not prepared");
+        }
+        this.annotationValueIndex = 0;
+        writeMessageHeader(out, messageFieldNumber, bodySize);
+        if (message instanceof SpanChunk) {
+            writeSpanChunk(out, (SpanChunk) message);
+        } else {
+            writeSpan(out, (Span) message);
+        }
+    }
+
+    public void clear() {
+        this.message = null;
+        this.eventCount = 0;
+        this.annotationValues.clear();
+        this.annotationValueIndex = 0;
+    }
+
+    // ----- Span
+
+    private int prepareSpan(Span span) {
+        final TraceRoot traceRoot = span.getTraceRoot();
+        final TraceId traceId = traceRoot.getTraceId();
+        final Shared shared = traceRoot.getShared();
+
+        int size = int32Size(PSpan.VERSION_FIELD_NUMBER, VERSION);
+        this.transactionIdSize = transactionIdSize(traceId);
+        size += messageSize(PSpan.TRANSACTIONID_FIELD_NUMBER, transactionIdSize);
+        size += sfixed64Size(PSpan.SPANID_FIELD_NUMBER, traceId.getSpanId());
+        size += sfixed64Size(PSpan.PARENTSPANID_FIELD_NUMBER, traceId.getParentSpanId());
+        size += int64Size(PSpan.STARTTIME_FIELD_NUMBER, span.getStartTime());
+        size += int32Size(PSpan.ELAPSED_FIELD_NUMBER, span.getElapsedTime());
+        size += int32Size(PSpan.APIID_FIELD_NUMBER, span.getApiId());
+        size += int32Size(PSpan.SERVICETYPE_FIELD_NUMBER, span.getServiceType());
+
+        this.parentInfoSize = parentInfoSize(span);
+        this.acceptEventSize = acceptEventSize(span, shared);
+        size += messageSize(PSpan.ACCEPTEVENT_FIELD_NUMBER, acceptEventSize);
+
+        size += prepareAnnotations(PSpan.ANNOTATION_FIELD_NUMBER, span.getAnnotations());
+
+        size += int32Size(PSpan.FLAG_FIELD_NUMBER, traceId.getFlags());
+        size += sint32Size(PSpan.ERR_FIELD_NUMBER, shared.getErrorCode());
+
+        final List<SpanEvent> spanEventList = span.getSpanEventList();
+        sortSpanEvents(spanEventList);
+        size += prepareSpanEvents(PSpan.SPANEVENT_FIELD_NUMBER, span.getStartTime(), spanEventList);
+
+        final IntStringValue exceptionInfo = span.getExceptionInfo();
+        if (exceptionInfo != null) {
+            this.exceptionInfoSize = intStringValueSize(exceptionInfo);
+            size += messageSize(PSpan.EXCEPTIONINFO_FIELD_NUMBER, exceptionInfoSize);
+        }
+        size += int32Size(PSpan.APPLICATIONSERVICETYPE_FIELD_NUMBER, applicationServiceType);
+        size += int32Size(PSpan.LOGGINGTRANSACTIONINFO_FIELD_NUMBER, shared.getLoggingInfo());
+        return size;
+    }
+
+    private void writeSpan(CodedOutputStream out, Span span) throws IOException {
+        final TraceRoot traceRoot = span.getTraceRoot();
+        final TraceId traceId = traceRoot.getTraceId();
+        final Shared shared = traceRoot.getShared();
+
+        writeInt32(out, PSpan.VERSION_FIELD_NUMBER, VERSION);
+        writeMessageHeader(out, PSpan.TRANSACTIONID_FIELD_NUMBER, transactionIdSize);
+        writeTransactionId(out, traceId);
+        writeSFixed64(out, PSpan.SPANID_FIELD_NUMBER, traceId.getSpanId());
+        writeSFixed64(out, PSpan.PARENTSPANID_FIELD_NUMBER, traceId.getParentSpanId());
+        writeInt64(out, PSpan.STARTTIME_FIELD_NUMBER, span.getStartTime());
+        writeInt32(out, PSpan.ELAPSED_FIELD_NUMBER, span.getElapsedTime());
+        writeInt32(out, PSpan.APIID_FIELD_NUMBER, span.getApiId());
+        writeInt32(out, PSpan.SERVICETYPE_FIELD_NUMBER, span.getServiceType());
+
+        writeMessageHeader(out, PSpan.ACCEPTEVENT_FIELD_NUMBER, acceptEventSize);
+        writeAcceptEvent(out, span, shared);
+
+        writeAnnotations(out, PSpan.ANNOTATION_FIELD_NUMBER, span.getAnnotations());
+
+        writeInt32(out, PSpan.FLAG_FIELD_NUMBER, traceId.getFlags());
+        writeSInt32(out, PSpan.ERR_FIELD_NUMBER, shared.getErrorCode());
+
+        writeSpanEvents(out, PSpan.SPANEVENT_FIELD_NUMBER, span.getSpanEventList());
+
+        final IntStringValue exceptionInfo = span.getExceptionInfo();
+        if (exceptionInfo != null) {
+            writeMessageHeader(out, PSpan.EXCEPTIONINFO_FIELD_NUMBER, exceptionInfoSize);
+            writeIntStringValue(out, exceptionInfo);
+        }
+        writeInt32(out, PSpan.APPLICATIONSERVICETYPE_FIELD_NUMBER, applicationServiceType);
+        writeInt32(out, PSpan.LOGGINGTRANSACTIONINFO_FIELD_NUMBER, shared.getLoggingInfo());
+    }
+
+    private int acceptEventSize(Span span, Shared shared) {
+        int size = stringSize(PAcceptEvent.RPC_FIELD_NUMBER, shared.getRpcName());
+        size += stringSize(PAcceptEvent.ENDPOINT_FIELD_NUMBER, shared.getEndPoint());
+        size += stringSize(PAcceptEvent.REMOTEADDR_FIELD_NUMBER, span.getRemoteAddr());
+        if (span.getParentApplicationName() != null) {
+            size += messageSize(PAcceptEvent.PARENTINFO_FIELD_NUMBER, parentInfoSize);
+        }
+        return size;
+    }
+
+    private void writeAcceptEvent(CodedOutputStream out, Span span, Shared shared) throws IOException {
+        writeString(out, PAcceptEvent.RPC_FIELD_NUMBER, shared.getRpcName());
+        writeString(out, PAcceptEvent.ENDPOINT_FIELD_NUMBER, shared.getEndPoint());
+        writeString(out, PAcceptEvent.REMOTEADDR_FIELD_NUMBER, span.getRemoteAddr());
+        final String parentApplicationName = span.getParentApplicationName();
+        if (parentApplicationName != null) {
+            writeMessageHeader(out, PAcceptEvent.PARENTINFO_FIELD_NUMBER, parentInfoSize);
+            writeString(out, PParentInfo.PARENTAPPLICATIONNAME_FIELD_NUMBER, parentApplicationName);
+            writeInt32(out, PParentInfo.PARENTAPPLICATIONTYPE_FIELD_NUMBER, span.getParentApplicationType());
+            writeString(out, PParentInfo.ACCEPTORHOST_FIELD_NUMBER, span.getAcceptorHost());
+        }
+    }
+
+    private int parentInfoSize(Span span) {
+        final String parentApplicationName = span.getParentApplicationName();
+        if (parentApplicationName == null) {
+            return 0;
+        }
+        int size = stringSize(PParentInfo.PARENTAPPLICATIONNAME_FIELD_NUMBER, parentApplicationName);
+        size += int32Size(PParentInfo.PARENTAPPLICATIONTYPE_FIELD_NUMBER, span.getParentApplicationType());
+        size += stringSize(PParentInfo.ACCEPTORHOST_FIELD_NUMBER, span.getAcceptorHost());
+        return size;
+    }
+
+    // ----- SpanChunk
+
+    private int prepareSpanChunk(SpanChunk spanChunk) {
+        final TraceRoot traceRoot = spanChunk.getTraceRoot();
+        final TraceId traceId = traceRoot.getTraceId();
+
+        int size = int32Size(PSpanChunk.VERSION_FIELD_NUMBER, VERSION);
+        this.transactionIdSize = transactionIdSize(traceId);
+        size += messageSize(PSpanChunk.TRANSACTIONID_FIELD_NUMBER, transactionIdSize);
+        size += sfixed64Size(PSpanChunk.SPANID_FIELD_NUMBER, traceId.getSpanId());
+        size += stringSize(PSpanChunk.ENDPOINT_FIELD_NUMBER, traceRoot.getShared().getEndPoint());
+
+        final List<SpanEvent> spanEventList = spanChunk.getSpanEventList();
+        sortSpanEvents(spanEventList);
+        this.keyTime = getKeyTime(spanEventList);
+        size += prepareSpanEvents(PSpanChunk.SPANEVENT_FIELD_NUMBER, keyTime, spanEventList);
+
+        size += int32Size(PSpanChunk.APPLICATIONSERVICETYPE_FIELD_NUMBER, applicationServiceType);
+        size += int64Size(PSpanChunk.KEYTIME_FIELD_NUMBER, keyTime);
+
+        if (spanChunk instanceof AsyncSpanChunk) {
+            final LocalAsyncId localAsyncId = ((AsyncSpanChunk) spanChunk).getLocalAsyncId();
+            this.localAsyncIdSize = int32Size(PLocalAsyncId.ASYNCID_FIELD_NUMBER, localAsyncId.getAsyncId())
+                    + int32Size(PLocalAsyncId.SEQUENCE_FIELD_NUMBER, localAsyncId.getSequence());
+            size += messageSize(PSpanChunk.LOCALASYNCID_FIELD_NUMBER, localAsyncIdSize);
+        }
+        return size;
+    }
+
+    private void writeSpanChunk(CodedOutputStream out, SpanChunk spanChunk) throws IOException {
+        final TraceRoot traceRoot = spanChunk.getTraceRoot();
+        final TraceId traceId = traceRoot.getTraceId();
+
+        writeInt32(out, PSpanChunk.VERSION_FIELD_NUMBER, VERSION);
+        writeMessageHeader(out, PSpanChunk.TRANSACTIONID_FIELD_NUMBER, transactionIdSize);
+        writeTransactionId(out, traceId);
+        writeSFixed64(out, PSpanChunk.SPANID_FIELD_NUMBER, traceId.getSpanId());
+        writeString(out, PSpanChunk.ENDPOINT_FIELD_NUMBER, traceRoot.getShared().getEndPoint());
+
+        writeSpanEvents(out, PSpanChunk.SPANEVENT_FIELD_NUMBER, spanChunk.getSpanEventList());
+
+        writeInt32(out, PSpanChunk.APPLICATIONSERVICETYPE_FIELD_NUMBER, applicationServiceType);
+        writeInt64(out, PSpanChunk.KEYTIME_FIELD_NUMBER, keyTime);
+
+        if (spanChunk instanceof AsyncSpanChunk) {
+            final LocalAsyncId localAsyncId = ((AsyncSpanChunk) spanChunk).getLocalAsyncId();
+            writeMessageHeader(out, PSpanChunk.LOCALASYNCID_FIELD_NUMBER, localAsyncIdSize);
+            writeInt32(out, PLocalAsyncId.ASYNCID_FIELD_NUMBER, localAsyncId.getAsyncId());
+            writeInt32(out, PLocalAsyncId.SEQUENCE_FIELD_NUMBER, localAsyncId.getSequence());
+        }
+    }
+
+    private long getKeyTime(List<SpanEvent> spanEventList) {
+        if (CollectionUtils.isEmpty(spanEventList)) {
+            throw new IllegalArgumentException("spanEventList is empty.");
+        }
+        final SpanEvent first = spanEventList.get(0);
+        if (first == null) {
+            throw new IllegalStateException("first SpanEvent is null");
+        }
+        return first.getStartTime();
+    }
+
+    // ----- TransactionId
+
+    private boolean isCompressedType(TraceId traceId) {
+        // skip agentId
+        return agentId.equals(traceId.getAgentId());
+    }
+
+    private int transactionIdSize(TraceId traceId) {
+        int size = 0;
+        if (!isCompressedType(traceId)) {
+            size += stringSize(PTransactionId.AGENTID_FIELD_NUMBER, traceId.getAgentId());
+        }
+        size += int64Size(PTransactionId.AGENTSTARTTIME_FIELD_NUMBER, traceId.getAgentStartTime());
+        size += int64Size(PTransactionId.SEQUENCE_FIELD_NUMBER, traceId.getTransactionSequence());
+        return size;
+    }
+
+    private void writeTransactionId(CodedOutputStream out, TraceId traceId) throws IOException {
+        if (!isCompressedType(traceId)) {
+            writeString(out, PTransactionId.AGENTID_FIELD_NUMBER, traceId.getAgentId());
+        }
+        writeInt64(out, PTransactionId.AGENTSTARTTIME_FIELD_NUMBER, traceId.getAgentStartTime());
+        writeInt64(out, PTransactionId.SEQUENCE_FIELD_NUMBER, traceId.getTransactionSequence());
+    }
+
+    // ----- SpanEvent
+
+    private void sortSpanEvents(List<SpanEvent> spanEventList) {
+        if (CollectionUtils.hasLength(spanEventList)) {
+            Collections.sort(spanEventList, SEQUENCE_COMPARATOR);
+        }
+    }
+
+    private int prepareSpanEvents(int fieldNumber, long keyTime, List<SpanEvent> spanEventList) {
+        if (CollectionUtils.isEmpty(spanEventList)) {
+            return 0;
+        }
+        final int eventCount = spanEventList.size();
+        ensureEventCapacity(eventCount);
+        this.eventCount = eventCount;
+
+        int size = 0;
+        int prevDepth = 0;
+        for (int i = 0; i < eventCount; i++) {
+            final SpanEvent spanEvent = spanEventList.get(i);
+
+            final long startTime = spanEvent.getStartTime();
+            eventStartElapsed[i] = (int) (startTime - keyTime);
+            keyTime = startTime;
+
+            // same as GrpcSpanProcessorV2
+            final int currentDepth = spanEvent.getDepth();
+            if (i == 0) {
+                eventDepth[i] = currentDepth;
+            } else {
+                eventDepth[i] = (currentDepth == prevDepth) ? 0 : currentDepth;
+            }
+            prevDepth = currentDepth;
+
+            final int spanEventSize = spanEventSize(i, spanEvent);
+            eventSize[i] = spanEventSize;
+            size += messageSize(fieldNumber, spanEventSize);
+        }
+        return size;
+    }
+
+    private void writeSpanEvents(CodedOutputStream out, int fieldNumber, List<SpanEvent> spanEventList) throws IOException {
+        final int eventCount = this.eventCount;
+        for (int i = 0; i < eventCount; i++) {
+            final SpanEvent spanEvent = spanEventList.get(i);
+            writeMessageHeader(out, fieldNumber, eventSize[i]);
+            writeSpanEvent(out, i, spanEvent);
+        }
+    }
+
+    private int spanEventSize(int index, SpanEvent spanEvent) {
+        int size = int32Size(PSpanEvent.SEQUENCE_FIELD_NUMBER, spanEvent.getSequence());
+        size += int32Size(PSpanEvent.DEPTH_FIELD_NUMBER, eventDepth[index]);
+        size += int32Size(PSpanEvent.STARTELAPSED_FIELD_NUMBER, eventStartElapsed[index]);
+        size += int32Size(PSpanEvent.ENDELAPSED_FIELD_NUMBER, spanEvent.getElapsedTime());
+        size += sint32Size(PSpanEvent.SERVICETYPE_FIELD_NUMBER, spanEvent.getServiceType());
+        size += prepareAnnotations(PSpanEvent.ANNOTATION_FIELD_NUMBER, spanEvent.getAnnotations());
+        size += sint32Size(PSpanEvent.APIID_FIELD_NUMBER, spanEvent.getApiId());
+
+        final IntStringValue exceptionInfo = spanEvent.getExceptionInfo();
+        if (exceptionInfo != null) {
+            size += messageSize(PSpanEvent.EXCEPTIONINFO_FIELD_NUMBER, intStringValueSize(exceptionInfo));
+        }
+
+        final int messageEventSize = messageEventSize(spanEvent);
+        if (messageEventSize != -1) {
+            final int nextEventSize = messageSize(PNextEvent.MESSAGEEVENT_FIELD_NUMBER, messageEventSize);
+            eventNextEventSize[index] = nextEventSize;
+            size += messageSize(PSpanEvent.NEXTEVENT_FIELD_NUMBER, nextEventSize);
+        } else {
+            eventNextEventSize[index] = -1;
+        }
+
+        final AsyncId asyncIdObject = spanEvent.getAsyncIdObject();
+        if (asyncIdObject != null) {
+            size += int32Size(PSpanEvent.ASYNCEVENT_FIELD_NUMBER, asyncIdObject.getAsyncId());
+        }
+        return size;
+    }
+
+    private void writeSpanEvent(CodedOutputStream out, int index, SpanEvent spanEvent) throws IOException {
+        writeInt32(out, PSpanEvent.SEQUENCE_FIELD_NUMBER, spanEvent.getSequence());
+        writeInt32(out, PSpanEvent.DEPTH_FIELD_NUMBER, eventDepth[index]);
+        writeInt32(out, PSpanEvent.STARTELAPSED_FIELD_NUMBER, eventStartElapsed[index]);
+        writeInt32(out, PSpanEvent.ENDELAPSED_FIELD_NUMBER, spanEvent.getElapsedTime());
+        writeSInt32(out, PSpanEvent.SERVICETYPE_FIELD_NUMBER, spanEvent.getServiceType());
+        writeAnnotations(out, PSpanEvent.ANNOTATION_FIELD_NUMBER, spanEvent.getAnnotations());
+        writeSInt32(out, PSpanEvent.APIID_FIELD_NUMBER, spanEvent.getApiId());
+
+        final IntStringValue exceptionInfo = spanEvent.getExceptionInfo();
+        if (exceptionInfo != null) {
+            writeMessageHeader(out, PSpanEvent.EXCEPTIONINFO_FIELD_NUMBER, intStringValueSize(exceptionInfo));
+            writeIntStringValue(out, exceptionInfo);
+        }
+
+        final int nextEventSize = eventNextEventSize[index];
+        if (nextEventSize != -1) {
+            writeMessageHeader(out, PSpanEvent.NEXTEVENT_FIELD_NUMBER, nextEventSize);
+            writeMessageHeader(out, PNextEvent.MESSAGEEVENT_FIELD_NUMBER, messageEventSize(spanEvent));
+            writeMessageEvent(out, spanEvent);
+        }
+
+        final AsyncId asyncIdObject = spanEvent.getAsyncIdObject();
+        if (asyncIdObject != null) {
+            writeInt32(out, PSpanEvent.ASYNCEVENT_FIELD_NUMBER, asyncIdObject.getAsyncId());
+        }
+    }
+
+    /**
+     * @return -1 if there is no message event
+     */
+    private int messageEventSize(SpanEvent spanEvent) {
+        boolean exist = false;
+        int size = 0;
+        final String endPoint = spanEvent.getEndPoint();
+        if (endPoint != null) {
+            exist = true;
+            size += stringSize(PMessageEvent.ENDPOINT_FIELD_NUMBER, endPoint);
+        }
+        final long nextSpanId = spanEvent.getNextSpanId();
+        if (nextSpanId != -1) {
+            exist = true;
+            size += sfixed64Size(PMessageEvent.NEXTSPANID_FIELD_NUMBER, nextSpanId);
+        }
+        final String destinationId = spanEvent.getDestinationId();
+        if (destinationId != null) {
+            exist = true;
+            size += stringSize(PMessageEvent.DESTINATIONID_FIELD_NUMBER, destinationId);
+        }
+        if (exist) {
+            return size;
+        }
+        return -1;
+    }
+
+    private void writeMessageEvent(CodedOutputStream out, SpanEvent spanEvent) throws IOException {
+        final long nextSpanId = spanEvent.getNextSpanId();
+        if (nextSpanId != -1) {
+            writeSFixed64(out, PMessageEvent.NEXTSPANID_FIELD_NUMBER, nextSpanId);
+        }
+        writeString(out, PMessageEvent.ENDPOINT_FIELD_NUMBER, spanEvent.getEndPoint());
+        writeString(out, PMessageEvent.DESTINATIONID_FIELD_NUMBER, spanEvent.getDestinationId());
+    }
+
+    private void ensureEventCapacity(int eventCount) {
+        if (eventSize.length >= eventCount) {
+            return;
+        }
+        int newCapacity = eventSize.length;
+        while (newCapacity < eventCount) {
+            newCapacity <<= 1;
+        }
+        this.eventSize = new int[newCapacity];
+        this.eventStartElapsed = new int[newCapacity];
+        this.eventDepth = new int[newCapacity];
+        this.eventNextEventSize = new int[newCapacity];
+    }
+
+    // ----- Annotation
+
+    private int prepareAnnotations(int fieldNumber, List<Annotation> annotations) {
+        if (CollectionUtils.isEmpty(annotations)) {
+            return 0;
+        }
+        int size = 0;
+        for (Annotation annotation : annotations) {
+            final PAnnotationValue value = grpcAnnotationValueMapper.buildPAnnotationValue(annotation.getValue());
+            // keep null to preserve order
+            annotationValues.add(value);
+
+            int annotationSize = int32Size(PAnnotation.KEY_FIELD_NUMBER, annotation.getAnnotationKey());
+            if (value != null) {
+                annotationSize += CodedOutputStream.computeMessageSize(PAnnotation.VALUE_FIELD_NUMBER, value);
+            }
+            size += messageSize(fieldNumber, annotationSize);
+        }
+        return size;
+    }
+
+    private void writeAnnotations(CodedOutputStream out, int fieldNumber, List<Annotation> annotations) throws IOException {
+        if (CollectionUtils.isEmpty(annotations)) {
+            return;
+        }
+        for (Annotation annotation : annotations) {
+            final PAnnotationValue value = annotationValues.get(annotationValueIndex++);
+            int annotationSize = int32Size(PAnnotation.KEY_FIELD_NUMBER, annotation.getAnnotationKey());
+            if (value != null) {
+                annotationSize += CodedOutputStream.computeMessageSize(PAnnotation.VALUE_FIELD_NUMBER, value);
+            }
+            writeMessageHeader(out, fieldNumber, annotationSize);
+            writeInt32(out, PAnnotation.KEY_FIELD_NUMBER, annotation.getAnnotationKey());
+            if (value != null) {
+                out.writeMessage(PAnnotation.VALUE_FIELD_NUMBER, value);
+            }
+        }
+    }
+
+    // ----- IntStringValue
+
+    private int intStringValueSize(IntStringValue intStringValue) {
+        int size = int32Size(PIntStringValue.INTVALUE_FIELD_NUMBER, intStringValue.getIntValue());
+        final String stringValue = intStringValue.getStringValue();
+        if (stringValue != null) {
+            size += messageSize(PIntStringValue.STRINGVALUE_FIELD_NUMBER, stringSize(StringValue.VALUE_FIELD_NUMBER, stringValue));
+        }
+        return size;
+    }
+
+    private void writeIntStringValue(CodedOutputStream out, IntStringValue intStringValue) throws IOException {
+        writeInt32(out, PIntStringValue.INTVALUE_FIELD_NUMBER, intStringValue.getIntValue());
+        final String stringValue = intStringValue.getStringValue();
+        if (stringValue != null) {
+            writeMessageHeader(out, PIntStringValue.STRINGVALUE_FIELD_NUMBER, stringSize(StringValue.VALUE_FIELD_NUMBER, stringValue));
+            writeString(out, StringValue.VALUE_FIELD_NUMBER, stringValue);
+        }
+    }
+
+    // ----- wire format. proto3 does not write default values
+
+    private static int messageSize(int fieldNumber, int size) {
+        return CodedOutputStream.computeTagSize(fieldNumber) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static void writeMessageHeader(CodedOutputStream out, int fieldNumber, int size) throws IOException {
+        out.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(size);
+    }
+
+    private static int int32Size(int fieldNumber, int value) {
+        if (value == 0) {
+            return 0;
+        }
+        return CodedOutputStream.computeInt32Size(fieldNumber, value);
+    }
+
+    private static void writeInt32(CodedOutputStream out, int fieldNumber, int value) throws IOException {
+        if (value != 0) {
+            out.writeInt32(fieldNumber, value);
+        }
+    }
+
+    private static int sint32Size(int fieldNumber, int value) {
+        if (value == 0) {
+            return 0;
+        }
+        return CodedOutputStream.computeSInt32Size(fieldNumber, value);
+    }
+
+    private static void writeSInt32(CodedOutputStream out, int fieldNumber, int value) throws IOException {
+        if (value != 0) {
+            out.writeSInt32(fieldNumber, value);
+        }
+    }
+
+    private static int int64Size(int fieldNumber, long value) {
+        if (value == 0) {
+            return 0;
+        }
+        return CodedOutputStream.computeInt64Size(fieldNumber, value);
+    }
+
+    private static void writeInt64(CodedOutputStream out, int fieldNumber, long value) throws IOException {
+        if (value != 0) {
+            out.writeInt64(fieldNumber, value);
+        }
+    }
+
+    private static int sfixed64Size(int fieldNumber, long value) {
+        if (value == 0) {
+            return 0;
+        }
+        return CodedOutputStream.computeSFixed64Size(fieldNumber, value);
+    }
+
+    private static void writeSFixed64(CodedOutputStream out, int fieldNumber, long value) throws IOException {
+        if (value != 0) {
+            out.writeSFixed64(fieldNumber, value);
+        }
+    }
+
+    private static int stringSize(int fieldNumber, String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        return CodedOutputStream.computeStringSize(fieldNumber, value);
+    }
+
+    private static void writeString(CodedOutputStream out, int fieldNumber, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        out.writeString(fieldNumber, value);
+    }
+
+    @Override
+    public String toString() {
+        return "GrpcSpanMessageEncoder{" +
+                "agentId='" + agentId + '\'' +
+                ", applicationServiceType=" + applicationServiceType +
+                '}';
+    }
+}
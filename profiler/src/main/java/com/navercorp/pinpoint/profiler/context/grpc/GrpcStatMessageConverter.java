@@ -183,6 +183,7 @@ public class GrpcStatMessageConverter implements MessageConverter<GeneratedMessa
         transactionBuilder.setUnsampledContinuationCount(transactionMetricSnapshot.getUnsampledContinuationCount());
         transactionBuilder.setSkippedNewCount(transactionMetricSnapshot.getSkippedNewCount());
         transactionBuilder.setSkippedContinuationCount(transactionMetricSnapshot.getSkippedContinuationCount());
+        transactionBuilder.setSamplingRate(transactionMetricSnapshot.getSamplingRate());
         return transactionBuilder.build();
     }
 
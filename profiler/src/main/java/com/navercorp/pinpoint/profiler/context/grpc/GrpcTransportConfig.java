@@ -41,6 +41,10 @@ public class GrpcTransportConfig {
     private static final int DEFAULT_SPAN_CHANNEL_EXECUTOR_QUEUE_SIZE = 1000;
     private static final int DEFAULT_METADATA_RETRY_MAX_COUNT = 3;
     private static final int DEFAULT_METADATA_RETRY_DELAY_MILLIS = 1000;
+    private static final boolean DEFAULT_SPAN_SENDER_DIRECT_ENCODING_ENABLE = false;
+    private static final int DEFAULT_SPAN_SENDER_BATCH_SIZE = 1;
+    private static final int DEFAULT_SPAN_SENDER_BATCH_BYTES = 64 * 1024;
+    private static final long DEFAULT_SPAN_SENDER_BATCH_DELAY_MILLIS = 20;
 
     private String agentCollectorIp = DEFAULT_IP;
     private int agentCollectorPort = DEFAULT_AGENT_COLLECTOR_PORT;
@@ -77,6 +81,11 @@ public class GrpcTransportConfig {
     private int metadataRetryMaxCount = DEFAULT_METADATA_RETRY_MAX_COUNT;
     private int metadataRetryDelayMillis = DEFAULT_METADATA_RETRY_DELAY_MILLIS;
 
+    private boolean spanSenderDirectEncodingEnable = DEFAULT_SPAN_SENDER_DIRECT_ENCODING_ENABLE;
+    private int spanSenderBatchSize = DEFAULT_SPAN_SENDER_BATCH_SIZE;
+    private int spanSenderBatchBytes = DEFAULT_SPAN_SENDER_BATCH_BYTES;
+    private long spanSenderBatchDelayMillis = DEFAULT_SPAN_SENDER_BATCH_DELAY_MILLIS;
+
     public void read(ProfilerConfig profilerConfig) {
         final ProfilerConfig.ValueResolver placeHolderResolver = new DefaultProfilerConfig.PlaceHolderResolver();
         // Agent
@@ -112,6 +121,10 @@ public class GrpcTransportConfig {
         this.spanRequestTimeout = profilerConfig.readLong("profiler.transport.grpc.span.sender.request.timeout.millis", DEFAULT_CLIENT_REQUEST_TIMEOUT);
         this.spanSenderExecutorQueueSize = profilerConfig.readInt("profiler.transport.grpc.span.sender.executor.queue.size", DEFAULT_SPAN_SENDER_EXECUTOR_QUEUE_SIZE);
         this.spanChannelExecutorQueueSize = profilerConfig.readInt("profiler.transport.grpc.span.sender.channel.executor.queue.size", DEFAULT_SPAN_CHANNEL_EXECUTOR_QUEUE_SIZE);
+        this.spanSenderDirectEncodingEnable = profilerConfig.readBoolean("profiler.transport.grpc.span.sender.direct.encoding.enable", DEFAULT_SPAN_SENDER_DIRECT_ENCODING_ENABLE);
+        this.spanSenderBatchSize = profilerConfig.readInt("profiler.transport.grpc.span.sender.batch.size", DEFAULT_SPAN_SENDER_BATCH_SIZE);
+        this.spanSenderBatchBytes = readByteSize(profilerConfig, "profiler.transport.grpc.span.sender.batch.bytes", DEFAULT_SPAN_SENDER_BATCH_BYTES);
+        this.spanSenderBatchDelayMillis = profilerConfig.readLong("profiler.transport.grpc.span.sender.batch.delay.millis", DEFAULT_SPAN_SENDER_BATCH_DELAY_MILLIS);
     }
 
     private ClientOption readAgentClientOption(final ProfilerConfig profilerConfig) {
@@ -252,6 +265,22 @@ public class GrpcTransportConfig {
         return metadataRetryDelayMillis;
     }
 
+    public boolean isSpanSenderDirectEncodingEnable() {
+        return spanSenderDirectEncodingEnable;
+    }
+
+    public int getSpanSenderBatchSize() {
+        return spanSenderBatchSize;
+    }
+
+    public int getSpanSenderBatchBytes() {
+        return spanSenderBatchBytes;
+    }
+
+    public long getSpanSenderBatchDelayMillis() {
+        return spanSenderBatchDelayMillis;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("GrpcTransportConfig{");
@@ -279,6 +308,10 @@ public class GrpcTransportConfig {
         sb.append(", metadataRequestTimeout=").append(metadataRequestTimeout);
         sb.append(", spanRequestTimeout=").append(spanRequestTimeout);
         sb.append(", statRequestTimeout=").append(statRequestTimeout);
+        sb.append(", spanSenderDirectEncodingEnable=").append(spanSenderDirectEncodingEnable);
+        sb.append(", spanSenderBatchSize=").append(spanSenderBatchSize);
+        sb.append(", spanSenderBatchBytes=").append(spanSenderBatchBytes);
+        sb.append(", spanSenderBatchDelayMillis=").append(spanSenderBatchDelayMillis);
         sb.append('}');
         return sb.toString();
     }
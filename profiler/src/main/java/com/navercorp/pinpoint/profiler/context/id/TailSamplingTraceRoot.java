@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.id;
+
+import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.bootstrap.sampler.SamplingFlagUtils;
+import com.navercorp.pinpoint.common.util.Assert;
+
+/**
+ * Marks the root of a transaction that was not sampled at trace start
+ * and is recorded only to be kept if it ends with an error or is slow.
+ * <p>
+ * Until {@link #promote(long)} the TraceId carries {@link SamplingFlagUtils#TRACE_FLAG_UNSAMPLED}
+ * so that the transaction is propagated as unsampled,
+ * and its transaction sequence is the disabled id of the local transaction.
+ */
+public class TailSamplingTraceRoot implements TraceRoot {
+
+    private final TraceRoot traceRoot;
+    private volatile TraceId traceId;
+
+    public TailSamplingTraceRoot(TraceRoot traceRoot) {
+        this.traceRoot = Assert.requireNonNull(traceRoot, "traceRoot must not be null");
+        final TraceId traceId = traceRoot.getTraceId();
+        final short flags = (short) (traceId.getFlags() | SamplingFlagUtils.TRACE_FLAG_UNSAMPLED);
+        this.traceId = newTraceId(traceId, traceId.getTransactionSequence(), flags);
+    }
+
+    public static boolean isTailSampling(TraceRoot traceRoot) {
+        return traceRoot instanceof TailSamplingTraceRoot;
+    }
+
+    /**
+     * Gives the transaction a sequence of a sampled transaction once it has been decided to keep it.
+     */
+    public void promote(long transactionSequence) {
+        final TraceId traceId = this.traceId;
+        final short flags = (short) (traceId.getFlags() & ~SamplingFlagUtils.TRACE_FLAG_UNSAMPLED);
+        this.traceId = newTraceId(traceId, transactionSequence, flags);
+    }
+
+    private static TraceId newTraceId(TraceId traceId, long transactionSequence, short flags) {
+        return new DefaultTraceId(traceId.getAgentId(), traceId.getAgentStartTime(), transactionSequence,
+                traceId.getParentSpanId(), traceId.getSpanId(), flags);
+    }
+
+    @Override
+    public TraceId getTraceId() {
+        return traceId;
+    }
+
+    @Override
+    public long getLocalTransactionId() {
+        return traceRoot.getLocalTransactionId();
+    }
+
+    @Override
+    public long getTraceStartTime() {
+        return traceRoot.getTraceStartTime();
+    }
+
+    @Override
+    public Shared getShared() {
+        return traceRoot.getShared();
+    }
+
+    @Override
+    public String toString() {
+        return "TailSamplingTraceRoot{" +
+                "traceRoot=" + traceRoot +
+                ", traceId=" + traceId +
+                '}';
+    }
+}
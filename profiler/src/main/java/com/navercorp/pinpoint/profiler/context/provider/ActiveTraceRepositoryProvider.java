@@ -20,10 +20,12 @@ package com.navercorp.pinpoint.profiler.context.provider;
 import com.google.inject.Provider;
 
 import com.google.inject.Inject;
+import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.active.ActiveTraceRepository;
 import com.navercorp.pinpoint.profiler.context.active.DefaultActiveTraceRepository;
 import com.navercorp.pinpoint.profiler.context.active.EmptyActiveTraceRepository;
+import com.navercorp.pinpoint.profiler.context.active.StripedActiveTraceRepository;
 import com.navercorp.pinpoint.profiler.context.module.config.TraceAgentActiveThread;
 import com.navercorp.pinpoint.profiler.monitor.metric.response.ResponseTimeCollector;
 
@@ -34,17 +36,22 @@ import com.navercorp.pinpoint.profiler.monitor.metric.response.ResponseTimeColle
 public class ActiveTraceRepositoryProvider implements Provider<ActiveTraceRepository> {
 
     private boolean isTraceAgentActiveThread;
+    private final ProfilerConfig profilerConfig;
     private final ResponseTimeCollector responseTimeCollector;
 
     @Inject
-    public ActiveTraceRepositoryProvider(@TraceAgentActiveThread boolean isTraceAgentActiveThread, ResponseTimeCollector responseTimeCollector) {
+    public ActiveTraceRepositoryProvider(@TraceAgentActiveThread boolean isTraceAgentActiveThread, ProfilerConfig profilerConfig, ResponseTimeCollector responseTimeCollector) {
         this.isTraceAgentActiveThread = isTraceAgentActiveThread;
+        this.profilerConfig = Assert.requireNonNull(profilerConfig, "profilerConfig must not be null");
         this.responseTimeCollector = Assert.requireNonNull(responseTimeCollector, "responseTimeCollector must not be null");
 
     }
 
     public ActiveTraceRepository get() {
         if (isTraceAgentActiveThread) {
+            if (profilerConfig.isTraceAgentActiveThreadStriped()) {
+                return new StripedActiveTraceRepository(responseTimeCollector);
+            }
             return new DefaultActiveTraceRepository(responseTimeCollector);
         }
         ActiveTraceRepository emptyActiveTraceRepository = new EmptyActiveTraceRepository(responseTimeCollector);
@@ -18,9 +18,14 @@ package com.navercorp.pinpoint.profiler.context.provider;
 
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.profiler.context.module.MetadataDataSender;
 import com.navercorp.pinpoint.profiler.metadata.DefaultApiMetaDataService;
 import com.navercorp.pinpoint.profiler.metadata.ApiMetaDataService;
+import com.navercorp.pinpoint.profiler.metadata.MetaDataCache;
+import com.navercorp.pinpoint.profiler.metadata.MetaDataCacheFactory;
+import com.navercorp.pinpoint.profiler.metadata.SimpleCache;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetricLogger;
 import com.navercorp.pinpoint.profiler.sender.EnhancedDataSender;
 
 /**
@@ -28,19 +33,32 @@ import com.navercorp.pinpoint.profiler.sender.EnhancedDataSender;
  */
 public class ApiMetaDataServiceProvider implements Provider<ApiMetaDataService> {
 
+    private final ProfilerConfig profilerConfig;
     private final Provider<EnhancedDataSender<Object>> enhancedDataSenderProvider;
+    private final InternalMetricLogger internalMetricLogger;
 
     @Inject
-    public ApiMetaDataServiceProvider(@MetadataDataSender Provider<EnhancedDataSender<Object>> enhancedDataSenderProvider) {
+    public ApiMetaDataServiceProvider(ProfilerConfig profilerConfig, @MetadataDataSender Provider<EnhancedDataSender<Object>> enhancedDataSenderProvider,
+                                      InternalMetricLogger internalMetricLogger) {
+        if (profilerConfig == null) {
+            throw new NullPointerException("profilerConfig must not be null");
+        }
         if (enhancedDataSenderProvider == null) {
             throw new NullPointerException("enhancedDataSenderProvider must not be null");
         }
+        if (internalMetricLogger == null) {
+            throw new NullPointerException("internalMetricLogger must not be null");
+        }
+        this.profilerConfig = profilerConfig;
         this.enhancedDataSenderProvider = enhancedDataSenderProvider;
+        this.internalMetricLogger = internalMetricLogger;
     }
 
     @Override
     public ApiMetaDataService get() {
         final EnhancedDataSender<Object> enhancedDataSender = this.enhancedDataSenderProvider.get();
-        return new DefaultApiMetaDataService(enhancedDataSender);
+        final MetaDataCache<String> apiCache = MetaDataCacheFactory.newStringCache(profilerConfig.isMetadataOffHeapCacheEnable(), SimpleCache.DEFAULT_CACHE_SIZE,
+                "ApiMetaDataCache", internalMetricLogger);
+        return new DefaultApiMetaDataService(enhancedDataSender, apiCache);
     }
 }
@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.profiler.context.provider;
 
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.bootstrap.sampler.TraceSampler;
 import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.BaseTraceFactory;
@@ -27,9 +28,12 @@ import com.navercorp.pinpoint.profiler.context.LoggingBaseTraceFactory;
 import com.navercorp.pinpoint.profiler.context.SpanEvent;
 import com.navercorp.pinpoint.profiler.context.SpanFactory;
 import com.navercorp.pinpoint.profiler.context.active.ActiveTraceRepository;
+import com.navercorp.pinpoint.profiler.context.id.IdGenerator;
 import com.navercorp.pinpoint.profiler.context.id.TraceRootFactory;
 import com.navercorp.pinpoint.profiler.context.recorder.RecorderFactory;
 import com.navercorp.pinpoint.profiler.context.storage.StorageFactory;
+import com.navercorp.pinpoint.profiler.context.storage.TailSamplingStorageFactory;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetricLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,36 +42,44 @@ import org.slf4j.LoggerFactory;
  */
 public class BaseTraceFactoryProvider implements Provider<BaseTraceFactory> {
 
+    private final ProfilerConfig profilerConfig;
     private final TraceRootFactory traceRootFactory;
     private final StorageFactory storageFactory;
     private final TraceSampler traceSampler;
+    private final IdGenerator idGenerator;
 
     private final CallStackFactory<SpanEvent> callStackFactory;
     private final SpanFactory spanFactory;
     private final RecorderFactory recorderFactory;
 
     private final ActiveTraceRepository activeTraceRepository;
+    private final InternalMetricLogger internalMetricLogger;
 
     @Inject
-    public BaseTraceFactoryProvider(TraceRootFactory traceRootFactory, StorageFactory storageFactory,
-                                    TraceSampler traceSampler,
-                                    CallStackFactory<SpanEvent> callStackFactory, SpanFactory spanFactory, RecorderFactory recorderFactory, ActiveTraceRepository activeTraceRepository) {
+    public BaseTraceFactoryProvider(ProfilerConfig profilerConfig, TraceRootFactory traceRootFactory, StorageFactory storageFactory,
+                                    TraceSampler traceSampler, IdGenerator idGenerator,
+                                    CallStackFactory<SpanEvent> callStackFactory, SpanFactory spanFactory, RecorderFactory recorderFactory, ActiveTraceRepository activeTraceRepository,
+                                    InternalMetricLogger internalMetricLogger) {
+        this.profilerConfig = Assert.requireNonNull(profilerConfig, "profilerConfig");
         this.traceRootFactory = Assert.requireNonNull(traceRootFactory, "traceRootFactory");
 
         this.callStackFactory = Assert.requireNonNull(callStackFactory, "callStackFactory");
         this.storageFactory = Assert.requireNonNull(storageFactory, "storageFactory");
         this.traceSampler = Assert.requireNonNull(traceSampler, "traceSampler");
+        this.idGenerator = Assert.requireNonNull(idGenerator, "idGenerator");
 
         this.spanFactory = Assert.requireNonNull(spanFactory, "spanFactory");
         this.recorderFactory = Assert.requireNonNull(recorderFactory, "recorderFactory");
         this.activeTraceRepository = Assert.requireNonNull(activeTraceRepository, "activeTraceRepository");
+        this.internalMetricLogger = Assert.requireNonNull(internalMetricLogger, "internalMetricLogger");
 
     }
 
     @Override
     public BaseTraceFactory get() {
+        final TailSamplingStorageFactory tailSamplingStorageFactory = newTailSamplingStorageFactory();
         BaseTraceFactory baseTraceFactory = new DefaultBaseTraceFactory(traceRootFactory, callStackFactory, storageFactory, traceSampler,
-                spanFactory, recorderFactory, activeTraceRepository);
+                spanFactory, recorderFactory, activeTraceRepository, tailSamplingStorageFactory);
         if (isDebugEnabled()) {
             baseTraceFactory = LoggingBaseTraceFactory.wrap(baseTraceFactory);
         }
@@ -75,6 +87,18 @@ public class BaseTraceFactoryProvider implements Provider<BaseTraceFactory> {
     }
 
 
+    private TailSamplingStorageFactory newTailSamplingStorageFactory() {
+        if (!profilerConfig.isSamplingTailEnable()) {
+            return null;
+        }
+        final int slowThreshold = profilerConfig.getSamplingTailSlowThreshold();
+        final int bufferSize = profilerConfig.getSamplingTailBufferSize();
+        final int maxActive = profilerConfig.getSamplingTailMaxActive();
+        final TailSamplingStorageFactory tailSamplingStorageFactory = new TailSamplingStorageFactory(storageFactory, idGenerator, slowThreshold, bufferSize, maxActive);
+        internalMetricLogger.register("TailSampling", tailSamplingStorageFactory);
+        return tailSamplingStorageFactory;
+    }
+
     private boolean isDebugEnabled() {
         final Logger logger = LoggerFactory.getLogger(DefaultBaseTraceFactory.class);
         return logger.isDebugEnabled();
@@ -32,6 +32,7 @@ import com.navercorp.pinpoint.profiler.instrument.transformer.DefaultTransformer
 import com.navercorp.pinpoint.profiler.instrument.transformer.LambdaClassFileResolver;
 import com.navercorp.pinpoint.profiler.instrument.transformer.MatchableTransformerRegistry;
 import com.navercorp.pinpoint.profiler.instrument.transformer.TransformerRegistry;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetricLogger;
 import com.navercorp.pinpoint.profiler.plugin.MatchableClassFileTransformer;
 import com.navercorp.pinpoint.profiler.plugin.PluginContextLoadResult;
 import org.slf4j.Logger;
@@ -51,15 +52,18 @@ public class ClassFileTransformerProvider implements Provider<ClassFileTransform
     private final InstrumentEngine instrumentEngine;
     private final DynamicTransformTrigger dynamicTransformTrigger;
     private final DynamicTransformerRegistry dynamicTransformerRegistry;
+    private final InternalMetricLogger internalMetricLogger;
 
     @Inject
     public ClassFileTransformerProvider(ProfilerConfig profilerConfig, InstrumentEngine instrumentEngine, PluginContextLoadResult pluginContextLoadResult,
-                                        DynamicTransformTrigger dynamicTransformTrigger, DynamicTransformerRegistry dynamicTransformerRegistry) {
+                                        DynamicTransformTrigger dynamicTransformTrigger, DynamicTransformerRegistry dynamicTransformerRegistry,
+                                        InternalMetricLogger internalMetricLogger) {
         this.profilerConfig = Assert.requireNonNull(profilerConfig, "profilerConfig must not be null");
         this.instrumentEngine = Assert.requireNonNull(instrumentEngine, "instrumentEngine must not be null");
         this.pluginContextLoadResult = Assert.requireNonNull(pluginContextLoadResult, "pluginContextLoadResult must not be null");
         this.dynamicTransformTrigger = Assert.requireNonNull(dynamicTransformTrigger, "dynamicTransformTrigger must not be null");
         this.dynamicTransformerRegistry = Assert.requireNonNull(dynamicTransformerRegistry, "dynamicTransformerRegistry must not be null");
+        this.internalMetricLogger = Assert.requireNonNull(internalMetricLogger, "internalMetricLogger must not be null");
     }
 
     @Override
@@ -83,7 +87,10 @@ public class ClassFileTransformerProvider implements Provider<ClassFileTransform
 
     private BaseTransformerRegistry newDefaultTransformerRegistry() {
         if (this.profilerConfig.isInstrumentMatcherEnable()) {
-            return new MatchableTransformerRegistry(profilerConfig);
+            final MatchableTransformerRegistry matchableTransformerRegistry = new MatchableTransformerRegistry(profilerConfig);
+            // matching cost accumulates as classes are loaded after the plugins
+            internalMetricLogger.register("TransformerMatcher", matchableTransformerRegistry);
+            return matchableTransformerRegistry;
         }
         return new DefaultTransformerRegistry();
     }
@@ -22,9 +22,11 @@ import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.module.SpanDataSender;
 import com.navercorp.pinpoint.profiler.context.storage.BufferedStorageFactory;
+import com.navercorp.pinpoint.profiler.context.storage.SpanChunkRecycler;
 import com.navercorp.pinpoint.profiler.context.storage.StorageFactory;
 import com.navercorp.pinpoint.profiler.context.storage.TraceLogDelegateStorage;
 import com.navercorp.pinpoint.profiler.context.storage.TraceLogDelegateStorageFactory;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetricLogger;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,11 +38,13 @@ public class StorageFactoryProvider implements Provider<StorageFactory> {
 
     private final ProfilerConfig profilerConfig;
     private final DataSender spanDataSender;
+    private final InternalMetricLogger internalMetricLogger;
 
     @Inject
-    public StorageFactoryProvider(ProfilerConfig profilerConfig, @SpanDataSender DataSender spanDataSender) {
+    public StorageFactoryProvider(ProfilerConfig profilerConfig, @SpanDataSender DataSender spanDataSender, InternalMetricLogger internalMetricLogger) {
         this.profilerConfig = Assert.requireNonNull(profilerConfig, "profilerConfig must not be null");
         this.spanDataSender = Assert.requireNonNull(spanDataSender, "spanDataSender must not be null");
+        this.internalMetricLogger = Assert.requireNonNull(internalMetricLogger, "internalMetricLogger must not be null");
     }
 
     @Override
@@ -55,6 +59,12 @@ public class StorageFactoryProvider implements Provider<StorageFactory> {
     private StorageFactory newStorageFactory() {
         if (profilerConfig.isIoBufferingEnable()) {
             int ioBufferingBufferSize = this.profilerConfig.getIoBufferingBufferSize();
+            if (profilerConfig.isIoBufferingRecycleEnable()) {
+                final int poolSize = this.profilerConfig.getIoBufferingRecyclePoolSize();
+                final SpanChunkRecycler spanChunkRecycler = new SpanChunkRecycler(poolSize, ioBufferingBufferSize);
+                internalMetricLogger.register("SpanChunkRecycler", spanChunkRecycler);
+                return new BufferedStorageFactory(ioBufferingBufferSize, this.spanDataSender, spanChunkRecycler);
+            }
             return new BufferedStorageFactory(ioBufferingBufferSize, this.spanDataSender);
         } else {
             return new BufferedStorageFactory(Integer.MAX_VALUE, this.spanDataSender);
@@ -24,32 +24,52 @@ import com.navercorp.pinpoint.grpc.client.ChannelFactoryOption;
 import com.navercorp.pinpoint.grpc.client.UnaryCallDeadlineInterceptor;
 import com.navercorp.pinpoint.grpc.client.ClientOption;
 
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.grpc.trace.PSpan;
+import com.navercorp.pinpoint.grpc.trace.PSpanChunk;
+import com.navercorp.pinpoint.profiler.context.compress.GrpcSpanProcessorV2;
+import com.navercorp.pinpoint.profiler.context.compress.SpanProcessor;
+import com.navercorp.pinpoint.profiler.context.grpc.GrpcSpanMessageEncoder;
 import com.navercorp.pinpoint.profiler.context.grpc.GrpcTransportConfig;
 import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.grpc.client.HeaderFactory;
+import com.navercorp.pinpoint.profiler.context.module.AgentId;
+import com.navercorp.pinpoint.profiler.context.module.ApplicationServerType;
 import com.navercorp.pinpoint.profiler.context.module.SpanConverter;
 import com.navercorp.pinpoint.profiler.context.thrift.MessageConverter;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
+import com.navercorp.pinpoint.profiler.sender.grpc.DirectSpanGrpcDataSender;
 import com.navercorp.pinpoint.profiler.sender.grpc.ReconnectExecutor;
 import com.navercorp.pinpoint.profiler.sender.grpc.SpanGrpcDataSender;
+import com.navercorp.pinpoint.profiler.sender.grpc.SpanMessageBatchOption;
 import io.grpc.NameResolverProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author Woonduk Kang(emeroad)
  */
 public class SpanGrpcDataSenderProvider implements Provider<DataSender<Object>> {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
     private final GrpcTransportConfig grpcTransportConfig;
     private final MessageConverter<GeneratedMessageV3> messageConverter;
     private final HeaderFactory headerFactory;
     private final Provider<ReconnectExecutor> reconnectExecutor;
     private final NameResolverProvider nameResolverProvider;
+    private final String agentId;
+    private final short applicationServiceTypeCode;
+    private final SpanProcessor<PSpan.Builder, PSpanChunk.Builder> spanPostProcessor;
 
     @Inject
     public SpanGrpcDataSenderProvider(GrpcTransportConfig grpcTransportConfig,
                                       @SpanConverter MessageConverter<GeneratedMessageV3> messageConverter,
                                       HeaderFactory headerFactory,
                                       Provider<ReconnectExecutor> reconnectExecutor,
-                                      NameResolverProvider nameResolverProvider) {
+                                      NameResolverProvider nameResolverProvider,
+                                      @AgentId String agentId,
+                                      @ApplicationServerType ServiceType applicationServiceType,
+                                      SpanProcessor<PSpan.Builder, PSpanChunk.Builder> spanPostProcessor) {
         this.grpcTransportConfig = Assert.requireNonNull(grpcTransportConfig, "grpcTransportConfig must not be null");
         this.messageConverter = Assert.requireNonNull(messageConverter, "messageConverter must not be null");
         this.headerFactory = Assert.requireNonNull(headerFactory, "headerFactory must not be null");
@@ -57,6 +77,9 @@ public class SpanGrpcDataSenderProvider implements Provider<DataSender<Object>>
         this.reconnectExecutor = Assert.requireNonNull(reconnectExecutor, "reconnectExecutor must not be null");
 
         this.nameResolverProvider = Assert.requireNonNull(nameResolverProvider, "nameResolverProvider must not be null");
+        this.agentId = Assert.requireNonNull(agentId, "agentId must not be null");
+        this.applicationServiceTypeCode = Assert.requireNonNull(applicationServiceType, "applicationServiceType must not be null").getCode();
+        this.spanPostProcessor = Assert.requireNonNull(spanPostProcessor, "spanPostProcessor must not be null");
     }
 
     @Override
@@ -78,7 +101,25 @@ public class SpanGrpcDataSenderProvider implements Provider<DataSender<Object>>
         ChannelFactoryOption channelFactoryOption = channelFactoryOptionBuilder.build();
 
         final ReconnectExecutor reconnectExecutor = this.reconnectExecutor.get();
-        return new SpanGrpcDataSender(collectorIp, collectorPort, senderExecutorQueueSize, messageConverter, reconnectExecutor, channelFactoryOption);
+        if (isDirectEncodingEnable()) {
+            final GrpcSpanMessageEncoder spanMessageEncoder = new GrpcSpanMessageEncoder(agentId, applicationServiceTypeCode);
+            return new DirectSpanGrpcDataSender(collectorIp, collectorPort, senderExecutorQueueSize, messageConverter, spanMessageEncoder, reconnectExecutor, channelFactoryOption);
+        }
+        final SpanMessageBatchOption batchOption = new SpanMessageBatchOption(grpcTransportConfig.getSpanSenderBatchSize(),
+                grpcTransportConfig.getSpanSenderBatchBytes(), grpcTransportConfig.getSpanSenderBatchDelayMillis());
+        return new SpanGrpcDataSender(collectorIp, collectorPort, senderExecutorQueueSize, messageConverter, reconnectExecutor, channelFactoryOption, batchOption);
+    }
+
+    private boolean isDirectEncodingEnable() {
+        if (!grpcTransportConfig.isSpanSenderDirectEncodingEnable()) {
+            return false;
+        }
+        // GrpcSpanMessageEncoder writes what GrpcSpanProcessorV2 produces, other post processors need the PSpan object graph
+        if (spanPostProcessor instanceof GrpcSpanProcessorV2) {
+            return true;
+        }
+        logger.warn("span direct encoding disabled. unsupported spanPostProcessor:{}", spanPostProcessor);
+        return false;
     }
 
 }
\ No newline at end of file
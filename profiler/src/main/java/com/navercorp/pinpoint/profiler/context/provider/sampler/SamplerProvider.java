@@ -38,8 +38,9 @@ public class SamplerProvider implements Provider<Sampler> {
     public Sampler get() {
         boolean samplingEnable = profilerConfig.isSamplingEnable();
         int samplingRate = profilerConfig.getSamplingRate();
+        int adaptiveTargetThroughput = profilerConfig.getSamplingAdaptiveTargetThroughput();
 
         SamplerFactory samplerFactory = new SamplerFactory();
-        return samplerFactory.createSampler(samplingEnable, samplingRate);
+        return samplerFactory.createSampler(samplingEnable, samplingRate, adaptiveTargetThroughput);
     }
 }
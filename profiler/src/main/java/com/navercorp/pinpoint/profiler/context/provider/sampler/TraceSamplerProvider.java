@@ -48,7 +48,7 @@ public class TraceSamplerProvider implements Provider<TraceSampler> {
 
     @Override
     public TraceSampler get() {
-        logger.info("new BasicTraceSampler()");
+        logger.info("new BasicTraceSampler() sampler:{}", sampler);
         TraceSampler traceSampler = new BasicTraceSampler(idGenerator, sampler);
         final int samplingNewThroughput = profilerConfig.getSamplingNewThroughput();
         final int samplingContinueThroughput = profilerConfig.getSamplingContinueThroughput();
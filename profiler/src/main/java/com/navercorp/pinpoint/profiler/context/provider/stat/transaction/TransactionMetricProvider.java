@@ -18,9 +18,11 @@ package com.navercorp.pinpoint.profiler.context.provider.stat.transaction;
 
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
 import com.navercorp.pinpoint.profiler.context.id.TransactionCounter;
 import com.navercorp.pinpoint.profiler.monitor.metric.transaction.DefaultTransactionMetric;
 import com.navercorp.pinpoint.profiler.monitor.metric.transaction.TransactionMetric;
+import com.navercorp.pinpoint.profiler.sampler.AdaptiveSampler;
 
 /**
  * @author HyunGil Jeong
@@ -28,10 +30,12 @@ import com.navercorp.pinpoint.profiler.monitor.metric.transaction.TransactionMet
 public class TransactionMetricProvider implements Provider<TransactionMetric> {
 
     private final TransactionCounter transactionCounter;
+    private final Sampler sampler;
 
     @Inject
-    public TransactionMetricProvider(TransactionCounter transactionCounter) {
+    public TransactionMetricProvider(TransactionCounter transactionCounter, Sampler sampler) {
         this.transactionCounter = transactionCounter;
+        this.sampler = sampler;
     }
 
     @Override
@@ -39,6 +43,9 @@ public class TransactionMetricProvider implements Provider<TransactionMetric> {
         if (transactionCounter == null) {
             return TransactionMetric.UNSUPPORTED_TRANSACTION_METRIC;
         }
+        if (sampler instanceof AdaptiveSampler) {
+            return new DefaultTransactionMetric(transactionCounter, (AdaptiveSampler) sampler);
+        }
         return new DefaultTransactionMetric(transactionCounter);
     }
 }
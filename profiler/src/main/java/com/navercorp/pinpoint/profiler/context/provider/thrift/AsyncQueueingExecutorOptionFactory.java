@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.context.provider.thrift;
+
+import com.navercorp.pinpoint.bootstrap.config.ThriftTransportConfig;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueingExecutorOption;
+import com.navercorp.pinpoint.profiler.sender.WaitStrategy;
+
+final class AsyncQueueingExecutorOptionFactory {
+
+    private AsyncQueueingExecutorOptionFactory() {
+    }
+
+    static AsyncQueueingExecutorOption create(ThriftTransportConfig thriftTransportConfig) {
+        Assert.requireNonNull(thriftTransportConfig, "thriftTransportConfig must not be null");
+
+        final AsyncQueueingExecutorOption.QueueType queueType = AsyncQueueingExecutorOption.QueueType.of(thriftTransportConfig.getDataSenderExecutorQueueType(), AsyncQueueingExecutorOption.QueueType.BLOCKING);
+        final WaitStrategy waitStrategy = WaitStrategy.of(thriftTransportConfig.getDataSenderExecutorWaitStrategy(), WaitStrategy.PARK);
+        final int minDrainSize = Math.max(1, thriftTransportConfig.getDataSenderExecutorMinDrainSize());
+        final int maxDrainSize = Math.max(minDrainSize, thriftTransportConfig.getDataSenderExecutorMaxDrainSize());
+        return new AsyncQueueingExecutorOption(queueType, waitStrategy, minDrainSize, maxDrainSize);
+    }
+}
@@ -23,6 +23,7 @@ import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.module.SpanClientFactory;
 import com.navercorp.pinpoint.profiler.context.module.SpanConverter;
 import com.navercorp.pinpoint.profiler.context.thrift.MessageConverter;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueingExecutorOption;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
 import com.navercorp.pinpoint.profiler.sender.MessageSerializer;
 import com.navercorp.pinpoint.profiler.sender.TcpDataSender;
@@ -51,6 +52,7 @@ public class SpanDataSenderProvider  implements Provider<DataSender> {
     private final int sendBufferSize;
     private final String ioType;
     private final String transportType;
+    private final AsyncQueueingExecutorOption executorOption;
     private final MessageConverter<TBase<?, ?>> messageConverter;
 
     @Inject
@@ -65,6 +67,7 @@ public class SpanDataSenderProvider  implements Provider<DataSender> {
         this.timeout = thriftTransportConfig.getSpanDataSenderSocketTimeout();
         this.sendBufferSize = thriftTransportConfig.getSpanDataSenderSocketSendBufferSize();
         this.ioType = thriftTransportConfig.getSpanDataSenderSocketType();
+        this.executorOption = AsyncQueueingExecutorOptionFactory.create(thriftTransportConfig);
         this.transportType = thriftTransportConfig.getSpanDataSenderTransportType();
         this.messageConverter = Assert.requireNonNull(messageConverter, "messageConverter must not be null");
     }
@@ -80,7 +83,7 @@ public class SpanDataSenderProvider  implements Provider<DataSender> {
             MessageSerializer<byte[]> messageSerializer = new ThriftMessageSerializer(messageConverter);
             return new TcpDataSender("SpanDataSender", ip, port, pinpointClientFactory, messageSerializer);
         } else {
-            UdpDataSenderFactory factory = new UdpDataSenderFactory(ip, port, UDP_EXECUTOR_NAME, writeQueueSize, timeout, sendBufferSize, messageConverter);
+            UdpDataSenderFactory factory = new UdpDataSenderFactory(ip, port, UDP_EXECUTOR_NAME, writeQueueSize, timeout, sendBufferSize, messageConverter, executorOption);
             return factory.create(ioType);
         }
     }
@@ -95,6 +98,7 @@ public class SpanDataSenderProvider  implements Provider<DataSender> {
         sb.append(", sendBufferSize=").append(sendBufferSize);
         sb.append(", ioType='").append(ioType).append('\'');
         sb.append(", transportType='").append(transportType).append('\'');
+        sb.append(", executorOption=").append(executorOption);
         sb.append('}');
         return sb.toString();
     }
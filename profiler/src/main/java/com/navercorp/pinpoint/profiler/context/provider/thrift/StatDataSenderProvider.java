@@ -24,6 +24,7 @@ import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.module.StatClientFactory;
 import com.navercorp.pinpoint.profiler.context.module.StatConverter;
 import com.navercorp.pinpoint.profiler.context.thrift.MessageConverter;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueingExecutorOption;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
 import com.navercorp.pinpoint.profiler.sender.MessageSerializer;
 import com.navercorp.pinpoint.profiler.sender.TcpDataSender;
@@ -52,6 +53,7 @@ public class StatDataSenderProvider implements Provider<DataSender> {
     private final int sendBufferSize;
     private final String ioType;
     private final String transportType;
+    private final AsyncQueueingExecutorOption executorOption;
 
     private final MessageConverter<TBase<?, ?>> messageConverter;
 
@@ -68,6 +70,7 @@ public class StatDataSenderProvider implements Provider<DataSender> {
         this.timeout = thriftTransportConfig.getStatDataSenderSocketTimeout();
         this.sendBufferSize = thriftTransportConfig.getStatDataSenderSocketSendBufferSize();
         this.ioType = thriftTransportConfig.getStatDataSenderSocketType();
+        this.executorOption = AsyncQueueingExecutorOptionFactory.create(thriftTransportConfig);
         this.transportType = thriftTransportConfig.getStatDataSenderTransportType();
         this.messageConverter = messageConverter;
     }
@@ -83,7 +86,7 @@ public class StatDataSenderProvider implements Provider<DataSender> {
             MessageSerializer<byte[]> messageSerializer = new ThriftMessageSerializer(messageConverter);
             return new TcpDataSender("StatDataSender", ip, port, pinpointClientFactory, messageSerializer);
         } else {
-            UdpDataSenderFactory factory = new UdpDataSenderFactory(ip, port, UDP_EXECUTOR_NAME, writeQueueSize, timeout, sendBufferSize, messageConverter);
+            UdpDataSenderFactory factory = new UdpDataSenderFactory(ip, port, UDP_EXECUTOR_NAME, writeQueueSize, timeout, sendBufferSize, messageConverter, executorOption);
             return factory.create(ioType);
         }
     }
@@ -98,6 +101,7 @@ public class StatDataSenderProvider implements Provider<DataSender> {
         sb.append(", sendBufferSize=").append(sendBufferSize);
         sb.append(", ioType='").append(ioType).append('\'');
         sb.append(", transportType='").append(transportType).append('\'');
+        sb.append(", executorOption=").append(executorOption);
         sb.append('}');
         return sb.toString();
     }
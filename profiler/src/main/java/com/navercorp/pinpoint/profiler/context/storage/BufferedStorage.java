@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -43,12 +44,21 @@ public class BufferedStorage implements Storage {
     private List<SpanEvent> storage;
     private final DataSender<Object> dataSender;
 
+    // nullable. recycling disabled
+    private final SpanChunkRecycler spanChunkRecycler;
+    // carries traceRoot and localAsyncId for recycled SpanChunk
+    private SpanChunk spanChunkTemplate;
 
 
     public BufferedStorage(SpanChunkFactory spanChunkFactory, DataSender<Object> dataSender, int bufferSize) {
+        this(spanChunkFactory, dataSender, bufferSize, null);
+    }
+
+    public BufferedStorage(SpanChunkFactory spanChunkFactory, DataSender<Object> dataSender, int bufferSize, SpanChunkRecycler spanChunkRecycler) {
         this.spanChunkFactory = Assert.requireNonNull(spanChunkFactory, "spanChunkFactory must not be null");
         this.dataSender = Assert.requireNonNull(dataSender, "dataSender must not be null");
         this.bufferSize = bufferSize;
+        this.spanChunkRecycler = spanChunkRecycler;
         this.storage = allocateBuffer();
     }
 
@@ -69,6 +79,9 @@ public class BufferedStorage implements Storage {
 
 
     private List<SpanEvent> allocateBuffer() {
+        if (spanChunkRecycler != null) {
+            return spanChunkRecycler.newBuffer();
+        }
         return new ArrayList<SpanEvent>(this.bufferSize);
     }
 
@@ -111,8 +124,18 @@ public class BufferedStorage implements Storage {
         }
     }
 
+    private SpanChunk newSpanChunk(List<SpanEvent> spanEventList) {
+        if (spanChunkRecycler == null) {
+            return this.spanChunkFactory.newSpanChunk(spanEventList);
+        }
+        if (spanChunkTemplate == null) {
+            this.spanChunkTemplate = this.spanChunkFactory.newSpanChunk(Collections.<SpanEvent>emptyList());
+        }
+        return spanChunkRecycler.newSpanChunk(spanChunkTemplate, spanEventList);
+    }
+
     private void sendSpanChunk(List<SpanEvent> spanEventList) {
-        final SpanChunk spanChunk = this.spanChunkFactory.newSpanChunk(spanEventList);
+        final SpanChunk spanChunk = newSpanChunk(spanEventList);
 
         if (isDebug) {
             logger.debug("Flush {}", spanChunk);
@@ -122,6 +145,8 @@ public class BufferedStorage implements Storage {
             // WARN : Do not call span.toString ()
             // concurrentmodificationexceptionr may occur in spanProcessV2
             logger.debug("send fail");
+            // rejected by the sender. nobody else refers to it
+            SpanChunkRecycler.recycle(spanChunk);
         }
     }
 
@@ -132,6 +157,6 @@ public class BufferedStorage implements Storage {
 
     @Override
     public String toString() {
-        return "BufferedStorage{" + "bufferSize=" + bufferSize + ", dataSender=" + dataSender + '}';
+        return "BufferedStorage{" + "bufferSize=" + bufferSize + ", dataSender=" + dataSender + ", spanChunkRecycler=" + spanChunkRecycler + '}';
     }
 }
\ No newline at end of file
@@ -27,16 +27,23 @@ public class BufferedStorageFactory implements StorageFactory {
 
     private final DataSender dataSender;
     private final int ioBufferingBufferSize;
+    // nullable
+    private final SpanChunkRecycler spanChunkRecycler;
 
     public BufferedStorageFactory(int ioBufferingBufferSize, DataSender dataSender) {
+        this(ioBufferingBufferSize, dataSender, null);
+    }
+
+    public BufferedStorageFactory(int ioBufferingBufferSize, DataSender dataSender, SpanChunkRecycler spanChunkRecycler) {
         this.dataSender = Assert.requireNonNull(dataSender, "dataSender must not be null");
         this.ioBufferingBufferSize = ioBufferingBufferSize;
+        this.spanChunkRecycler = spanChunkRecycler;
     }
 
 
     @Override
     public Storage createStorage(SpanChunkFactory spanChunkFactory) {
-        Storage storage = new BufferedStorage(spanChunkFactory, this.dataSender, this.ioBufferingBufferSize);
+        Storage storage = new BufferedStorage(spanChunkFactory, this.dataSender, this.ioBufferingBufferSize, this.spanChunkRecycler);
         return storage;
     }
 
@@ -45,6 +52,7 @@ public class BufferedStorageFactory implements StorageFactory {
         return "BufferedStorageFactory{" +
                 "dataSender=" + dataSender +
                 ", ioBufferingBufferSize=" + ioBufferingBufferSize +
+                ", spanChunkRecycler=" + spanChunkRecycler +
                 '}';
     }
 }
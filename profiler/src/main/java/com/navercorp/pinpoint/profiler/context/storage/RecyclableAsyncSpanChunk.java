@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.profiler.context.AsyncSpanChunk;
+import com.navercorp.pinpoint.profiler.context.LocalAsyncId;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+
+import java.util.List;
+
+class RecyclableAsyncSpanChunk extends RecyclableSpanChunk implements AsyncSpanChunk {
+
+    private LocalAsyncId localAsyncId;
+
+    RecyclableAsyncSpanChunk(SpanChunkRecycler.LocalPool owner) {
+        super(owner);
+    }
+
+    void init(TraceRoot traceRoot, List<SpanEvent> spanEventList, LocalAsyncId localAsyncId) {
+        super.init(traceRoot, spanEventList);
+        this.localAsyncId = localAsyncId;
+    }
+
+    @Override
+    void clear() {
+        super.clear();
+        this.localAsyncId = null;
+    }
+
+    @Override
+    public LocalAsyncId getLocalAsyncId() {
+        return localAsyncId;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncSpanChunk{" +
+                "traceRoot=" + getTraceRoot() +
+                ", spanEventList=" + getSpanEventList() +
+                ", localAsyncId=" + localAsyncId +
+                '}';
+    }
+}
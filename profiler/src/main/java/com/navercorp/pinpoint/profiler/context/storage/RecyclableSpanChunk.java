@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.profiler.context.SpanChunk;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+
+import java.util.List;
+
+/**
+ * Mutable {@link SpanChunk} owned by a {@link SpanChunkRecycler} thread local pool.
+ */
+class RecyclableSpanChunk implements SpanChunk {
+
+    private final SpanChunkRecycler.LocalPool owner;
+
+    private TraceRoot traceRoot;
+    private List<SpanEvent> spanEventList;
+
+    RecyclableSpanChunk(SpanChunkRecycler.LocalPool owner) {
+        this.owner = owner;
+    }
+
+    void init(TraceRoot traceRoot, List<SpanEvent> spanEventList) {
+        this.traceRoot = traceRoot;
+        this.spanEventList = spanEventList;
+    }
+
+    /**
+     * Caution. call after the sender has finished with this chunk.
+     */
+    boolean recycle() {
+        final List<SpanEvent> spanEventList = this.spanEventList;
+        if (spanEventList == null) {
+            // already recycled
+            return false;
+        }
+        spanEventList.clear();
+        clear();
+        // publish to the owner thread. do not touch this object after this point
+        return owner.recycle(this);
+    }
+
+    void clear() {
+        this.traceRoot = null;
+    }
+
+    List<SpanEvent> detachSpanEventList() {
+        final List<SpanEvent> copy = this.spanEventList;
+        this.spanEventList = null;
+        return copy;
+    }
+
+    @Override
+    public TraceRoot getTraceRoot() {
+        return traceRoot;
+    }
+
+    @Override
+    public List<SpanEvent> getSpanEventList() {
+        return spanEventList;
+    }
+
+    @Override
+    public String toString() {
+        return "SpanChunk{" +
+                "traceRoot=" + traceRoot +
+                ", spanEventList=" + spanEventList +
+                '}';
+    }
+}
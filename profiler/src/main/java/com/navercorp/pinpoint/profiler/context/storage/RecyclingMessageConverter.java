@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.context.thrift.MessageConverter;
+
+/**
+ * Returns pooled span chunks to their {@link SpanChunkRecycler} as soon as they have been converted.
+ */
+public class RecyclingMessageConverter<M> implements MessageConverter<M> {
+
+    private final MessageConverter<M> delegate;
+
+    public RecyclingMessageConverter(MessageConverter<M> delegate) {
+        this.delegate = Assert.requireNonNull(delegate, "delegate must not be null");
+    }
+
+    @Override
+    public M toMessage(Object message) {
+        final M result = delegate.toMessage(message);
+        SpanChunkRecycler.recycle(message);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RecyclingMessageConverter{" +
+                "delegate=" + delegate +
+                '}';
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.context.AsyncSpanChunk;
+import com.navercorp.pinpoint.profiler.context.SpanChunk;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetric;
+import com.navercorp.pinpoint.profiler.sender.MpscArrayQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-thread pool of span event buffers and {@link SpanChunk} wrappers.
+ * <p>
+ * Buffers are borrowed by the application thread which owns the pool, and handed back by the sender thread
+ * through {@link #recycle(Object)} once the chunk has been converted.
+ * The sender returns them through a bounded lock-free queue, so neither side takes a lock.
+ */
+public class SpanChunkRecycler implements InternalMetric {
+
+    private final int poolSize;
+    private final int bufferSize;
+
+    private final ThreadLocal<LocalPool> localPool = new ThreadLocal<LocalPool>() {
+        @Override
+        protected LocalPool initialValue() {
+            return new LocalPool(SpanChunkRecycler.this);
+        }
+    };
+
+    private final AtomicLong bufferRequestCount = new AtomicLong();
+    private final AtomicLong bufferHitCount = new AtomicLong();
+    private final AtomicLong spanChunkRequestCount = new AtomicLong();
+    private final AtomicLong spanChunkHitCount = new AtomicLong();
+    private final AtomicLong recycleCount = new AtomicLong();
+    private final AtomicLong discardCount = new AtomicLong();
+
+    public SpanChunkRecycler(int poolSize, int bufferSize) {
+        Assert.isTrue(poolSize > 0, "poolSize must be positive");
+        Assert.isTrue(bufferSize > 0, "bufferSize must be positive");
+        this.poolSize = poolSize;
+        this.bufferSize = bufferSize;
+    }
+
+    public List<SpanEvent> newBuffer() {
+        bufferRequestCount.incrementAndGet();
+        final List<SpanEvent> buffer = localPool.get().pollBuffer();
+        if (buffer != null) {
+            bufferHitCount.incrementAndGet();
+            return buffer;
+        }
+        return new ArrayList<SpanEvent>(bufferSize);
+    }
+
+    /**
+     * @param template chunk created by the trace's SpanChunkFactory. only traceRoot and localAsyncId are copied
+     */
+    public SpanChunk newSpanChunk(SpanChunk template, List<SpanEvent> spanEventList) {
+        Assert.requireNonNull(template, "template must not be null");
+        Assert.requireNonNull(spanEventList, "spanEventList must not be null");
+
+        spanChunkRequestCount.incrementAndGet();
+        final LocalPool localPool = this.localPool.get();
+        if (template instanceof AsyncSpanChunk) {
+            final AsyncSpanChunk asyncTemplate = (AsyncSpanChunk) template;
+            RecyclableAsyncSpanChunk spanChunk = localPool.pollAsyncSpanChunk();
+            if (spanChunk == null) {
+                spanChunk = new RecyclableAsyncSpanChunk(localPool);
+            } else {
+                spanChunkHitCount.incrementAndGet();
+            }
+            spanChunk.init(asyncTemplate.getTraceRoot(), spanEventList, asyncTemplate.getLocalAsyncId());
+            return spanChunk;
+        }
+
+        RecyclableSpanChunk spanChunk = localPool.pollSpanChunk();
+        if (spanChunk == null) {
+            spanChunk = new RecyclableSpanChunk(localPool);
+        } else {
+            spanChunkHitCount.incrementAndGet();
+        }
+        spanChunk.init(template.getTraceRoot(), spanEventList);
+        return spanChunk;
+    }
+
+    /**
+     * Caution. must be called only after the message is no longer used by the sender.
+     * @return true if message was returned to its pool
+     */
+    public static boolean recycle(Object message) {
+        if (message instanceof RecyclableSpanChunk) {
+            return ((RecyclableSpanChunk) message).recycle();
+        }
+        return false;
+    }
+
+    public long getBufferRequestCount() {
+        return bufferRequestCount.get();
+    }
+
+    public long getBufferHitCount() {
+        return bufferHitCount.get();
+    }
+
+    public long getSpanChunkRequestCount() {
+        return spanChunkRequestCount.get();
+    }
+
+    public long getSpanChunkHitCount() {
+        return spanChunkHitCount.get();
+    }
+
+    public long getRecycleCount() {
+        return recycleCount.get();
+    }
+
+    public long getDiscardCount() {
+        return discardCount.get();
+    }
+
+    public double getHitRate() {
+        final long request = getBufferRequestCount() + getSpanChunkRequestCount();
+        if (request == 0) {
+            return 0;
+        }
+        final long hit = getBufferHitCount() + getSpanChunkHitCount();
+        return (double) hit / request;
+    }
+
+    @Override
+    public String report() {
+        return "hitRate=" + (int) (getHitRate() * 100) + "%" +
+                ", bufferRequestCount=" + getBufferRequestCount() +
+                ", bufferHitCount=" + getBufferHitCount() +
+                ", spanChunkRequestCount=" + getSpanChunkRequestCount() +
+                ", spanChunkHitCount=" + getSpanChunkHitCount() +
+                ", recycleCount=" + getRecycleCount() +
+                ", discardCount=" + getDiscardCount();
+    }
+
+    @Override
+    public String toString() {
+        return "SpanChunkRecycler{" +
+                "poolSize=" + poolSize +
+                ", bufferSize=" + bufferSize +
+                ", bufferRequestCount=" + bufferRequestCount +
+                ", bufferHitCount=" + bufferHitCount +
+                ", spanChunkRequestCount=" + spanChunkRequestCount +
+                ", spanChunkHitCount=" + spanChunkHitCount +
+                ", recycleCount=" + recycleCount +
+                ", discardCount=" + discardCount +
+                '}';
+    }
+
+    static class LocalPool {
+
+        private final SpanChunkRecycler recycler;
+        // written by sender threads, read by the owner thread
+        private final MpscArrayQueue<RecyclableSpanChunk> returnQueue;
+
+        // owner thread only
+        private final List<List<SpanEvent>> buffers;
+        private final List<RecyclableSpanChunk> spanChunks;
+        private final List<RecyclableAsyncSpanChunk> asyncSpanChunks;
+
+        private LocalPool(SpanChunkRecycler recycler) {
+            this.recycler = recycler;
+            final int poolSize = recycler.poolSize;
+            this.returnQueue = new MpscArrayQueue<RecyclableSpanChunk>(poolSize);
+            this.buffers = new ArrayList<List<SpanEvent>>(poolSize);
+            this.spanChunks = new ArrayList<RecyclableSpanChunk>(poolSize);
+            this.asyncSpanChunks = new ArrayList<RecyclableAsyncSpanChunk>(poolSize);
+        }
+
+        boolean recycle(RecyclableSpanChunk spanChunk) {
+            if (returnQueue.offer(spanChunk)) {
+                recycler.recycleCount.incrementAndGet();
+                return true;
+            }
+            recycler.discardCount.incrementAndGet();
+            return false;
+        }
+
+        List<SpanEvent> pollBuffer() {
+            if (buffers.isEmpty()) {
+                drainReturnQueue();
+            }
+            return removeLast(buffers);
+        }
+
+        RecyclableSpanChunk pollSpanChunk() {
+            if (spanChunks.isEmpty()) {
+                drainReturnQueue();
+            }
+            return removeLast(spanChunks);
+        }
+
+        RecyclableAsyncSpanChunk pollAsyncSpanChunk() {
+            if (asyncSpanChunks.isEmpty()) {
+                drainReturnQueue();
+            }
+            return removeLast(asyncSpanChunks);
+        }
+
+        private void drainReturnQueue() {
+            final int poolSize = recycler.poolSize;
+            RecyclableSpanChunk spanChunk;
+            while ((spanChunk = returnQueue.poll()) != null) {
+                final List<SpanEvent> buffer = spanChunk.detachSpanEventList();
+                if (buffer != null && buffers.size() < poolSize) {
+                    buffers.add(buffer);
+                }
+                if (spanChunk instanceof RecyclableAsyncSpanChunk) {
+                    if (asyncSpanChunks.size() < poolSize) {
+                        asyncSpanChunks.add((RecyclableAsyncSpanChunk) spanChunk);
+                    }
+                } else {
+                    if (spanChunks.size() < poolSize) {
+                        spanChunks.add(spanChunk);
+                    }
+                }
+            }
+        }
+
+        private static <T> T removeLast(List<T> list) {
+            final int size = list.size();
+            if (size == 0) {
+                return null;
+            }
+            return list.remove(size - 1);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanChunkFactory;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.id.Shared;
+import com.navercorp.pinpoint.profiler.context.id.TailSamplingTraceRoot;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Buffers an unsampled transaction until its span ends and sends it only if it is worth keeping.
+ * Not thread safe, same as {@link BufferedStorage}.
+ */
+class TailSamplingStorage implements Storage {
+    private static final Logger logger = LoggerFactory.getLogger(TailSamplingStorage.class);
+    private static final boolean isDebug = logger.isDebugEnabled();
+
+    private final TailSamplingStorageFactory factory;
+    private final SpanChunkFactory spanChunkFactory;
+
+    private List<SpanEvent> buffer;
+
+    TailSamplingStorage(TailSamplingStorageFactory factory, SpanChunkFactory spanChunkFactory, List<SpanEvent> buffer) {
+        this.factory = Assert.requireNonNull(factory, "factory must not be null");
+        this.spanChunkFactory = Assert.requireNonNull(spanChunkFactory, "spanChunkFactory must not be null");
+        this.buffer = Assert.requireNonNull(buffer, "buffer must not be null");
+    }
+
+    @Override
+    public void store(SpanEvent spanEvent) {
+        final List<SpanEvent> buffer = this.buffer;
+        if (buffer == null) {
+            return;
+        }
+        if (buffer.size() >= factory.getMaxEventCount()) {
+            factory.incrementDroppedEventCount();
+            return;
+        }
+        buffer.add(spanEvent);
+    }
+
+    @Override
+    public void store(Span span) {
+        final List<SpanEvent> buffer = this.buffer;
+        if (buffer == null) {
+            return;
+        }
+
+        if (isError(span)) {
+            factory.incrementErrorRetainedCount();
+            send(span, buffer);
+        } else if (span.getElapsedTime() >= factory.getSlowThresholdMillis()) {
+            factory.incrementSlowRetainedCount();
+            send(span, buffer);
+        } else {
+            factory.incrementDroppedCount();
+        }
+        release();
+    }
+
+    // same criteria as the error flag of the transaction
+    private boolean isError(Span span) {
+        if (span.getExceptionInfo() != null) {
+            return true;
+        }
+        return shared(span).getErrorCode() != 0;
+    }
+
+    private void send(Span span, List<SpanEvent> buffer) {
+        if (isDebug) {
+            logger.debug("Retain unsampled span. elapsed:{} error:{}", span.getElapsedTime(), shared(span).getErrorCode());
+        }
+        final TraceRoot traceRoot = span.getTraceRoot();
+        if (traceRoot instanceof TailSamplingTraceRoot) {
+            // the disabled id is not a valid transaction sequence
+            ((TailSamplingTraceRoot) traceRoot).promote(factory.nextTransactionId());
+        }
+        // events are copied into the delegate's own buffers so that our buffer can be reused
+        final Storage storage = factory.newDelegateStorage(spanChunkFactory);
+        for (SpanEvent spanEvent : buffer) {
+            storage.store(spanEvent);
+        }
+        storage.store(span);
+        storage.close();
+    }
+
+    private Shared shared(Span span) {
+        return span.getTraceRoot().getShared();
+    }
+
+    private void release() {
+        final List<SpanEvent> buffer = this.buffer;
+        if (buffer != null) {
+            this.buffer = null;
+            factory.release(buffer);
+        }
+    }
+
+    @Override
+    public void flush() {
+        // keep buffering, the decision is made when the span ends
+    }
+
+    @Override
+    public void close() {
+        if (this.buffer != null) {
+            // span was not stored. e.g. corrupted call stack
+            factory.incrementDroppedCount();
+            release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TailSamplingStorage{" +
+                "factory=" + factory +
+                '}';
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanChunkFactory;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.id.IdGenerator;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates storages for transactions that were not sampled at trace start.
+ * Span events are kept in a per-thread buffer and the span is handed to the delegate storage
+ * only if the transaction ended with an error or took longer than the slow threshold.
+ * <p>
+ * Memory is bounded by {@code maxActiveCount * maxEventCount} span events.
+ * Transactions exceeding either limit are counted and not recorded.
+ */
+public class TailSamplingStorageFactory implements InternalMetric {
+
+    private static final Storage DISCARD_STORAGE = new DiscardStorage();
+
+    private final StorageFactory delegate;
+    private final IdGenerator idGenerator;
+    private final int slowThresholdMillis;
+    private final int maxEventCount;
+    private final int maxActiveCount;
+
+    private final AtomicInteger activeCount = new AtomicInteger(0);
+    // reusable span event buffer of the current thread, owned by at most one storage at a time
+    private final ThreadLocal<List<SpanEvent>> bufferHolder = new ThreadLocal<List<SpanEvent>>();
+
+    private final AtomicLong errorRetainedCount = new AtomicLong();
+    private final AtomicLong slowRetainedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong droppedEventCount = new AtomicLong();
+
+    public TailSamplingStorageFactory(StorageFactory delegate, IdGenerator idGenerator, int slowThresholdMillis, int maxEventCount, int maxActiveCount) {
+        this.delegate = Assert.requireNonNull(delegate, "delegate must not be null");
+        this.idGenerator = Assert.requireNonNull(idGenerator, "idGenerator must not be null");
+        if (slowThresholdMillis <= 0) {
+            throw new IllegalArgumentException("Invalid slowThresholdMillis " + slowThresholdMillis);
+        }
+        if (maxEventCount <= 0) {
+            throw new IllegalArgumentException("Invalid maxEventCount " + maxEventCount);
+        }
+        if (maxActiveCount <= 0) {
+            throw new IllegalArgumentException("Invalid maxActiveCount " + maxActiveCount);
+        }
+        this.slowThresholdMillis = slowThresholdMillis;
+        this.maxEventCount = maxEventCount;
+        this.maxActiveCount = maxActiveCount;
+    }
+
+    /**
+     * @return storage for the unsampled transaction, or null if too many transactions are being buffered
+     */
+    public Storage createStorage(SpanChunkFactory spanChunkFactory) {
+        Assert.requireNonNull(spanChunkFactory, "spanChunkFactory must not be null");
+
+        if (activeCount.incrementAndGet() > maxActiveCount) {
+            activeCount.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            return null;
+        }
+        return new TailSamplingStorage(this, spanChunkFactory, acquireBuffer());
+    }
+
+    /**
+     * Async chunks may outlive the decision on the span, so they are not recorded for unsampled transactions.
+     */
+    public Storage createAsyncStorage() {
+        return DISCARD_STORAGE;
+    }
+
+    private List<SpanEvent> acquireBuffer() {
+        final List<SpanEvent> buffer = bufferHolder.get();
+        if (buffer == null) {
+            return new ArrayList<SpanEvent>();
+        }
+        bufferHolder.set(null);
+        return buffer;
+    }
+
+    void release(List<SpanEvent> buffer) {
+        activeCount.decrementAndGet();
+
+        buffer.clear();
+        if (bufferHolder.get() == null) {
+            bufferHolder.set(buffer);
+        }
+    }
+
+    Storage newDelegateStorage(SpanChunkFactory spanChunkFactory) {
+        return delegate.createStorage(spanChunkFactory);
+    }
+
+    long nextTransactionId() {
+        return idGenerator.nextTransactionId();
+    }
+
+    int getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    int getMaxEventCount() {
+        return maxEventCount;
+    }
+
+    void incrementErrorRetainedCount() {
+        errorRetainedCount.incrementAndGet();
+    }
+
+    void incrementSlowRetainedCount() {
+        slowRetainedCount.incrementAndGet();
+    }
+
+    void incrementDroppedCount() {
+        droppedCount.incrementAndGet();
+    }
+
+    void incrementDroppedEventCount() {
+        droppedEventCount.incrementAndGet();
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public long getErrorRetainedCount() {
+        return errorRetainedCount.get();
+    }
+
+    public long getSlowRetainedCount() {
+        return slowRetainedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    @Override
+    public String report() {
+        return "activeCount=" + getActiveCount() +
+                ", errorRetainedCount=" + getErrorRetainedCount() +
+                ", slowRetainedCount=" + getSlowRetainedCount() +
+                ", droppedCount=" + getDroppedCount() +
+                ", rejectedCount=" + getRejectedCount() +
+                ", droppedEventCount=" + getDroppedEventCount();
+    }
+
+    @Override
+    public String toString() {
+        return "TailSamplingStorageFactory{" +
+                "delegate=" + delegate +
+                ", slowThresholdMillis=" + slowThresholdMillis +
+                ", maxEventCount=" + maxEventCount +
+                ", maxActiveCount=" + maxActiveCount +
+                ", activeCount=" + activeCount +
+                ", errorRetainedCount=" + errorRetainedCount +
+                ", slowRetainedCount=" + slowRetainedCount +
+                ", droppedCount=" + droppedCount +
+                ", rejectedCount=" + rejectedCount +
+                ", droppedEventCount=" + droppedEventCount +
+                '}';
+    }
+
+    private static class DiscardStorage implements Storage {
+        @Override
+        public void store(SpanEvent spanEvent) {
+        }
+
+        @Override
+        public void store(Span span) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
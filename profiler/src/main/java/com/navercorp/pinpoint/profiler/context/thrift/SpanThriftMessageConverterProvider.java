@@ -24,6 +24,7 @@ import com.navercorp.pinpoint.profiler.context.module.AgentId;
 import com.navercorp.pinpoint.profiler.context.module.AgentStartTime;
 import com.navercorp.pinpoint.profiler.context.module.ApplicationName;
 import com.navercorp.pinpoint.profiler.context.module.ApplicationServerType;
+import com.navercorp.pinpoint.profiler.context.storage.RecyclingMessageConverter;
 import com.navercorp.pinpoint.thrift.dto.TSpan;
 import com.navercorp.pinpoint.thrift.dto.TSpanChunk;
 import org.apache.thrift.TBase;
@@ -57,6 +58,7 @@ public class SpanThriftMessageConverterProvider implements Provider<MessageConve
 
     @Override
     public MessageConverter<TBase<?, ?>> get() {
-        return new SpanThriftMessageConverter(applicationName, agentId, agentStartTime, applicationServiceType.getCode(), transactionIdEncoder, spanPostProcessor);
+        final MessageConverter<TBase<?, ?>> messageConverter = new SpanThriftMessageConverter(applicationName, agentId, agentStartTime, applicationServiceType.getCode(), transactionIdEncoder, spanPostProcessor);
+        return new RecyclingMessageConverter<TBase<?, ?>>(messageConverter);
     }
 }
@@ -24,23 +24,30 @@ import com.navercorp.pinpoint.bootstrap.instrument.matcher.operand.MatcherOperan
 import com.navercorp.pinpoint.bootstrap.instrument.matcher.operand.PackageInternalNameMatcherOperand;
 import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadata;
 import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadataReader;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.instrument.ClassFileTransformer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author jaehong.kim
  */
-public class MatchableTransformerRegistry implements BaseTransformerRegistry {
+public class MatchableTransformerRegistry implements BaseTransformerRegistry, InternalMetric {
+    // matchers listed in the report
+    private static final int REPORT_MATCHER_SIZE = 5;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final boolean isDebug = logger.isDebugEnabled();
 
@@ -50,20 +57,15 @@ public class MatchableTransformerRegistry implements BaseTransformerRegistry {
     // class matcher operand.
     private final Map<String, IndexValue> classNameBasedIndex = new HashMap<String, IndexValue>(64);
     // package matcher operand.
-    private final Map<String, Set<IndexValue>> packageNameBasedIndex;
+    private final Map<String, Set<IndexValue>> packageNameBasedIndex = new HashMap<String, Set<IndexValue>>(64);
+    // indexed package names, shortest first.
+    private PackageIndex[] packageIndexes = new PackageIndex[0];
+    private final List<IndexValue> indexValues = new ArrayList<IndexValue>();
 
     private final TransformerMatcherExecutionPlanner executionPlanner = new TransformerMatcherExecutionPlanner();
     private final TransformerMatcher transformerMatcher;
 
     public MatchableTransformerRegistry(final ProfilerConfig profilerConfig) {
-        // sorted by package name length.
-        this.packageNameBasedIndex = new TreeMap<String, Set<IndexValue>>(new Comparator<String>() {
-            @Override
-            public int compare(String key1, String key2) {
-                return key1.length() - key2.length();
-            }
-        });
-
         this.transformerMatcher = new DefaultTransformerMatcher(profilerConfig.getInstrumentMatcherCacheConfig());
     }
 
@@ -119,14 +121,30 @@ public class MatchableTransformerRegistry implements BaseTransformerRegistry {
     }
 
     private ClassFileTransformer findPackageBasedTransformer(final ClassLoader classLoader, final String classInternalName, final ClassMetadataWrapper classMetadataWrapper) {
-        for (Map.Entry<String, Set<IndexValue>> entry : this.packageNameBasedIndex.entrySet()) {
-            final String packageInternalName = entry.getKey();
-            if (classInternalName.startsWith(packageInternalName)) {
-                for (IndexValue value : entry.getValue()) {
-                    ClassFileTransformer transformer = match(classLoader, value, classMetadataWrapper);
-                    if (transformer != null) {
-                        return transformer;
-                    }
+        // shortest package first. the String.hashCode of the class name prefix is accumulated
+        // as the package name grows and the chars are compared only when the hash matches.
+        // classes outside of every indexed package are rejected without reading class bytes.
+        final int classNameLength = classInternalName.length();
+        int prefixHash = 0;
+        int prefixLength = 0;
+        for (PackageIndex packageIndex : this.packageIndexes) {
+            final int packageNameLength = packageIndex.packageName.length();
+            if (packageNameLength > classNameLength) {
+                break;
+            }
+            while (prefixLength < packageNameLength) {
+                prefixHash = 31 * prefixHash + classInternalName.charAt(prefixLength++);
+            }
+            if (prefixHash != packageIndex.hash) {
+                continue;
+            }
+            if (!classInternalName.startsWith(packageIndex.packageName)) {
+                continue;
+            }
+            for (IndexValue value : packageIndex.indexValues) {
+                ClassFileTransformer transformer = match(classLoader, value, classMetadataWrapper);
+                if (transformer != null) {
+                    return transformer;
                 }
             }
         }
@@ -135,11 +153,12 @@ public class MatchableTransformerRegistry implements BaseTransformerRegistry {
     }
 
     private ClassFileTransformer match(final ClassLoader classLoader, final IndexValue indexValue, final ClassMetadataWrapper classMetadataWrapper) {
-        final long startTime = System.currentTimeMillis();
+        final long startTime = System.nanoTime();
         if (transformerMatcher.match(classLoader, indexValue.operand, classMetadataWrapper.get())) {
             long elapsedTime = indexValue.accumulatorTime(startTime);
+            indexValue.hit();
             if (isDebug) {
-                logger.debug("Matching time elapsed={}ms, accumulator={}ms, operand={}", elapsedTime, indexValue.accumulatorTimeMillis, indexValue.operand);
+                logger.debug("Matching time elapsed={}us, accumulator={}ms, operand={}", TimeUnit.NANOSECONDS.toMicros(elapsedTime), indexValue.getAccumulatorTimeMillis(), indexValue.operand);
             }
             return indexValue.transformer;
         } else {
@@ -170,6 +189,7 @@ public class MatchableTransformerRegistry implements BaseTransformerRegistry {
 
         boolean indexed;
         final IndexValue indexValue = new IndexValue(condition, transformer);
+        this.indexValues.add(indexValue);
         for (MatcherOperand operand : indexedMatcherOperands) {
             if (operand instanceof ClassInternalNameMatcherOperand) {
                 ClassInternalNameMatcherOperand classInternalNameMatcherOperand = (ClassInternalNameMatcherOperand) operand;
@@ -180,7 +200,7 @@ public class MatchableTransformerRegistry implements BaseTransformerRegistry {
                 indexed = true;
             } else if (operand instanceof PackageInternalNameMatcherOperand) {
                 PackageInternalNameMatcherOperand packageInternalNameMatcherOperand = (PackageInternalNameMatcherOperand) operand;
-                addIndexData(packageInternalNameMatcherOperand.getPackageInternalName(), indexValue, this.packageNameBasedIndex);
+                addPackageIndex(packageInternalNameMatcherOperand.getPackageInternalName(), indexValue);
                 indexed = true;
             } else {
                 throw new IllegalArgumentException("invalid matcher or execution planner - unknown operand. condition=" + condition + ", unknown operand=" + operand);
@@ -192,30 +212,164 @@ public class MatchableTransformerRegistry implements BaseTransformerRegistry {
         }
     }
 
-    private void addIndexData(final String key, final IndexValue indexValue, final Map<String, Set<IndexValue>> index) {
-        Set<IndexValue> indexValueSet = index.get(key);
+    private void addPackageIndex(final String packageInternalName, final IndexValue indexValue) {
+        Set<IndexValue> indexValueSet = this.packageNameBasedIndex.get(packageInternalName);
         if (indexValueSet == null) {
-            indexValueSet = new HashSet<IndexValue>();
-            index.put(key, indexValueSet);
+            indexValueSet = new LinkedHashSet<IndexValue>();
+            this.packageNameBasedIndex.put(packageInternalName, indexValueSet);
+            addPackageIndex(new PackageIndex(packageInternalName, indexValueSet));
         }
         indexValueSet.add(indexValue);
     }
 
+    private void addPackageIndex(final PackageIndex packageIndex) {
+        final PackageIndex[] indexes = this.packageIndexes;
+        final PackageIndex[] newIndexes = Arrays.copyOf(indexes, indexes.length + 1);
+        newIndexes[indexes.length] = packageIndex;
+        // stable, packages of the same length keep the registration order
+        Arrays.sort(newIndexes, PACKAGE_NAME_LENGTH_COMPARATOR);
+        this.packageIndexes = newIndexes;
+    }
+
+    /**
+     * @return matching statistics of the indexed matchers, the most expensive first.
+     */
+    public List<MatcherStatistics> getMatcherStatistics() {
+        final List<MatcherStatistics> statisticsList = new ArrayList<MatcherStatistics>(this.indexValues.size());
+        for (IndexValue indexValue : this.indexValues) {
+            statisticsList.add(new MatcherStatistics(indexValue.operand, indexValue.transformer, indexValue.getEvaluationCount(), indexValue.getHitCount(), indexValue.getAccumulatorTimeMillis()));
+        }
+        Collections.sort(statisticsList, new Comparator<MatcherStatistics>() {
+            @Override
+            public int compare(MatcherStatistics o1, MatcherStatistics o2) {
+                final long x = o2.getElapsedTimeMillis();
+                final long y = o1.getElapsedTimeMillis();
+                return (x < y) ? -1 : ((x == y) ? 0 : 1);
+            }
+        });
+        return statisticsList;
+    }
+
+    @Override
+    public String report() {
+        final List<MatcherStatistics> statisticsList = getMatcherStatistics();
+        long evaluationCount = 0;
+        long hitCount = 0;
+        long elapsedTimeMillis = 0;
+        for (MatcherStatistics statistics : statisticsList) {
+            evaluationCount += statistics.getEvaluationCount();
+            hitCount += statistics.getHitCount();
+            elapsedTimeMillis += statistics.getElapsedTimeMillis();
+        }
+        final int size = Math.min(REPORT_MATCHER_SIZE, statisticsList.size());
+        return "evaluationCount=" + evaluationCount +
+                ", hitCount=" + hitCount +
+                ", elapsedTimeMillis=" + elapsedTimeMillis +
+                ", top=" + statisticsList.subList(0, size);
+    }
+
+    private static final Comparator<PackageIndex> PACKAGE_NAME_LENGTH_COMPARATOR = new Comparator<PackageIndex>() {
+        @Override
+        public int compare(PackageIndex o1, PackageIndex o2) {
+            final int x = o1.packageName.length();
+            final int y = o2.packageName.length();
+            return (x < y) ? -1 : ((x == y) ? 0 : 1);
+        }
+    };
+
+    private static class PackageIndex {
+        private final String packageName;
+        private final int hash;
+        private final Set<IndexValue> indexValues;
+
+        private PackageIndex(final String packageName, final Set<IndexValue> indexValues) {
+            this.packageName = packageName;
+            this.hash = packageName.hashCode();
+            this.indexValues = indexValues;
+        }
+    }
+
     static class IndexValue {
         private final MatcherOperand operand;
         private final ClassFileTransformer transformer;
-        private final AtomicLong accumulatorTimeMillis = new AtomicLong(0);
+        private final AtomicLong accumulatorTimeNanos = new AtomicLong(0);
+        private final AtomicLong evaluationCount = new AtomicLong(0);
+        private final AtomicLong hitCount = new AtomicLong(0);
 
         public IndexValue(final MatcherOperand operand, final ClassFileTransformer transformer) {
             this.operand = operand;
             this.transformer = transformer;
         }
 
-        public long accumulatorTime(final long startTimeMillis) {
-            final long elapsedTimeMillis = System.currentTimeMillis() - startTimeMillis;
-            accumulatorTimeMillis.addAndGet(elapsedTimeMillis);
+        public long accumulatorTime(final long startTimeNanos) {
+            final long elapsedTimeNanos = System.nanoTime() - startTimeNanos;
+            accumulatorTimeNanos.addAndGet(elapsedTimeNanos);
+            evaluationCount.incrementAndGet();
+            return elapsedTimeNanos;
+        }
+
+        public void hit() {
+            hitCount.incrementAndGet();
+        }
+
+        public long getAccumulatorTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(accumulatorTimeNanos.get());
+        }
+
+        public long getEvaluationCount() {
+            return evaluationCount.get();
+        }
+
+        public long getHitCount() {
+            return hitCount.get();
+        }
+    }
+
+    public static class MatcherStatistics {
+        private final String operand;
+        private final String transformer;
+        private final long evaluationCount;
+        private final long hitCount;
+        private final long elapsedTimeMillis;
+
+        MatcherStatistics(final MatcherOperand operand, final ClassFileTransformer transformer, final long evaluationCount, final long hitCount, final long elapsedTimeMillis) {
+            this.operand = String.valueOf(operand);
+            this.transformer = String.valueOf(transformer);
+            this.evaluationCount = evaluationCount;
+            this.hitCount = hitCount;
+            this.elapsedTimeMillis = elapsedTimeMillis;
+        }
+
+        public String getOperand() {
+            return operand;
+        }
+
+        public String getTransformer() {
+            return transformer;
+        }
+
+        public long getEvaluationCount() {
+            return evaluationCount;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getElapsedTimeMillis() {
             return elapsedTimeMillis;
         }
+
+        @Override
+        public String toString() {
+            return "MatcherStatistics{" +
+                    "operand='" + operand + '\'' +
+                    ", transformer='" + transformer + '\'' +
+                    ", evaluationCount=" + evaluationCount +
+                    ", hitCount=" + hitCount +
+                    ", elapsedTimeMillis=" + elapsedTimeMillis +
+                    '}';
+        }
     }
 
     class ClassMetadataWrapper {
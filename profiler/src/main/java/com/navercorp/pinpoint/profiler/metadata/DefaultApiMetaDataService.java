@@ -24,15 +24,23 @@ import com.navercorp.pinpoint.profiler.sender.EnhancedDataSender;
  */
 public class DefaultApiMetaDataService implements ApiMetaDataService {
 
-    private final SimpleCache<String> apiCache = new SimpleCache<String>();
+    private final MetaDataCache<String> apiCache;
 
     private final EnhancedDataSender<Object> enhancedDataSender;
 
     public DefaultApiMetaDataService(EnhancedDataSender<Object> enhancedDataSender) {
+        this(enhancedDataSender, new SimpleCache<String>());
+    }
+
+    public DefaultApiMetaDataService(EnhancedDataSender<Object> enhancedDataSender, MetaDataCache<String> apiCache) {
         if (enhancedDataSender == null) {
             throw new NullPointerException("enhancedDataSender must not be null");
         }
         this.enhancedDataSender = enhancedDataSender;
+        if (apiCache == null) {
+            throw new NullPointerException("apiCache must not be null");
+        }
+        this.apiCache = apiCache;
     }
 
     @Override
@@ -30,12 +30,16 @@ public class DefaultCachingSqlNormalizer implements CachingSqlNormalizer {
 
     private static final DefaultParsingResult EMPTY_OBJECT = new DefaultParsingResult("");
 
-    private final SimpleCache<String> sqlCache;
+    private final MetaDataCache<String> sqlCache;
     private final SqlParser sqlParser;
 
     public DefaultCachingSqlNormalizer(int cacheSize) {
-        this.sqlCache = new SimpleCache<String>(cacheSize);
-        this.sqlParser = new DefaultSqlParser();
+        this(new SimpleCache<String>(cacheSize));
+    }
+
+    public DefaultCachingSqlNormalizer(MetaDataCache<String> sqlCache) {
+        this.sqlCache = Assert.requireNonNull(sqlCache, "sqlCache must not be null");
+        this.sqlParser = new CharSequenceSqlParser();
     }
 
     @Override
@@ -20,6 +20,7 @@ import com.google.inject.Inject;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.bootstrap.context.ParsingResult;
 import com.navercorp.pinpoint.profiler.context.module.MetadataDataSender;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetricLogger;
 import com.navercorp.pinpoint.profiler.sender.EnhancedDataSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,16 +38,20 @@ public class DefaultSqlMetaDataService implements SqlMetaDataService {
     private final EnhancedDataSender<Object> enhancedDataSender;
 
     @Inject
-    public DefaultSqlMetaDataService(ProfilerConfig profilerConfig, @MetadataDataSender EnhancedDataSender<Object> enhancedDataSender) {
-        this(enhancedDataSender, profilerConfig.getJdbcSqlCacheSize());
+    public DefaultSqlMetaDataService(ProfilerConfig profilerConfig, @MetadataDataSender EnhancedDataSender<Object> enhancedDataSender, InternalMetricLogger internalMetricLogger) {
+        this(enhancedDataSender, MetaDataCacheFactory.newStringCache(profilerConfig.isMetadataOffHeapCacheEnable(), profilerConfig.getJdbcSqlCacheSize(), "SqlMetaDataCache", internalMetricLogger));
     }
 
     public DefaultSqlMetaDataService(EnhancedDataSender<Object> enhancedDataSender, int jdbcSqlCacheSize) {
+        this(enhancedDataSender, new SimpleCache<String>(jdbcSqlCacheSize));
+    }
+
+    public DefaultSqlMetaDataService(EnhancedDataSender<Object> enhancedDataSender, MetaDataCache<String> sqlCache) {
         if (enhancedDataSender == null) {
             throw new NullPointerException("enhancedDataSender must not be null");
         }
         this.enhancedDataSender = enhancedDataSender;
-        this.cachingSqlNormalizer = new DefaultCachingSqlNormalizer(jdbcSqlCacheSize);
+        this.cachingSqlNormalizer = new DefaultCachingSqlNormalizer(sqlCache);
     }
 
     @Override
@@ -17,7 +17,9 @@
 package com.navercorp.pinpoint.profiler.metadata;
 
 import com.google.inject.Inject;
+import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.profiler.context.module.MetadataDataSender;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetricLogger;
 import com.navercorp.pinpoint.profiler.sender.EnhancedDataSender;
 
 /**
@@ -25,16 +27,28 @@ import com.navercorp.pinpoint.profiler.sender.EnhancedDataSender;
  */
 public class DefaultStringMetaDataService implements StringMetaDataService {
 
-    private final SimpleCache<String> stringCache = new SimpleCache<String>();
+    private final MetaDataCache<String> stringCache;
 
     private final EnhancedDataSender<Object> enhancedDataSender;
 
     @Inject
-    public DefaultStringMetaDataService(@MetadataDataSender EnhancedDataSender<Object> enhancedDataSender) {
+    public DefaultStringMetaDataService(ProfilerConfig profilerConfig, @MetadataDataSender EnhancedDataSender<Object> enhancedDataSender, InternalMetricLogger internalMetricLogger) {
+        this(enhancedDataSender, MetaDataCacheFactory.newStringCache(profilerConfig.isMetadataOffHeapCacheEnable(), SimpleCache.DEFAULT_CACHE_SIZE, "StringMetaDataCache", internalMetricLogger));
+    }
+
+    public DefaultStringMetaDataService(EnhancedDataSender<Object> enhancedDataSender) {
+        this(enhancedDataSender, new SimpleCache<String>());
+    }
+
+    public DefaultStringMetaDataService(EnhancedDataSender<Object> enhancedDataSender, MetaDataCache<String> stringCache) {
         if (enhancedDataSender == null) {
             throw new NullPointerException("enhancedDataSender must not be null");
         }
         this.enhancedDataSender = enhancedDataSender;
+        if (stringCache == null) {
+            throw new NullPointerException("stringCache must not be null");
+        }
+        this.stringCache = stringCache;
     }
 
     @Override
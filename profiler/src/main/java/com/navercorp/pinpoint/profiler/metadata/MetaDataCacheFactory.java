@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.metadata;
+
+import com.navercorp.pinpoint.profiler.monitor.InternalMetricLogger;
+
+public final class MetaDataCacheFactory {
+
+    private MetaDataCacheFactory() {
+    }
+
+    /**
+     * registers the off-heap cache counters with the {@link InternalMetricLogger} under the given name
+     */
+    public static MetaDataCache<String> newStringCache(boolean offHeap, int cacheSize, String name, InternalMetricLogger internalMetricLogger) {
+        if (internalMetricLogger == null) {
+            throw new NullPointerException("internalMetricLogger must not be null");
+        }
+        if (offHeap) {
+            final OffHeapMetaDataCache cache = new OffHeapMetaDataCache(cacheSize);
+            internalMetricLogger.register(name, cache);
+            return cache;
+        }
+        return new SimpleCache<String>(cacheSize);
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.metadata;
+
+import com.navercorp.pinpoint.common.annotations.VisibleForTesting;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.profiler.monitor.InternalMetric;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded metadata id cache keyed by a 64-bit hash of the value.
+ * <p>
+ * The value itself is not retained. Entries are stored in direct {@link ByteBuffer} segments,
+ * each segment is a set-associative table of {@value #WAYS} way buckets with LRU replacement inside a bucket.
+ * The {@link String#hashCode()} of the value is stored with each entry as a 32-bit check against 64-bit hash collisions.
+ * Both hashes are computed over the same chars, so the check is not independent of the 64-bit hash
+ * and only narrows the chance that a collision goes unnoticed.
+ * On collision the entry is replaced and a new id is issued, so a value never receives the id of another value.
+ * <p>
+ * entry layout : hash(8) check(4) id(4) accessStamp(8)
+ */
+public class OffHeapMetaDataCache implements MetaDataCache<String>, InternalMetric {
+
+    static final int WAYS = 8;
+
+    private static final int ENTRY_SIZE = 24;
+    private static final int HASH_OFFSET = 0;
+    private static final int CHECK_OFFSET = 8;
+    private static final int ID_OFFSET = 12;
+    private static final int STAMP_OFFSET = 16;
+
+    private static final int DEFAULT_SEGMENT_SIZE = 16;
+
+    // zero means empty slot
+    private static final long EMPTY = 0;
+
+    // zero means not exist.
+    private final AtomicInteger idGen;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong collisionCount = new AtomicLong();
+
+    public OffHeapMetaDataCache(int cacheSize) {
+        this(cacheSize, DEFAULT_SEGMENT_SIZE, 1);
+    }
+
+    public OffHeapMetaDataCache(int cacheSize, int segmentSize, int startValue) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("negative cacheSize:" + cacheSize);
+        }
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("negative segmentSize:" + segmentSize);
+        }
+        this.idGen = new AtomicInteger(startValue);
+
+        final int segments = roundToPowerOfTwo(segmentSize);
+        final int entriesPerSegment = (cacheSize + segments - 1) / segments;
+        final int bucketsPerSegment = roundToPowerOfTwo((entriesPerSegment + WAYS - 1) / WAYS);
+
+        this.segments = new Segment[segments];
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new Segment(bucketsPerSegment);
+        }
+        // high bits select the segment, low bits select the bucket
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segments);
+    }
+
+    @Override
+    public Result put(String value) {
+        if (value == null) {
+            throw new NullPointerException("value must not be null");
+        }
+        final long hash = hash64(value);
+        final int check = value.hashCode();
+        return put(hash, check);
+    }
+
+    @VisibleForTesting
+    Result put(long hash, int check) {
+        final Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            return segment.put(hash, check);
+        }
+    }
+
+    private Segment segmentFor(long hash) {
+        if (segments.length == 1) {
+            return segments[0];
+        }
+        return segments[(int) (hash >>> segmentShift)];
+    }
+
+    private int newId() {
+        // Use negative values too to reduce data size
+        return BytesUtils.zigzagToInt(idGen.getAndIncrement());
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getCollisionCount() {
+        return collisionCount.get();
+    }
+
+    public double getHitRate() {
+        final long hit = getHitCount();
+        final long total = hit + getMissCount();
+        if (total == 0) {
+            return 0;
+        }
+        return hit / (double) total;
+    }
+
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    public long getCapacity() {
+        return (long) segments.length * segments[0].capacity;
+    }
+
+    /**
+     * @return off-heap bytes
+     */
+    public long getMemorySize() {
+        return getCapacity() * ENTRY_SIZE;
+    }
+
+    private class Segment {
+        private final ByteBuffer table;
+        private final int bucketMask;
+        private final int capacity;
+        private long clock;
+        private int size;
+
+        private Segment(int buckets) {
+            this.capacity = buckets * WAYS;
+            this.table = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE);
+            this.bucketMask = buckets - 1;
+        }
+
+        private Result put(long hash, int check) {
+            final long stamp = ++clock;
+            final int bucketOffset = ((int) hash & bucketMask) * WAYS * ENTRY_SIZE;
+
+            int victim = -1;
+            long victimStamp = Long.MAX_VALUE;
+            for (int way = 0; way < WAYS; way++) {
+                final int offset = bucketOffset + (way * ENTRY_SIZE);
+                final long entryHash = table.getLong(offset + HASH_OFFSET);
+                if (entryHash == hash) {
+                    if (table.getInt(offset + CHECK_OFFSET) == check) {
+                        table.putLong(offset + STAMP_OFFSET, stamp);
+                        hitCount.incrementAndGet();
+                        return new Result(false, table.getInt(offset + ID_OFFSET));
+                    }
+                    // same 64-bit hash, different value
+                    collisionCount.incrementAndGet();
+                    missCount.incrementAndGet();
+                    return write(offset, hash, check, stamp);
+                }
+                if (entryHash == EMPTY) {
+                    if (victimStamp != EMPTY) {
+                        victim = offset;
+                        victimStamp = EMPTY;
+                    }
+                    continue;
+                }
+                final long entryStamp = table.getLong(offset + STAMP_OFFSET);
+                if (entryStamp < victimStamp) {
+                    victim = offset;
+                    victimStamp = entryStamp;
+                }
+            }
+
+            missCount.incrementAndGet();
+            if (victimStamp == EMPTY) {
+                size++;
+            } else {
+                evictionCount.incrementAndGet();
+            }
+            return write(victim, hash, check, stamp);
+        }
+
+        private Result write(int offset, long hash, int check, long stamp) {
+            final int newId = newId();
+            table.putLong(offset + HASH_OFFSET, hash);
+            table.putInt(offset + CHECK_OFFSET, check);
+            table.putInt(offset + ID_OFFSET, newId);
+            table.putLong(offset + STAMP_OFFSET, stamp);
+            return new Result(true, newId);
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over UTF-16 chars with the murmur3 finalizer.
+     * never returns {@link #EMPTY}
+     */
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= length;
+        hash = fmix64(hash);
+        if (hash == EMPTY) {
+            return 1;
+        }
+        return hash;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static int roundToPowerOfTwo(int value) {
+        if (value <= 1) {
+            return 1;
+        }
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+
+    @Override
+    public String report() {
+        return "hitRate=" + (int) (getHitRate() * 100) + "%" +
+                ", hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", evictionCount=" + getEvictionCount() +
+                ", collisionCount=" + getCollisionCount() +
+                ", size=" + getSize() +
+                ", capacity=" + getCapacity() +
+                ", memorySize=" + getMemorySize();
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapMetaDataCache{" +
+                "segments=" + segments.length +
+                ", capacity=" + getCapacity() +
+                ", memorySize=" + getMemorySize() +
+                ", hitCount=" + getHitCount() +
+                ", missCount=" + getMissCount() +
+                ", evictionCount=" + getEvictionCount() +
+                ", collisionCount=" + getCollisionCount() +
+                '}';
+    }
+}
@@ -26,14 +26,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * @author emeroad
  */
-public class SimpleCache<T> {
+public class SimpleCache<T> implements MetaDataCache<T> {
+
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
     // zero means not exist.
     private final AtomicInteger idGen;
     private final ConcurrentMap<T, Result> cache;
 
 
     public SimpleCache() {
-        this(1024, 1);
+        this(DEFAULT_CACHE_SIZE, 1);
     }
 
     public SimpleCache(int cacheSize) {
@@ -55,6 +58,7 @@ public class SimpleCache<T> {
         return cache;
     }
 
+    @Override
     public Result put(T value) {
         final Result find = this.cache.get(value);
         if (find != null) {
@@ -55,18 +55,27 @@ public class DefaultAgentStatMonitor implements AgentStatMonitor {
 
     private final CollectJob collectJob;
 
+    private final InternalMetricLogger internalMetricLogger;
+
     @Inject
     public DefaultAgentStatMonitor(@StatDataSender DataSender dataSender,
                                    @AgentId String agentId, @AgentStartTime long agentStartTimestamp,
                                    @Named("AgentStatCollector") AgentStatMetricCollector<AgentStatMetricSnapshot> agentStatCollector,
-                                   ProfilerConfig profilerConfig) {
-        this(dataSender, agentId, agentStartTimestamp, agentStatCollector, profilerConfig.getProfileJvmStatCollectIntervalMs(), profilerConfig.getProfileJvmStatBatchSendCount());
+                                   ProfilerConfig profilerConfig, InternalMetricLogger internalMetricLogger) {
+        this(dataSender, agentId, agentStartTimestamp, agentStatCollector, profilerConfig.getProfileJvmStatCollectIntervalMs(), profilerConfig.getProfileJvmStatBatchSendCount(), internalMetricLogger);
     }
 
     public DefaultAgentStatMonitor(DataSender dataSender,
                                    String agentId, long agentStartTimestamp,
                                    AgentStatMetricCollector<AgentStatMetricSnapshot> agentStatCollector,
                                    long collectionIntervalMs, int numCollectionsPerBatch) {
+        this(dataSender, agentId, agentStartTimestamp, agentStatCollector, collectionIntervalMs, numCollectionsPerBatch, new InternalMetricLogger());
+    }
+
+    public DefaultAgentStatMonitor(DataSender dataSender,
+                                   String agentId, long agentStartTimestamp,
+                                   AgentStatMetricCollector<AgentStatMetricSnapshot> agentStatCollector,
+                                   long collectionIntervalMs, int numCollectionsPerBatch, InternalMetricLogger internalMetricLogger) {
         if (dataSender == null) {
             throw new NullPointerException("dataSender must not be null");
         }
@@ -76,6 +85,9 @@ public class DefaultAgentStatMonitor implements AgentStatMonitor {
         if (agentStatCollector == null) {
             throw new NullPointerException("agentStatCollector must not be null");
         }
+        if (internalMetricLogger == null) {
+            throw new NullPointerException("internalMetricLogger must not be null");
+        }
         if (collectionIntervalMs < MIN_COLLECTION_INTERVAL_MS) {
             collectionIntervalMs = DEFAULT_COLLECTION_INTERVAL_MS;
         }
@@ -87,6 +99,7 @@ public class DefaultAgentStatMonitor implements AgentStatMonitor {
         }
         this.collectionIntervalMs = collectionIntervalMs;
         this.collectJob = new CollectJob(dataSender, agentId, agentStartTimestamp, agentStatCollector, numCollectionsPerBatch);
+        this.internalMetricLogger = internalMetricLogger;
 
         preLoadClass(agentId, agentStartTimestamp, agentStatCollector);
     }
@@ -109,6 +122,7 @@ public class DefaultAgentStatMonitor implements AgentStatMonitor {
     @Override
     public void start() {
         executor.scheduleAtFixedRate(collectJob, this.collectionIntervalMs, this.collectionIntervalMs, TimeUnit.MILLISECONDS);
+        executor.scheduleAtFixedRate(internalMetricLogger, InternalMetricLogger.DEFAULT_LOG_INTERVAL_MS, InternalMetricLogger.DEFAULT_LOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
         logger.info("AgentStat monitor started");
     }
 
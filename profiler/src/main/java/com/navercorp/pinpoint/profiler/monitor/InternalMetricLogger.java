@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.monitor;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Logs the registered {@link InternalMetric}s, run periodically by the {@link AgentStatMonitor}.
+ */
+public class InternalMetricLogger implements Runnable {
+
+    public static final long DEFAULT_LOG_INTERVAL_MS = 1000 * 60;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final List<Entry> entries = new CopyOnWriteArrayList<Entry>();
+
+    public void register(String name, InternalMetric internalMetric) {
+        Assert.requireNonNull(name, "name must not be null");
+        Assert.requireNonNull(internalMetric, "internalMetric must not be null");
+        entries.add(new Entry(name, internalMetric));
+    }
+
+    @Override
+    public void run() {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        for (Entry entry : entries) {
+            try {
+                logger.info("{} {}", entry.name, entry.internalMetric.report());
+            } catch (Exception e) {
+                logger.warn("{} report failed. Caused:{}", entry.name, e.getMessage(), e);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String name;
+        private final InternalMetric internalMetric;
+
+        private Entry(String name, InternalMetric internalMetric) {
+            this.name = name;
+            this.internalMetric = internalMetric;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.profiler.monitor.metric.transaction;
 
 import com.navercorp.pinpoint.profiler.context.id.TransactionCounter;
+import com.navercorp.pinpoint.profiler.sampler.AdaptiveSampler;
 
 /**
  * @author HyunGil Jeong
@@ -29,11 +30,18 @@ public class DefaultTransactionMetric implements TransactionMetric {
     private final TransactionGauge unsampledContinuationGauge;
     private final TransactionGauge skippedNewGauge;
     private final TransactionGauge skippedContinuationGauge;
+    // @Nullable
+    private final AdaptiveSampler adaptiveSampler;
 
     public DefaultTransactionMetric(final TransactionCounter transactionCounter) {
+        this(transactionCounter, null);
+    }
+
+    public DefaultTransactionMetric(final TransactionCounter transactionCounter, AdaptiveSampler adaptiveSampler) {
         if (transactionCounter == null) {
             throw new NullPointerException("transactionCounter must not be null");
         }
+        this.adaptiveSampler = adaptiveSampler;
         sampledNewGauge = TransactionGauge.from(new LongCounter() {
             @Override
             public long getCount() {
@@ -80,7 +88,8 @@ public class DefaultTransactionMetric implements TransactionMetric {
         long unsampledContinuationCount = unsampledContinuationGauge.getTransactionCount();
         long skippedNewCount = skippedNewGauge.getTransactionCount();
         long skippedContinuationCount = skippedContinuationGauge.getTransactionCount();
-        return new TransactionMetricSnapshot(sampledNewCount, sampledContinuationCount, unsampledNewCount, unsampledContinuationCount, skippedNewCount, skippedContinuationCount);
+        int samplingRate = adaptiveSampler == null ? 0 : adaptiveSampler.getSamplingRate();
+        return new TransactionMetricSnapshot(sampledNewCount, sampledContinuationCount, unsampledNewCount, unsampledContinuationCount, skippedNewCount, skippedContinuationCount, samplingRate);
     }
 
     @Override
@@ -27,6 +27,8 @@ public class TransactionMetricSnapshot {
     private final long unsampledContinuationCount;
     private final long skippedNewCount;
     private final long skippedContinuationCount;
+    // 0 if the sampling rate is not adjusted at runtime
+    private final int samplingRate;
 
     public TransactionMetricSnapshot(long sampledNewCount,
                                      long sampledContinuationCount,
@@ -34,12 +36,23 @@ public class TransactionMetricSnapshot {
                                      long unsampledContinuationCount,
                                      long skippedNewCount,
                                      long skippedContinuationCount) {
+        this(sampledNewCount, sampledContinuationCount, unsampledNewCount, unsampledContinuationCount, skippedNewCount, skippedContinuationCount, 0);
+    }
+
+    public TransactionMetricSnapshot(long sampledNewCount,
+                                     long sampledContinuationCount,
+                                     long unsampledNewCount,
+                                     long unsampledContinuationCount,
+                                     long skippedNewCount,
+                                     long skippedContinuationCount,
+                                     int samplingRate) {
         this.sampledNewCount = sampledNewCount;
         this.sampledContinuationCount = sampledContinuationCount;
         this.unsampledNewCount = unsampledNewCount;
         this.unsampledContinuationCount = unsampledContinuationCount;
         this.skippedNewCount = skippedNewCount;
         this.skippedContinuationCount = skippedContinuationCount;
+        this.samplingRate = samplingRate;
     }
 
     public long getSampledNewCount() {
@@ -65,4 +78,8 @@ public class TransactionMetricSnapshot {
     public long getSkippedContinuationCount() {
         return skippedContinuationCount;
     }
+
+    public int getSamplingRate() {
+        return samplingRate;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.Clock;
+import com.navercorp.pinpoint.common.util.MathUtils;
+import com.navercorp.pinpoint.common.util.SystemClock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples 1 out of n transactions like {@link SamplingRateSampler}, but adjusts n every interval
+ * so that the number of sampled transactions per second approaches the target throughput.
+ * <p>
+ * The incoming transaction rate is smoothed with an exponentially weighted moving average and
+ * n is set to the smallest value that keeps the expected sampled throughput at or below the target.
+ * Adjustment is done by the first caller after the interval expires, so no extra thread is needed.
+ */
+public class AdaptiveSampler implements Sampler {
+
+    public static final long DEFAULT_ADJUST_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_MAX_SAMPLING_RATE = 100000;
+
+    private static final double SMOOTHING_FACTOR = 0.5;
+    private static final double UNINITIALIZED = -1;
+
+    private final int targetThroughput;
+    private final int maxSamplingRate;
+    private final long adjustIntervalMillis;
+    private final Clock clock;
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+    private final AtomicLong windowStartTime;
+    private volatile int windowStartCount = 0;
+    private volatile double estimatedThroughput = UNINITIALIZED;
+
+    private volatile int samplingRate;
+
+    public AdaptiveSampler(int targetThroughput, int initialSamplingRate) {
+        this(targetThroughput, initialSamplingRate, DEFAULT_MAX_SAMPLING_RATE, DEFAULT_ADJUST_INTERVAL_MILLIS, SystemClock.INSTANCE);
+    }
+
+    public AdaptiveSampler(int targetThroughput, int initialSamplingRate, int maxSamplingRate, long adjustIntervalMillis, Clock clock) {
+        if (targetThroughput <= 0) {
+            throw new IllegalArgumentException("Invalid targetThroughput " + targetThroughput);
+        }
+        if (maxSamplingRate <= 0) {
+            throw new IllegalArgumentException("Invalid maxSamplingRate " + maxSamplingRate);
+        }
+        if (adjustIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Invalid adjustIntervalMillis " + adjustIntervalMillis);
+        }
+        this.targetThroughput = targetThroughput;
+        this.maxSamplingRate = maxSamplingRate;
+        this.adjustIntervalMillis = adjustIntervalMillis;
+        this.clock = Assert.requireNonNull(clock, "clock");
+
+        this.samplingRate = clamp(initialSamplingRate);
+        this.windowStartTime = new AtomicLong(clock.getTime());
+    }
+
+    @Override
+    public boolean isSampling() {
+        final long currentTime = clock.getTime();
+        final long startTime = windowStartTime.get();
+        if (currentTime - startTime >= adjustIntervalMillis) {
+            if (windowStartTime.compareAndSet(startTime, currentTime)) {
+                adjust(currentTime - startTime);
+            }
+        }
+
+        final int samplingCount = MathUtils.fastAbs(counter.getAndIncrement());
+        final int isSampling = samplingCount % samplingRate;
+        return isSampling == 0;
+    }
+
+    private void adjust(long elapsedMillis) {
+        final int currentCount = counter.get();
+        // int overflow wraps around, the difference is still correct
+        final int windowCount = currentCount - windowStartCount;
+        this.windowStartCount = currentCount;
+
+        final double throughput = (windowCount * 1000D) / elapsedMillis;
+        final double estimated = this.estimatedThroughput;
+        final double newEstimated;
+        if (estimated == UNINITIALIZED) {
+            newEstimated = throughput;
+        } else {
+            newEstimated = estimated + SMOOTHING_FACTOR * (throughput - estimated);
+        }
+        this.estimatedThroughput = newEstimated;
+
+        final double rate = Math.ceil(newEstimated / targetThroughput);
+        this.samplingRate = clamp(rate > maxSamplingRate ? maxSamplingRate : (int) rate);
+    }
+
+    private int clamp(int samplingRate) {
+        if (samplingRate < 1) {
+            return 1;
+        }
+        if (samplingRate > maxSamplingRate) {
+            return maxSamplingRate;
+        }
+        return samplingRate;
+    }
+
+    /**
+     * @return current effective sampling rate, 1 out of n transactions is sampled
+     */
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    public int getTargetThroughput() {
+        return targetThroughput;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSampler{" +
+                "targetThroughput=" + targetThroughput +
+                ", maxSamplingRate=" + maxSamplingRate +
+                ", adjustIntervalMillis=" + adjustIntervalMillis +
+                ", estimatedThroughput=" + estimatedThroughput +
+                ", samplingRate=" + samplingRate +
+                '}';
+    }
+}
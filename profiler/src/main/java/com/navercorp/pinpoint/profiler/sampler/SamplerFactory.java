@@ -31,4 +31,11 @@ public class SamplerFactory {
         }
         return new SamplingRateSampler(samplingRate);
     }
+
+    public Sampler createSampler(boolean sampling, int samplingRate, int adaptiveTargetThroughput) {
+        if (!sampling || samplingRate <= 0 || adaptiveTargetThroughput <= 0) {
+            return createSampler(sampling, samplingRate);
+        }
+        return new AdaptiveSampler(adaptiveTargetThroughput, samplingRate);
+    }
 }
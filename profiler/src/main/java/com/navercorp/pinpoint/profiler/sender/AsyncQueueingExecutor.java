@@ -22,41 +22,63 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author emeroad
  */
 public class AsyncQueueingExecutor<T> implements Runnable {
 
+    private static final long REPORT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private final Logger logger;
     private final boolean isWarn;
 
-    private final LinkedBlockingQueue<T> queue;
+    private final ExecutorQueue<T> queue;
     private final AtomicBoolean isRun = new AtomicBoolean(true);
     private final Thread executeThread;
     private final String executorName;
 
+    private final int minDrainSize;
     private final int maxDrainSize;
+    // adaptive drain size. executeThread only
+    private int drainSize;
     // Caution. single thread only. this Collection is simpler than ArrayList.
     private final Collection<T> drain;
 
     private final AsyncQueueingExecutorListener<T> listener;
 
+    private final AtomicLong dropCount = new AtomicLong();
+    // written by executeThread only
+    private volatile long executeCount;
+    private volatile long totalExecuteTimeNanos;
+    private volatile long maxExecuteTimeNanos;
+
+    // executeThread only
+    private long lastReportTime = System.currentTimeMillis();
+    private long lastReportExecuteCount;
+    private long lastReportDropCount;
 
     public AsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueingExecutorListener<T> listener) {
+        this(queueSize, executorName, listener, AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    public AsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueingExecutorListener<T> listener, AsyncQueueingExecutorOption option) {
         Assert.requireNonNull(executorName, "executorName must not be null");
+        Assert.requireNonNull(option, "option must not be null");
 
         this.logger = LoggerFactory.getLogger(this.getClass().getName() + "@" + executorName);
         this.isWarn = logger.isWarnEnabled();
 
         // BEFORE executeThread start
-        this.maxDrainSize = 10;
+        this.minDrainSize = option.getMinDrainSize();
+        this.maxDrainSize = option.getMaxDrainSize();
+        this.drainSize = minDrainSize;
         this.drain = new UnsafeArrayCollection<T>(maxDrainSize);
-        this.queue = new LinkedBlockingQueue<T>(queueSize);
+        this.queue = createQueue(queueSize, option);
 
         this.executeThread = this.createExecuteThread(executorName);
         this.executorName = executeThread.getName();
@@ -64,6 +86,13 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         this.listener = Assert.requireNonNull(listener, "listener must not be null");
     }
 
+    private ExecutorQueue<T> createQueue(int queueSize, AsyncQueueingExecutorOption option) {
+        if (option.getQueueType() == AsyncQueueingExecutorOption.QueueType.RING_BUFFER) {
+            return new ExecutorQueue.RingBufferExecutorQueue<T>(queueSize, option.getWaitStrategy());
+        }
+        return new ExecutorQueue.BlockingExecutorQueue<T>(queueSize);
+    }
+
     private Thread createExecuteThread(String executorName) {
         final ThreadFactory threadFactory = new PinpointThreadFactory(executorName, true);
         Thread thread = threadFactory.newThread(this);
@@ -81,8 +110,10 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         drainStartEntry:
         while (isRun()) {
             try {
+                reportIfDue();
                 final Collection<T> dtoList = getDrainQueue();
-                final int drainSize = takeN(dtoList, this.maxDrainSize);
+                final int drainSize = takeN(dtoList, this.drainSize);
+                adjustDrainSize(drainSize);
                 if (drainSize > 0) {
                     doExecute(dtoList);
                     continue;
@@ -94,6 +125,7 @@ public class AsyncQueueingExecutor<T> implements Runnable {
                         doExecute(dto);
                         continue drainStartEntry;
                     }
+                    reportIfDue();
                 }
             } catch (Throwable th) {
                 logger.warn("{} doExecute(). Unexpected Error. Cause:{}", executorName, th.getMessage(), th);
@@ -109,7 +141,7 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         }
         while(true) {
             final Collection<T> dtoList = getDrainQueue();
-           int drainSize = takeN(dtoList, this.maxDrainSize);
+            int drainSize = takeN(dtoList, this.maxDrainSize);
             if (drainSize == 0) {
                 break;
             }
@@ -121,18 +153,27 @@ public class AsyncQueueingExecutor<T> implements Runnable {
     }
 
     private T takeOne() {
-        try {
-            return queue.poll(1000 * 2, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return null;
-        }
+        return queue.poll(1000 * 2, TimeUnit.MILLISECONDS);
     }
 
     private int takeN(Collection<T> drain, int maxDrainSize) {
         return queue.drainTo(drain, maxDrainSize);
     }
 
+    /**
+     * grow the drain size while batches come back full, shrink it when the queue runs dry.
+     */
+    private void adjustDrainSize(int lastDrainSize) {
+        if (minDrainSize == maxDrainSize) {
+            return;
+        }
+        if (lastDrainSize == this.drainSize) {
+            this.drainSize = Math.min(this.drainSize << 1, maxDrainSize);
+        } else if (lastDrainSize < (this.drainSize >> 1)) {
+            this.drainSize = Math.max(this.drainSize >> 1, minDrainSize);
+        }
+    }
+
     public boolean execute(T data) {
         if (data == null) {
             if (isWarn) {
@@ -141,6 +182,7 @@ public class AsyncQueueingExecutor<T> implements Runnable {
             return false;
         }
         if (!isRun.get()) {
+            dropCount.incrementAndGet();
             if (isWarn) {
                 logger.warn("{} is shutdown. discard data:{}", executorName, data);
             }
@@ -148,6 +190,7 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         }
         boolean offer = queue.offer(data);
         if (!offer) {
+            dropCount.incrementAndGet();
             if (isWarn) {
                 logger.warn("{} Drop data. queue is full. size:{}", executorName, queue.size());
             }
@@ -157,11 +200,70 @@ public class AsyncQueueingExecutor<T> implements Runnable {
 
 
     private void doExecute(Collection<T> dtoList) {
-        this.listener.execute(dtoList);
+        final long startTime = System.nanoTime();
+        try {
+            this.listener.execute(dtoList);
+        } finally {
+            recordExecuteTime(dtoList.size(), System.nanoTime() - startTime);
+        }
     }
 
     private void doExecute(T dto) {
-        this.listener.execute(dto);
+        final long startTime = System.nanoTime();
+        try {
+            this.listener.execute(dto);
+        } finally {
+            recordExecuteTime(1, System.nanoTime() - startTime);
+        }
+    }
+
+    private void recordExecuteTime(int count, long elapsedNanos) {
+        this.executeCount += count;
+        this.totalExecuteTimeNanos += elapsedNanos;
+        if (elapsedNanos > this.maxExecuteTimeNanos) {
+            this.maxExecuteTimeNanos = elapsedNanos;
+        }
+    }
+
+    /**
+     * logs the counters once a minute, at info level when data was dropped since the last report.
+     */
+    private void reportIfDue() {
+        final long currentTime = System.currentTimeMillis();
+        if (currentTime - lastReportTime < REPORT_INTERVAL_MILLIS) {
+            return;
+        }
+        this.lastReportTime = currentTime;
+
+        final long executeCount = this.executeCount;
+        final long dropCount = this.dropCount.get();
+        final long executed = executeCount - lastReportExecuteCount;
+        final long dropped = dropCount - lastReportDropCount;
+        this.lastReportExecuteCount = executeCount;
+        this.lastReportDropCount = dropCount;
+        if (dropped > 0) {
+            logger.info("{} executeCount:{}(+{}) dropCount:{}(+{}) drainSize:{} queueSize:{} maxExecuteTime:{}ns",
+                    executorName, executeCount, executed, dropCount, dropped, drainSize, queue.size(), maxExecuteTimeNanos);
+        } else if (executed > 0 && logger.isDebugEnabled()) {
+            logger.debug("{} executeCount:{}(+{}) dropCount:{} drainSize:{} queueSize:{} maxExecuteTime:{}ns",
+                    executorName, executeCount, executed, dropCount, drainSize, queue.size(), maxExecuteTimeNanos);
+        }
+    }
+
+    public long getDropCount() {
+        return dropCount.get();
+    }
+
+    public long getExecuteCount() {
+        return executeCount;
+    }
+
+    public long getTotalExecuteTimeNanos() {
+        return totalExecuteTimeNanos;
+    }
+
+    public long getMaxExecuteTimeNanos() {
+        return maxExecuteTimeNanos;
     }
 
     public boolean isEmpty() {
@@ -186,7 +288,8 @@ public class AsyncQueueingExecutor<T> implements Runnable {
             logger.warn("{} stopped incompletely.", executorName);
         }
 
-        logger.info("{} stopped.", executorName);
+        logger.info("{} stopped. executeCount:{} dropCount:{} totalExecuteTime:{}ns maxExecuteTime:{}ns",
+                executorName, executeCount, dropCount.get(), totalExecuteTimeNanos, maxExecuteTimeNanos);
     }
 
     Collection<T> getDrainQueue() {
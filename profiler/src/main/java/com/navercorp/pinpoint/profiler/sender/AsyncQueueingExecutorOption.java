@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender;
+
+import com.navercorp.pinpoint.common.util.Assert;
+
+public class AsyncQueueingExecutorOption {
+
+    public static final int DEFAULT_DRAIN_SIZE = 10;
+
+    public static final AsyncQueueingExecutorOption DEFAULT = new AsyncQueueingExecutorOption(QueueType.BLOCKING, WaitStrategy.PARK, DEFAULT_DRAIN_SIZE, DEFAULT_DRAIN_SIZE);
+
+    public enum QueueType {
+        BLOCKING,
+        RING_BUFFER;
+
+        public static QueueType of(String name, QueueType defaultType) {
+            if (name == null) {
+                return defaultType;
+            }
+            for (QueueType queueType : values()) {
+                if (queueType.name().equalsIgnoreCase(name.trim())) {
+                    return queueType;
+                }
+            }
+            return defaultType;
+        }
+    }
+
+    private final QueueType queueType;
+    private final WaitStrategy waitStrategy;
+    private final int minDrainSize;
+    private final int maxDrainSize;
+
+    public AsyncQueueingExecutorOption(QueueType queueType, WaitStrategy waitStrategy, int minDrainSize, int maxDrainSize) {
+        this.queueType = Assert.requireNonNull(queueType, "queueType must not be null");
+        this.waitStrategy = Assert.requireNonNull(waitStrategy, "waitStrategy must not be null");
+        Assert.isTrue(minDrainSize > 0, "minDrainSize must be positive");
+        Assert.isTrue(maxDrainSize >= minDrainSize, "maxDrainSize must be greater than or equal to minDrainSize");
+        this.minDrainSize = minDrainSize;
+        this.maxDrainSize = maxDrainSize;
+    }
+
+    public QueueType getQueueType() {
+        return queueType;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public int getMinDrainSize() {
+        return minDrainSize;
+    }
+
+    public int getMaxDrainSize() {
+        return maxDrainSize;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncQueueingExecutorOption{" +
+                "queueType=" + queueType +
+                ", waitStrategy=" + waitStrategy +
+                ", minDrainSize=" + minDrainSize +
+                ", maxDrainSize=" + maxDrainSize +
+                '}';
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.Collection;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue abstraction used by {@link AsyncQueueingExecutor}.
+ * take/drain side is single consumer only.
+ */
+interface ExecutorQueue<T> {
+
+    boolean offer(T data);
+
+    /**
+     * @return null if timeout elapsed or the consumer thread is interrupted
+     */
+    T poll(long timeout, TimeUnit unit);
+
+    int drainTo(Collection<T> drain, int maxDrainSize);
+
+    boolean isEmpty();
+
+    int size();
+
+
+    class BlockingExecutorQueue<T> implements ExecutorQueue<T> {
+
+        private final LinkedBlockingQueue<T> queue;
+
+        BlockingExecutorQueue(int queueSize) {
+            this.queue = new LinkedBlockingQueue<T>(queueSize);
+        }
+
+        @Override
+        public boolean offer(T data) {
+            return queue.offer(data);
+        }
+
+        @Override
+        public T poll(long timeout, TimeUnit unit) {
+            try {
+                return queue.poll(timeout, unit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        @Override
+        public int drainTo(Collection<T> drain, int maxDrainSize) {
+            return queue.drainTo(drain, maxDrainSize);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+    }
+
+    class RingBufferExecutorQueue<T> implements ExecutorQueue<T> {
+
+        private final MpscArrayQueue<T> queue;
+        private final WaitStrategy waitStrategy;
+
+        RingBufferExecutorQueue(int queueSize, WaitStrategy waitStrategy) {
+            this.queue = new MpscArrayQueue<T>(queueSize);
+            this.waitStrategy = waitStrategy;
+        }
+
+        @Override
+        public boolean offer(T data) {
+            return queue.offer(data);
+        }
+
+        @Override
+        public T poll(long timeout, TimeUnit unit) {
+            T data = queue.poll();
+            if (data != null) {
+                return data;
+            }
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            int idleCount = 0;
+            while (true) {
+                waitStrategy.idle(idleCount++);
+                data = queue.poll();
+                if (data != null) {
+                    return data;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    return null;
+                }
+            }
+        }
+
+        @Override
+        public int drainTo(Collection<T> drain, int maxDrainSize) {
+            return queue.drainTo(drain, maxDrainSize);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return queue.size();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer.
+ * <p>
+ * Each slot carries a sequence number so producers only contend on a single CAS of the producer index
+ * and no node is allocated per offer.
+ * Caution. poll(), drainTo() must be called from a single consumer thread only.
+ */
+public final class MpscArrayQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+
+    private final PaddedAtomicLong producerIndex = new PaddedAtomicLong();
+    private final PaddedAtomicLong consumerIndex = new PaddedAtomicLong();
+
+    public MpscArrayQueue(int requestedCapacity) {
+        if (requestedCapacity <= 0) {
+            throw new IllegalArgumentException("negative requestedCapacity:" + requestedCapacity);
+        }
+        this.capacity = roundToPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<E>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    static int roundToPowerOfTwo(int value) {
+        if (value > (1 << 30)) {
+            throw new IllegalArgumentException("value too large:" + value);
+        }
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element must not be null");
+        }
+        while (true) {
+            final long index = producerIndex.get();
+            final int offset = (int) (index & mask);
+            final long sequence = sequences.get(offset);
+            final long diff = sequence - index;
+            if (diff == 0) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    buffer.lazySet(offset, element);
+                    // publish
+                    sequences.lazySet(offset, index + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // queue full
+                return false;
+            }
+            // another producer claimed the slot. retry
+        }
+    }
+
+    public E poll() {
+        final long index = consumerIndex.get();
+        final int offset = (int) (index & mask);
+        final long sequence = sequences.get(offset);
+        if (sequence != index + 1) {
+            // empty or producer has not published yet
+            return null;
+        }
+        final E element = buffer.get(offset);
+        buffer.lazySet(offset, null);
+        sequences.lazySet(offset, index + capacity);
+        consumerIndex.lazySet(index + 1);
+        return element;
+    }
+
+    public int drainTo(Collection<? super E> drain, int maxElements) {
+        int count = 0;
+        while (count < maxElements) {
+            final E element = poll();
+            if (element == null) {
+                break;
+            }
+            drain.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    public int size() {
+        // read consumer first so the result never goes negative
+        final long consumer = consumerIndex.get();
+        final long producer = producerIndex.get();
+        final long size = producer - consumer;
+        if (size < 0) {
+            return 0;
+        }
+        if (size > capacity) {
+            return capacity;
+        }
+        return (int) size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class PaddedAtomicLong extends AtomicLong {
+        // avoid false sharing between producerIndex and consumerIndex
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
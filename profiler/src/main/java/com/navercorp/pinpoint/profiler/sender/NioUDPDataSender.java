@@ -61,11 +61,17 @@ public class NioUDPDataSender implements DataSender {
 
     public NioUDPDataSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize,
                             MessageConverter<TBase<?, ?>> messageConverter) {
+        this(host, port, threadName, queueSize, timeout, sendBufferSize, messageConverter, AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    public NioUDPDataSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize,
+                            MessageConverter<TBase<?, ?>> messageConverter, AsyncQueueingExecutorOption executorOption) {
         Assert.requireNonNull(host, "host must not be null");
         Assert.requireNonNull(threadName, "threadName must not be null");
         Assert.isTrue(queueSize > 0, "queueSize");
         Assert.isTrue(timeout > 0, "timeout");
         Assert.isTrue(sendBufferSize > 0, "sendBufferSize");
+        Assert.requireNonNull(executorOption, "executorOption must not be null");
 
         this.messageConverter = Assert.requireNonNull(messageConverter, "messageConverter must not be null");
 
@@ -80,17 +86,17 @@ public class NioUDPDataSender implements DataSender {
         ByteBuffer byteBuffer = bufferFactory.getBuffer(UDP_MAX_PACKET_LENGTH);
         this.byteBufferOutputStream = new ByteBufferOutputStream(byteBuffer);
 
-        this.executor = createAsyncQueueingExecutor(queueSize, threadName);
+        this.executor = createAsyncQueueingExecutor(queueSize, threadName, executorOption);
     }
 
-    private AsyncQueueingExecutor<Object> createAsyncQueueingExecutor(int queueSize, String executorName) {
+    private AsyncQueueingExecutor<Object> createAsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueingExecutorOption executorOption) {
         AsyncQueueingExecutorListener<Object> listener = new DefaultAsyncQueueingExecutorListener() {
             @Override
             public void execute(Object message) {
                 NioUDPDataSender.this.sendPacket(message);
             }
         };
-        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(queueSize, executorName, listener);
+        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(queueSize, executorName, listener, executorOption);
         return executor;
     }
 
@@ -55,6 +55,12 @@ public class UdpDataSender implements DataSender {
     public UdpDataSender(String host, int port, String threadName,
                          int queueSize, int timeout, int sendBufferSize,
                          MessageSerializer<ByteMessage> messageSerializer) {
+        this(host, port, threadName, queueSize, timeout, sendBufferSize, messageSerializer, AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    public UdpDataSender(String host, int port, String threadName,
+                         int queueSize, int timeout, int sendBufferSize,
+                         MessageSerializer<ByteMessage> messageSerializer, AsyncQueueingExecutorOption executorOption) {
         Assert.requireNonNull(host, "host must not be null");
         if (!HostAndPort.isValidPort(port)) {
             throw new IllegalArgumentException("port out of range:" + port);
@@ -63,6 +69,7 @@ public class UdpDataSender implements DataSender {
         Assert.isTrue(queueSize > 0, "queueSize");
         Assert.isTrue(timeout > 0, "timeout");
         Assert.isTrue(sendBufferSize > 0, "sendBufferSize");
+        Assert.requireNonNull(executorOption, "executorOption must not be null");
 
         this.messageSerializer = Assert.requireNonNull(messageSerializer, "messageSerializer must not be null");
 
@@ -73,7 +80,7 @@ public class UdpDataSender implements DataSender {
         // TODO If fail to create socket, stop agent start
         this.udpSocket = createSocket(timeout, sendBufferSize);
 
-        this.executor = createAsyncQueueingExecutor(queueSize, threadName);
+        this.executor = createAsyncQueueingExecutor(queueSize, threadName, executorOption);
 
     }
 
@@ -82,14 +89,14 @@ public class UdpDataSender implements DataSender {
         return executor.execute(data);
     }
 
-    private AsyncQueueingExecutor<Object> createAsyncQueueingExecutor(int queueSize, String executorName) {
+    private AsyncQueueingExecutor<Object> createAsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueingExecutorOption executorOption) {
         AsyncQueueingExecutorListener<Object> listener = new DefaultAsyncQueueingExecutorListener() {
             @Override
             public void execute(Object message) {
                 UdpDataSender.this.sendPacket(message);
             }
         };
-        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(queueSize, executorName, listener);
+        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(queueSize, executorName, listener, executorOption);
         return executor;
     }
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How the consumer thread of {@link AsyncQueueingExecutor} waits while the ring buffer is empty.
+ */
+public enum WaitStrategy {
+
+    /**
+     * spin briefly, then park for a longer time on every idle round, up to {@link #MAX_PARK_NANOS}.
+     * lowest cpu usage, an idle consumer wakes up about 100 times a second.
+     */
+    PARK {
+        @Override
+        void idle(int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                return;
+            }
+            if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+                return;
+            }
+            final int parkCount = idleCount - (SPIN_TRIES + YIELD_TRIES);
+            LockSupport.parkNanos(getParkNanos(parkCount));
+        }
+    },
+    /**
+     * always yield. low latency, moderate cpu usage.
+     */
+    YIELD {
+        @Override
+        void idle(int idleCount) {
+            Thread.yield();
+        }
+    },
+    /**
+     * busy spin. lowest latency, burns a whole core.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle(int idleCount) {
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long MIN_PARK_NANOS = 100 * 1000L;
+    private static final long MAX_PARK_NANOS = 10 * 1000 * 1000L;
+    // MIN_PARK_NANOS << MAX_PARK_SHIFT exceeds MAX_PARK_NANOS
+    private static final int MAX_PARK_SHIFT = 7;
+
+    abstract void idle(int idleCount);
+
+    static long getParkNanos(int parkCount) {
+        final int shift = Math.min(parkCount, MAX_PARK_SHIFT);
+        return Math.min(MIN_PARK_NANOS << shift, MAX_PARK_NANOS);
+    }
+
+    public static WaitStrategy of(String name, WaitStrategy defaultStrategy) {
+        if (name == null) {
+            return defaultStrategy;
+        }
+        for (WaitStrategy waitStrategy : values()) {
+            if (waitStrategy.name().equalsIgnoreCase(name.trim())) {
+                return waitStrategy;
+            }
+        }
+        return defaultStrategy;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender.grpc;
+
+import com.google.protobuf.Empty;
+import com.google.protobuf.GeneratedMessageV3;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.grpc.client.ChannelFactoryOption;
+import com.navercorp.pinpoint.grpc.trace.SpanGrpc;
+import com.navercorp.pinpoint.profiler.context.grpc.GrpcSpanMessageEncoder;
+import com.navercorp.pinpoint.profiler.context.storage.SpanChunkRecycler;
+import com.navercorp.pinpoint.profiler.context.thrift.MessageConverter;
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.MethodDescriptor;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Span sender that writes Span / SpanChunk to the span stream without building PSpanMessage.
+ * The wire format is the same as {@link SpanGrpcDataSender}.
+ */
+public class DirectSpanGrpcDataSender extends GrpcDataSender {
+
+    private final MethodDescriptor<Object, Empty> sendSpanMethod;
+    private final ReconnectExecutor reconnectExecutor;
+
+    private volatile StreamObserver<Object> spanStream;
+    private final Reconnector spanStreamReconnector;
+
+    public DirectSpanGrpcDataSender(String host, int port,
+                                    int executorQueueSize,
+                                    MessageConverter<GeneratedMessageV3> messageConverter,
+                                    GrpcSpanMessageEncoder spanMessageEncoder,
+                                    ReconnectExecutor reconnectExecutor,
+                                    ChannelFactoryOption channelFactoryOption) {
+        super(host, port, executorQueueSize, messageConverter, channelFactoryOption);
+        Assert.requireNonNull(spanMessageEncoder, "spanMessageEncoder must not be null");
+
+        final SpanMessageMarshaller requestMarshaller = new SpanMessageMarshaller(spanMessageEncoder);
+        final MethodDescriptor.Marshaller<Empty> responseMarshaller = ProtoUtils.marshaller(Empty.getDefaultInstance());
+        this.sendSpanMethod = SpanGrpc.getSendSpanMethod().toBuilder(requestMarshaller, responseMarshaller).build();
+
+        this.reconnectExecutor = Assert.requireNonNull(reconnectExecutor, "reconnectExecutor must not be null");
+        {
+            final Runnable spanStreamReconnectJob = new Runnable() {
+                @Override
+                public void run() {
+                    spanStream = newSpanStream();
+                }
+            };
+            this.spanStreamReconnector = reconnectExecutor.newReconnector(spanStreamReconnectJob);
+            this.spanStream = newSpanStream();
+        }
+    }
+
+    private StreamObserver<Object> newSpanStream() {
+        StreamId spanId = StreamId.newStreamId("SpanStream");
+        ResponseStreamObserver<Object, Empty> responseStreamObserver = new ResponseStreamObserver<Object, Empty>(spanId, spanStreamReconnector);
+        final ClientCall<Object, Empty> call = managedChannel.newCall(sendSpanMethod, CallOptions.DEFAULT);
+        return ClientCalls.asyncClientStreamingCall(call, responseStreamObserver);
+    }
+
+    @Override
+    public boolean send(final Object data) {
+        final Runnable command = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    send0(data);
+                } catch (Exception ex) {
+                    logger.debug("send fail:{}", data, ex);
+                }
+            }
+        };
+        try {
+            executor.execute(command);
+        } catch (RejectedExecutionException reject) {
+            logger.debug("reject:{}", command);
+            return false;
+        }
+        return true;
+    }
+
+    private void send0(Object data) {
+        if (isDebug) {
+            logger.debug("Send message={}", data);
+        }
+        try {
+            // encoded into its own buffer by SpanMessageMarshaller.stream() before onNext returns
+            spanStream.onNext(data);
+        } finally {
+            SpanChunkRecycler.recycle(data);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (shutdown) {
+            return;
+        }
+        this.shutdown = true;
+
+        logger.info("Stop {}, channel={}", name, managedChannel);
+        final ReconnectExecutor reconnectExecutor = this.reconnectExecutor;
+        if (reconnectExecutor != null) {
+            reconnectExecutor.close();
+        }
+        logger.info("{} close()", this.spanStream);
+        StreamUtils.close(this.spanStream);
+        release();
+    }
+
+    @Override
+    public String toString() {
+        return "DirectSpanGrpcDataSender{" +
+                "name='" + name + '\'' +
+                ", host='" + host + '\'' +
+                ", port=" + port +
+                "} " + super.toString();
+    }
+}
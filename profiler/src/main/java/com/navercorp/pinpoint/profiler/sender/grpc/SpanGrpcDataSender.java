@@ -18,6 +18,8 @@ package com.navercorp.pinpoint.profiler.sender.grpc;
 
 
 import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.grpc.ExecutorUtils;
 import com.navercorp.pinpoint.grpc.client.ChannelFactoryOption;
 
 import com.google.protobuf.Empty;
@@ -31,7 +33,13 @@ import com.navercorp.pinpoint.profiler.context.thrift.MessageConverter;
 import com.google.protobuf.GeneratedMessageV3;
 import io.grpc.stub.StreamObserver;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.navercorp.pinpoint.grpc.MessageFormatUtils.debugLog;
 
@@ -39,18 +47,46 @@ import static com.navercorp.pinpoint.grpc.MessageFormatUtils.debugLog;
  * @author jaehong.kim
  */
 public class SpanGrpcDataSender extends GrpcDataSender {
+    private static final long STOP_FLUSH_TIMEOUT_MILLIS = 3000;
+
     private final SpanGrpc.SpanStub spanStub;
     private final ReconnectExecutor reconnectExecutor;
 
     private volatile StreamObserver<PSpanMessage> spanStream;
     private final Reconnector spanStreamReconnector;
 
+    // accessed by the executor thread only. null if batch disabled
+    private final SpanMessageBatch spanMessageBatch;
+    private final long batchMaxDelayMillis;
+    private final ScheduledExecutorService batchFlushScheduler;
+
     public SpanGrpcDataSender(String host, int port,
                               int executorQueueSize,
                               MessageConverter<GeneratedMessageV3> messageConverter,
                               ReconnectExecutor reconnectExecutor,
                               ChannelFactoryOption channelFactoryOption) {
+        this(host, port, executorQueueSize, messageConverter, reconnectExecutor, channelFactoryOption, SpanMessageBatchOption.DISABLE);
+    }
+
+    public SpanGrpcDataSender(String host, int port,
+                              int executorQueueSize,
+                              MessageConverter<GeneratedMessageV3> messageConverter,
+                              ReconnectExecutor reconnectExecutor,
+                              ChannelFactoryOption channelFactoryOption,
+                              SpanMessageBatchOption batchOption) {
         super(host, port, executorQueueSize, messageConverter, channelFactoryOption);
+        Assert.requireNonNull(batchOption, "batchOption must not be null");
+        if (batchOption.isEnable()) {
+            this.spanMessageBatch = new SpanMessageBatch(batchOption);
+            this.batchMaxDelayMillis = batchOption.getMaxDelayMillis();
+            final PinpointThreadFactory threadFactory = new PinpointThreadFactory(PinpointThreadFactory.DEFAULT_THREAD_NAME_PREFIX + name + "-BatchFlush", true);
+            this.batchFlushScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            logger.info("{} span message batch enabled {}", name, batchOption);
+        } else {
+            this.spanMessageBatch = null;
+            this.batchMaxDelayMillis = 0;
+            this.batchFlushScheduler = null;
+        }
 
         this.spanStub = SpanGrpc.newStub(managedChannel);
         this.reconnectExecutor = Assert.requireNonNull(reconnectExecutor, "reconnectExecutor must not be null");
@@ -101,18 +137,76 @@ public class SpanGrpcDataSender extends GrpcDataSender {
         if (message instanceof PSpanChunk) {
             final PSpanChunk spanChunk = (PSpanChunk) message;
             final PSpanMessage spanMessage = PSpanMessage.newBuilder().setSpanChunk(spanChunk).build();
-            spanStream.onNext(spanMessage);
+            onNext(spanMessage);
             return true;
         }
         if (message instanceof PSpan) {
             final PSpan pSpan = (PSpan) message;
             final PSpanMessage spanMessage = PSpanMessage.newBuilder().setSpan(pSpan).build();
-            spanStream.onNext(spanMessage);
+            onNext(spanMessage);
             return true;
         }
         throw new IllegalStateException("unsupported message " + data);
     }
 
+    private void onNext(PSpanMessage spanMessage) {
+        final SpanMessageBatch spanMessageBatch = this.spanMessageBatch;
+        if (spanMessageBatch == null) {
+            spanStream.onNext(spanMessage);
+            return;
+        }
+        final boolean first = spanMessageBatch.add(spanMessage);
+        if (spanMessageBatch.isFull()) {
+            flushBatch();
+            return;
+        }
+        if (first) {
+            scheduleFlush(spanMessageBatch.getGeneration());
+        }
+    }
+
+    private void flushBatch() {
+        final PSpanMessage batchMessage = spanMessageBatch.flush();
+        if (batchMessage != null) {
+            spanStream.onNext(batchMessage);
+        }
+    }
+
+    private void scheduleFlush(final long generation) {
+        final Runnable flushCommand = new Runnable() {
+            @Override
+            public void run() {
+                // executor thread
+                if (spanMessageBatch.getGeneration() == generation) {
+                    try {
+                        flushBatch();
+                    } catch (Exception ex) {
+                        logger.debug("batch flush fail", ex);
+                    }
+                }
+            }
+        };
+        final Runnable dispatch = new Runnable() {
+            @Override
+            public void run() {
+                if (shutdown) {
+                    return;
+                }
+                try {
+                    executor.execute(flushCommand);
+                } catch (RejectedExecutionException reject) {
+                    // executor queue is full. retry later
+                    scheduleFlush(generation);
+                }
+            }
+        };
+        try {
+            batchFlushScheduler.schedule(dispatch, batchMaxDelayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException reject) {
+            logger.debug("batch flush schedule reject:{}", generation);
+        }
+    }
+
     @Override
     public void stop() {
         if (shutdown) {
@@ -125,11 +219,41 @@ public class SpanGrpcDataSender extends GrpcDataSender {
         if (reconnectExecutor != null) {
             reconnectExecutor.close();
         }
+        final ScheduledExecutorService batchFlushScheduler = this.batchFlushScheduler;
+        if (batchFlushScheduler != null) {
+            ExecutorUtils.shutdownExecutorService(name + "-BatchFlush", batchFlushScheduler);
+            flushBatchOnStop();
+        }
         logger.info("{} close()", this.spanStream);
         StreamUtils.close(this.spanStream);
         release();
     }
 
+    /**
+     * flushes the pending batch on the executor thread, after the messages already queued, before the stream is closed
+     */
+    private void flushBatchOnStop() {
+        final Runnable flushCommand = new Runnable() {
+            @Override
+            public void run() {
+                flushBatch();
+            }
+        };
+        try {
+            final Future<?> future = executor.submit(flushCommand);
+            future.get(STOP_FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException reject) {
+            logger.warn("{} pending span message batch dropped, executor rejected the flush", name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("{} interrupted while flushing the pending span message batch", name);
+        } catch (ExecutionException e) {
+            logger.warn("{} pending span message batch flush fail", name, e.getCause());
+        } catch (TimeoutException e) {
+            logger.warn("{} pending span message batch flush timeout {}ms", name, STOP_FLUSH_TIMEOUT_MILLIS);
+        }
+    }
+
     @Override
     public String toString() {
         return "SpanGrpcDataSender{" +
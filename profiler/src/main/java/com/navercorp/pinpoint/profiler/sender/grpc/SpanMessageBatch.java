@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender.grpc;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.grpc.trace.PSpanMessage;
+import com.navercorp.pinpoint.grpc.trace.PSpanMessageBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates PSpanMessage until one of the {@link SpanMessageBatchOption} limits is reached.
+ * <p>
+ * WARNING Not thread safe
+ */
+class SpanMessageBatch {
+
+    private final SpanMessageBatchOption option;
+
+    private final List<PSpanMessage> spanMessageList;
+    private int bytes;
+    // incremented on every flush. used to discard stale delayed flush
+    private long generation;
+
+    SpanMessageBatch(SpanMessageBatchOption option) {
+        this.option = Assert.requireNonNull(option, "option must not be null");
+        this.spanMessageList = new ArrayList<PSpanMessage>(option.getMaxCount());
+    }
+
+    /**
+     * @return true if this is the first message of the batch
+     */
+    boolean add(PSpanMessage spanMessage) {
+        final boolean first = spanMessageList.isEmpty();
+        spanMessageList.add(spanMessage);
+        // memoized in the message. reused on serialization
+        bytes += spanMessage.getSerializedSize();
+        return first;
+    }
+
+    boolean isFull() {
+        if (spanMessageList.size() >= option.getMaxCount()) {
+            return true;
+        }
+        final int maxBytes = option.getMaxBytes();
+        return maxBytes > 0 && bytes >= maxBytes;
+    }
+
+    boolean isEmpty() {
+        return spanMessageList.isEmpty();
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return null if empty
+     */
+    PSpanMessage flush() {
+        final int size = spanMessageList.size();
+        if (size == 0) {
+            return null;
+        }
+        final PSpanMessage spanMessage;
+        if (size == 1) {
+            // single message does not need a wrapper
+            spanMessage = spanMessageList.get(0);
+        } else {
+            final PSpanMessageBatch spanMessageBatch = PSpanMessageBatch.newBuilder()
+                    .addAllSpanMessage(spanMessageList)
+                    .build();
+            spanMessage = PSpanMessage.newBuilder().setSpanMessageBatch(spanMessageBatch).build();
+        }
+        spanMessageList.clear();
+        bytes = 0;
+        generation++;
+        return spanMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "SpanMessageBatch{" +
+                "option=" + option +
+                ", count=" + spanMessageList.size() +
+                ", bytes=" + bytes +
+                ", generation=" + generation +
+                '}';
+    }
+}
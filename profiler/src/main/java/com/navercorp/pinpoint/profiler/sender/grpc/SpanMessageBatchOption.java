@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender.grpc;
+
+/**
+ * Flush conditions of the span stream batch.
+ * A batch is flushed when it reaches {@link #getMaxCount()} messages, {@link #getMaxBytes()} bytes
+ * or {@link #getMaxDelayMillis()} after the first message was added.
+ */
+public class SpanMessageBatchOption {
+
+    public static final SpanMessageBatchOption DISABLE = new SpanMessageBatchOption(1, 0, 0);
+
+    private final int maxCount;
+    private final int maxBytes;
+    private final long maxDelayMillis;
+
+    public SpanMessageBatchOption(int maxCount, int maxBytes, long maxDelayMillis) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("negative maxCount:" + maxCount);
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("negative maxBytes:" + maxBytes);
+        }
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("negative maxDelayMillis:" + maxDelayMillis);
+        }
+        this.maxCount = maxCount;
+        this.maxBytes = maxBytes;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public boolean isEnable() {
+        return maxCount > 1;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    /**
+     * @return 0 if unlimited
+     */
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SpanMessageBatchOption{" +
+                "maxCount=" + maxCount +
+                ", maxBytes=" + maxBytes +
+                ", maxDelayMillis=" + maxDelayMillis +
+                '}';
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender.grpc;
+
+import com.google.protobuf.CodedOutputStream;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.grpc.trace.PSpanMessage;
+import com.navercorp.pinpoint.profiler.context.grpc.GrpcSpanMessageEncoder;
+import com.navercorp.pinpoint.profiler.sender.MpscArrayQueue;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.protobuf.ProtoUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Request marshaller of the span stream.
+ * Serializes {@link com.navercorp.pinpoint.profiler.context.Span} / {@link com.navercorp.pinpoint.profiler.context.SpanChunk}
+ * using {@link GrpcSpanMessageEncoder}, so the PSpanMessage object graph is never built.
+ * <p>
+ * The message is encoded when {@link #stream(Object)} is called, as the returned stream may be drained
+ * later by a transport thread. The Span / SpanChunk can be recycled as soon as {@link #stream(Object)} returns.
+ * Encoding buffers are pooled: a buffer is taken from the pool by {@link #stream(Object)} and given back
+ * when the transport closes the stream. Buffers larger than MAX_POOLED_BUFFER_SIZE are not pooled.
+ * {@link #parse(InputStream)} reads a {@link PSpanMessage}, as the server side of the span stream does.
+ * <p>
+ * WARNING Not thread safe. {@link #stream(Object)} must be called from the sender thread only.
+ */
+public class SpanMessageMarshaller implements MethodDescriptor.Marshaller<Object> {
+
+    private static final MethodDescriptor.Marshaller<PSpanMessage> PARSER = ProtoUtils.marshaller(PSpanMessage.getDefaultInstance());
+
+    static final int BUFFER_POOL_SIZE = 64;
+    static final int MIN_BUFFER_SIZE = 1024 * 4;
+    static final int MAX_POOLED_BUFFER_SIZE = 1024 * 64;
+
+    private final GrpcSpanMessageEncoder encoder;
+
+    // polled by the sender thread, offered by transport threads
+    private final MpscArrayQueue<byte[]> bufferPool = new MpscArrayQueue<byte[]>(BUFFER_POOL_SIZE);
+
+    public SpanMessageMarshaller(GrpcSpanMessageEncoder encoder) {
+        this.encoder = Assert.requireNonNull(encoder, "encoder must not be null");
+    }
+
+    @Override
+    public InputStream stream(Object value) {
+        if (!encoder.isSupported(value)) {
+            throw new IllegalArgumentException("unsupported message " + value);
+        }
+        return encode(value);
+    }
+
+    @Override
+    public Object parse(InputStream stream) {
+        return PARSER.parse(stream);
+    }
+
+    private SpanMessageInputStream encode(Object message) {
+        try {
+            final int size = encoder.prepare(message);
+            final byte[] buffer = allocateBuffer(size);
+            final CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(buffer, 0, size);
+            encoder.writeTo(codedOutputStream);
+            codedOutputStream.checkNoSpaceLeft();
+            return new SpanMessageInputStream(buffer, size);
+        } catch (IOException e) {
+            throw new IllegalStateException("span message encode fail. message:" + message, e);
+        } finally {
+            encoder.clear();
+        }
+    }
+
+    private byte[] allocateBuffer(int size) {
+        final byte[] pooled = bufferPool.poll();
+        if (pooled != null && pooled.length >= size) {
+            return pooled;
+        }
+        // a pooled buffer too small for this message is dropped, the new one takes its place once released
+        return new byte[Math.max(size, MIN_BUFFER_SIZE)];
+    }
+
+    private void releaseBuffer(byte[] buffer) {
+        if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+            bufferPool.offer(buffer);
+        }
+    }
+
+    private class SpanMessageInputStream extends ByteArrayInputStream implements Drainable, KnownLength {
+
+        private boolean released = false;
+
+        private SpanMessageInputStream(byte[] buffer, int length) {
+            super(buffer, 0, length);
+        }
+
+        @Override
+        public int drainTo(OutputStream target) throws IOException {
+            final int remaining = count - pos;
+            target.write(buf, pos, remaining);
+            pos = count;
+            return remaining;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // called by the transport once the message has been written, the buffer is not read afterwards
+            if (!released) {
+                released = true;
+                pos = count;
+                releaseBuffer(buf);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpanMessageMarshaller{" +
+                "encoder=" + encoder +
+                '}';
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.active;
+
+import com.navercorp.pinpoint.profiler.monitor.metric.response.ReuseResponseTimeCollector;
+import com.navercorp.pinpoint.profiler.monitor.metric.response.ResponseTimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StripedActiveTraceRepositoryTest {
+
+    private static final long CURRENT_TIME = 1000L * 1000 * 1000 * 1000;
+
+    private final ReuseResponseTimeCollector responseTimeCollector = new ReuseResponseTimeCollector();
+
+    private long transactionId = 0;
+
+    private ActiveTraceHandle register(ActiveTraceRepository repository, long executionTime) {
+        return repository.register(transactionId++, CURRENT_TIME - executionTime, 1L);
+    }
+
+    @Test
+    public void histogram() {
+        StripedActiveTraceRepository repository = new StripedActiveTraceRepository(responseTimeCollector, 1024, 4);
+
+        register(repository, 100);
+        register(repository, 200);
+        register(repository, 1500);
+        register(repository, 3500);
+        register(repository, 3600);
+        register(repository, 5500);
+
+        ActiveTraceHistogram histogram = repository.getActiveTraceHistogram(CURRENT_TIME);
+        Assert.assertEquals(2, histogram.getFastCount());
+        Assert.assertEquals(1, histogram.getNormalCount());
+        Assert.assertEquals(2, histogram.getSlowCount());
+        Assert.assertEquals(1, histogram.getVerySlowCount());
+        Assert.assertEquals(6, repository.snapshot().size());
+    }
+
+    @Test
+    public void purge() {
+        StripedActiveTraceRepository repository = new StripedActiveTraceRepository(responseTimeCollector, 1024, 4);
+
+        ActiveTraceHandle fast = register(repository, 100);
+        ActiveTraceHandle slow = register(repository, 3500);
+
+        fast.purge(CURRENT_TIME);
+        // purge twice
+        fast.purge(CURRENT_TIME);
+
+        ActiveTraceHistogram histogram = repository.getActiveTraceHistogram(CURRENT_TIME);
+        Assert.assertEquals(0, histogram.getFastCount());
+        Assert.assertEquals(1, histogram.getSlowCount());
+
+        slow.purge(CURRENT_TIME);
+        histogram = repository.getActiveTraceHistogram(CURRENT_TIME);
+        Assert.assertEquals(0, histogram.getSlowCount());
+        Assert.assertTrue(repository.snapshot().isEmpty());
+
+        ResponseTimeValue responseTimeValue = responseTimeCollector.resetAndGetValue();
+        Assert.assertEquals(2, responseTimeValue.getTransactionCount());
+        Assert.assertEquals(3500, responseTimeValue.getMax());
+    }
+
+    @Test
+    public void expiredBucket() {
+        StripedActiveTraceRepository repository = new StripedActiveTraceRepository(responseTimeCollector, 1024, 1);
+
+        final long ringTime = StripedActiveTraceRepository.BUCKET_SIZE * StripedActiveTraceRepository.BUCKET_WIDTH_MILLIS;
+        ActiveTraceHandle old = register(repository, ringTime + 100);
+        // reuses the slot of the old trace
+        register(repository, 100);
+
+        ActiveTraceHistogram histogram = repository.getActiveTraceHistogram(CURRENT_TIME);
+        Assert.assertEquals(1, histogram.getFastCount());
+        Assert.assertEquals(1, histogram.getVerySlowCount());
+
+        old.purge(CURRENT_TIME);
+        histogram = repository.getActiveTraceHistogram(CURRENT_TIME);
+        Assert.assertEquals(1, histogram.getFastCount());
+        Assert.assertEquals(0, histogram.getVerySlowCount());
+    }
+
+    @Test
+    public void notStarted() {
+        StripedActiveTraceRepository repository = new StripedActiveTraceRepository(responseTimeCollector, 1024, 4);
+
+        repository.register(transactionId++, 0, 1L);
+
+        ActiveTraceHistogram histogram = repository.getActiveTraceHistogram(CURRENT_TIME);
+        Assert.assertEquals(0, histogram.getFastCount() + histogram.getNormalCount() + histogram.getSlowCount() + histogram.getVerySlowCount());
+        Assert.assertTrue(repository.snapshot().isEmpty());
+    }
+
+    @Test
+    public void maxActiveTraceSize() {
+        StripedActiveTraceRepository repository = new StripedActiveTraceRepository(responseTimeCollector, 2, 1);
+
+        register(repository, 100);
+        register(repository, 100);
+        register(repository, 100);
+
+        Assert.assertEquals(2, repository.getActiveTraceHistogram(CURRENT_TIME).getFastCount());
+    }
+}
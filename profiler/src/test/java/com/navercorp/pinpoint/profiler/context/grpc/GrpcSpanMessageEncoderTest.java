@@ -0,0 +1,246 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.context.grpc;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.GeneratedMessageV3;
+import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.common.util.IntStringValue;
+import com.navercorp.pinpoint.grpc.trace.PSpan;
+import com.navercorp.pinpoint.grpc.trace.PSpanChunk;
+import com.navercorp.pinpoint.grpc.trace.PSpanMessage;
+import com.navercorp.pinpoint.profiler.context.Annotation;
+import com.navercorp.pinpoint.profiler.context.DefaultAsyncId;
+import com.navercorp.pinpoint.profiler.context.DefaultAsyncSpanChunk;
+import com.navercorp.pinpoint.profiler.context.DefaultLocalAsyncId;
+import com.navercorp.pinpoint.profiler.context.DefaultSpanChunk;
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanChunk;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.compress.GrpcSpanProcessorV2;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceId;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceRoot;
+import com.navercorp.pinpoint.profiler.context.id.Shared;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import com.navercorp.pinpoint.profiler.sender.grpc.SpanMessageMarshaller;
+import io.grpc.Drainable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GrpcSpanMessageEncoderTest {
+
+    private static final String AGENT_ID = "agentId";
+    private static final short APPLICATION_SERVICE_TYPE = 1000;
+
+    private final GrpcSpanMessageConverter converter = new GrpcSpanMessageConverter(AGENT_ID, APPLICATION_SERVICE_TYPE, new GrpcSpanProcessorV2());
+
+    private final GrpcSpanMessageEncoder encoder = new GrpcSpanMessageEncoder(AGENT_ID, APPLICATION_SERVICE_TYPE);
+
+    @Test
+    public void encodeSpan() throws Exception {
+        Span span = newSpan(AGENT_ID);
+        span.setSpanEventList(newSpanEventList(span.getStartTime()));
+
+        assertSpanMessage(span);
+    }
+
+    @Test
+    public void encodeSpan_uncompressedAgentId() throws Exception {
+        Span span = newSpan("otherAgentId");
+        span.setSpanEventList(newSpanEventList(span.getStartTime()));
+
+        assertSpanMessage(span);
+    }
+
+    @Test
+    public void encodeSpanChunk() throws Exception {
+        Span span = newSpan(AGENT_ID);
+        SpanChunk spanChunk = new DefaultSpanChunk(span.getTraceRoot(), newSpanEventList(span.getStartTime()));
+
+        assertSpanMessage(spanChunk);
+    }
+
+    @Test
+    public void encodeAsyncSpanChunk() throws Exception {
+        Span span = newSpan(AGENT_ID);
+        SpanChunk spanChunk = new DefaultAsyncSpanChunk(span.getTraceRoot(), newSpanEventList(span.getStartTime()), new DefaultLocalAsyncId(10, 2));
+
+        assertSpanMessage(spanChunk);
+    }
+
+    @Test
+    public void encoderReuse() throws Exception {
+        Span span = newSpan(AGENT_ID);
+        span.setSpanEventList(newSpanEventList(span.getStartTime()));
+        assertSpanMessage(span);
+
+        Span small = newSpan(AGENT_ID);
+        assertSpanMessage(small);
+
+        Span span2 = newSpan(AGENT_ID);
+        List<SpanEvent> large = new ArrayList<SpanEvent>();
+        for (int i = 0; i < 5; i++) {
+            large.addAll(newSpanEventList(span2.getStartTime()));
+        }
+        for (int i = 0; i < large.size(); i++) {
+            large.get(i).setSequence((short) i);
+        }
+        span2.setSpanEventList(large);
+        assertSpanMessage(span2);
+    }
+
+    @Test
+    public void marshaller() throws Exception {
+        final SpanMessageMarshaller marshaller = new SpanMessageMarshaller(encoder);
+        Span span = newSpan(AGENT_ID);
+        span.setSpanEventList(newSpanEventList(span.getStartTime()));
+        final PSpanMessage expected = toPSpanMessage(span);
+
+        final InputStream stream = marshaller.stream(span);
+        // encoded eagerly, the span may be recycled and the encoder reused before the stream is drained
+        marshaller.stream(newSpan(AGENT_ID));
+        span.setSpanEventList(new ArrayList<SpanEvent>());
+        Assert.assertEquals(expected.getSerializedSize(), stream.available());
+
+        final ByteArrayOutputStream drained = new ByteArrayOutputStream();
+        Assert.assertEquals(expected.getSerializedSize(), ((Drainable) stream).drainTo(drained));
+        Assert.assertArrayEquals(expected.toByteArray(), drained.toByteArray());
+
+        final Object parsed = marshaller.parse(new ByteArrayInputStream(drained.toByteArray()));
+        Assert.assertEquals(expected, parsed);
+    }
+
+    @Test
+    public void marshallerReleasedBuffer() throws Exception {
+        final SpanMessageMarshaller marshaller = new SpanMessageMarshaller(encoder);
+        Span span = newSpan(AGENT_ID);
+        span.setSpanEventList(newSpanEventList(span.getStartTime()));
+        final InputStream stream = marshaller.stream(span);
+        ((Drainable) stream).drainTo(new ByteArrayOutputStream());
+        // the transport closes the stream once written, its buffer goes back to the pool
+        stream.close();
+
+        // a smaller message written to the larger pooled buffer
+        final Span smallSpan = newSpan(AGENT_ID);
+        final byte[] expected = toPSpanMessage(smallSpan).toByteArray();
+        final InputStream smallStream = marshaller.stream(smallSpan);
+        Assert.assertEquals(expected.length, smallStream.available());
+
+        final ByteArrayOutputStream drained = new ByteArrayOutputStream();
+        Assert.assertEquals(expected.length, ((Drainable) smallStream).drainTo(drained));
+        Assert.assertArrayEquals(expected, drained.toByteArray());
+    }
+
+    private void assertSpanMessage(Object message) throws Exception {
+        final byte[] expected = toPSpanMessage(message).toByteArray();
+
+        final int size = encoder.prepare(message);
+        Assert.assertEquals(expected.length, size);
+
+        final byte[] actual = new byte[size];
+        final CodedOutputStream out = CodedOutputStream.newInstance(actual);
+        encoder.writeTo(out);
+        out.checkNoSpaceLeft();
+
+        Assert.assertArrayEquals(expected, actual);
+        Assert.assertEquals(toPSpanMessage(message), PSpanMessage.parseFrom(actual));
+    }
+
+    private PSpanMessage toPSpanMessage(Object message) {
+        final GeneratedMessageV3 generatedMessage = converter.toMessage(message);
+        if (generatedMessage instanceof PSpanChunk) {
+            return PSpanMessage.newBuilder().setSpanChunk((PSpanChunk) generatedMessage).build();
+        }
+        return PSpanMessage.newBuilder().setSpan((PSpan) generatedMessage).build();
+    }
+
+    private Span newSpan(String agentId) {
+        TraceId traceId = new DefaultTraceId(agentId, 100, 5, 10, 20, (short) 1);
+        TraceRoot traceRoot = new DefaultTraceRoot(traceId, AGENT_ID, 1000, 5);
+        Shared shared = traceRoot.getShared();
+        shared.setRpcName("/rpc");
+        shared.setEndPoint("localhost:8080");
+        shared.maskErrorCode(1);
+        shared.setLoggingInfo((byte) 1);
+
+        Span span = new Span(traceRoot);
+        span.setStartTime(1000);
+        span.setElapsedTime(20);
+        span.setServiceType((short) 1010);
+        span.setApiId(3);
+        span.setRemoteAddr("127.0.0.1");
+        span.setParentApplicationName("parent");
+        span.setParentApplicationType((short) 1000);
+        span.setAcceptorHost("acceptor");
+        span.setExceptionInfo(new IntStringValue(4, "exception"));
+        span.addAnnotation(new Annotation(1, "annotation"));
+        span.addAnnotation(new Annotation(2, 10));
+        span.addAnnotation(new Annotation(3));
+        return span;
+    }
+
+    private List<SpanEvent> newSpanEventList(long startTime) {
+        List<SpanEvent> spanEventList = new ArrayList<SpanEvent>();
+
+        SpanEvent first = new SpanEvent();
+        first.setSequence((short) 0);
+        first.setDepth(1);
+        first.setStartTime(startTime + 1);
+        first.setElapsedTime(10);
+        first.setServiceType((short) 1011);
+        first.setApiId(-5);
+        first.addAnnotation(new Annotation(12, "sql"));
+        first.setEndPoint("remote:80");
+        first.setDestinationId("remote");
+        first.setNextSpanId(30);
+        spanEventList.add(first);
+
+        SpanEvent second = new SpanEvent();
+        second.setSequence((short) 1);
+        second.setDepth(1);
+        second.setStartTime(startTime + 3);
+        second.setElapsedTime(0);
+        second.setServiceType((short) 1012);
+        second.setApiId(6);
+        second.setExceptionInfo(new IntStringValue(7, null));
+        second.setAsyncIdObject(new DefaultAsyncId(9));
+        spanEventList.add(second);
+
+        SpanEvent third = new SpanEvent();
+        third.setSequence((short) 2);
+        third.setDepth(2);
+        third.setStartTime(startTime + 5);
+        third.setElapsedTime(1);
+        third.setServiceType((short) 1013);
+        third.setEndPoint("endPointOnly");
+        spanEventList.add(third);
+
+        // out of order
+        SpanEvent fourth = new SpanEvent();
+        fourth.setSequence((short) 3);
+        fourth.setDepth(2);
+        fourth.setStartTime(startTime + 8);
+        fourth.setServiceType((short) 1014);
+        spanEventList.add(1, fourth);
+        return spanEventList;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.profiler.context.AsyncSpanChunk;
+import com.navercorp.pinpoint.profiler.context.AsyncSpanChunkFactory;
+import com.navercorp.pinpoint.profiler.context.DefaultLocalAsyncId;
+import com.navercorp.pinpoint.profiler.context.DefaultSpanChunkFactory;
+import com.navercorp.pinpoint.profiler.context.LocalAsyncId;
+import com.navercorp.pinpoint.profiler.context.SpanChunk;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceId;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceRoot;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SpanChunkRecyclerTest {
+
+    private final String agentId = "agentId";
+    private final long agentStartTime = System.currentTimeMillis();
+
+    private TraceRoot newTraceRoot() {
+        TraceId traceId = new DefaultTraceId(agentId, agentStartTime, 100);
+        return new DefaultTraceRoot(traceId, agentId, agentStartTime, 100);
+    }
+
+    @Test
+    public void recycle() {
+        SpanChunkRecycler recycler = new SpanChunkRecycler(4, 10);
+        TraceRoot traceRoot = newTraceRoot();
+        SpanChunk template = new DefaultSpanChunkFactory(traceRoot).newSpanChunk(Collections.<SpanEvent>emptyList());
+
+        List<SpanEvent> buffer = recycler.newBuffer();
+        buffer.add(new SpanEvent());
+        SpanChunk spanChunk = recycler.newSpanChunk(template, buffer);
+        Assert.assertSame(traceRoot, spanChunk.getTraceRoot());
+        Assert.assertSame(buffer, spanChunk.getSpanEventList());
+        Assert.assertFalse(spanChunk instanceof AsyncSpanChunk);
+
+        Assert.assertTrue(SpanChunkRecycler.recycle(spanChunk));
+        Assert.assertTrue(buffer.isEmpty());
+        // recycle twice
+        Assert.assertFalse(SpanChunkRecycler.recycle(spanChunk));
+
+        List<SpanEvent> reuseBuffer = recycler.newBuffer();
+        Assert.assertSame(buffer, reuseBuffer);
+        SpanChunk reuseSpanChunk = recycler.newSpanChunk(template, reuseBuffer);
+        Assert.assertSame(spanChunk, reuseSpanChunk);
+
+        Assert.assertEquals(2, recycler.getBufferRequestCount());
+        Assert.assertEquals(1, recycler.getBufferHitCount());
+        Assert.assertEquals(2, recycler.getSpanChunkRequestCount());
+        Assert.assertEquals(1, recycler.getSpanChunkHitCount());
+        Assert.assertEquals(1, recycler.getRecycleCount());
+        Assert.assertEquals(0.5, recycler.getHitRate(), 0.001);
+        Assert.assertTrue(recycler.report(), recycler.report().startsWith("hitRate=50%"));
+    }
+
+    @Test
+    public void recycle_asyncSpanChunk() {
+        SpanChunkRecycler recycler = new SpanChunkRecycler(4, 10);
+        TraceRoot traceRoot = newTraceRoot();
+        LocalAsyncId localAsyncId = new DefaultLocalAsyncId(1, 2);
+        SpanChunk template = new AsyncSpanChunkFactory(traceRoot, localAsyncId).newSpanChunk(Collections.<SpanEvent>emptyList());
+
+        SpanChunk spanChunk = recycler.newSpanChunk(template, recycler.newBuffer());
+        Assert.assertTrue(spanChunk instanceof AsyncSpanChunk);
+        Assert.assertSame(localAsyncId, ((AsyncSpanChunk) spanChunk).getLocalAsyncId());
+
+        Assert.assertTrue(SpanChunkRecycler.recycle(spanChunk));
+        Assert.assertNull(((AsyncSpanChunk) spanChunk).getLocalAsyncId());
+    }
+
+    @Test
+    public void recycle_crossThread() throws InterruptedException {
+        final SpanChunkRecycler recycler = new SpanChunkRecycler(4, 10);
+        SpanChunk template = new DefaultSpanChunkFactory(newTraceRoot()).newSpanChunk(Collections.<SpanEvent>emptyList());
+        final SpanChunk spanChunk = recycler.newSpanChunk(template, recycler.newBuffer());
+
+        Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SpanChunkRecycler.recycle(spanChunk);
+            }
+        });
+        sender.start();
+        sender.join();
+
+        Assert.assertSame(spanChunk, recycler.newSpanChunk(template, recycler.newBuffer()));
+    }
+
+    @Test
+    public void recycle_poolFull() {
+        SpanChunkRecycler recycler = new SpanChunkRecycler(1, 10);
+        SpanChunk template = new DefaultSpanChunkFactory(newTraceRoot()).newSpanChunk(Collections.<SpanEvent>emptyList());
+
+        SpanChunk spanChunk1 = recycler.newSpanChunk(template, recycler.newBuffer());
+        SpanChunk spanChunk2 = recycler.newSpanChunk(template, recycler.newBuffer());
+        Assert.assertTrue(SpanChunkRecycler.recycle(spanChunk1));
+        Assert.assertFalse(SpanChunkRecycler.recycle(spanChunk2));
+        Assert.assertEquals(1, recycler.getDiscardCount());
+    }
+
+    @Test
+    public void recycle_notPooled() {
+        SpanChunk spanChunk = new DefaultSpanChunkFactory(newTraceRoot()).newSpanChunk(Collections.<SpanEvent>emptyList());
+        Assert.assertFalse(SpanChunkRecycler.recycle(spanChunk));
+        Assert.assertFalse(SpanChunkRecycler.recycle(null));
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.bootstrap.sampler.SamplingFlagUtils;
+import com.navercorp.pinpoint.profiler.context.DefaultSpanChunkFactory;
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.id.AtomicIdGenerator;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceId;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceRoot;
+import com.navercorp.pinpoint.profiler.context.id.IdGenerator;
+import com.navercorp.pinpoint.profiler.context.id.TailSamplingTraceRoot;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import com.navercorp.pinpoint.profiler.sender.CountingDataSender;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TailSamplingStorageTest {
+
+    private final String agentId = "agentId";
+    private final long agentStartTime = System.currentTimeMillis();
+
+    private final CountingDataSender countingDataSender = new CountingDataSender();
+    private final IdGenerator idGenerator = new AtomicIdGenerator();
+    private TailSamplingStorageFactory storageFactory;
+
+    @Before
+    public void before() {
+        countingDataSender.stop();
+        BufferedStorageFactory delegate = new BufferedStorageFactory(10, countingDataSender);
+        storageFactory = new TailSamplingStorageFactory(delegate, idGenerator, 1000, 3, 2);
+    }
+
+    private TraceRoot newTraceRoot() {
+        TraceId traceId = new DefaultTraceId(agentId, agentStartTime, -1002);
+        return new TailSamplingTraceRoot(new DefaultTraceRoot(traceId, agentId, agentStartTime, -1002));
+    }
+
+    private Storage newStorage(TraceRoot traceRoot) {
+        return storageFactory.createStorage(new DefaultSpanChunkFactory(traceRoot));
+    }
+
+    @Test
+    public void drop() {
+        TraceRoot traceRoot = newTraceRoot();
+        Storage storage = newStorage(traceRoot);
+
+        Span span = new Span(traceRoot);
+        span.setElapsedTime(10);
+        storage.store(new SpanEvent());
+        storage.store(span);
+        storage.close();
+
+        Assert.assertEquals(0, countingDataSender.getTotalCount());
+        Assert.assertEquals(1, storageFactory.getDroppedCount());
+        Assert.assertEquals(0, storageFactory.getActiveCount());
+    }
+
+    @Test
+    public void retainError() {
+        TraceRoot traceRoot = newTraceRoot();
+        Storage storage = newStorage(traceRoot);
+
+        Span span = new Span(traceRoot);
+        storage.store(new SpanEvent());
+        storage.store(new SpanEvent());
+        traceRoot.getShared().maskErrorCode(1);
+        storage.store(span);
+        storage.close();
+
+        Assert.assertEquals(1, countingDataSender.getSpanCounter());
+        Assert.assertEquals(0, countingDataSender.getSpanChunkCounter());
+        Assert.assertEquals(2, span.getSpanEventList().size());
+        Assert.assertEquals(1, storageFactory.getErrorRetainedCount());
+    }
+
+    @Test
+    public void retainSlow() {
+        TraceRoot traceRoot = newTraceRoot();
+        Storage storage = newStorage(traceRoot);
+
+        Span span = new Span(traceRoot);
+        span.setElapsedTime(1000);
+        for (int i = 0; i < 5; i++) {
+            storage.store(new SpanEvent());
+        }
+        storage.store(span);
+        storage.close();
+
+        Assert.assertEquals(1, countingDataSender.getSpanCounter());
+        Assert.assertEquals(3, span.getSpanEventList().size());
+        Assert.assertEquals(1, storageFactory.getSlowRetainedCount());
+        Assert.assertEquals(2, storageFactory.getDroppedEventCount());
+    }
+
+    @Test
+    public void maxActive() {
+        Storage storage1 = newStorage(newTraceRoot());
+        Storage storage2 = newStorage(newTraceRoot());
+        Assert.assertNotNull(storage1);
+        Assert.assertNotNull(storage2);
+
+        Assert.assertNull(newStorage(newTraceRoot()));
+        Assert.assertEquals(1, storageFactory.getRejectedCount());
+
+        storage1.close();
+        Assert.assertEquals(1, storageFactory.getDroppedCount());
+        Assert.assertNotNull(newStorage(newTraceRoot()));
+    }
+
+    @Test
+    public void reuseBuffer() {
+        TraceRoot traceRoot = newTraceRoot();
+        Storage storage = newStorage(traceRoot);
+        storage.store(new SpanEvent());
+        storage.close();
+
+        Storage next = newStorage(newTraceRoot());
+        Span span = new Span(traceRoot);
+        span.setElapsedTime(2000);
+        next.store(span);
+
+        Assert.assertEquals(1, countingDataSender.getSpanCounter());
+        Assert.assertTrue(span.getSpanEventList().isEmpty());
+    }
+
+    @Test
+    public void promote() {
+        TraceRoot traceRoot = newTraceRoot();
+        TraceId unsampledTraceId = traceRoot.getTraceId();
+        Assert.assertTrue(SamplingFlagUtils.isUnsampledTraceFlag(unsampledTraceId.getFlags()));
+        Assert.assertTrue(SamplingFlagUtils.isUnsampledTraceFlag(unsampledTraceId.getNextTraceId().getFlags()));
+
+        Storage storage = newStorage(traceRoot);
+        Span span = new Span(traceRoot);
+        span.setElapsedTime(1000);
+        storage.store(span);
+
+        TraceId traceId = traceRoot.getTraceId();
+        Assert.assertFalse(SamplingFlagUtils.isUnsampledTraceFlag(traceId.getFlags()));
+        Assert.assertEquals(AtomicIdGenerator.INITIAL_TRANSACTION_ID, traceId.getTransactionSequence());
+        Assert.assertTrue(traceId.getTransactionSequence() > 0);
+        Assert.assertEquals(unsampledTraceId.getSpanId(), traceId.getSpanId());
+    }
+
+    @Test
+    public void dropNotPromoted() {
+        TraceRoot traceRoot = newTraceRoot();
+        Storage storage = newStorage(traceRoot);
+        Span span = new Span(traceRoot);
+        span.setElapsedTime(10);
+        storage.store(span);
+
+        Assert.assertTrue(SamplingFlagUtils.isUnsampledTraceFlag(traceRoot.getTraceId().getFlags()));
+        Assert.assertEquals(-1002, traceRoot.getTraceId().getTransactionSequence());
+    }
+}
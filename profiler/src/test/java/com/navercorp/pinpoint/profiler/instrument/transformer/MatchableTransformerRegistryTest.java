@@ -16,10 +16,18 @@
 
 package com.navercorp.pinpoint.profiler.instrument.transformer;
 
+import com.navercorp.pinpoint.bootstrap.config.DefaultProfilerConfig;
+import com.navercorp.pinpoint.bootstrap.instrument.matcher.Matchers;
 import com.navercorp.pinpoint.bootstrap.instrument.matcher.operand.MatcherOperand;
+import com.navercorp.pinpoint.profiler.instrument.classreading.DefaultInternalClassMetadata;
+import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadata;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 
@@ -36,6 +44,51 @@ public class MatchableTransformerRegistryTest {
         value.accumulatorTime(startTime);
     }
 
+    @Test
+    public void packageBasedIndex() {
+        MatchableTransformerRegistry registry = new MatchableTransformerRegistry(new DefaultProfilerConfig());
+        ClassFileTransformer fooTransformer = new MockTransformer();
+        ClassFileTransformer barTransformer = new MockTransformer();
+        ClassFileTransformer fooSubTransformer = new MockTransformer();
+        // same package name length
+        registry.addTransformer(Matchers.newPackageBasedMatcher("com.foo"), fooTransformer);
+        registry.addTransformer(Matchers.newPackageBasedMatcher("com.bar"), barTransformer);
+        registry.addTransformer(Matchers.newPackageBasedMatcher("com.foo.sub"), fooSubTransformer);
+
+        Assert.assertSame(fooTransformer, findTransformer(registry, "com/foo/Service"));
+        Assert.assertSame(barTransformer, findTransformer(registry, "com/bar/Service"));
+        // shortest package first
+        Assert.assertSame(fooTransformer, findTransformer(registry, "com/foo/sub/Service"));
+        // string prefix
+        Assert.assertSame(barTransformer, findTransformer(registry, "com/barista/Service"));
+        Assert.assertNull(findTransformer(registry, "com/baz/Service"));
+        Assert.assertNull(findTransformer(registry, "com"));
+
+        List<MatchableTransformerRegistry.MatcherStatistics> statistics = registry.getMatcherStatistics();
+        Assert.assertEquals(3, statistics.size());
+        long evaluationCount = 0;
+        long hitCount = 0;
+        for (MatchableTransformerRegistry.MatcherStatistics statistic : statistics) {
+            evaluationCount += statistic.getEvaluationCount();
+            hitCount += statistic.getHitCount();
+        }
+        Assert.assertEquals(4, evaluationCount);
+        Assert.assertEquals(4, hitCount);
+        Assert.assertTrue(registry.report().startsWith("evaluationCount=4, hitCount=4"));
+    }
+
+    private ClassFileTransformer findTransformer(MatchableTransformerRegistry registry, String classInternalName) {
+        InternalClassMetadata classMetadata = new DefaultInternalClassMetadata(classInternalName, "java/lang/Object", Collections.<String>emptyList(), Collections.<String>emptyList(), false, false, false, false);
+        return registry.findTransformer(null, classInternalName, new byte[0], classMetadata);
+    }
+
+    private static class MockTransformer implements ClassFileTransformer {
+        @Override
+        public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+            return null;
+        }
+    }
+
 
     class IndexValue {
         final MatcherOperand operand;
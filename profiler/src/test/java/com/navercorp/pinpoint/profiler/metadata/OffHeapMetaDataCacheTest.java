@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.metadata;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapMetaDataCacheTest {
+
+    @Test
+    public void put() {
+        OffHeapMetaDataCache cache = new OffHeapMetaDataCache(1024);
+        Result test = cache.put("test");
+        Assert.assertEquals(-1, test.getId());
+        Assert.assertTrue(test.isNewValue());
+
+        Result recheck = cache.put("test");
+        Assert.assertEquals(test.getId(), recheck.getId());
+        Assert.assertFalse(recheck.isNewValue());
+
+        Result newValue = cache.put("new");
+        Assert.assertEquals(1, newValue.getId());
+        Assert.assertTrue(newValue.isNewValue());
+
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    public void report() {
+        OffHeapMetaDataCache cache = new OffHeapMetaDataCache(1024);
+        cache.put("sql0");
+        cache.put("sql0");
+
+        String report = cache.report();
+        Assert.assertTrue(report, report.startsWith("hitRate=50%"));
+        Assert.assertTrue(report, report.contains("size=1"));
+    }
+
+    @Test
+    public void boundedMemory() {
+        OffHeapMetaDataCache cache = new OffHeapMetaDataCache(1024);
+        final long capacity = cache.getCapacity();
+        Assert.assertTrue(capacity >= 1024);
+
+        for (int i = 0; i < capacity * 4; i++) {
+            cache.put("select * from table where id=" + i);
+        }
+        Assert.assertTrue(cache.getSize() <= capacity);
+        Assert.assertTrue(cache.getEvictionCount() > 0);
+        Assert.assertEquals(capacity * OffHeapMetaDataCacheTest.entrySize(), cache.getMemorySize());
+    }
+
+    @Test
+    public void lru() {
+        // single segment, single bucket
+        OffHeapMetaDataCache cache = new OffHeapMetaDataCache(OffHeapMetaDataCache.WAYS, 1, 1);
+        Result first = cache.put("sql0");
+        for (int i = 1; i < OffHeapMetaDataCache.WAYS; i++) {
+            cache.put("sql" + i);
+        }
+        // touch first
+        Assert.assertEquals(first.getId(), cache.put("sql0").getId());
+
+        // evict sql1
+        cache.put("sql" + OffHeapMetaDataCache.WAYS);
+        Assert.assertEquals(1, cache.getEvictionCount());
+
+        Assert.assertFalse(cache.put("sql0").isNewValue());
+        Assert.assertTrue(cache.put("sql1").isNewValue());
+    }
+
+    @Test
+    public void collision() {
+        OffHeapMetaDataCache cache = new OffHeapMetaDataCache(1024);
+        Result result = cache.put(100L, 1);
+        Assert.assertTrue(result.isNewValue());
+
+        Result collision = cache.put(100L, 2);
+        Assert.assertTrue(collision.isNewValue());
+        Assert.assertNotEquals(result.getId(), collision.getId());
+        Assert.assertEquals(1, cache.getCollisionCount());
+
+        Assert.assertFalse(cache.put(100L, 2).isNewValue());
+    }
+
+    @Test
+    public void hash64() {
+        Assert.assertEquals(OffHeapMetaDataCache.hash64("select 1"), OffHeapMetaDataCache.hash64("select 1"));
+        Assert.assertNotEquals(OffHeapMetaDataCache.hash64("select 1"), OffHeapMetaDataCache.hash64("select 2"));
+        Assert.assertNotEquals(0, OffHeapMetaDataCache.hash64(""));
+    }
+
+    private static long entrySize() {
+        return 24;
+    }
+}
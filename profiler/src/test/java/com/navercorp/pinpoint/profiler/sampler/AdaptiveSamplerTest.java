@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import com.navercorp.pinpoint.common.util.MockClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveSamplerTest {
+
+    @Test
+    public void initialSamplingRate() {
+        MockClock clock = new MockClock();
+        AdaptiveSampler sampler = new AdaptiveSampler(10, 3, 1000, 1000, clock);
+        Assert.assertEquals(3, sampler.getSamplingRate());
+
+        Assert.assertEquals(3, runWindow(sampler, 9));
+        Assert.assertEquals(3, sampler.getSamplingRate());
+    }
+
+    @Test
+    public void convergeToTargetThroughput() {
+        MockClock clock = new MockClock();
+        AdaptiveSampler sampler = new AdaptiveSampler(10, 1, 1000, 1000, clock);
+
+        // 1000 tps, 10 tps target
+        int sampled = 0;
+        for (int i = 0; i < 10; i++) {
+            sampled = runWindow(sampler, 1000);
+            clock.setTime(clock.getTime() + 1000);
+        }
+        Assert.assertEquals(100, sampler.getSamplingRate());
+        Assert.assertEquals(10, sampled);
+    }
+
+    @Test
+    public void lowThroughput() {
+        MockClock clock = new MockClock();
+        AdaptiveSampler sampler = new AdaptiveSampler(10, 20, 1000, 1000, clock);
+
+        for (int i = 0; i < 5; i++) {
+            runWindow(sampler, 5);
+            clock.setTime(clock.getTime() + 1000);
+        }
+        runWindow(sampler, 1);
+        Assert.assertEquals(1, sampler.getSamplingRate());
+    }
+
+    @Test
+    public void smoothing() {
+        MockClock clock = new MockClock();
+        AdaptiveSampler sampler = new AdaptiveSampler(10, 1, 1000, 1000, clock);
+
+        runWindow(sampler, 1000);
+        clock.setTime(1000);
+        runWindow(sampler, 100);
+        Assert.assertEquals(100, sampler.getSamplingRate());
+
+        // sudden drop is averaged with the previous estimate
+        clock.setTime(2000);
+        runWindow(sampler, 1);
+        Assert.assertEquals(55, sampler.getSamplingRate());
+    }
+
+    @Test
+    public void maxSamplingRate() {
+        MockClock clock = new MockClock();
+        AdaptiveSampler sampler = new AdaptiveSampler(1, 1, 50, 1000, clock);
+
+        runWindow(sampler, 1000);
+        clock.setTime(1000);
+        runWindow(sampler, 1);
+        Assert.assertEquals(50, sampler.getSamplingRate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTargetThroughput() {
+        new AdaptiveSampler(0, 1);
+    }
+
+    private int runWindow(AdaptiveSampler sampler, int transactionCount) {
+        int sampled = 0;
+        for (int i = 0; i < transactionCount; i++) {
+            if (sampler.isSampling()) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+}
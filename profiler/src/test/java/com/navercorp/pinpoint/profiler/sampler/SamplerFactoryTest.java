@@ -41,4 +41,18 @@ public class SamplerFactoryTest {
         boolean sampling = sampler.isSampling();
         Assert.assertFalse(sampling);
     }
+
+    @Test
+    public void createAdaptiveSampler() {
+        SamplerFactory samplerFactory = new SamplerFactory();
+        Sampler sampler = samplerFactory.createSampler(true, 1, 100);
+        Assert.assertTrue(sampler instanceof AdaptiveSampler);
+    }
+
+    @Test
+    public void createAdaptiveSampler_Disable() {
+        SamplerFactory samplerFactory = new SamplerFactory();
+        Assert.assertTrue(samplerFactory.createSampler(true, 1, 0) instanceof TrueSampler);
+        Assert.assertTrue(samplerFactory.createSampler(false, 1, 100) instanceof FalseSampler);
+    }
 }
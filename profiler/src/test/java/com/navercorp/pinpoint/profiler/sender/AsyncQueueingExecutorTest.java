@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncQueueingExecutorTest {
+
+    @Test
+    public void execute_blocking() throws InterruptedException {
+        execute(AsyncQueueingExecutorOption.DEFAULT);
+    }
+
+    @Test
+    public void execute_ringBuffer_park() throws InterruptedException {
+        execute(new AsyncQueueingExecutorOption(AsyncQueueingExecutorOption.QueueType.RING_BUFFER, WaitStrategy.PARK, 4, 64));
+    }
+
+    @Test
+    public void execute_ringBuffer_yield() throws InterruptedException {
+        execute(new AsyncQueueingExecutorOption(AsyncQueueingExecutorOption.QueueType.RING_BUFFER, WaitStrategy.YIELD, 10, 10));
+    }
+
+    private void execute(AsyncQueueingExecutorOption option) throws InterruptedException {
+        final int messageCount = 1000;
+        final CountDownLatch latch = new CountDownLatch(messageCount);
+        final CountingListener listener = new CountingListener(latch);
+
+        AsyncQueueingExecutor<Integer> executor = new AsyncQueueingExecutor<Integer>(1024 * 2, "test-executor", listener, option);
+        try {
+            for (int i = 0; i < messageCount; i++) {
+                Assert.assertTrue(executor.execute(i));
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(messageCount, listener.count.get());
+            Assert.assertEquals(0, executor.getDropCount());
+        } finally {
+            executor.stop();
+        }
+        Assert.assertFalse(executor.execute(1));
+        Assert.assertEquals(1, executor.getDropCount());
+    }
+
+    @Test
+    public void dropCount_ringBuffer() {
+        final CountDownLatch block = new CountDownLatch(1);
+        AsyncQueueingExecutorListener<Integer> listener = new AsyncQueueingExecutorListener<Integer>() {
+            @Override
+            public void execute(Collection<Integer> messageList) {
+                await(block);
+            }
+
+            @Override
+            public void execute(Integer message) {
+                await(block);
+            }
+        };
+        AsyncQueueingExecutorOption option = new AsyncQueueingExecutorOption(AsyncQueueingExecutorOption.QueueType.RING_BUFFER, WaitStrategy.PARK, 1, 1);
+        AsyncQueueingExecutor<Integer> executor = new AsyncQueueingExecutor<Integer>(2, "test-executor", listener, option);
+        try {
+            int accepted = 0;
+            for (int i = 0; i < 10; i++) {
+                if (executor.execute(i)) {
+                    accepted++;
+                }
+            }
+            Assert.assertEquals(10 - accepted, executor.getDropCount());
+            Assert.assertTrue(executor.getDropCount() > 0);
+        } finally {
+            block.countDown();
+            executor.stop();
+        }
+    }
+
+    @Test
+    public void parkBackoff() {
+        Assert.assertEquals(TimeUnit.MICROSECONDS.toNanos(100), WaitStrategy.getParkNanos(0));
+        Assert.assertEquals(TimeUnit.MICROSECONDS.toNanos(200), WaitStrategy.getParkNanos(1));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(10), WaitStrategy.getParkNanos(7));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(10), WaitStrategy.getParkNanos(Integer.MAX_VALUE));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class CountingListener implements AsyncQueueingExecutorListener<Integer> {
+        private final AtomicInteger count = new AtomicInteger();
+        private final CountDownLatch latch;
+
+        private CountingListener(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void execute(Collection<Integer> messageList) {
+            final int size = messageList.size();
+            for (int i = 0; i < size; i++) {
+                execute((Integer) null);
+            }
+        }
+
+        @Override
+        public void execute(Integer message) {
+            count.incrementAndGet();
+            latch.countDown();
+        }
+    }
+}
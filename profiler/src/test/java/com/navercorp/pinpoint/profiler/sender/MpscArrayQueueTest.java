@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class MpscArrayQueueTest {
+
+    @Test
+    public void capacity() {
+        Assert.assertEquals(1, new MpscArrayQueue<Object>(1).capacity());
+        Assert.assertEquals(8, new MpscArrayQueue<Object>(5).capacity());
+        Assert.assertEquals(16, new MpscArrayQueue<Object>(16).capacity());
+    }
+
+    @Test
+    public void offer_full() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(2);
+        Assert.assertTrue(queue.offer(1));
+        Assert.assertTrue(queue.offer(2));
+        Assert.assertFalse(queue.offer(3));
+        Assert.assertEquals(2, queue.size());
+
+        Assert.assertEquals(Integer.valueOf(1), queue.poll());
+        Assert.assertTrue(queue.offer(3));
+        Assert.assertEquals(Integer.valueOf(2), queue.poll());
+        Assert.assertEquals(Integer.valueOf(3), queue.poll());
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void drainTo() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(8);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i);
+        }
+        List<Integer> drain = new ArrayList<Integer>();
+        Assert.assertEquals(3, queue.drainTo(drain, 3));
+        Assert.assertEquals(2, queue.drainTo(drain, 10));
+        Assert.assertEquals(0, queue.drainTo(drain, 10));
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(Integer.valueOf(i), drain.get(i));
+        }
+    }
+
+    @Test
+    public void multiProducer() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 10000;
+        final MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(128);
+        final CountDownLatch latch = new CountDownLatch(producers);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(producers);
+        for (int i = 0; i < producers; i++) {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < perProducer; j++) {
+                        while (!queue.offer(j)) {
+                            Thread.yield();
+                        }
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+
+        long sum = 0;
+        int count = 0;
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (count < producers * perProducer && System.currentTimeMillis() < deadline) {
+            Integer value = queue.poll();
+            if (value == null) {
+                continue;
+            }
+            sum += value;
+            count++;
+        }
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        executorService.shutdown();
+
+        Assert.assertEquals(producers * perProducer, count);
+        Assert.assertEquals(producers * ((long) perProducer * (perProducer - 1) / 2), sum);
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.navercorp.pinpoint.profiler.sender.grpc;
+
+import com.navercorp.pinpoint.grpc.trace.PSpan;
+import com.navercorp.pinpoint.grpc.trace.PSpanChunk;
+import com.navercorp.pinpoint.grpc.trace.PSpanMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpanMessageBatchTest {
+
+    @Test
+    public void flush_count() {
+        SpanMessageBatch batch = new SpanMessageBatch(new SpanMessageBatchOption(3, 0, 10));
+
+        Assert.assertTrue(batch.add(newSpan(1)));
+        Assert.assertFalse(batch.add(newSpanChunk(2)));
+        Assert.assertFalse(batch.isFull());
+        Assert.assertFalse(batch.add(newSpan(3)));
+        Assert.assertTrue(batch.isFull());
+
+        PSpanMessage message = batch.flush();
+        Assert.assertTrue(message.hasSpanMessageBatch());
+        Assert.assertEquals(3, message.getSpanMessageBatch().getSpanMessageCount());
+        Assert.assertEquals(newSpan(1), message.getSpanMessageBatch().getSpanMessage(0));
+        Assert.assertEquals(newSpanChunk(2), message.getSpanMessageBatch().getSpanMessage(1));
+
+        Assert.assertTrue(batch.isEmpty());
+        Assert.assertEquals(1, batch.getGeneration());
+        Assert.assertNull(batch.flush());
+    }
+
+    @Test
+    public void flush_bytes() {
+        PSpanMessage span = newSpan(1);
+        SpanMessageBatch batch = new SpanMessageBatch(new SpanMessageBatchOption(100, span.getSerializedSize() * 2, 10));
+
+        batch.add(span);
+        Assert.assertFalse(batch.isFull());
+        batch.add(newSpan(2));
+        Assert.assertTrue(batch.isFull());
+    }
+
+    @Test
+    public void flush_single() {
+        SpanMessageBatch batch = new SpanMessageBatch(new SpanMessageBatchOption(10, 0, 10));
+        PSpanMessage span = newSpan(1);
+        batch.add(span);
+
+        Assert.assertSame(span, batch.flush());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void option_invalid() {
+        new SpanMessageBatchOption(0, 0, 0);
+    }
+
+    @Test
+    public void option_disable() {
+        Assert.assertFalse(SpanMessageBatchOption.DISABLE.isEnable());
+        Assert.assertTrue(new SpanMessageBatchOption(2, 0, 0).isEnable());
+    }
+
+    private PSpanMessage newSpan(long spanId) {
+        PSpan span = PSpan.newBuilder().setSpanId(spanId).build();
+        return PSpanMessage.newBuilder().setSpan(span).build();
+    }
+
+    private PSpanMessage newSpanChunk(long spanId) {
+        PSpanChunk spanChunk = PSpanChunk.newBuilder().setSpanId(spanId).build();
+        return PSpanMessage.newBuilder().setSpanChunk(spanChunk).build();
+    }
+}
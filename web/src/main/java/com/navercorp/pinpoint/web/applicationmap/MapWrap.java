@@ -18,6 +18,9 @@ package com.navercorp.pinpoint.web.applicationmap;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.navercorp.pinpoint.web.service.map.LinkSelectTiming;
+
+import java.util.List;
 
 /**
  * @author emeroad
@@ -35,4 +38,12 @@ public class MapWrap {
         return applicationMap;
     }
 
+    @JsonProperty("linkSelectTimings")
+    public List<LinkSelectTiming> getLinkSelectTimings() {
+        if (applicationMap instanceof ApplicationMapWithLinkSelectTimings) {
+            return ((ApplicationMapWithLinkSelectTimings) applicationMap).getLinkSelectTimings();
+        }
+        return null;
+    }
+
 }
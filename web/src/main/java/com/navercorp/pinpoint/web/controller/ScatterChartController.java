@@ -23,7 +23,8 @@ import com.navercorp.pinpoint.common.util.TransactionIdComparator;
 import com.navercorp.pinpoint.common.util.TransactionIdUtils;
 import com.navercorp.pinpoint.web.filter.Filter;
 import com.navercorp.pinpoint.web.filter.FilterBuilder;
-import com.navercorp.pinpoint.web.scatter.ScatterData;
+import com.navercorp.pinpoint.web.scatter.ColumnarScatterData;
+import com.navercorp.pinpoint.web.scatter.ScatterDensity;
 import com.navercorp.pinpoint.web.service.FilteredMapService;
 import com.navercorp.pinpoint.web.service.ScatterChartService;
 import com.navercorp.pinpoint.web.util.LimitUtils;
@@ -192,10 +193,66 @@ public class ScatterChartController {
         return mv;
     }
 
+    /**
+     * Draws wide ranges from the per-minute pre-aggregated counts, and falls back to {@link #getScatterData} otherwise.
+     * type of the response is either "density" or "dot".
+     * <p>
+     * Not called by the web UI yet. The scatter chart still requests {@link #getScatterData} for every range,
+     * switching to this endpoint above {@code web.scatter.density.minRange.minutes} needs a density renderer in the chart.
+     */
+    @RequestMapping(value = "/getScatterDensity", method = RequestMethod.GET)
+    public ModelAndView getScatterDensity(
+            @RequestParam("application") String applicationName,
+            @RequestParam("from") long from,
+            @RequestParam("to") long to,
+            @RequestParam("xGroupUnit") int xGroupUnit,
+            @RequestParam("yGroupUnit") int yGroupUnit,
+            @RequestParam("limit") int limit,
+            @RequestParam(value = "backwardDirection", required = false, defaultValue = "true") boolean backwardDirection,
+            @RequestParam(value = "filter", required = false) String filterText,
+            @RequestParam(value = "_callback", required = false) String jsonpCallback,
+            @RequestParam(value = "v", required = false, defaultValue = "1") int version) {
+        if (xGroupUnit <= 0) {
+            throw new IllegalArgumentException("xGroupUnit(" + xGroupUnit + ") must be positive number");
+        }
+
+        final Range range = Range.createUncheckedRange(from, to);
+        // dots of a filtered scatter chart are selected by their trace, which the pre-aggregated counts know nothing of
+        if (StringUtils.isNotEmpty(filterText) || !scatter.isScatterDensityRange(range)) {
+            ModelAndView mv = getScatterData(applicationName, from, to, xGroupUnit, yGroupUnit, limit, backwardDirection, filterText, jsonpCallback, version);
+            mv.addObject("type", "dot");
+            return mv;
+        }
+
+        StopWatch watch = new StopWatch();
+        watch.start("getScatterDensity");
+
+        final ScatterDensity scatterDensity = scatter.selectScatterDensity(applicationName, range, xGroupUnit);
+
+        ModelAndView mv = new ModelAndView();
+        mv.addObject("type", "density");
+        mv.addObject("complete", true);
+        mv.addObject("density", scatterDensity);
+        mv.addObject("currentServerTime", new ServerTime().getCurrentServerTime());
+        mv.addObject("from", range.getFrom());
+        mv.addObject("to", range.getTo());
+        if (jsonpCallback == null) {
+            mv.setViewName("jsonView");
+        } else {
+            mv.setViewName("jsonpView");
+        }
+
+        watch.stop();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Fetch scatterDensity time : {}ms, cells:{}", watch.getLastTaskTimeMillis(), scatterDensity.getCellSize());
+        }
+        return mv;
+    }
+
     private ModelAndView selectScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean backwardDirection, int version) {
         ModelAndView mv = null;
         if (version == 1) {
-            final ScatterData scatterData = scatter.selectScatterData(applicationName, range, xGroupUnit, yGroupUnit, limit, backwardDirection);
+            final ColumnarScatterData scatterData = scatter.selectScatterData(applicationName, range, xGroupUnit, yGroupUnit, limit, backwardDirection);
             boolean requestComplete = scatterData.getDotSize() < limit;
 
             mv = createScatterDataV1(scatterData, requestComplete);
@@ -222,7 +279,7 @@ public class ScatterChartController {
 
         ModelAndView mv;
         if (version == 1) {
-            ScatterData scatterData = scatter.selectScatterData(transactionIdList, applicationName, range, xGroupUnit, yGroupUnit, filter);
+            ColumnarScatterData scatterData = scatter.selectScatterData(transactionIdList, applicationName, range, xGroupUnit, yGroupUnit, filter);
             if (logger.isDebugEnabled()) {
                 logger.debug("getScatterData range scan(limited:{}, backwardDirection:{}) from ~ to:{} ~ {}, limited:{}, filterDataSize:{}",
                         limit, backwardDirection, DateUtils.longToDateStr(range.getFrom()), DateUtils.longToDateStr(range.getTo()), DateUtils.longToDateStr(limitedScanResult.getLimitedTime()), transactionIdList.size());
@@ -239,7 +296,7 @@ public class ScatterChartController {
         return mv;
     }
 
-    private ModelAndView createScatterDataV1(ScatterData scatterData, boolean complete) {
+    private ModelAndView createScatterDataV1(ColumnarScatterData scatterData, boolean complete) {
         ModelAndView mv = new ModelAndView();
 
         mv.addObject("resultFrom", scatterData.getOldestAcceptedTime());
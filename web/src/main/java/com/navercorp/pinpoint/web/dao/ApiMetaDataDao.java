@@ -16,13 +16,22 @@
 
 package com.navercorp.pinpoint.web.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.navercorp.pinpoint.common.server.bo.ApiMetaDataBo;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 /**
  * @author emeroad
  */
 public interface ApiMetaDataDao {
     List<ApiMetaDataBo> getApiMetaData(String agentId, long time, int apiId);
+
+    /**
+     * Fetches the metadata of all keys in a single round trip.
+     * Keys without metadata are mapped to an empty list.
+     */
+    Map<MetaDataKey, List<ApiMetaDataBo>> getApiMetaData(Collection<MetaDataKey> keys);
 }
@@ -17,12 +17,17 @@
 package com.navercorp.pinpoint.web.dao;
 
 import com.navercorp.pinpoint.common.server.bo.StringMetaDataBo;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author emeroad
  */
 public interface StringMetaDataDao {
     List<StringMetaDataBo> getStringMetaData(String agentId, long time, int stringId);
+
+    Map<MetaDataKey, List<StringMetaDataBo>> getStringMetaData(Collection<MetaDataKey> keys);
 }
@@ -22,6 +22,7 @@ import com.navercorp.pinpoint.common.hbase.RowMapper;
 import com.navercorp.pinpoint.common.hbase.TableDescriptor;
 import com.navercorp.pinpoint.common.server.bo.ApiMetaDataBo;
 import com.navercorp.pinpoint.web.dao.ApiMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 import org.apache.hadoop.hbase.TableName;
@@ -31,7 +32,12 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author emeroad
@@ -71,6 +77,34 @@ public class HbaseApiMetaDataDao implements ApiMetaDataDao {
         return hbaseOperations2.get(apiMetaDataTableName, get, apiMetaDataMapper);
     }
 
+    @Override
+    public Map<MetaDataKey, List<ApiMetaDataBo>> getApiMetaData(Collection<MetaDataKey> keys) {
+        if (keys == null) {
+            throw new NullPointerException("keys must not be null");
+        }
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final List<MetaDataKey> keyList = new ArrayList<>(keys);
+        final List<Get> getList = new ArrayList<>(keyList.size());
+        for (MetaDataKey key : keyList) {
+            ApiMetaDataBo apiMetaDataBo = new ApiMetaDataBo(key.getAgentId(), key.getAgentStartTime(), key.getId());
+            Get get = new Get(getDistributedKey(apiMetaDataBo.toRowKey()));
+            get.addFamily(descriptor.getColumnFamilyName());
+            getList.add(get);
+        }
+
+        TableName apiMetaDataTableName = descriptor.getTableName();
+        final List<List<ApiMetaDataBo>> resultList = hbaseOperations2.get(apiMetaDataTableName, getList, apiMetaDataMapper);
+
+        final Map<MetaDataKey, List<ApiMetaDataBo>> result = new HashMap<>(keyList.size());
+        for (int i = 0; i < keyList.size(); i++) {
+            result.put(keyList.get(i), resultList.get(i));
+        }
+        return result;
+    }
+
     private byte[] getDistributedKey(byte[] rowKey) {
         return rowKeyDistributorByHashPrefix.getDistributedKey(rowKey);
     }
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.hbase.HbaseColumnFamily;
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.TableDescriptor;
+import com.navercorp.pinpoint.common.server.util.ApplicationScatterUtils;
+import com.navercorp.pinpoint.web.dao.ApplicationScatterDao;
+import com.navercorp.pinpoint.web.mapper.ApplicationScatterMapper;
+import com.navercorp.pinpoint.web.scatter.ScatterDensity;
+import com.navercorp.pinpoint.web.vo.Range;
+
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Scan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class HbaseApplicationScatterDao implements ApplicationScatterDao {
+
+    private static final int APPLICATION_SCATTER_NUM_PARTITIONS = 8;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    // a row per minute
+    private int scanCacheSize = 60;
+
+    @Autowired
+    private HbaseOperations2 hbaseOperations2;
+
+    @Autowired
+    @Qualifier("applicationScatterRowKeyDistributor")
+    private RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix;
+
+    @Autowired
+    private TableDescriptor<HbaseColumnFamily.ApplicationScatterStatistics> descriptor;
+
+    @Override
+    public ScatterDensity selectScatterDensity(String applicationName, Range range, int xGroupUnit) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+
+        final Scan scan = createScan(applicationName, range);
+        final ApplicationScatterMapper mapper = new ApplicationScatterMapper(range.getFrom(), range.getTo(), xGroupUnit, rowKeyDistributorByHashPrefix);
+
+        final TableName applicationScatterTableName = descriptor.getTableName();
+        final List<ScatterDensity> scatterDensityList = hbaseOperations2.findParallel(applicationScatterTableName, scan, rowKeyDistributorByHashPrefix, mapper, APPLICATION_SCATTER_NUM_PARTITIONS);
+
+        final ScatterDensity scatterDensity = new ScatterDensity(range.getFrom(), range.getTo(), xGroupUnit);
+        for (ScatterDensity rowScatterDensity : scatterDensityList) {
+            scatterDensity.merge(rowScatterDensity);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("selectScatterDensity {} rows:{} cells:{} dots:{}", applicationName, scatterDensityList.size(), scatterDensity.getCellSize(), scatterDensity.getTotalCount());
+        }
+        return scatterDensity;
+    }
+
+    private Scan createScan(String applicationName, Range range) {
+        final Scan scan = new Scan();
+        scan.setCaching(this.scanCacheSize);
+        scan.setStartRow(getStartRow(applicationName, range));
+        scan.setStopRow(getStopRow(applicationName, range));
+        scan.addFamily(descriptor.getColumnFamilyName());
+        scan.setId("ApplicationScatterScan");
+        return scan;
+    }
+
+    static byte[] getStartRow(String applicationName, Range range) {
+        // start key is replaced by end key because timestamp has been reversed
+        return ApplicationScatterUtils.makeRowKey(applicationName, range.getTo());
+    }
+
+    static byte[] getStopRow(String applicationName, Range range) {
+        // the stop row is exclusive, so stop at the time slot before from
+        final long fromTimeSlot = ApplicationScatterUtils.getTimeSlot(range.getFrom());
+        return ApplicationScatterUtils.makeRowKey(applicationName, fromTimeSlot - ApplicationScatterUtils.TIME_SLOT_MILLIS);
+    }
+}
@@ -23,6 +23,7 @@ import com.navercorp.pinpoint.common.server.bo.codec.stat.ApplicationStatDecoder
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatUtils;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.ApplicationStatHbaseOperationFactory;
 import com.navercorp.pinpoint.common.server.bo.stat.join.StatType;
+import com.navercorp.pinpoint.web.dao.hbase.stat.StatScanPlanner;
 import com.navercorp.pinpoint.web.mapper.RangeTimestampFilter;
 import com.navercorp.pinpoint.web.mapper.TimestampFilter;
 import com.navercorp.pinpoint.web.mapper.stat.ApplicationStatMapper;
@@ -46,10 +47,11 @@ import java.util.List;
 public class HbaseApplicationStatDaoOperations {
 
     private static final int APPLICATION_STAT_NUM_PARTITIONS = 32;
-    private static final int MAX_SCAN_CACHE_SIZE = 256;
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    private final StatScanPlanner scanPlanner = new StatScanPlanner();
+
     @Autowired
     private HbaseOperations2 hbaseOperations2;
 
@@ -69,10 +71,13 @@ public class HbaseApplicationStatDaoOperations {
         if (resultExtractor == null) {
             throw new NullPointerException("resultExtractor must not be null");
         }
-        Scan scan = this.createScan(statType, applicationId, range);
+        StatScanPlanner.Plan plan = this.createScanPlan(statType, range);
+        Scan scan = this.createScan(statType, applicationId, range, plan);
 
         TableName applicationStatAggreTableName = descriptor.getTableName();
-        return hbaseOperations2.findParallel(applicationStatAggreTableName, scan, this.operationFactory.getRowKeyDistributor(), resultExtractor, APPLICATION_STAT_NUM_PARTITIONS);
+        List<AggregationStatData> aggregationStatDataList = hbaseOperations2.findParallel(applicationStatAggreTableName, scan, this.operationFactory.getRowKeyDistributor(), plan.record(resultExtractor), APPLICATION_STAT_NUM_PARTITIONS);
+        scanPlanner.record(plan);
+        return aggregationStatDataList;
     }
 
     ApplicationStatMapper createRowMapper(ApplicationStatDecoder decoder, Range range) {
@@ -80,23 +85,18 @@ public class HbaseApplicationStatDaoOperations {
         return new ApplicationStatMapper(this.operationFactory, decoder, filter);
     }
 
-    private Scan createScan(StatType statType, String applicationId, Range range) {
+    private StatScanPlanner.Plan createScanPlan(StatType statType, Range range) {
         long scanRange = range.getTo() - range.getFrom();
         long expectedNumRows = ((scanRange - 1) / descriptor.getColumnFamily().TIMESPAN_MS) + 1;
         if (range.getFrom() != AgentStatUtils.getBaseTimestamp(range.getFrom())) {
             expectedNumRows++;
         }
-        if (expectedNumRows > MAX_SCAN_CACHE_SIZE) {
-            return this.createScan(statType, applicationId, range, MAX_SCAN_CACHE_SIZE);
-        } else {
-            // expectedNumRows guaranteed to be within integer range at this point
-            return this.createScan(statType, applicationId, range, (int) expectedNumRows);
-        }
+        return scanPlanner.plan(statType.name(), expectedNumRows);
     }
 
-    private Scan createScan(StatType statType, String applicationId, Range range, int scanCacheSize) {
+    private Scan createScan(StatType statType, String applicationId, Range range, StatScanPlanner.Plan plan) {
         Scan scan = this.operationFactory.createScan(applicationId, statType, range.getFrom(), range.getTo());
-        scan.setCaching(scanCacheSize);
+        plan.apply(scan);
         scan.setId("ApplicationStat_" + statType);
         scan.addFamily(descriptor.getColumnFamilyName());
         return scan;
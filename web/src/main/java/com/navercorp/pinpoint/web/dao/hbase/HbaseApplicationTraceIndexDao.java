@@ -30,10 +30,10 @@ import com.navercorp.pinpoint.common.util.DateUtils;
 import com.navercorp.pinpoint.common.util.TimeUtils;
 import com.navercorp.pinpoint.common.util.TransactionId;
 import com.navercorp.pinpoint.web.dao.ApplicationTraceIndexDao;
+import com.navercorp.pinpoint.web.mapper.TraceIndexColumnarScatterMapper;
 import com.navercorp.pinpoint.web.mapper.TraceIndexScatterMapper2;
-import com.navercorp.pinpoint.web.mapper.TraceIndexScatterMapper3;
 import com.navercorp.pinpoint.web.mapper.TransactionIdMapper;
-import com.navercorp.pinpoint.web.scatter.ScatterData;
+import com.navercorp.pinpoint.web.scatter.ColumnarScatterData;
 import com.navercorp.pinpoint.web.vo.LimitedScanResult;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.ResponseTimeRange;
@@ -291,7 +291,7 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
     }
 
     @Override
-    public ScatterData scanTraceScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean scanBackward) {
+    public ColumnarScatterData scanTraceScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean scanBackward) {
         if (applicationName == null) {
             throw new NullPointerException("applicationName must not be null");
         }
@@ -304,15 +304,15 @@ public class HbaseApplicationTraceIndexDao implements ApplicationTraceIndexDao {
         logger.debug("scanTraceScatterDataMadeOfDotGroup");
         Scan scan = createScan(applicationName, range, scanBackward);
 
-        TraceIndexScatterMapper3 mapper = new TraceIndexScatterMapper3(range.getFrom(), range.getTo(), xGroupUnit, yGroupUnit);
+        TraceIndexColumnarScatterMapper mapper = new TraceIndexColumnarScatterMapper(range.getFrom(), range.getTo(), xGroupUnit, yGroupUnit);
 
         TableName applicationTraceIndexTableName = descriptor.getTableName();
-        List<ScatterData> dotGroupList = hbaseOperations2.findParallel(applicationTraceIndexTableName, scan, traceIdRowKeyDistributor, limit, mapper, APPLICATION_TRACE_INDEX_NUM_PARTITIONS);
+        List<ColumnarScatterData> dotGroupList = hbaseOperations2.findParallel(applicationTraceIndexTableName, scan, traceIdRowKeyDistributor, limit, mapper, APPLICATION_TRACE_INDEX_NUM_PARTITIONS);
 
         if (CollectionUtils.isEmpty(dotGroupList)) {
-            return new ScatterData(range.getFrom(), range.getTo(), xGroupUnit, yGroupUnit);
+            return new ColumnarScatterData(range.getFrom(), range.getTo(), xGroupUnit, yGroupUnit);
         } else {
-            ScatterData firstScatterData = dotGroupList.get(0);
+            ColumnarScatterData firstScatterData = dotGroupList.get(0);
             for (int i = 1; i < dotGroupList.size(); i++) {
                 firstScatterData.merge(dotGroupList.get(i));
             }
@@ -22,13 +22,19 @@ import com.navercorp.pinpoint.common.hbase.RowMapper;
 import com.navercorp.pinpoint.common.hbase.TableDescriptor;
 import com.navercorp.pinpoint.common.server.bo.SqlMetaDataBo;
 import com.navercorp.pinpoint.web.dao.SqlMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Get;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author emeroad
@@ -67,6 +73,34 @@ public class HbaseSqlMetaDataDao implements SqlMetaDataDao {
         return hbaseOperations2.get(sqlMetaDataTableName, get, sqlMetaDataMapper);
     }
 
+    @Override
+    public Map<MetaDataKey, List<SqlMetaDataBo>> getSqlMetaData(Collection<MetaDataKey> keys) {
+        if (keys == null) {
+            throw new NullPointerException("keys must not be null");
+        }
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final List<MetaDataKey> keyList = new ArrayList<>(keys);
+        final List<Get> getList = new ArrayList<>(keyList.size());
+        for (MetaDataKey key : keyList) {
+            SqlMetaDataBo sqlMetaDataBo = new SqlMetaDataBo(key.getAgentId(), key.getAgentStartTime(), key.getId());
+            Get get = new Get(getDistributedKey(sqlMetaDataBo.toRowKey()));
+            get.addFamily(descriptor.getColumnFamilyName());
+            getList.add(get);
+        }
+
+        TableName sqlMetaDataTableName = descriptor.getTableName();
+        final List<List<SqlMetaDataBo>> resultList = hbaseOperations2.get(sqlMetaDataTableName, getList, sqlMetaDataMapper);
+
+        final Map<MetaDataKey, List<SqlMetaDataBo>> result = new HashMap<>(keyList.size());
+        for (int i = 0; i < keyList.size(); i++) {
+            result.put(keyList.get(i), resultList.get(i));
+        }
+        return result;
+    }
+
     private byte[] getDistributedKey(byte[] rowKey) {
         return rowKeyDistributorByHashPrefix.getDistributedKey(rowKey);
     }
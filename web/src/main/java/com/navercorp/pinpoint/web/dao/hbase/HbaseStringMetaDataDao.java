@@ -22,6 +22,7 @@ import com.navercorp.pinpoint.common.hbase.RowMapper;
 import com.navercorp.pinpoint.common.hbase.TableDescriptor;
 import com.navercorp.pinpoint.common.server.bo.StringMetaDataBo;
 import com.navercorp.pinpoint.web.dao.StringMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
 
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 import org.apache.hadoop.hbase.TableName;
@@ -30,7 +31,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author emeroad
@@ -68,6 +74,34 @@ public class HbaseStringMetaDataDao implements StringMetaDataDao {
         return hbaseOperations2.get(stringMetaDataTableName, get, stringMetaDataMapper);
     }
 
+    @Override
+    public Map<MetaDataKey, List<StringMetaDataBo>> getStringMetaData(Collection<MetaDataKey> keys) {
+        if (keys == null) {
+            throw new NullPointerException("keys must not be null");
+        }
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final List<MetaDataKey> keyList = new ArrayList<>(keys);
+        final List<Get> getList = new ArrayList<>(keyList.size());
+        for (MetaDataKey key : keyList) {
+            StringMetaDataBo stringMetaDataBo = new StringMetaDataBo(key.getAgentId(), key.getAgentStartTime(), key.getId());
+            Get get = new Get(getDistributedKey(stringMetaDataBo.toRowKey()));
+            get.addFamily(descriptor.getColumnFamilyName());
+            getList.add(get);
+        }
+
+        TableName stringMetaDataTableName = descriptor.getTableName();
+        final List<List<StringMetaDataBo>> resultList = hbaseOperations2.get(stringMetaDataTableName, getList, stringMetaDataMapper);
+
+        final Map<MetaDataKey, List<StringMetaDataBo>> result = new HashMap<>(keyList.size());
+        for (int i = 0; i < keyList.size(); i++) {
+            result.put(keyList.get(i), resultList.get(i));
+        }
+        return result;
+    }
+
     private byte[] getDistributedKey(byte[] rowKey) {
         return rowKeyDistributorByHashPrefix.getDistributedKey(rowKey);
     }
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase.stat;
+
+import com.navercorp.pinpoint.common.hbase.ResultsExtractor;
+import com.navercorp.pinpoint.common.hbase.RowMapper;
+import org.apache.hadoop.hbase.client.AbstractClientScanner;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sizes stat scans from the number of time slots in the queried range, instead of a fixed caching value.
+ * The rows and bytes each scan actually returns are recorded per stat type,
+ * so that later scans account for missing time slots and for the row size of the stat type.
+ * <p>
+ * Scan batch is not set, stat rows hold a single time slot of columns and partial rows would only add round trips.
+ */
+public class StatScanPlanner {
+
+    public static final int DEFAULT_MAX_CACHING = 256;
+    public static final int MAX_CACHING = 4096;
+
+    // hbase client default
+    public static final long MIN_MAX_RESULT_SIZE = 2 * 1024 * 1024;
+    public static final long MAX_MAX_RESULT_SIZE = 8 * 1024 * 1024;
+
+    private static final double WEIGHT = 0.2;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ConcurrentMap<String, ScanStatistics> statisticsMap = new ConcurrentHashMap<>();
+
+    /**
+     * @param key          scans of the same key share their statistics, e.g. the stat type
+     * @param expectedRows number of time slots in the scan range
+     */
+    public Plan plan(String key, long expectedRows) {
+        Objects.requireNonNull(key, "key must not be null");
+
+        final ScanStatistics statistics = getStatistics(key);
+        final double rowRatio = statistics.getRowRatio();
+        final double bytesPerRow = statistics.getBytesPerRow();
+
+        final long estimatedRows = Math.max(1, Math.min(expectedRows, (long) Math.ceil(expectedRows * rowRatio)));
+        if (bytesPerRow <= 0) {
+            // nothing recorded yet
+            final int caching = (int) Math.min(estimatedRows, DEFAULT_MAX_CACHING);
+            return new Plan(key, expectedRows, estimatedRows, caching, -1);
+        }
+
+        final long rowsPerResult = Math.max(1, (long) (MAX_MAX_RESULT_SIZE / bytesPerRow));
+        final int caching = (int) Math.min(Math.min(estimatedRows, rowsPerResult), MAX_CACHING);
+        final long expectedResultSize = (long) (caching * bytesPerRow * 1.25);
+        final long maxResultSize = Math.max(MIN_MAX_RESULT_SIZE, Math.min(expectedResultSize, MAX_MAX_RESULT_SIZE));
+        return new Plan(key, expectedRows, estimatedRows, caching, maxResultSize);
+    }
+
+    public void record(Plan plan) {
+        Objects.requireNonNull(plan, "plan must not be null");
+        record(plan, plan.rows.get(), plan.bytes.get());
+    }
+
+    void record(Plan plan, long rows, long bytes) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("stat scan {} rows:{} bytes:{}", plan, rows, bytes);
+        }
+        getStatistics(plan.getKey()).update(plan.getExpectedRows(), rows, bytes);
+    }
+
+    private ScanStatistics getStatistics(String key) {
+        final ScanStatistics statistics = statisticsMap.get(key);
+        if (statistics != null) {
+            return statistics;
+        }
+        final ScanStatistics newStatistics = new ScanStatistics();
+        final ScanStatistics before = statisticsMap.putIfAbsent(key, newStatistics);
+        return before != null ? before : newStatistics;
+    }
+
+    private static class ScanStatistics {
+        private double rowRatio = 1.0;
+        private double bytesPerRow = 0;
+
+        synchronized double getRowRatio() {
+            return rowRatio;
+        }
+
+        synchronized double getBytesPerRow() {
+            return bytesPerRow;
+        }
+
+        synchronized void update(long expectedRows, long rows, long bytes) {
+            if (expectedRows > 0) {
+                final double ratio = Math.min(1.0, (double) rows / expectedRows);
+                // do not shrink below a tenth, an idle agent must not make the next busy range slow
+                rowRatio = Math.max(0.1, average(rowRatio, ratio));
+            }
+            if (rows > 0) {
+                final double size = (double) bytes / rows;
+                bytesPerRow = bytesPerRow <= 0 ? size : average(bytesPerRow, size);
+            }
+        }
+
+        private double average(double average, double value) {
+            return average + WEIGHT * (value - average);
+        }
+    }
+
+    public static class Plan {
+        private final String key;
+        private final long expectedRows;
+        private final long estimatedRows;
+        private final int caching;
+        private final long maxResultSize;
+
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        Plan(String key, long expectedRows, long estimatedRows, int caching, long maxResultSize) {
+            this.key = key;
+            this.expectedRows = expectedRows;
+            this.estimatedRows = estimatedRows;
+            this.caching = caching;
+            this.maxResultSize = maxResultSize;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getExpectedRows() {
+            return expectedRows;
+        }
+
+        public long getEstimatedRows() {
+            return estimatedRows;
+        }
+
+        public int getCaching() {
+            return caching;
+        }
+
+        /**
+         * @return -1 to keep the client default
+         */
+        public long getMaxResultSize() {
+            return maxResultSize;
+        }
+
+        public void apply(Scan scan) {
+            scan.setCaching(caching);
+            if (maxResultSize > 0) {
+                scan.setMaxResultSize(maxResultSize);
+            }
+        }
+
+        /**
+         * counts the rows mapped by the given mapper
+         */
+        public <T> RowMapper<T> record(final RowMapper<T> rowMapper) {
+            Objects.requireNonNull(rowMapper, "rowMapper must not be null");
+            return new RowMapper<T>() {
+                @Override
+                public T mapRow(Result result, int rowNum) throws Exception {
+                    count(result);
+                    return rowMapper.mapRow(result, rowNum);
+                }
+            };
+        }
+
+        /**
+         * counts the rows read by the given extractor
+         */
+        public <T> ResultsExtractor<T> record(final ResultsExtractor<T> resultsExtractor) {
+            Objects.requireNonNull(resultsExtractor, "resultsExtractor must not be null");
+            return new ResultsExtractor<T>() {
+                @Override
+                public T extractData(ResultScanner results) throws Exception {
+                    return resultsExtractor.extractData(new RecordingResultScanner(results, Plan.this));
+                }
+            };
+        }
+
+        private void count(Result result) {
+            if (result != null) {
+                rows.incrementAndGet();
+                bytes.addAndGet(Result.getTotalSizeOfCells(result));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Plan{" +
+                    "key='" + key + '\'' +
+                    ", expectedRows=" + expectedRows +
+                    ", estimatedRows=" + estimatedRows +
+                    ", caching=" + caching +
+                    ", maxResultSize=" + maxResultSize +
+                    '}';
+        }
+    }
+
+    private static class RecordingResultScanner implements ResultScanner {
+
+        private final ResultScanner delegate;
+        private final Plan plan;
+
+        private RecordingResultScanner(ResultScanner delegate, Plan plan) {
+            this.delegate = delegate;
+            this.plan = plan;
+        }
+
+        @Override
+        public Result next() throws IOException {
+            final Result result = delegate.next();
+            plan.count(result);
+            return result;
+        }
+
+        @Override
+        public Result[] next(int nbRows) throws IOException {
+            final Result[] results = delegate.next(nbRows);
+            for (Result result : results) {
+                plan.count(result);
+            }
+            return results;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        // not declared by ResultScanner of hbase 1.2, available on the client scanners
+        public boolean renewLease() {
+            if (delegate instanceof AbstractClientScanner) {
+                return ((AbstractClientScanner) delegate).renewLease();
+            }
+            return false;
+        }
+
+        public ScanMetrics getScanMetrics() {
+            if (delegate instanceof AbstractClientScanner) {
+                return ((AbstractClientScanner) delegate).getScanMetrics();
+            }
+            return null;
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+            final Iterator<Result> iterator = delegate.iterator();
+            return new Iterator<Result>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Result next() {
+                    final Result result = iterator.next();
+                    plan.count(result);
+                    return result;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
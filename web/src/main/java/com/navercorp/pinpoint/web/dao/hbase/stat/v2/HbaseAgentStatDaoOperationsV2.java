@@ -25,6 +25,7 @@ import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatHbaseOpe
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatUtils;
 import com.navercorp.pinpoint.common.server.bo.stat.AgentStatDataPoint;
 import com.navercorp.pinpoint.common.server.bo.stat.AgentStatType;
+import com.navercorp.pinpoint.web.dao.hbase.stat.StatScanPlanner;
 import com.navercorp.pinpoint.web.mapper.RangeTimestampFilter;
 import com.navercorp.pinpoint.web.mapper.TimestampFilter;
 import com.navercorp.pinpoint.web.mapper.stat.AgentStatMapperV2;
@@ -48,10 +49,11 @@ import java.util.List;
 public class HbaseAgentStatDaoOperationsV2 {
 
     private static final int AGENT_STAT_VER2_NUM_PARTITIONS = 32;
-    private static final int MAX_SCAN_CACHE_SIZE = 256;
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    private final StatScanPlanner scanPlanner = new StatScanPlanner();
+
     @Autowired
     private HbaseOperations2 hbaseOperations2;
 
@@ -69,10 +71,12 @@ public class HbaseAgentStatDaoOperationsV2 {
             throw new NullPointerException("range must not be null");
         }
 
-        Scan scan = this.createScan(agentStatType, agentId, range);
+        StatScanPlanner.Plan plan = this.createScanPlan(agentStatType, range);
+        Scan scan = this.createScan(agentStatType, agentId, range, plan);
 
         TableName agentStatTableName = descriptor.getTableName();
-        List<List<T>> intermediate = hbaseOperations2.findParallel(agentStatTableName, scan, this.operationFactory.getRowKeyDistributor(), mapper, AGENT_STAT_VER2_NUM_PARTITIONS);
+        List<List<T>> intermediate = hbaseOperations2.findParallel(agentStatTableName, scan, this.operationFactory.getRowKeyDistributor(), plan.record(mapper), AGENT_STAT_VER2_NUM_PARTITIONS);
+        scanPlanner.record(plan);
         int expectedSize = (int) (range.getRange() / descriptor.getColumnFamily().TIMESPAN_MS);
         List<T> merged = new ArrayList<>(expectedSize);
         for (List<T> each : intermediate) {
@@ -115,10 +119,13 @@ public class HbaseAgentStatDaoOperationsV2 {
         if (resultExtractor == null) {
             throw new NullPointerException("resultExtractor must not be null");
         }
-        Scan scan = this.createScan(agentStatType, agentId, range);
+        StatScanPlanner.Plan plan = this.createScanPlan(agentStatType, range);
+        Scan scan = this.createScan(agentStatType, agentId, range, plan);
 
         TableName agentStatTableName = descriptor.getTableName();
-        return hbaseOperations2.findParallel(agentStatTableName, scan, this.operationFactory.getRowKeyDistributor(), resultExtractor, AGENT_STAT_VER2_NUM_PARTITIONS);
+        List<S> sampledAgentStatList = hbaseOperations2.findParallel(agentStatTableName, scan, this.operationFactory.getRowKeyDistributor(), plan.record(resultExtractor), AGENT_STAT_VER2_NUM_PARTITIONS);
+        scanPlanner.record(plan);
+        return sampledAgentStatList;
     }
 
     <T extends AgentStatDataPoint> AgentStatMapperV2<T> createRowMapper(AgentStatDecoder<T> decoder, Range range) {
@@ -126,18 +133,19 @@ public class HbaseAgentStatDaoOperationsV2 {
         return new AgentStatMapperV2<>(this.operationFactory, decoder, filter);
     }
 
-    private Scan createScan(AgentStatType agentStatType, String agentId, Range range) {
+    private StatScanPlanner.Plan createScanPlan(AgentStatType agentStatType, Range range) {
         long scanRange = range.getTo() - range.getFrom();
         long expectedNumRows = ((scanRange - 1) / descriptor.getColumnFamily().TIMESPAN_MS) + 1;
         if (range.getFrom() != AgentStatUtils.getBaseTimestamp(range.getFrom())) {
             expectedNumRows++;
         }
-        if (expectedNumRows > MAX_SCAN_CACHE_SIZE) {
-            return this.createScan(agentStatType, agentId, range, MAX_SCAN_CACHE_SIZE);
-        } else {
-            // expectedNumRows guaranteed to be within integer range at this point
-            return this.createScan(agentStatType, agentId, range, (int) expectedNumRows);
-        }
+        return scanPlanner.plan(agentStatType.name(), expectedNumRows);
+    }
+
+    private Scan createScan(AgentStatType agentStatType, String agentId, Range range, StatScanPlanner.Plan plan) {
+        Scan scan = this.createScan(agentStatType, agentId, range, plan.getCaching());
+        plan.apply(scan);
+        return scan;
     }
 
     private Scan createScan(AgentStatType agentStatType, String agentId, Range range, int scanCacheSize) {
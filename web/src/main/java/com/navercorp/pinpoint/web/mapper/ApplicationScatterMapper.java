@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.mapper;
+
+import com.navercorp.pinpoint.common.hbase.RowMapper;
+import com.navercorp.pinpoint.common.server.util.ApplicationScatterUtils;
+import com.navercorp.pinpoint.web.scatter.ScatterDensity;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.Objects;
+
+public class ApplicationScatterMapper implements RowMapper<ScatterDensity> {
+
+    private final long from;
+    private final long to;
+    private final int xGroupUnit;
+    private final AbstractRowKeyDistributor rowKeyDistributor;
+
+    public ApplicationScatterMapper(long from, long to, int xGroupUnit, AbstractRowKeyDistributor rowKeyDistributor) {
+        this.from = from;
+        this.to = to;
+        this.xGroupUnit = xGroupUnit;
+        this.rowKeyDistributor = Objects.requireNonNull(rowKeyDistributor, "rowKeyDistributor must not be null");
+    }
+
+    @Override
+    public ScatterDensity mapRow(Result result, int rowNum) throws Exception {
+        final ScatterDensity scatterDensity = new ScatterDensity(from, to, xGroupUnit);
+        if (result.isEmpty()) {
+            return scatterDensity;
+        }
+
+        final byte[] rowKey = rowKeyDistributor.getOriginalKey(result.getRow());
+        final long timeSlot = ApplicationScatterUtils.getTimeSlotFromRowKey(rowKey);
+        for (Cell cell : result.rawCells()) {
+            final byte[] columnName = CellUtil.cloneQualifier(cell);
+            final int xBucket = ApplicationScatterUtils.getXBucketFromColumnName(columnName);
+            final int yBucket = ApplicationScatterUtils.getYBucketFromColumnName(columnName);
+            final boolean error = ApplicationScatterUtils.isErrorFromColumnName(columnName);
+            final long count = Bytes.toLong(cell.getValueArray(), cell.getValueOffset());
+            scatterDensity.addCount(timeSlot, xBucket, yBucket, error, count);
+        }
+        return scatterDensity;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2019 NAVER Corp.
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.mapper;
+
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.OffsetFixedBuffer;
+import com.navercorp.pinpoint.common.hbase.HbaseColumnFamily;
+import com.navercorp.pinpoint.common.hbase.HbaseTableConstatns;
+import com.navercorp.pinpoint.common.hbase.RowMapper;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import com.navercorp.pinpoint.common.util.TimeUtils;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import com.navercorp.pinpoint.web.scatter.ColumnarScatterData;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Result;
+
+/**
+ * {@link TraceIndexScatterMapper3} without a {@link com.navercorp.pinpoint.web.vo.scatter.Dot} per cell
+ */
+public class TraceIndexColumnarScatterMapper implements RowMapper<ColumnarScatterData> {
+
+    private final long from;
+    private final long to;
+    private final int xGroupUnit;
+    private final int yGroupUnit;
+
+    public TraceIndexColumnarScatterMapper(long from, long to, int xGroupUnit, int yGroupUnit) {
+        this.from = from;
+        this.to = to;
+        this.xGroupUnit = xGroupUnit;
+        this.yGroupUnit = yGroupUnit;
+    }
+
+    @Override
+    public ColumnarScatterData mapRow(Result result, int rowNum) throws Exception {
+        if (result.isEmpty()) {
+            return new ColumnarScatterData(from, to, xGroupUnit, yGroupUnit, 0);
+        }
+
+        Cell[] rawCells = result.rawCells();
+        ColumnarScatterData scatterData = new ColumnarScatterData(from, to, xGroupUnit, yGroupUnit, rawCells.length);
+        for (Cell cell : rawCells) {
+            addDot(scatterData, cell);
+        }
+
+        return scatterData;
+    }
+
+    private void addDot(ColumnarScatterData scatterData, Cell cell) {
+        final Buffer valueBuffer = new OffsetFixedBuffer(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        int elapsed = valueBuffer.readVInt();
+
+        int exceptionCode = valueBuffer.readSVInt();
+        String agentId = valueBuffer.readPrefixedString();
+
+        long reverseAcceptedTime = BytesUtils.bytesToLong(cell.getRowArray(), cell.getRowOffset() + HbaseTableConstatns.APPLICATION_NAME_MAX_LEN + HbaseColumnFamily.APPLICATION_TRACE_INDEX_TRACE.ROW_DISTRIBUTE_SIZE);
+        long acceptedTime = TimeUtils.recoveryTimeMillis(reverseAcceptedTime);
+
+        TransactionId transactionId = TransactionIdMapper.parseVarTransactionId(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+
+        scatterData.addDot(transactionId, acceptedTime, elapsed, exceptionCode, agentId);
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.scatter;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import com.navercorp.pinpoint.web.view.ColumnarScatterDataSerializer;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import com.navercorp.pinpoint.web.vo.scatter.DotAgentInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same dots as {@link ScatterData}, kept in parallel primitive arrays instead of a {@link Dot} per dot.
+ * Agents are kept in a dictionary and a dot only refers to its index, so a dot takes about 24 bytes.
+ * Dots are sorted and grouped only when they are written.
+ */
+@JsonSerialize(using = ColumnarScatterDataSerializer.class)
+public class ColumnarScatterData {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final long from;
+    private final long to;
+    private final int xGroupUnitMillis;
+    private final int yGroupUnitMillis;
+
+    private long[] acceptedTimes;
+    private int[] elapsedTimes;
+    private int[] agentIndexes;
+    private long[] transactionSequences;
+    // Dot.FAILED_STATE
+    private final BitSet failed = new BitSet();
+    private int size = 0;
+
+    private final Map<DotAgentInfo, Integer> agentIndexMap = new HashMap<>();
+    private final List<DotAgentInfo> agentList = new ArrayList<>();
+
+    private long oldestAcceptedTime = Long.MAX_VALUE;
+    private long latestAcceptedTime = Long.MIN_VALUE;
+
+    public ColumnarScatterData(long from, long to, int xGroupUnitMillis, int yGroupUnitMillis) {
+        this(from, to, xGroupUnitMillis, yGroupUnitMillis, DEFAULT_CAPACITY);
+    }
+
+    public ColumnarScatterData(long from, long to, int xGroupUnitMillis, int yGroupUnitMillis, int initialCapacity) {
+        if (from <= 0) {
+            throw new IllegalArgumentException("from value must be higher than 0");
+        }
+        if (from > to) {
+            throw new IllegalArgumentException("from value must be lower or equal to to value");
+        }
+        if (xGroupUnitMillis <= 0) {
+            throw new IllegalArgumentException("xGroupUnitMillis must be higher than 0");
+        }
+        if (yGroupUnitMillis <= 0) {
+            throw new IllegalArgumentException("yGroupUnitMillis must be higher than 0");
+        }
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("negative initialCapacity:" + initialCapacity);
+        }
+
+        this.from = from;
+        this.to = to;
+        this.xGroupUnitMillis = xGroupUnitMillis;
+        this.yGroupUnitMillis = yGroupUnitMillis;
+
+        this.acceptedTimes = new long[initialCapacity];
+        this.elapsedTimes = new int[initialCapacity];
+        this.agentIndexes = new int[initialCapacity];
+        this.transactionSequences = new long[initialCapacity];
+    }
+
+    public void addDot(TransactionId transactionId, long acceptedTime, int elapsedTime, int exceptionCode, String agentId) {
+        if (transactionId == null) {
+            throw new NullPointerException("transactionId must not be null");
+        }
+        if (agentId == null) {
+            throw new NullPointerException("agentId must not be null");
+        }
+        final int agentIndex = getAgentIndex(new DotAgentInfo(agentId, transactionId.getAgentId(), transactionId.getAgentStartTime()));
+        addDot(acceptedTime, elapsedTime, exceptionCode != Dot.EXCEPTION_NONE, agentIndex, transactionId.getTransactionSequence());
+    }
+
+    private void addDot(long acceptedTime, int elapsedTime, boolean failed, int agentIndex, long transactionSequence) {
+        ensureCapacity(size + 1);
+
+        acceptedTimes[size] = acceptedTime;
+        elapsedTimes[size] = elapsedTime;
+        agentIndexes[size] = agentIndex;
+        transactionSequences[size] = transactionSequence;
+        if (failed) {
+            this.failed.set(size);
+        }
+        size++;
+
+        if (oldestAcceptedTime > acceptedTime) {
+            oldestAcceptedTime = acceptedTime;
+        }
+        if (latestAcceptedTime < acceptedTime) {
+            latestAcceptedTime = acceptedTime;
+        }
+    }
+
+    private int getAgentIndex(DotAgentInfo dotAgentInfo) {
+        Integer agentIndex = agentIndexMap.get(dotAgentInfo);
+        if (agentIndex == null) {
+            agentIndex = agentList.size();
+            agentList.add(dotAgentInfo);
+            agentIndexMap.put(dotAgentInfo, agentIndex);
+        }
+        return agentIndex;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        final int capacity = acceptedTimes.length;
+        if (minCapacity <= capacity) {
+            return;
+        }
+        final int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1) + 1);
+        acceptedTimes = Arrays.copyOf(acceptedTimes, newCapacity);
+        elapsedTimes = Arrays.copyOf(elapsedTimes, newCapacity);
+        agentIndexes = Arrays.copyOf(agentIndexes, newCapacity);
+        transactionSequences = Arrays.copyOf(transactionSequences, newCapacity);
+    }
+
+    public void merge(ColumnarScatterData scatterData) {
+        if (scatterData == null) {
+            return;
+        }
+
+        ensureCapacity(size + scatterData.size);
+
+        final int[] agentIndexMapping = new int[scatterData.agentList.size()];
+        for (int i = 0; i < agentIndexMapping.length; i++) {
+            agentIndexMapping[i] = getAgentIndex(scatterData.agentList.get(i));
+        }
+        for (int i = 0; i < scatterData.size; i++) {
+            addDot(scatterData.acceptedTimes[i], scatterData.elapsedTimes[i], scatterData.failed.get(i),
+                    agentIndexMapping[scatterData.agentIndexes[i]], scatterData.transactionSequences[i]);
+        }
+    }
+
+    /**
+     * @return indexes of the dots, latest accepted first
+     */
+    public int[] getSortedIndexes() {
+        final int[] indexes = newIndexes();
+        sort(indexes, (index1, index2) -> Long.compare(acceptedTimes[index2], acceptedTimes[index1]));
+        return indexes;
+    }
+
+    /**
+     * Dots with the same coordinates and exception code make a group, led by the dot added first.
+     *
+     * @return number of dots in the group for the leading dot of each group, 0 for the other dots
+     */
+    public int[] getDotGroupSizes() {
+        final int[] indexes = newIndexes();
+        sort(indexes, (index1, index2) -> {
+            int compare = Long.compare(getX(index1), getX(index2));
+            if (compare != 0) {
+                return compare;
+            }
+            compare = Integer.compare(getY(index1), getY(index2));
+            if (compare != 0) {
+                return compare;
+            }
+            return Boolean.compare(failed.get(index1), failed.get(index2));
+        });
+
+        final int[] dotGroupSizes = new int[size];
+        int leader = 0;
+        for (int i = 1; i <= size; i++) {
+            if (i == size || !isSameDotGroup(indexes[leader], indexes[i])) {
+                // sorting is stable, the leader is the first one added
+                dotGroupSizes[indexes[leader]] = i - leader;
+                leader = i;
+            }
+        }
+        return dotGroupSizes;
+    }
+
+    private boolean isSameDotGroup(int index1, int index2) {
+        return getX(index1) == getX(index2) && getY(index1) == getY(index2) && failed.get(index1) == failed.get(index2);
+    }
+
+    private int[] newIndexes() {
+        final int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    private long getX(int index) {
+        final long acceptedTimeDiff = getAcceptedTimeDiff(index);
+        final long x = acceptedTimeDiff - (acceptedTimeDiff % xGroupUnitMillis);
+        return Math.max(x, 0L);
+    }
+
+    private int getY(int index) {
+        final int elapsedTime = elapsedTimes[index];
+        return elapsedTime - (elapsedTime % yGroupUnitMillis);
+    }
+
+    private interface IndexComparator {
+        int compare(int index1, int index2);
+    }
+
+    /**
+     * stable bottom-up merge sort, without boxing the indexes
+     */
+    private static void sort(int[] indexes, IndexComparator comparator) {
+        final int length = indexes.length;
+        int[] source = indexes;
+        int[] target = new int[length];
+        for (int width = 1; width < length; width <<= 1) {
+            for (int low = 0; low < length; low += width << 1) {
+                final int middle = Math.min(low + width, length);
+                final int high = Math.min(low + (width << 1), length);
+                int left = low;
+                int right = middle;
+                int k = low;
+                while (left < middle && right < high) {
+                    if (comparator.compare(source[right], source[left]) < 0) {
+                        target[k++] = source[right++];
+                    } else {
+                        target[k++] = source[left++];
+                    }
+                }
+                while (left < middle) {
+                    target[k++] = source[left++];
+                }
+                while (right < high) {
+                    target[k++] = source[right++];
+                }
+            }
+            final int[] temp = source;
+            source = target;
+            target = temp;
+        }
+        if (source != indexes) {
+            System.arraycopy(source, 0, indexes, 0, length);
+        }
+    }
+
+    public long getAcceptedTimeDiff(int index) {
+        return acceptedTimes[index] - from;
+    }
+
+    public int getElapsedTime(int index) {
+        return elapsedTimes[index];
+    }
+
+    public int getAgentIndex(int index) {
+        return agentIndexes[index];
+    }
+
+    public long getTransactionSequence(int index) {
+        return transactionSequences[index];
+    }
+
+    public int getSimpleExceptionCode(int index) {
+        return failed.get(index) ? Dot.FAILED_STATE : Dot.SUCCESS_STATE;
+    }
+
+    public List<DotAgentInfo> getAgentList() {
+        return agentList;
+    }
+
+    public int getDotSize() {
+        return size;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public long getOldestAcceptedTime() {
+        if (oldestAcceptedTime == Long.MAX_VALUE) {
+            return -1;
+        }
+        return oldestAcceptedTime;
+    }
+
+    public long getLatestAcceptedTime() {
+        if (latestAcceptedTime == Long.MIN_VALUE) {
+            return -1;
+        }
+        return latestAcceptedTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarScatterData{" + "from=" + from + ", to=" + to + ", size=" + size + ", agents=" + agentList.size() + '}';
+    }
+}
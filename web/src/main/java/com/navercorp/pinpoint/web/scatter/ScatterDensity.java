@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.scatter;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.navercorp.pinpoint.common.server.util.ApplicationScatterUtils;
+import com.navercorp.pinpoint.web.view.ScatterDensitySerializer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scatter chart drawn from the pre-aggregated counts of ApplicationScatterAggre instead of individual dots.
+ * x coordinates are relative to {@code from} like {@link ScatterData}, y coordinates are log scaled buckets.
+ */
+@JsonSerialize(using = ScatterDensitySerializer.class)
+public class ScatterDensity {
+
+    private static final Comparator<Cell> X_DESCENDING = new Comparator<Cell>() {
+        @Override
+        public int compare(Cell o1, Cell o2) {
+            int compare = Long.compare(o2.x, o1.x);
+            if (compare != 0) {
+                return compare;
+            }
+            compare = Integer.compare(o1.yBucket, o2.yBucket);
+            if (compare != 0) {
+                return compare;
+            }
+            return Boolean.compare(o1.error, o2.error);
+        }
+    };
+
+    private final long from;
+    private final long to;
+    private final int xGroupUnitMillis;
+
+    private final Map<Cell, Long> countMap = new HashMap<>();
+    private long totalCount;
+
+    public ScatterDensity(long from, long to, int xGroupUnitMillis) {
+        if (from > to) {
+            throw new IllegalArgumentException("from value must be lower or equal to to value");
+        }
+        if (xGroupUnitMillis <= 0) {
+            throw new IllegalArgumentException("xGroupUnitMillis must be positive");
+        }
+        this.from = from;
+        this.to = to;
+        // the pre-aggregated counts are not any finer than an x bucket
+        this.xGroupUnitMillis = Math.max(xGroupUnitMillis, ApplicationScatterUtils.X_BUCKET_MILLIS);
+    }
+
+    public void addCount(long timeSlot, int xBucket, int yBucket, boolean error, long count) {
+        final long bucketTime = timeSlot + (long) xBucket * ApplicationScatterUtils.X_BUCKET_MILLIS;
+        if (bucketTime + ApplicationScatterUtils.X_BUCKET_MILLIS <= from || bucketTime > to) {
+            return;
+        }
+        final long timeDiff = Math.max(bucketTime - from, 0);
+        final long x = timeDiff - (timeDiff % xGroupUnitMillis);
+        countMap.merge(new Cell(x, yBucket, error), count, Long::sum);
+        totalCount += count;
+    }
+
+    public void merge(ScatterDensity scatterDensity) {
+        if (scatterDensity == null) {
+            return;
+        }
+        for (Map.Entry<Cell, Long> entry : scatterDensity.countMap.entrySet()) {
+            countMap.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+        totalCount += scatterDensity.totalCount;
+    }
+
+    public List<Cell> getSortedCellList() {
+        final List<Cell> cellList = new ArrayList<>(countMap.keySet());
+        cellList.sort(X_DESCENDING);
+        return cellList;
+    }
+
+    public long getCount(Cell cell) {
+        final Long count = countMap.get(cell);
+        if (count == null) {
+            return 0;
+        }
+        return count;
+    }
+
+    public int getCellSize() {
+        return countMap.size();
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public int getXGroupUnitMillis() {
+        return xGroupUnitMillis;
+    }
+
+    public static class Cell {
+        private final long x;
+        private final int yBucket;
+        private final boolean error;
+
+        public Cell(long x, int yBucket, boolean error) {
+            this.x = x;
+            this.yBucket = yBucket;
+            this.error = error;
+        }
+
+        public long getX() {
+            return x;
+        }
+
+        public int getYBucket() {
+            return yBucket;
+        }
+
+        public int getYMin() {
+            return ApplicationScatterUtils.getYBucketMin(yBucket);
+        }
+
+        public int getYMax() {
+            return ApplicationScatterUtils.getYBucketMax(yBucket);
+        }
+
+        public boolean isError() {
+            return error;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Cell cell = (Cell) o;
+
+            if (x != cell.x) return false;
+            if (yBucket != cell.yBucket) return false;
+            return error == cell.error;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (x ^ (x >>> 32));
+            result = 31 * result + yBucket;
+            result = 31 * result + (error ? 1 : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Cell{" + "x=" + x + ", yBucket=" + yBucket + ", error=" + error + '}';
+        }
+    }
+}
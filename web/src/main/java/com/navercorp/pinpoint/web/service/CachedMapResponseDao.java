@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.dao.MapResponseDao;
+import com.navercorp.pinpoint.web.service.MapStatisticsSliceCache.SliceLoader;
+import com.navercorp.pinpoint.web.service.MapStatisticsSliceCache.SliceType;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.ResponseTime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link MapResponseDao} reading finished minutes from {@link MapStatisticsSliceCache}.
+ * A slice holds the response times of a single minute.
+ */
+class CachedMapResponseDao implements MapResponseDao {
+
+    private final MapResponseDao mapResponseDao;
+    private final MapStatisticsSliceCache mapStatisticsSliceCache;
+
+    private final SliceLoader<List<ResponseTime>> sliceLoader = new ResponseTimeSliceLoader();
+
+    CachedMapResponseDao(MapResponseDao mapResponseDao, MapStatisticsSliceCache mapStatisticsSliceCache) {
+        this.mapResponseDao = Objects.requireNonNull(mapResponseDao, "mapResponseDao must not be null");
+        this.mapStatisticsSliceCache = Objects.requireNonNull(mapStatisticsSliceCache, "mapStatisticsSliceCache must not be null");
+    }
+
+    @Override
+    public List<ResponseTime> selectResponseTime(Application application, Range range) {
+        if (!mapStatisticsSliceCache.isCacheable(range)) {
+            return mapResponseDao.selectResponseTime(application, range);
+        }
+        final List<List<ResponseTime>> slices = mapStatisticsSliceCache.getSlices(SliceType.RESPONSE_TIME, application, range, sliceLoader);
+        final List<ResponseTime> responseTimes = new ArrayList<>();
+        for (List<ResponseTime> slice : slices) {
+            responseTimes.addAll(slice);
+        }
+        return responseTimes;
+    }
+
+    private class ResponseTimeSliceLoader implements SliceLoader<List<ResponseTime>> {
+
+        // rough heap usage of the objects making up a slice
+        private static final long RESPONSE_TIME_BYTES = 128;
+        private static final long AGENT_HISTOGRAM_BYTES = 192;
+
+        @Override
+        public Map<Long, List<ResponseTime>> load(Application application, Range range) {
+            final List<ResponseTime> responseTimes = mapResponseDao.selectResponseTime(application, range);
+
+            final Map<Long, List<ResponseTime>> slices = new HashMap<>();
+            for (ResponseTime responseTime : responseTimes) {
+                slices.computeIfAbsent(responseTime.getTimeStamp(), minute -> new ArrayList<>()).add(responseTime);
+            }
+            return slices;
+        }
+
+        @Override
+        public long estimateBytes(List<ResponseTime> slice) {
+            long bytes = 0;
+            for (ResponseTime responseTime : slice) {
+                bytes += RESPONSE_TIME_BYTES;
+                for (Map.Entry<String, TimeHistogram> agentHistogram : responseTime.getAgentHistogram()) {
+                    bytes += AGENT_HISTOGRAM_BYTES + 2 * agentHistogram.getKey().length();
+                }
+            }
+            return bytes;
+        }
+    }
+}
@@ -16,14 +16,27 @@
 
 package com.navercorp.pinpoint.web.service;
 
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkCallData;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkData;
 import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
 import com.navercorp.pinpoint.web.dao.MapStatisticsCalleeDao;
 import com.navercorp.pinpoint.web.dao.MapStatisticsCallerDao;
+import com.navercorp.pinpoint.web.service.MapStatisticsSliceCache.SliceLoader;
+import com.navercorp.pinpoint.web.service.MapStatisticsSliceCache.SliceType;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.util.TimeWindowDownSampler;
 import com.navercorp.pinpoint.web.vo.Application;
 import com.navercorp.pinpoint.web.vo.Range;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
 /**
  * @author HyunGil Jeong
  */
@@ -36,13 +49,85 @@ public class LinkDataMapServiceImpl implements LinkDataMapService {
     @Autowired
     private MapStatisticsCalleeDao mapStatisticsCalleeDao;
 
+    @Autowired
+    private MapStatisticsSliceCache mapStatisticsSliceCache;
+
+    private final SliceLoader<LinkDataMap> callerSliceLoader = new LinkDataMapSliceLoader((application, range) -> mapStatisticsCallerDao.selectCaller(application, range));
+
+    private final SliceLoader<LinkDataMap> calleeSliceLoader = new LinkDataMapSliceLoader((application, range) -> mapStatisticsCalleeDao.selectCallee(application, range));
+
     @Override
     public LinkDataMap selectCallerLinkDataMap(Application application, Range range) {
-        return mapStatisticsCallerDao.selectCaller(application, range);
+        if (!mapStatisticsSliceCache.isCacheable(range)) {
+            return mapStatisticsCallerDao.selectCaller(application, range);
+        }
+        return selectLinkDataMap(SliceType.CALLER, application, range, callerSliceLoader);
     }
 
     @Override
     public LinkDataMap selectCalleeLinkDataMap(Application application, Range range) {
-        return mapStatisticsCalleeDao.selectCallee(application, range);
+        if (!mapStatisticsSliceCache.isCacheable(range)) {
+            return mapStatisticsCalleeDao.selectCallee(application, range);
+        }
+        return selectLinkDataMap(SliceType.CALLEE, application, range, calleeSliceLoader);
+    }
+
+    private LinkDataMap selectLinkDataMap(SliceType sliceType, Application application, Range range, SliceLoader<LinkDataMap> sliceLoader) {
+        final List<LinkDataMap> slices = mapStatisticsSliceCache.getSlices(sliceType, application, range, sliceLoader);
+        if (slices.isEmpty()) {
+            return new LinkDataMap();
+        }
+        // slices are shared, copied into a new map down sampled to the range
+        final LinkDataMap linkDataMap = new LinkDataMap(new TimeWindow(range, TimeWindowDownSampler.SAMPLER));
+        for (LinkDataMap slice : slices) {
+            linkDataMap.addLinkDataMap(slice);
+        }
+        return linkDataMap;
+    }
+
+    private static class LinkDataMapSliceLoader implements SliceLoader<LinkDataMap> {
+
+        // rough heap usage of the objects making up a slice
+        private static final long LINK_DATA_BYTES = 256;
+        private static final long LINK_CALL_DATA_BYTES = 256;
+        private static final long TIME_HISTOGRAM_BYTES = 128;
+
+        private final BiFunction<Application, Range, LinkDataMap> linkDataMapFunction;
+
+        private LinkDataMapSliceLoader(BiFunction<Application, Range, LinkDataMap> linkDataMapFunction) {
+            this.linkDataMapFunction = linkDataMapFunction;
+        }
+
+        @Override
+        public Map<Long, LinkDataMap> load(Application application, Range range) {
+            final LinkDataMap linkDataMap = linkDataMapFunction.apply(application, range);
+
+            final Map<Long, LinkDataMap> slices = new HashMap<>();
+            for (LinkData linkData : linkDataMap.getLinkDataList()) {
+                for (LinkCallData linkCallData : linkData.getLinkCallDataMap().getLinkDataList()) {
+                    for (TimeHistogram timeHistogram : linkCallData.getTimeHistogram()) {
+                        final LinkDataMap slice = slices.computeIfAbsent(timeHistogram.getTimeStamp(), minute -> new LinkDataMap());
+                        final LinkData sliceLinkData = new LinkData(linkData.getFromApplication(), linkData.getToApplication());
+                        sliceLinkData.getLinkCallDataMap().addCallData(linkCallData.getSource(), linkCallData.getSourceServiceType(),
+                                linkCallData.getTarget(), linkCallData.getTargetServiceType(), Collections.singletonList(timeHistogram));
+                        slice.addLinkData(sliceLinkData);
+                    }
+                }
+            }
+            return slices;
+        }
+
+        @Override
+        public long estimateBytes(LinkDataMap slice) {
+            long bytes = 0;
+            for (LinkData linkData : slice.getLinkDataList()) {
+                bytes += LINK_DATA_BYTES;
+                for (LinkCallData linkCallData : linkData.getLinkCallDataMap().getLinkDataList()) {
+                    bytes += LINK_CALL_DATA_BYTES + 2 * (linkCallData.getSource().length() + linkCallData.getTarget().length());
+                    bytes += TIME_HISTOGRAM_BYTES * linkCallData.getTimeHistogram().size();
+                }
+            }
+            return bytes;
+        }
     }
 }
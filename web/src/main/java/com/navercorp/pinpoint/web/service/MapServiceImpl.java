@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.web.service;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMap;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMapBuilder;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMapBuilderFactory;
+import com.navercorp.pinpoint.web.applicationmap.ApplicationMapWithLinkSelectTimings;
 import com.navercorp.pinpoint.web.applicationmap.appender.histogram.DefaultNodeHistogramFactory;
 import com.navercorp.pinpoint.web.applicationmap.appender.histogram.NodeHistogramFactory;
 import com.navercorp.pinpoint.web.applicationmap.appender.histogram.datasource.MapResponseNodeHistogramDataSource;
@@ -68,6 +69,9 @@ public class MapServiceImpl implements MapService {
     @Autowired
     private MapResponseDao mapResponseDao;
 
+    @Autowired
+    private MapStatisticsSliceCache mapStatisticsSliceCache;
+
     @Autowired
     private ApplicationFactory applicationFactory;
     
@@ -120,7 +124,7 @@ public class MapServiceImpl implements MapService {
         if(serverMapDataFilter != null) {
             map = serverMapDataFilter.dataFiltering(map);
         }
-        return map;
+        return new ApplicationMapWithLinkSelectTimings(map, linkSelector.getLinkSelectTimings());
     }
 
     private ApplicationMapBuilder createApplicationMapBuilder(Range range, NodeType nodeType, LinkType linkType) {
@@ -128,7 +132,7 @@ public class MapServiceImpl implements MapService {
         builder.nodeType(nodeType);
         builder.linkType(linkType);
 
-        WasNodeHistogramDataSource wasNodeHistogramDataSource = new MapResponseNodeHistogramDataSource(mapResponseDao);
+        WasNodeHistogramDataSource wasNodeHistogramDataSource = new MapResponseNodeHistogramDataSource(new CachedMapResponseDao(mapResponseDao, mapStatisticsSliceCache));
         NodeHistogramFactory nodeHistogramFactory = new DefaultNodeHistogramFactory(wasNodeHistogramDataSource);
         builder.includeNodeHistogram(nodeHistogramFactory);
 
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-minute slices of map statistics, shared by all server map requests.
+ * <p>
+ * Map statistics of a minute no longer change once collectors are done flushing it, so a finished minute is read once
+ * and kept as an immutable slice keyed by (type, application, minute). A range is stitched from the cached minutes,
+ * and only the missing minutes are scanned. Minutes that are not finished yet are always scanned.
+ * <p>
+ * Writes may still land on a finished minute, e.g. spilled mutations replayed by a collector or statistics applied
+ * by a fallback collector. Slices of minutes finished less than lateWriteWindowMillis ago, and minutes found empty,
+ * are therefore only kept for recentSliceTtlMillis before being scanned again.
+ * Only ranges that are not down sampled are served from slices, see {@link #isCacheable(Range)}.
+ * Slices are evicted least recently used first, once their estimated size exceeds maxBytes.
+ */
+@Component
+public class MapStatisticsSliceCache {
+
+    public enum SliceType {
+        CALLER,
+        CALLEE,
+        RESPONSE_TIME
+    }
+
+    public interface SliceLoader<V> {
+        /**
+         * @return slices of each minute of the range, keyed by minute. Minutes without data may be left out
+         */
+        Map<Long, V> load(Application application, Range range);
+
+        long estimateBytes(V slice);
+    }
+
+    // map statistics of ranges up to an hour are not down sampled, see TimeWindowDownSampler
+    static final int MAX_SCAN_MINUTES = 60;
+    private static final long MAX_CACHEABLE_RANGE = TimeUnit.HOURS.toMillis(1);
+
+    private static final Object EMPTY_SLICE = new Object();
+    private static final long EMPTY_SLICE_BYTES = 64;
+
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final long maxBytes;
+    private final long finishDelayMillis;
+    private final long lateWriteWindowMillis;
+    private final long recentSliceTtlMillis;
+
+    // guarded by this
+    private final LinkedHashMap<SliceKey, Slice> sliceMap = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes = 0;
+
+    @Autowired
+    public MapStatisticsSliceCache(@Value("#{pinpointWebProps['web.servermap.sliceCache.maxBytes'] ?: 67108864}") long maxBytes,
+                                   @Value("#{pinpointWebProps['web.servermap.sliceCache.finishDelayMillis'] ?: 60000}") long finishDelayMillis,
+                                   @Value("#{pinpointWebProps['web.servermap.sliceCache.lateWriteWindowMillis'] ?: 900000}") long lateWriteWindowMillis,
+                                   @Value("#{pinpointWebProps['web.servermap.sliceCache.recentSliceTtlMillis'] ?: 60000}") long recentSliceTtlMillis) {
+        this.maxBytes = maxBytes;
+        if (finishDelayMillis < 0) {
+            throw new IllegalArgumentException("negative finishDelayMillis:" + finishDelayMillis);
+        }
+        this.finishDelayMillis = finishDelayMillis;
+        if (lateWriteWindowMillis < 0) {
+            throw new IllegalArgumentException("negative lateWriteWindowMillis:" + lateWriteWindowMillis);
+        }
+        this.lateWriteWindowMillis = lateWriteWindowMillis;
+        if (recentSliceTtlMillis < 0) {
+            throw new IllegalArgumentException("negative recentSliceTtlMillis:" + recentSliceTtlMillis);
+        }
+        this.recentSliceTtlMillis = recentSliceTtlMillis;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Ranges over an hour are down sampled above a minute, so reading them minute by minute on a cold cache
+     * would take many scans instead of one. Those ranges should be read without the cache.
+     */
+    public boolean isCacheable(Range range) {
+        Objects.requireNonNull(range, "range must not be null");
+        return isEnabled() && range.getRange() <= MAX_CACHEABLE_RANGE;
+    }
+
+    /**
+     * @return slices covering every minute of the range, minutes without data left out
+     */
+    public <V> List<V> getSlices(SliceType sliceType, Application application, Range range, SliceLoader<V> sliceLoader) {
+        return getSlices(sliceType, application, range, sliceLoader, System.currentTimeMillis());
+    }
+
+    <V> List<V> getSlices(SliceType sliceType, Application application, Range range, SliceLoader<V> sliceLoader, long currentTimeMillis) {
+        Objects.requireNonNull(sliceType, "sliceType must not be null");
+        Objects.requireNonNull(application, "application must not be null");
+        Objects.requireNonNull(range, "range must not be null");
+        Objects.requireNonNull(sliceLoader, "sliceLoader must not be null");
+
+        final long fromMinute = getMinute(range.getFrom());
+        final long toMinute = getMinute(range.getTo());
+        // minutes before this one are finished
+        final long unfinishedMinute = getMinute(currentTimeMillis - finishDelayMillis);
+
+        final List<V> slices = new ArrayList<>();
+        long scanFromMinute = -1;
+        for (long minute = fromMinute; minute <= toMinute; minute += ONE_MINUTE) {
+            if (minute < unfinishedMinute) {
+                final Object cached = get(new SliceKey(sliceType, application, minute), currentTimeMillis);
+                if (cached != null) {
+                    if (scanFromMinute != -1) {
+                        scan(sliceType, application, scanFromMinute, minute - ONE_MINUTE, unfinishedMinute, currentTimeMillis, sliceLoader, slices);
+                        scanFromMinute = -1;
+                    }
+                    if (cached != EMPTY_SLICE) {
+                        @SuppressWarnings("unchecked")
+                        final V slice = (V) cached;
+                        slices.add(slice);
+                    }
+                    continue;
+                }
+            }
+            if (scanFromMinute == -1) {
+                scanFromMinute = minute;
+            } else if (minute - scanFromMinute >= MAX_SCAN_MINUTES * ONE_MINUTE) {
+                scan(sliceType, application, scanFromMinute, minute - ONE_MINUTE, unfinishedMinute, currentTimeMillis, sliceLoader, slices);
+                scanFromMinute = minute;
+            }
+        }
+        if (scanFromMinute != -1) {
+            scan(sliceType, application, scanFromMinute, toMinute, unfinishedMinute, currentTimeMillis, sliceLoader, slices);
+        }
+        return slices;
+    }
+
+    private <V> void scan(SliceType sliceType, Application application, long fromMinute, long toMinute, long unfinishedMinute,
+                          long currentTimeMillis, SliceLoader<V> sliceLoader, List<V> slices) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("scan {} slices of {}, {}", sliceType, application, new Range(fromMinute, toMinute).prettyToString());
+        }
+        final Map<Long, V> loaded = sliceLoader.load(application, new Range(fromMinute, toMinute));
+        // minutes from this one on may still receive late writes
+        final long lateWriteMinute = getMinute(currentTimeMillis - finishDelayMillis - lateWriteWindowMillis);
+        final long recentExpireTime = currentTimeMillis + recentSliceTtlMillis;
+        for (long minute = fromMinute; minute <= toMinute; minute += ONE_MINUTE) {
+            final V slice = loaded.get(minute);
+            if (slice != null) {
+                slices.add(slice);
+            }
+            if (minute < unfinishedMinute) {
+                if (slice != null) {
+                    final long expireTime = minute < lateWriteMinute ? Long.MAX_VALUE : recentExpireTime;
+                    put(new SliceKey(sliceType, application, minute), slice, sliceLoader.estimateBytes(slice), expireTime);
+                } else {
+                    put(new SliceKey(sliceType, application, minute), EMPTY_SLICE, EMPTY_SLICE_BYTES, recentExpireTime);
+                }
+            }
+        }
+    }
+
+    private static long getMinute(long time) {
+        return (time / ONE_MINUTE) * ONE_MINUTE;
+    }
+
+    private synchronized Object get(SliceKey key, long currentTimeMillis) {
+        final Slice slice = sliceMap.get(key);
+        if (slice == null) {
+            return null;
+        }
+        if (slice.expireTime <= currentTimeMillis) {
+            sliceMap.remove(key);
+            totalBytes -= slice.bytes;
+            return null;
+        }
+        return slice.value;
+    }
+
+    private synchronized void put(SliceKey key, Object value, long bytes, long expireTime) {
+        if (bytes > maxBytes) {
+            return;
+        }
+        final Slice before = sliceMap.put(key, new Slice(value, bytes, expireTime));
+        if (before != null) {
+            totalBytes -= before.bytes;
+        }
+        totalBytes += bytes;
+
+        final Iterator<Slice> iterator = sliceMap.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            final Slice eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.bytes;
+        }
+    }
+
+    synchronized int size() {
+        return sliceMap.size();
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private static class Slice {
+        private final Object value;
+        private final long bytes;
+        private final long expireTime;
+
+        private Slice(Object value, long bytes, long expireTime) {
+            this.value = value;
+            this.bytes = bytes;
+            this.expireTime = expireTime;
+        }
+    }
+
+    private static class SliceKey {
+        private final SliceType sliceType;
+        private final Application application;
+        private final long minute;
+
+        private SliceKey(SliceType sliceType, Application application, long minute) {
+            this.sliceType = sliceType;
+            this.application = application;
+            this.minute = minute;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            SliceKey sliceKey = (SliceKey) o;
+
+            if (minute != sliceKey.minute) return false;
+            if (sliceType != sliceKey.sliceType) return false;
+            return application.equals(sliceKey.application);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = sliceType.hashCode();
+            result = 31 * result + application.hashCode();
+            result = 31 * result + (int) (minute ^ (minute >>> 32));
+            return result;
+        }
+    }
+}
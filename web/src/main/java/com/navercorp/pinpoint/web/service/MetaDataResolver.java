@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.server.bo.ApiMetaDataBo;
+import com.navercorp.pinpoint.common.server.bo.SqlMetaDataBo;
+import com.navercorp.pinpoint.common.server.bo.StringMetaDataBo;
+import com.navercorp.pinpoint.web.dao.ApiMetaDataDao;
+import com.navercorp.pinpoint.web.dao.SqlMetaDataDao;
+import com.navercorp.pinpoint.web.dao.StringMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Resolves the metadata referenced by a call stack with a single multi-get per metadata table.
+ * <p>
+ * Keys are collected from every align first, then looked up in the shared metadata caches, and only the misses are
+ * fetched from HBase. Metadata that is not found is not put in the shared caches, as it may still be on its way from
+ * the agent. Keys that were not collected beforehand fall back to a single get.
+ * Not thread safe, a resolver is meant to be used for a single request.
+ */
+class MetaDataResolver {
+
+    // same cache and key as HbaseApiMetaDataDao.getApiMetaData()
+    static final String API_META_DATA_CACHE = "apiMetaData";
+    static final String SQL_META_DATA_CACHE = "sqlMetaData";
+    static final String STRING_META_DATA_CACHE = "stringMetaData";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ApiMetaDataDao apiMetaDataDao;
+    private final SqlMetaDataDao sqlMetaDataDao;
+    private final StringMetaDataDao stringMetaDataDao;
+
+    private final Cache apiMetaDataCache;
+    private final Cache sqlMetaDataCache;
+    private final Cache stringMetaDataCache;
+
+    private final Set<MetaDataKey> apiKeys = new LinkedHashSet<>();
+    private final Set<MetaDataKey> sqlKeys = new LinkedHashSet<>();
+    private final Set<MetaDataKey> stringKeys = new LinkedHashSet<>();
+
+    private final Map<MetaDataKey, List<ApiMetaDataBo>> apiMetaDataMap = new HashMap<>();
+    private final Map<MetaDataKey, List<SqlMetaDataBo>> sqlMetaDataMap = new HashMap<>();
+    private final Map<MetaDataKey, List<StringMetaDataBo>> stringMetaDataMap = new HashMap<>();
+
+    MetaDataResolver(ApiMetaDataDao apiMetaDataDao, SqlMetaDataDao sqlMetaDataDao, StringMetaDataDao stringMetaDataDao, CacheManager cacheManager) {
+        this.apiMetaDataDao = Objects.requireNonNull(apiMetaDataDao, "apiMetaDataDao must not be null");
+        this.sqlMetaDataDao = Objects.requireNonNull(sqlMetaDataDao, "sqlMetaDataDao must not be null");
+        this.stringMetaDataDao = Objects.requireNonNull(stringMetaDataDao, "stringMetaDataDao must not be null");
+        this.apiMetaDataCache = getCache(cacheManager, API_META_DATA_CACHE);
+        this.sqlMetaDataCache = getCache(cacheManager, SQL_META_DATA_CACHE);
+        this.stringMetaDataCache = getCache(cacheManager, STRING_META_DATA_CACHE);
+    }
+
+    private static Cache getCache(CacheManager cacheManager, String name) {
+        if (cacheManager == null) {
+            return null;
+        }
+        return cacheManager.getCache(name);
+    }
+
+    void addApiId(String agentId, long agentStartTime, int apiId) {
+        apiKeys.add(new MetaDataKey(agentId, agentStartTime, apiId));
+    }
+
+    void addSqlId(String agentId, long agentStartTime, int sqlId) {
+        sqlKeys.add(new MetaDataKey(agentId, agentStartTime, sqlId));
+    }
+
+    void addStringId(String agentId, long agentStartTime, int stringId) {
+        stringKeys.add(new MetaDataKey(agentId, agentStartTime, stringId));
+    }
+
+    void resolve() {
+        resolve(apiKeys, apiMetaDataCache, apiMetaDataMap, new MetaDataLoader<ApiMetaDataBo>() {
+            @Override
+            public Map<MetaDataKey, List<ApiMetaDataBo>> load(Collection<MetaDataKey> keys) {
+                return apiMetaDataDao.getApiMetaData(keys);
+            }
+        });
+        resolve(sqlKeys, sqlMetaDataCache, sqlMetaDataMap, new MetaDataLoader<SqlMetaDataBo>() {
+            @Override
+            public Map<MetaDataKey, List<SqlMetaDataBo>> load(Collection<MetaDataKey> keys) {
+                return sqlMetaDataDao.getSqlMetaData(keys);
+            }
+        });
+        resolve(stringKeys, stringMetaDataCache, stringMetaDataMap, new MetaDataLoader<StringMetaDataBo>() {
+            @Override
+            public Map<MetaDataKey, List<StringMetaDataBo>> load(Collection<MetaDataKey> keys) {
+                return stringMetaDataDao.getStringMetaData(keys);
+            }
+        });
+    }
+
+    private <T> void resolve(Set<MetaDataKey> keys, Cache cache, Map<MetaDataKey, List<T>> resolved, MetaDataLoader<T> loader) {
+        final List<MetaDataKey> missingKeys = new ArrayList<>();
+        for (MetaDataKey key : keys) {
+            if (resolved.containsKey(key)) {
+                continue;
+            }
+            final List<T> cached = getCached(cache, key);
+            if (cached != null) {
+                resolved.put(key, cached);
+            } else {
+                missingKeys.add(key);
+            }
+        }
+        final int requested = keys.size();
+        keys.clear();
+        if (missingKeys.isEmpty()) {
+            return;
+        }
+
+        final Map<MetaDataKey, List<T>> loaded = loader.load(missingKeys);
+        for (MetaDataKey key : missingKeys) {
+            final List<T> metaDataList = loaded.get(key);
+            if (metaDataList == null || metaDataList.isEmpty()) {
+                resolved.put(key, Collections.<T>emptyList());
+                continue;
+            }
+            resolved.put(key, metaDataList);
+            if (cache != null) {
+                cache.put(toCacheKey(key), metaDataList);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} keys:{} fetched:{}", cache != null ? cache.getName() : "metadata", requested, missingKeys.size());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> getCached(Cache cache, MetaDataKey key) {
+        if (cache == null) {
+            return null;
+        }
+        final Cache.ValueWrapper valueWrapper = cache.get(toCacheKey(key));
+        if (valueWrapper == null) {
+            return null;
+        }
+        return (List<T>) valueWrapper.get();
+    }
+
+    private String toCacheKey(MetaDataKey key) {
+        // agentId.time.id, as HbaseApiMetaDataDao.SPEL_KEY
+        return key.toString();
+    }
+
+    List<ApiMetaDataBo> getApiMetaData(String agentId, long agentStartTime, int apiId) {
+        final List<ApiMetaDataBo> apiMetaDataList = apiMetaDataMap.get(new MetaDataKey(agentId, agentStartTime, apiId));
+        if (apiMetaDataList != null) {
+            return apiMetaDataList;
+        }
+        return apiMetaDataDao.getApiMetaData(agentId, agentStartTime, apiId);
+    }
+
+    List<SqlMetaDataBo> getSqlMetaData(String agentId, long agentStartTime, int sqlId) {
+        final List<SqlMetaDataBo> sqlMetaDataList = sqlMetaDataMap.get(new MetaDataKey(agentId, agentStartTime, sqlId));
+        if (sqlMetaDataList != null) {
+            return sqlMetaDataList;
+        }
+        return sqlMetaDataDao.getSqlMetaData(agentId, agentStartTime, sqlId);
+    }
+
+    List<StringMetaDataBo> getStringMetaData(String agentId, long agentStartTime, int stringId) {
+        final List<StringMetaDataBo> stringMetaDataList = stringMetaDataMap.get(new MetaDataKey(agentId, agentStartTime, stringId));
+        if (stringMetaDataList != null) {
+            return stringMetaDataList;
+        }
+        return stringMetaDataDao.getStringMetaData(agentId, agentStartTime, stringId);
+    }
+
+    private interface MetaDataLoader<T> {
+        Map<MetaDataKey, List<T>> load(Collection<MetaDataKey> keys);
+    }
+}
@@ -81,6 +81,9 @@ public class ResponseTimeHistogramServiceImpl implements ResponseTimeHistogramSe
     @Autowired
     private MapResponseDao mapResponseDao;
 
+    @Autowired
+    private MapStatisticsSliceCache mapStatisticsSliceCache;
+
     @Autowired
     private ApplicationFactory applicationFactory;
 
@@ -93,6 +96,7 @@ public class ResponseTimeHistogramServiceImpl implements ResponseTimeHistogramSe
         ServerInstanceListDataSource serverInstanceListDataSource = new AgentInfoServerInstanceListDataSource(agentInfoService);
         serverInstanceListFactory = new DefaultServerInstanceListFactory(serverInstanceListDataSource);
 
+        mapResponseDao = new CachedMapResponseDao(mapResponseDao, mapStatisticsSliceCache);
         WasNodeHistogramDataSource wasNodeHistogramDataSource = new MapResponseNodeHistogramDataSource(mapResponseDao);
         nodeHistogramFactory = new DefaultNodeHistogramFactory(wasNodeHistogramDataSource);
     }
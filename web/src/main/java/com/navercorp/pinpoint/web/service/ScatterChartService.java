@@ -19,7 +19,8 @@ package com.navercorp.pinpoint.web.service;
 import com.navercorp.pinpoint.common.server.bo.SpanBo;
 import com.navercorp.pinpoint.common.util.TransactionId;
 import com.navercorp.pinpoint.web.filter.Filter;
-import com.navercorp.pinpoint.web.scatter.ScatterData;
+import com.navercorp.pinpoint.web.scatter.ColumnarScatterData;
+import com.navercorp.pinpoint.web.scatter.ScatterDensity;
 import com.navercorp.pinpoint.web.vo.GetTraceInfo;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
@@ -61,8 +62,15 @@ public interface ScatterChartService {
 //  List<TransactionId> selectScatterTraceIdList(String applicationName, long from, long to, int limit);
     List<SpanBo> selectTransactionMetadata(List<GetTraceInfo> getTraceInfoList);
 
-    ScatterData selectScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean backwardDirection);
+    ColumnarScatterData selectScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean backwardDirection);
 
-    ScatterData selectScatterData(List<TransactionId> transactionIdList, String applicationName, Range range, int xGroupUnit, int yGroupUnit, Filter filter);
+    ColumnarScatterData selectScatterData(List<TransactionId> transactionIdList, String applicationName, Range range, int xGroupUnit, int yGroupUnit, Filter filter);
+
+    /**
+     * @return true if the range is wide enough to draw the scatter chart from the pre-aggregated counts
+     */
+    boolean isScatterDensityRange(Range range);
+
+    ScatterDensity selectScatterDensity(String applicationName, Range range, int xGroupUnit);
 
 }
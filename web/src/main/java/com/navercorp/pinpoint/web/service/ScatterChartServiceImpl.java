@@ -18,10 +18,12 @@ package com.navercorp.pinpoint.web.service;
 
 import com.navercorp.pinpoint.common.server.bo.SpanBo;
 import com.navercorp.pinpoint.common.util.TransactionId;
+import com.navercorp.pinpoint.web.dao.ApplicationScatterDao;
 import com.navercorp.pinpoint.web.dao.ApplicationTraceIndexDao;
 import com.navercorp.pinpoint.web.dao.TraceDao;
 import com.navercorp.pinpoint.web.filter.Filter;
-import com.navercorp.pinpoint.web.scatter.ScatterData;
+import com.navercorp.pinpoint.web.scatter.ColumnarScatterData;
+import com.navercorp.pinpoint.web.scatter.ScatterDensity;
 import com.navercorp.pinpoint.web.vo.GetTraceInfo;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.SelectedScatterArea;
@@ -31,10 +33,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author netspider
@@ -52,6 +56,13 @@ public class ScatterChartServiceImpl implements ScatterChartService {
     @Qualifier("hbaseTraceDaoFactory")
     private TraceDao traceDao;
 
+    @Autowired
+    private ApplicationScatterDao applicationScatterDao;
+
+    // 0 or less to always draw dots. the counts are written only by collectors with collector.applicationScatter.enable=true
+    @Value("#{pinpointWebProps['web.scatter.density.minRange.minutes'] ?: 0}")
+    private int scatterDensityMinRangeMinutes;
+
     @Override
     public List<Dot> selectScatterData(String applicationName, SelectedScatterArea area, TransactionId offsetTransactionId, int offsetTransactionElapsed, int limit) {
         if (applicationName == null) {
@@ -116,7 +127,7 @@ public class ScatterChartServiceImpl implements ScatterChartService {
     }
 
     @Override
-    public ScatterData selectScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean backwardDirection) {
+    public ColumnarScatterData selectScatterData(String applicationName, Range range, int xGroupUnit, int yGroupUnit, int limit, boolean backwardDirection) {
         if (applicationName == null) {
             throw new NullPointerException("applicationName must not be null");
         }
@@ -127,7 +138,7 @@ public class ScatterChartServiceImpl implements ScatterChartService {
     }
 
     @Override
-    public ScatterData selectScatterData(List<TransactionId> transactionIdList, String applicationName, Range range, int xGroupUnit, int yGroupUnit, Filter filter) {
+    public ColumnarScatterData selectScatterData(List<TransactionId> transactionIdList, String applicationName, Range range, int xGroupUnit, int yGroupUnit, Filter filter) {
         if (transactionIdList == null) {
             throw new NullPointerException("transactionIdList must not be null");
         }
@@ -140,7 +151,7 @@ public class ScatterChartServiceImpl implements ScatterChartService {
 
         final List<List<SpanBo>> traceList = traceDao.selectAllSpans(transactionIdList);
 
-        ScatterData scatterData = new ScatterData(range.getFrom(), range.getTo(), xGroupUnit, yGroupUnit);
+        ColumnarScatterData scatterData = new ColumnarScatterData(range.getFrom(), range.getTo(), xGroupUnit, yGroupUnit);
         for (List<SpanBo> trace : traceList) {
             if (!filter.include(trace)) {
                 continue;
@@ -149,8 +160,7 @@ public class ScatterChartServiceImpl implements ScatterChartService {
             for (SpanBo span : trace) {
                 if (applicationName.equals(span.getApplicationId())) {
                     final TransactionId transactionId = span.getTransactionId();
-                    final Dot dot = new Dot(transactionId, span.getCollectorAcceptTime(), span.getElapsed(), span.getErrCode(), span.getAgentId());
-                    scatterData.addDot(dot);
+                    scatterData.addDot(transactionId, span.getCollectorAcceptTime(), span.getElapsed(), span.getErrCode(), span.getAgentId());
                 }
             }
         }
@@ -158,4 +168,26 @@ public class ScatterChartServiceImpl implements ScatterChartService {
         return scatterData;
     }
 
+    @Override
+    public boolean isScatterDensityRange(Range range) {
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        if (scatterDensityMinRangeMinutes <= 0) {
+            return false;
+        }
+        return range.getRange() >= TimeUnit.MINUTES.toMillis(scatterDensityMinRangeMinutes);
+    }
+
+    @Override
+    public ScatterDensity selectScatterDensity(String applicationName, Range range, int xGroupUnit) {
+        if (applicationName == null) {
+            throw new NullPointerException("applicationName must not be null");
+        }
+        if (range == null) {
+            throw new NullPointerException("range must not be null");
+        }
+        return applicationScatterDao.selectScatterDensity(applicationName, range, xGroupUnit);
+    }
+
 }
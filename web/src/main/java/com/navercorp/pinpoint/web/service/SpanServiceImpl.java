@@ -51,6 +51,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.CacheManager;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -84,6 +85,9 @@ public class SpanServiceImpl implements SpanService {
     @Autowired
     private ServiceTypeRegistryService serviceTypeRegistryService;
 
+    @Autowired(required = false)
+    private CacheManager cacheManager;
+
     private final SqlParser sqlParser = new DefaultSqlParser();
     private final OutputParameterParser outputParameterParser = new OutputParameterParser();
 
@@ -106,16 +110,51 @@ public class SpanServiceImpl implements SpanService {
         final CallTreeIterator callTreeIterator = result.getCallTree();
         final List<Align> values = callTreeIterator.values();
 
-        transitionDynamicApiId(values);
-        transitionSqlId(values);
+        final MetaDataResolver metaDataResolver = new MetaDataResolver(apiMetaDataDao, sqlMetaDataDao, stringMetaDataDao, cacheManager);
+        collectMetaDataKeys(values, metaDataResolver);
+        metaDataResolver.resolve();
+
+        transitionDynamicApiId(values, metaDataResolver);
+        transitionSqlId(values, metaDataResolver);
         transitionMongoJson(values);
-        transitionCachedString(values);
-        transitionException(values);
+        transitionCachedString(values, metaDataResolver);
+        transitionException(values, metaDataResolver);
         // TODO need to at least show the row data when root span is not found. 
         return result;
     }
 
 
+    private void collectMetaDataKeys(List<Align> alignList, MetaDataResolver metaDataResolver) {
+        for (Align align : alignList) {
+            final String agentId = align.getAgentId();
+            final long agentStartTime = align.getAgentStartTime();
+            final List<AnnotationBo> annotationBoList = align.getAnnotationBoList();
+
+            final int apiId = align.getApiId();
+            if (apiId != 0 || AnnotationUtils.findApiAnnotation(annotationBoList) == null) {
+                metaDataResolver.addApiId(agentId, agentStartTime, apiId);
+            }
+            if (align.hasException()) {
+                metaDataResolver.addStringId(agentId, agentStartTime, align.getExceptionId());
+            }
+            if (annotationBoList == null) {
+                continue;
+            }
+            for (AnnotationBo annotationBo : annotationBoList) {
+                final int key = annotationBo.getKey();
+                if (key == AnnotationKey.SQL_ID.getCode()) {
+                    if (metaDataFilter != null && metaDataFilter.filter(align, MetaData.SQL)) {
+                        continue;
+                    }
+                    final IntStringStringValue sqlValue = (IntStringStringValue) annotationBo.getValue();
+                    metaDataResolver.addSqlId(agentId, agentStartTime, sqlValue.getIntValue());
+                } else if (AnnotationKeyUtils.isCachedArgsKey(key)) {
+                    metaDataResolver.addStringId(agentId, agentStartTime, (Integer) annotationBo.getValue());
+                }
+            }
+        }
+    }
+
     private void transitionAnnotation(List<Align> spans, AnnotationReplacementCallback annotationReplacementCallback) {
         for (Align align : spans) {
             List<AnnotationBo> annotationBoList = align.getAnnotationBoList();
@@ -127,7 +166,7 @@ public class SpanServiceImpl implements SpanService {
         }
     }
 
-    private void transitionSqlId(final List<Align> spans) {
+    private void transitionSqlId(final List<Align> spans, final MetaDataResolver metaDataResolver) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(Align align, List<AnnotationBo> annotationBoList) {
@@ -145,7 +184,7 @@ public class SpanServiceImpl implements SpanService {
                 final IntStringStringValue sqlValue = (IntStringStringValue) sqlIdAnnotation.getValue();
                 final int sqlId = sqlValue.getIntValue();
                 final String sqlParam = sqlValue.getStringValue1();
-                final List<SqlMetaDataBo> sqlMetaDataList = sqlMetaDataDao.getSqlMetaData(align.getAgentId(), align.getAgentStartTime(), sqlId);
+                final List<SqlMetaDataBo> sqlMetaDataList = metaDataResolver.getSqlMetaData(align.getAgentId(), align.getAgentStartTime(), sqlId);
                 final int size = sqlMetaDataList.size();
                 if (size == 0) {
                     String errorMessage = "SQL-ID not found sqlId:" + sqlId;
@@ -271,7 +310,7 @@ public class SpanServiceImpl implements SpanService {
     }
 
 
-    private void transitionDynamicApiId(List<Align> spans) {
+    private void transitionDynamicApiId(List<Align> spans, final MetaDataResolver metaDataResolver) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(Align align, List<AnnotationBo> annotationBoList) {
@@ -293,7 +332,7 @@ public class SpanServiceImpl implements SpanService {
                 }
 
                 // may be able to get a more accurate data using agentIdentifier.
-                List<ApiMetaDataBo> apiMetaDataList = apiMetaDataDao.getApiMetaData(align.getAgentId(), align.getAgentStartTime(), apiId);
+                List<ApiMetaDataBo> apiMetaDataList = metaDataResolver.getApiMetaData(align.getAgentId(), align.getAgentStartTime(), apiId);
                 int size = apiMetaDataList.size();
                 if (size == 0) {
                     String errorMessage = "API-DynamicID not found. api:" + apiId;
@@ -324,7 +363,7 @@ public class SpanServiceImpl implements SpanService {
         });
     }
 
-    private void transitionCachedString(List<Align> spans) {
+    private void transitionCachedString(List<Align> spans, final MetaDataResolver metaDataResolver) {
         this.transitionAnnotation(spans, new AnnotationReplacementCallback() {
             @Override
             public void replacement(Align align, List<AnnotationBo> annotationBoList) {
@@ -336,7 +375,7 @@ public class SpanServiceImpl implements SpanService {
                 for (AnnotationBo annotationBo : cachedStringAnnotation) {
                     final int cachedArgsKey = annotationBo.getKey();
                     int stringMetaDataId = (Integer) annotationBo.getValue();
-                    List<StringMetaDataBo> stringMetaList = stringMetaDataDao.getStringMetaData(align.getAgentId(), align.getAgentStartTime(), stringMetaDataId);
+                    List<StringMetaDataBo> stringMetaList = metaDataResolver.getStringMetaData(align.getAgentId(), align.getAgentStartTime(), stringMetaDataId);
                     int size = stringMetaList.size();
                     if (size == 0) {
                         logger.warn("StringMetaData not Found {}/{}/{}", align.getAgentId(), stringMetaDataId, align.getAgentStartTime());
@@ -369,18 +408,18 @@ public class SpanServiceImpl implements SpanService {
         return findAnnotationBoList;
     }
 
-    private void transitionException(List<Align> alignList) {
+    private void transitionException(List<Align> alignList, MetaDataResolver metaDataResolver) {
         for (Align align : alignList) {
             if (align.hasException()) {
-                StringMetaDataBo stringMetaData = selectStringMetaData(align.getAgentId(), align.getExceptionId(), align.getAgentStartTime());
+                StringMetaDataBo stringMetaData = selectStringMetaData(metaDataResolver, align.getAgentId(), align.getExceptionId(), align.getAgentStartTime());
                 align.setExceptionClass(stringMetaData.getStringValue());
             }
         }
 
     }
 
-    private StringMetaDataBo selectStringMetaData(String agentId, int cacheId, long agentStartTime) {
-        final List<StringMetaDataBo> metaDataList = stringMetaDataDao.getStringMetaData(agentId, agentStartTime, cacheId);
+    private StringMetaDataBo selectStringMetaData(MetaDataResolver metaDataResolver, String agentId, int cacheId, long agentStartTime) {
+        final List<StringMetaDataBo> metaDataList = metaDataResolver.getStringMetaData(agentId, agentStartTime, cacheId);
         if (CollectionUtils.isEmpty(metaDataList)) {
             logger.warn("StringMetaData not Found agent:{}, cacheId{}, agentStartTime:{}", agentId, cacheId, agentStartTime);
             StringMetaDataBo stringMetaDataBo = new StringMetaDataBo(agentId, agentStartTime, cacheId);
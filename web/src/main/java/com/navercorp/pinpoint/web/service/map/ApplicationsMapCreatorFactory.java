@@ -16,12 +16,16 @@
 
 package com.navercorp.pinpoint.web.service.map;
 
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.service.LinkDataMapService;
+import com.navercorp.pinpoint.web.vo.Range;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
 
 /**
  * @author HyunGil Jeong
@@ -31,12 +35,20 @@ public class ApplicationsMapCreatorFactory {
 
     private final Executor executor;
 
+    private final Executor prefetchExecutor;
+
     @Autowired
-    public ApplicationsMapCreatorFactory(@Qualifier("applicationsMapCreateExecutor") Executor executor) {
+    public ApplicationsMapCreatorFactory(@Qualifier("applicationsMapCreateExecutor") Executor executor,
+                                         @Qualifier("linkDataMapPrefetchExecutor") Executor prefetchExecutor) {
         this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.prefetchExecutor = Objects.requireNonNull(prefetchExecutor, "prefetchExecutor must not be null");
     }
 
     public ApplicationsMapCreator create(ApplicationMapCreator applicationMapCreator) {
         return new DefaultApplicationsMapCreator(applicationMapCreator, executor);
     }
+
+    public PrefetchLinkDataMapService createPrefetchLinkDataMapService(LinkDataMapService linkDataMapService, BiConsumer<LinkDataMap, Range> callerLinkDataMapListener) {
+        return new PrefetchLinkDataMapService(linkDataMapService, prefetchExecutor, PrefetchLinkDataMapService.DEFAULT_MAX_SIZE, callerLinkDataMapListener);
+    }
 }
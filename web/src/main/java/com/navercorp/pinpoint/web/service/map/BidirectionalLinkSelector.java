@@ -45,38 +45,58 @@ public class BidirectionalLinkSelector implements LinkSelector {
 
     private final ServerMapDataFilter serverMapDataFilter;
 
+    private final LinkDataMapPrefetcher linkDataMapPrefetcher;
+
     private final LinkVisitChecker linkVisitChecker = new LinkVisitChecker();
 
+    private final List<LinkSelectTiming> linkSelectTimings = new ArrayList<>();
+
     BidirectionalLinkSelector(
             ApplicationsMapCreator applicationsMapCreator,
             VirtualLinkHandler virtualLinkHandler,
-            ServerMapDataFilter serverMapDataFilter) {
+            ServerMapDataFilter serverMapDataFilter,
+            LinkDataMapPrefetcher linkDataMapPrefetcher) {
         if (applicationsMapCreator == null) {
             throw new NullPointerException("applicationsMapCreator must not be null");
         }
         if (virtualLinkHandler == null) {
             throw new NullPointerException("virtualLinkHandler must not be null");
         }
+        if (linkDataMapPrefetcher == null) {
+            throw new NullPointerException("linkDataMapPrefetcher must not be null");
+        }
         this.applicationsMapCreator = applicationsMapCreator;
         this.virtualLinkHandler = virtualLinkHandler;
         this.serverMapDataFilter = serverMapDataFilter;
+        this.linkDataMapPrefetcher = linkDataMapPrefetcher;
     }
 
     @Override
     public LinkDataDuplexMap select(List<Application> sourceApplications, Range range, int callerSearchDepth, int calleeSearchDepth) {
+        try {
+            return selectLinks(sourceApplications, range, callerSearchDepth, calleeSearchDepth);
+        } finally {
+            linkDataMapPrefetcher.cancelPrefetches();
+        }
+    }
+
+    private LinkDataDuplexMap selectLinks(List<Application> sourceApplications, Range range, int callerSearchDepth, int calleeSearchDepth) {
         logger.debug("Creating link data map for {}", sourceApplications);
         final SearchDepth callerDepth = new SearchDepth(callerSearchDepth);
         final SearchDepth calleeDepth = new SearchDepth(calleeSearchDepth);
 
         LinkDataDuplexMap linkDataDuplexMap = new LinkDataDuplexMap();
         List<Application> applications = filterApplications(sourceApplications);
-        LinkSelectContext linkSelectContext = new LinkSelectContext(range, callerDepth, calleeDepth, linkVisitChecker);
+        LinkSelectContext linkSelectContext = new LinkSelectContext(range, callerDepth, calleeDepth, linkVisitChecker, linkDataMapPrefetcher);
 
         while (!applications.isEmpty()) {
 
             logger.info("depth search start. callerDepth:{}, calleeDepth:{}, size:{}, nodes:{}", linkSelectContext.getCallerDepth(), linkSelectContext.getCalleeDepth(), applications.size(), applications);
+            final long start = System.currentTimeMillis();
             LinkDataDuplexMap levelData = applicationsMapCreator.createLinkDataDuplexMap(applications, linkSelectContext);
-            logger.info("depth search end. callerDepth:{}, calleeDepth:{}", linkSelectContext.getCallerDepth(), linkSelectContext.getCalleeDepth());
+            final long elapsed = System.currentTimeMillis() - start;
+            linkSelectTimings.add(new LinkSelectTiming(LinkSelectTiming.BIDIRECTIONAL, linkSelectContext.getCallerDepth(), applications.size(), elapsed));
+            logger.info("depth search end. callerDepth:{}, calleeDepth:{}, elapsed:{}ms", linkSelectContext.getCallerDepth(), linkSelectContext.getCalleeDepth(), elapsed);
 
             linkDataDuplexMap.addLinkDataDuplexMap(levelData);
 
@@ -87,6 +107,11 @@ public class BidirectionalLinkSelector implements LinkSelector {
         return virtualLinkHandler.processVirtualLinks(linkDataDuplexMap, linkVisitChecker, range);
     }
 
+    @Override
+    public List<LinkSelectTiming> getLinkSelectTimings() {
+        return linkSelectTimings;
+    }
+
     private List<Application> filterApplications(List<Application> applications) {
         if (serverMapDataFilter == null) {
             return applications;
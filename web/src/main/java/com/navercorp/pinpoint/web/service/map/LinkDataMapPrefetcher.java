@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+
+/**
+ * Starts fetching link data of an application that the next depth is going to search,
+ * without waiting for the current depth to finish.
+ */
+public interface LinkDataMapPrefetcher {
+
+    void prefetchCallerLinkDataMap(Application application, Range range);
+
+    void prefetchCalleeLinkDataMap(Application application, Range range);
+
+    /**
+     * Drops prefetches the search did not ask for. Called once the search is over.
+     */
+    void cancelPrefetches();
+
+    LinkDataMapPrefetcher NO_OP = new LinkDataMapPrefetcher() {
+        @Override
+        public void prefetchCallerLinkDataMap(Application application, Range range) {
+        }
+
+        @Override
+        public void prefetchCalleeLinkDataMap(Application application, Range range) {
+        }
+
+        @Override
+        public void cancelPrefetches() {
+        }
+    };
+}
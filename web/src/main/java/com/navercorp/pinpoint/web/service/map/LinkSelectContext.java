@@ -38,10 +38,15 @@ public class LinkSelectContext {
     private final SearchDepth callerDepth;
     private final SearchDepth calleeDepth;
     private final LinkVisitChecker linkVisitChecker;
+    private final LinkDataMapPrefetcher linkDataMapPrefetcher;
 
     private final Set<Application> nextApplications = Sets.newConcurrentHashSet();
 
     public LinkSelectContext(Range range, SearchDepth callerDepth, SearchDepth calleeDepth, LinkVisitChecker linkVisitChecker) {
+        this(range, callerDepth, calleeDepth, linkVisitChecker, LinkDataMapPrefetcher.NO_OP);
+    }
+
+    public LinkSelectContext(Range range, SearchDepth callerDepth, SearchDepth calleeDepth, LinkVisitChecker linkVisitChecker, LinkDataMapPrefetcher linkDataMapPrefetcher) {
         if (range == null) {
             throw new NullPointerException("range must not be null");
         }
@@ -54,10 +59,14 @@ public class LinkSelectContext {
         if (linkVisitChecker == null) {
             throw new NullPointerException("linkVisitChecker must not be null");
         }
+        if (linkDataMapPrefetcher == null) {
+            throw new NullPointerException("linkDataMapPrefetcher must not be null");
+        }
         this.range = range;
         this.callerDepth = callerDepth;
         this.calleeDepth = calleeDepth;
         this.linkVisitChecker = linkVisitChecker;
+        this.linkDataMapPrefetcher = linkDataMapPrefetcher;
     }
 
     public Range getRange() {
@@ -105,13 +114,25 @@ public class LinkSelectContext {
         final boolean add = this.nextApplications.add(application);
         if (!add) {
             logger.debug("already added. nextNode:{}", application);
+            return;
+        }
+        prefetchNextApplication(application);
+    }
+
+    private void prefetchNextApplication(Application application) {
+        // start scanning the next depth as soon as it is found, instead of waiting for the slowest one of this depth
+        if (!callerDepth.nextDepth().isDepthOverflow() && !linkVisitChecker.isVisitedCaller(application)) {
+            linkDataMapPrefetcher.prefetchCallerLinkDataMap(application, range);
+        }
+        if (!calleeDepth.nextDepth().isDepthOverflow() && !linkVisitChecker.isVisitedCallee(application)) {
+            linkDataMapPrefetcher.prefetchCalleeLinkDataMap(application, range);
         }
     }
 
     public LinkSelectContext advance() {
         SearchDepth nextCallerDepth = callerDepth.nextDepth();
         SearchDepth nextCalleeDepth = calleeDepth.nextDepth();
-        LinkSelectContext nextContext = new LinkSelectContext(range, nextCallerDepth, nextCalleeDepth, linkVisitChecker);
+        LinkSelectContext nextContext = new LinkSelectContext(range, nextCallerDepth, nextCalleeDepth, linkVisitChecker, linkDataMapPrefetcher);
         return nextContext;
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+/**
+ * Time taken to search a single depth of the server map.
+ */
+public class LinkSelectTiming {
+
+    public static final String BIDIRECTIONAL = "bidirectional";
+    public static final String OUTBOUND = "outbound";
+    public static final String INBOUND = "inbound";
+
+    private final String type;
+    private final int depth;
+    private final int applicationCount;
+    private final long elapsedMillis;
+
+    public LinkSelectTiming(String type, int depth, int applicationCount, long elapsedMillis) {
+        if (type == null) {
+            throw new NullPointerException("type must not be null");
+        }
+        this.type = type;
+        this.depth = depth;
+        this.applicationCount = applicationCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getApplicationCount() {
+        return applicationCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "LinkSelectTiming{" +
+                "type='" + type + '\'' +
+                ", depth=" + depth +
+                ", applicationCount=" + applicationCount +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
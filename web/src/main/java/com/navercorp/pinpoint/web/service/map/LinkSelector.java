@@ -27,4 +27,9 @@ import java.util.List;
  */
 public interface LinkSelector {
     LinkDataDuplexMap select(List<Application> sourceApplications, Range range, int callerSearchDepth, int calleeSearchDepth);
+
+    /**
+     * @return time taken by each depth searched by {@link #select}
+     */
+    List<LinkSelectTiming> getLinkSelectTimings();
 }
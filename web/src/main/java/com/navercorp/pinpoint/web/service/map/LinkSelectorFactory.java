@@ -67,21 +67,25 @@ public class LinkSelectorFactory {
         VirtualLinkMarker virtualLinkMarker = new VirtualLinkMarker();
         VirtualLinkHandler virtualLinkHandler = new VirtualLinkHandler(linkDataMapService, virtualLinkMarker);
 
+        RpcCallProcessor rpcCallProcessor = new RpcCallProcessor(hostApplicationMapDao, virtualLinkMarker);
         LinkDataMapProcessors callerLinkDataMapProcessors = new LinkDataMapProcessors();
-        callerLinkDataMapProcessors.addLinkDataMapProcessor(new RpcCallProcessor(hostApplicationMapDao, virtualLinkMarker));
+        callerLinkDataMapProcessors.addLinkDataMapProcessor(rpcCallProcessor);
         callerLinkDataMapProcessors.addLinkDataMapProcessor(callerLinkDataMapProcessor);
 
         LinkDataMapProcessors calleeLinkDataMapProcessors = new LinkDataMapProcessors();
         calleeLinkDataMapProcessors.addLinkDataMapProcessor(calleeLinkDataMapProcessor);
 
-        ApplicationMapCreator applicationMapCreator = new DefaultApplicationMapCreator(linkDataMapService, callerLinkDataMapProcessors, calleeLinkDataMapProcessors);
+        // request scoped, shared by every depth of this search
+        PrefetchLinkDataMapService prefetchLinkDataMapService = applicationsMapCreatorFactory.createPrefetchLinkDataMapService(linkDataMapService, rpcCallProcessor::prefetchAcceptApplications);
+
+        ApplicationMapCreator applicationMapCreator = new DefaultApplicationMapCreator(prefetchLinkDataMapService, callerLinkDataMapProcessors, calleeLinkDataMapProcessors);
 
         ApplicationsMapCreator applicationsMapCreator = applicationsMapCreatorFactory.create(applicationMapCreator);
 
         if (LinkSelectorType.UNIDIRECTIONAL == linkSelectorType) {
-            return new UnidirectionalLinkSelector(applicationsMapCreator, virtualLinkHandler, serverMapDataFilter);
+            return new UnidirectionalLinkSelector(applicationsMapCreator, virtualLinkHandler, serverMapDataFilter, prefetchLinkDataMapService);
         } else {
-            return new BidirectionalLinkSelector(applicationsMapCreator, virtualLinkHandler, serverMapDataFilter);
+            return new BidirectionalLinkSelector(applicationsMapCreator, virtualLinkHandler, serverMapDataFilter, prefetchLinkDataMapService);
         }
     }
 }
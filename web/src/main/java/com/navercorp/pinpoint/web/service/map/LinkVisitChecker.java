@@ -42,6 +42,10 @@ public class LinkVisitChecker {
         return callerFound.contains(caller);
     }
 
+    public boolean isVisitedCallee(Application callee) {
+        return calleeFound.contains(callee);
+    }
+
     public boolean visitCallee(Application callee) {
         return visit(calleeFound, callee, "Callee");
     }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.service.LinkDataMapService;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * Link data fetched ahead of the search, for a single server map request.
+ * <p>
+ * A prefetched link data map is handed over to the search once and then dropped, as the search merges into it.
+ * At most maxSize link data maps are prefetched, link data maps past the limit are fetched by the search itself.
+ * A prefetch not yet picked up by a worker when the search asks for it is run in the searching thread,
+ * so that a search never waits for a queued task.
+ * Prefetches left over when the search is over are cancelled, those still queued never run.
+ */
+public class PrefetchLinkDataMapService implements LinkDataMapService, LinkDataMapPrefetcher {
+
+    public static final int DEFAULT_MAX_SIZE = 128;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final LinkDataMapService linkDataMapService;
+    private final Executor executor;
+    private final int maxSize;
+    private final BiConsumer<LinkDataMap, Range> callerLinkDataMapListener;
+
+    private final ConcurrentMap<PrefetchKey, Prefetch> prefetchMap = new ConcurrentHashMap<>();
+
+    /**
+     * @param callerLinkDataMapListener called with each prefetched caller link data map, to look up what processing it needs ahead
+     */
+    public PrefetchLinkDataMapService(LinkDataMapService linkDataMapService, Executor executor, int maxSize, BiConsumer<LinkDataMap, Range> callerLinkDataMapListener) {
+        this.linkDataMapService = Objects.requireNonNull(linkDataMapService, "linkDataMapService must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("negative maxSize:" + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.callerLinkDataMapListener = Objects.requireNonNull(callerLinkDataMapListener, "callerLinkDataMapListener must not be null");
+    }
+
+    @Override
+    public LinkDataMap selectCallerLinkDataMap(Application application, Range range) {
+        return select(new PrefetchKey(application, range, true));
+    }
+
+    @Override
+    public LinkDataMap selectCalleeLinkDataMap(Application application, Range range) {
+        return select(new PrefetchKey(application, range, false));
+    }
+
+    private LinkDataMap select(PrefetchKey key) {
+        final Prefetch prefetch = prefetchMap.remove(key);
+        if (prefetch == null) {
+            return fetch(key);
+        }
+        logger.debug("prefetch hit {}", key);
+        return prefetch.get();
+    }
+
+    @Override
+    public void prefetchCallerLinkDataMap(Application application, Range range) {
+        prefetch(new PrefetchKey(application, range, true));
+    }
+
+    @Override
+    public void prefetchCalleeLinkDataMap(Application application, Range range) {
+        prefetch(new PrefetchKey(application, range, false));
+    }
+
+    private void prefetch(PrefetchKey key) {
+        if (prefetchMap.size() >= maxSize) {
+            logger.debug("prefetch limit exceeded. maxSize:{}, key:{}", maxSize, key);
+            return;
+        }
+        final Prefetch prefetch = new Prefetch(key);
+        if (prefetchMap.putIfAbsent(key, prefetch) != null) {
+            return;
+        }
+        try {
+            executor.execute(prefetch);
+        } catch (RejectedExecutionException e) {
+            // left in the map, run by the search when it gets there
+            logger.debug("prefetch rejected {}", key);
+        }
+    }
+
+    @Override
+    public void cancelPrefetches() {
+        for (PrefetchKey key : prefetchMap.keySet()) {
+            final Prefetch prefetch = prefetchMap.remove(key);
+            if (prefetch != null && prefetch.cancel()) {
+                logger.debug("prefetch cancelled {}", key);
+            }
+        }
+    }
+
+    private LinkDataMap fetch(PrefetchKey key) {
+        if (key.caller) {
+            return linkDataMapService.selectCallerLinkDataMap(key.application, key.range);
+        }
+        return linkDataMapService.selectCalleeLinkDataMap(key.application, key.range);
+    }
+
+    int getPrefetchSize() {
+        return prefetchMap.size();
+    }
+
+    private class Prefetch implements Runnable {
+
+        private final PrefetchKey key;
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        private final CompletableFuture<LinkDataMap> future = new CompletableFuture<>();
+
+        private Prefetch(PrefetchKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            final LinkDataMap linkDataMap;
+            try {
+                linkDataMap = fetch(key);
+            } catch (Throwable th) {
+                future.completeExceptionally(th);
+                return;
+            }
+            if (key.caller) {
+                try {
+                    callerLinkDataMapListener.accept(linkDataMap, key.range);
+                } catch (Exception e) {
+                    logger.warn("callerLinkDataMapListener error. key:{}, Caused:{}", key, e.getMessage(), e);
+                }
+            }
+            future.complete(linkDataMap);
+        }
+
+        private boolean cancel() {
+            if (!started.compareAndSet(false, true)) {
+                return false;
+            }
+            return future.cancel(false);
+        }
+
+        private LinkDataMap get() {
+            run();
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static class PrefetchKey {
+
+        private final Application application;
+        private final Range range;
+        private final boolean caller;
+
+        private PrefetchKey(Application application, Range range, boolean caller) {
+            this.application = Objects.requireNonNull(application, "application must not be null");
+            this.range = Objects.requireNonNull(range, "range must not be null");
+            this.caller = caller;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            PrefetchKey that = (PrefetchKey) o;
+
+            if (caller != that.caller) return false;
+            if (!application.equals(that.application)) return false;
+            return range.equals(that.range);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = application.hashCode();
+            result = 31 * result + range.hashCode();
+            result = 31 * result + (caller ? 1 : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "PrefetchKey{" +
+                    "application=" + application +
+                    ", range=" + range +
+                    ", caller=" + caller +
+                    '}';
+        }
+    }
+}
@@ -41,25 +41,42 @@ public class UnidirectionalLinkSelector implements LinkSelector {
 
     private final ServerMapDataFilter serverMapDataFilter;
 
+    private final LinkDataMapPrefetcher linkDataMapPrefetcher;
+
     private final LinkVisitChecker linkVisitChecker = new LinkVisitChecker();
 
+    private final List<LinkSelectTiming> linkSelectTimings = new ArrayList<>();
+
     UnidirectionalLinkSelector(
             ApplicationsMapCreator applicationsMapCreator,
             VirtualLinkHandler virtualLinkHandler,
-            ServerMapDataFilter serverMapDataFilter) {
+            ServerMapDataFilter serverMapDataFilter,
+            LinkDataMapPrefetcher linkDataMapPrefetcher) {
         if (applicationsMapCreator == null) {
             throw new NullPointerException("applicationsMapCreator must not be null");
         }
         if (virtualLinkHandler == null) {
             throw new NullPointerException("virtualLinkProcessor must not be null");
         }
+        if (linkDataMapPrefetcher == null) {
+            throw new NullPointerException("linkDataMapPrefetcher must not be null");
+        }
         this.applicationsMapCreator = applicationsMapCreator;
         this.virtualLinkHandler = virtualLinkHandler;
         this.serverMapDataFilter = serverMapDataFilter;
+        this.linkDataMapPrefetcher = linkDataMapPrefetcher;
     }
 
     @Override
     public LinkDataDuplexMap select(List<Application> sourceApplications, Range range, int callerSearchDepth, int calleeSearchDepth) {
+        try {
+            return selectLinks(sourceApplications, range, callerSearchDepth, calleeSearchDepth);
+        } finally {
+            linkDataMapPrefetcher.cancelPrefetches();
+        }
+    }
+
+    private LinkDataDuplexMap selectLinks(List<Application> sourceApplications, Range range, int callerSearchDepth, int calleeSearchDepth) {
         logger.debug("Creating link data map for {}", sourceApplications);
         final SearchDepth callerDepth = new SearchDepth(callerSearchDepth);
         final SearchDepth calleeDepth = new SearchDepth(calleeSearchDepth);
@@ -68,19 +85,25 @@ public class UnidirectionalLinkSelector implements LinkSelector {
         List<Application> applications = filterApplications(sourceApplications);
 
         List<Application> outboundApplications = Collections.unmodifiableList(applications);
-        LinkSelectContext outboundLinkSelectContext = new LinkSelectContext(range, callerDepth, new SearchDepth(0), linkVisitChecker);
+        LinkSelectContext outboundLinkSelectContext = new LinkSelectContext(range, callerDepth, new SearchDepth(0), linkVisitChecker, linkDataMapPrefetcher);
         List<Application> inboundApplications = Collections.unmodifiableList(applications);
-        LinkSelectContext inboundLinkSelectContext = new LinkSelectContext(range, new SearchDepth(0), calleeDepth, linkVisitChecker);
+        LinkSelectContext inboundLinkSelectContext = new LinkSelectContext(range, new SearchDepth(0), calleeDepth, linkVisitChecker, linkDataMapPrefetcher);
 
         while (!outboundApplications.isEmpty() || !inboundApplications.isEmpty()) {
 
             logger.info("outbound depth search start. callerDepth:{}, calleeDepth:{}, size:{}, nodes:{}", outboundLinkSelectContext.getCallerDepth(), outboundLinkSelectContext.getCalleeDepth(), outboundApplications.size(), outboundApplications);
+            long start = System.currentTimeMillis();
             LinkDataDuplexMap outboundMap = applicationsMapCreator.createLinkDataDuplexMap(outboundApplications, outboundLinkSelectContext);
-            logger.info("outbound depth search end. callerDepth:{}, calleeDepth:{}", outboundLinkSelectContext.getCallerDepth(), outboundLinkSelectContext.getCalleeDepth());
+            long elapsed = System.currentTimeMillis() - start;
+            linkSelectTimings.add(new LinkSelectTiming(LinkSelectTiming.OUTBOUND, outboundLinkSelectContext.getCallerDepth(), outboundApplications.size(), elapsed));
+            logger.info("outbound depth search end. callerDepth:{}, calleeDepth:{}, elapsed:{}ms", outboundLinkSelectContext.getCallerDepth(), outboundLinkSelectContext.getCalleeDepth(), elapsed);
 
             logger.info("inbound depth search start. callerDepth:{}, calleeDepth:{}, size:{}, nodes:{}", inboundLinkSelectContext.getCallerDepth(), inboundLinkSelectContext.getCalleeDepth(), inboundApplications.size(), inboundApplications);
+            start = System.currentTimeMillis();
             LinkDataDuplexMap inboundMap = applicationsMapCreator.createLinkDataDuplexMap(inboundApplications, inboundLinkSelectContext);
-            logger.info("inbound depth search end. callerDepth:{}, calleeDepth:{}", inboundLinkSelectContext.getCallerDepth(), inboundLinkSelectContext.getCalleeDepth());
+            elapsed = System.currentTimeMillis() - start;
+            linkSelectTimings.add(new LinkSelectTiming(LinkSelectTiming.INBOUND, inboundLinkSelectContext.getCalleeDepth(), inboundApplications.size(), elapsed));
+            logger.info("inbound depth search end. callerDepth:{}, calleeDepth:{}, elapsed:{}ms", inboundLinkSelectContext.getCallerDepth(), inboundLinkSelectContext.getCalleeDepth(), elapsed);
 
             linkDataDuplexMap.addLinkDataDuplexMap(outboundMap);
             linkDataDuplexMap.addLinkDataDuplexMap(inboundMap);
@@ -94,6 +117,11 @@ public class UnidirectionalLinkSelector implements LinkSelector {
         return virtualLinkHandler.processVirtualLinks(linkDataDuplexMap, linkVisitChecker, range);
     }
 
+    @Override
+    public List<LinkSelectTiming> getLinkSelectTimings() {
+        return linkSelectTimings;
+    }
+
     private List<Application> filterApplications(List<Application> applications) {
         if (serverMapDataFilter == null) {
             return applications;
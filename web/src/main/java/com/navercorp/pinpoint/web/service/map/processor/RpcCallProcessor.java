@@ -43,25 +43,37 @@ import java.util.Set;
  */
 public class RpcCallProcessor implements LinkDataMapProcessor {
 
+    public static final int DEFAULT_ACCEPT_APPLICATION_CACHE_SIZE = 1024;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final HostApplicationMapDao hostApplicationMapDao;
 
     private final VirtualLinkMarker virtualLinkMarker;
 
+    private final int acceptApplicationCacheSize;
+
     private final Map<AcceptApplicationCacheKey, Set<AcceptApplication>> acceptApplicationCache = Maps.newConcurrentMap();
 
     private final AcceptApplicationLocalCache rpcAcceptApplicationCache = new AcceptApplicationLocalCache();
 
     public RpcCallProcessor(HostApplicationMapDao hostApplicationMapDao, VirtualLinkMarker virtualLinkMarker) {
+        this(hostApplicationMapDao, virtualLinkMarker, DEFAULT_ACCEPT_APPLICATION_CACHE_SIZE);
+    }
+
+    public RpcCallProcessor(HostApplicationMapDao hostApplicationMapDao, VirtualLinkMarker virtualLinkMarker, int acceptApplicationCacheSize) {
         if (hostApplicationMapDao == null) {
             throw new NullPointerException("hostApplicationMapDao must not be null");
         }
         if (virtualLinkMarker == null) {
             throw new NullPointerException("virtualLinkMarker must not be null");
         }
+        if (acceptApplicationCacheSize < 0) {
+            throw new IllegalArgumentException("negative acceptApplicationCacheSize:" + acceptApplicationCacheSize);
+        }
         this.hostApplicationMapDao = hostApplicationMapDao;
         this.virtualLinkMarker = virtualLinkMarker;
+        this.acceptApplicationCacheSize = acceptApplicationCacheSize;
     }
 
     @Override
@@ -75,9 +87,24 @@ public class RpcCallProcessor implements LinkDataMapProcessor {
         return replacedLinkDataMap;
     }
 
+    /**
+     * Looks up the accept applications the link data map is going to need, so that processing it later hits the cache.
+     */
+    public void prefetchAcceptApplications(LinkDataMap linkDataMap, Range range) {
+        for (LinkData linkData : linkDataMap.getLinkDataList()) {
+            if (isAcceptApplicationRequired(linkData.getToApplication())) {
+                getAcceptApplications(linkData.getFromApplication(), range);
+            }
+        }
+    }
+
+    private boolean isAcceptApplicationRequired(Application toApplication) {
+        return toApplication.getServiceType().isRpcClient() || toApplication.getServiceType().isQueue();
+    }
+
     private List<LinkData> replaceLinkData(LinkData linkData, Range range) {
         final Application toApplication = linkData.getToApplication();
-        if (toApplication.getServiceType().isRpcClient() || toApplication.getServiceType().isQueue()) {
+        if (isAcceptApplicationRequired(toApplication)) {
             // rpc client's destination could have an agent installed in which case the link data must be replaced to point
             // to the destination application.
             logger.debug("Finding accept applications for {}, {}", toApplication, range);
@@ -164,6 +191,10 @@ public class RpcCallProcessor implements LinkDataMapProcessor {
             if (!CollectionUtils.isEmpty(filteredApplicationList)) {
                 acceptApplications.addAll(filteredApplicationList);
             }
+            if (acceptApplicationCache.size() >= acceptApplicationCacheSize) {
+                logger.debug("acceptApplicationCache full. size:{}", acceptApplicationCacheSize);
+                return acceptApplications;
+            }
             cachedAcceptApplications = acceptApplicationCache.putIfAbsent(cacheKey, acceptApplications);
             if (cachedAcceptApplications == null) {
                 cachedAcceptApplications = acceptApplications;
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.view;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.navercorp.pinpoint.web.scatter.ScatterDensity;
+
+import java.io.IOException;
+
+/**
+ * cell format = [x, y min, y max, error(1)/success(0), count]
+ */
+public class ScatterDensitySerializer extends JsonSerializer<ScatterDensity> {
+
+    @Override
+    public void serialize(ScatterDensity value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        jgen.writeStartObject();
+
+        jgen.writeNumberField("xGroupUnit", value.getXGroupUnitMillis());
+        jgen.writeNumberField("totalCount", value.getTotalCount());
+
+        jgen.writeArrayFieldStart("cellList");
+        for (ScatterDensity.Cell cell : value.getSortedCellList()) {
+            writeCell(cell, value.getCount(cell), jgen);
+        }
+        jgen.writeEndArray();
+
+        jgen.writeEndObject();
+    }
+
+    private void writeCell(ScatterDensity.Cell cell, long count, JsonGenerator jgen) throws IOException {
+        jgen.writeStartArray();
+
+        jgen.writeNumber(cell.getX());
+        jgen.writeNumber(cell.getYMin());
+        jgen.writeNumber(cell.getYMax());
+        jgen.writeNumber(cell.isError() ? 1 : 0);
+        jgen.writeNumber(count);
+
+        jgen.writeEndArray();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.server.util.ApplicationScatterUtils;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HbaseApplicationScatterDaoTest {
+
+    private static final String APPLICATION_NAME = "application";
+    private static final long TIME_SLOT = ApplicationScatterUtils.getTimeSlot(1560000000000L);
+    private static final int TIME_SLOT_MILLIS = ApplicationScatterUtils.TIME_SLOT_MILLIS;
+
+    @Test
+    public void scanBounds() {
+        // from and to in the middle of their time slots
+        Range range = new Range(TIME_SLOT + 30000, TIME_SLOT + 3 * TIME_SLOT_MILLIS + 30000);
+        byte[] startRow = HbaseApplicationScatterDao.getStartRow(APPLICATION_NAME, range);
+        byte[] stopRow = HbaseApplicationScatterDao.getStopRow(APPLICATION_NAME, range);
+
+        Assert.assertFalse(isScanned(startRow, stopRow, TIME_SLOT - TIME_SLOT_MILLIS));
+        for (int i = 0; i <= 3; i++) {
+            Assert.assertTrue("time slot " + i, isScanned(startRow, stopRow, TIME_SLOT + i * TIME_SLOT_MILLIS));
+        }
+        Assert.assertFalse(isScanned(startRow, stopRow, TIME_SLOT + 4 * TIME_SLOT_MILLIS));
+    }
+
+    @Test
+    public void scanBoundsOfOneTimeSlot() {
+        Range range = new Range(TIME_SLOT, TIME_SLOT);
+        byte[] startRow = HbaseApplicationScatterDao.getStartRow(APPLICATION_NAME, range);
+        byte[] stopRow = HbaseApplicationScatterDao.getStopRow(APPLICATION_NAME, range);
+
+        Assert.assertTrue(isScanned(startRow, stopRow, TIME_SLOT));
+        Assert.assertFalse(isScanned(startRow, stopRow, TIME_SLOT - TIME_SLOT_MILLIS));
+        Assert.assertFalse(isScanned(startRow, stopRow, TIME_SLOT + TIME_SLOT_MILLIS));
+    }
+
+    private boolean isScanned(byte[] startRow, byte[] stopRow, long timeSlot) {
+        final byte[] rowKey = ApplicationScatterUtils.makeRowKey(APPLICATION_NAME, timeSlot);
+        // the start row is inclusive, the stop row is exclusive
+        return Bytes.compareTo(startRow, rowKey) <= 0 && Bytes.compareTo(rowKey, stopRow) < 0;
+    }
+}
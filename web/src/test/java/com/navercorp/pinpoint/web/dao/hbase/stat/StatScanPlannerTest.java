@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase.stat;
+
+import org.apache.hadoop.hbase.client.Scan;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatScanPlannerTest {
+
+    // 5 minute time slots
+    private static final long ONE_HOUR_ROWS = 12;
+    private static final long FOURTEEN_DAYS_ROWS = 14 * 24 * 12;
+
+    @Test
+    public void planWithoutStatistics() {
+        StatScanPlanner planner = new StatScanPlanner();
+
+        StatScanPlanner.Plan shortRange = planner.plan("JVM_GC", ONE_HOUR_ROWS);
+        Assert.assertEquals(ONE_HOUR_ROWS, shortRange.getCaching());
+        Assert.assertEquals(-1, shortRange.getMaxResultSize());
+
+        StatScanPlanner.Plan longRange = planner.plan("JVM_GC", FOURTEEN_DAYS_ROWS);
+        Assert.assertEquals(StatScanPlanner.DEFAULT_MAX_CACHING, longRange.getCaching());
+    }
+
+    @Test
+    public void planLongRangeWithSmallRows() {
+        StatScanPlanner planner = new StatScanPlanner();
+        StatScanPlanner.Plan plan = planner.plan("JVM_GC", ONE_HOUR_ROWS);
+        planner.record(plan, ONE_HOUR_ROWS, ONE_HOUR_ROWS * 1024);
+
+        StatScanPlanner.Plan longRange = planner.plan("JVM_GC", FOURTEEN_DAYS_ROWS);
+        // the whole range in a single round trip
+        Assert.assertEquals(FOURTEEN_DAYS_ROWS, longRange.getCaching());
+        Assert.assertTrue(longRange.getMaxResultSize() >= FOURTEEN_DAYS_ROWS * 1024);
+        Assert.assertTrue(longRange.getMaxResultSize() <= StatScanPlanner.MAX_MAX_RESULT_SIZE);
+
+        Scan scan = new Scan();
+        longRange.apply(scan);
+        Assert.assertEquals(FOURTEEN_DAYS_ROWS, scan.getCaching());
+        Assert.assertEquals(longRange.getMaxResultSize(), scan.getMaxResultSize());
+    }
+
+    @Test
+    public void planLargeRows() {
+        StatScanPlanner planner = new StatScanPlanner();
+        final long bytesPerRow = 64 * 1024;
+        StatScanPlanner.Plan plan = planner.plan("DATASOURCE", ONE_HOUR_ROWS);
+        planner.record(plan, ONE_HOUR_ROWS, ONE_HOUR_ROWS * bytesPerRow);
+
+        StatScanPlanner.Plan longRange = planner.plan("DATASOURCE", FOURTEEN_DAYS_ROWS);
+        Assert.assertEquals(StatScanPlanner.MAX_MAX_RESULT_SIZE / bytesPerRow, longRange.getCaching());
+        Assert.assertEquals(StatScanPlanner.MAX_MAX_RESULT_SIZE, longRange.getMaxResultSize());
+
+        // statistics are kept per key
+        Assert.assertEquals(-1, planner.plan("JVM_GC", FOURTEEN_DAYS_ROWS).getMaxResultSize());
+    }
+
+    @Test
+    public void planSparseRows() {
+        StatScanPlanner planner = new StatScanPlanner();
+        for (int i = 0; i < 20; i++) {
+            StatScanPlanner.Plan plan = planner.plan("CPU_LOAD", FOURTEEN_DAYS_ROWS);
+            // the agent was up for a quarter of the range
+            planner.record(plan, FOURTEEN_DAYS_ROWS / 4, FOURTEEN_DAYS_ROWS / 4 * 512);
+        }
+        StatScanPlanner.Plan plan = planner.plan("CPU_LOAD", FOURTEEN_DAYS_ROWS);
+        Assert.assertTrue(plan.getEstimatedRows() < FOURTEEN_DAYS_ROWS / 3);
+        Assert.assertTrue(plan.getEstimatedRows() >= FOURTEEN_DAYS_ROWS / 4);
+
+        // an empty range does not shrink the estimate to nothing
+        for (int i = 0; i < 50; i++) {
+            planner.record(planner.plan("CPU_LOAD", FOURTEEN_DAYS_ROWS), 0, 0);
+        }
+        Assert.assertTrue(planner.plan("CPU_LOAD", FOURTEEN_DAYS_ROWS).getEstimatedRows() >= FOURTEEN_DAYS_ROWS / 10);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.mapper;
+
+import com.navercorp.pinpoint.common.hbase.distributor.RangeOneByteSimpleHash;
+import com.navercorp.pinpoint.common.server.util.ApplicationScatterUtils;
+import com.navercorp.pinpoint.web.scatter.ScatterDensity;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApplicationScatterMapperTest {
+
+    private static final byte[] FAMILY = Bytes.toBytes("C");
+    private static final long TIME_SLOT = ApplicationScatterUtils.getTimeSlot(1560000000000L);
+
+    // same as applicationScatterRowKeyDistributor
+    private final RowKeyDistributorByHashPrefix rowKeyDistributor = new RowKeyDistributorByHashPrefix(new RangeOneByteSimpleHash(0, 32, 8));
+
+    @Test
+    public void mapRow() throws Exception {
+        byte[] row = rowKeyDistributor.getDistributedKey(ApplicationScatterUtils.makeRowKey("application", TIME_SLOT));
+        Cell[] cells = {
+                new KeyValue(row, FAMILY, ApplicationScatterUtils.makeColumnName(1, 10, false), Bytes.toBytes(3L)),
+                new KeyValue(row, FAMILY, ApplicationScatterUtils.makeColumnName(2, 10, true), Bytes.toBytes(2L))
+        };
+
+        ApplicationScatterMapper mapper = new ApplicationScatterMapper(TIME_SLOT, TIME_SLOT + ApplicationScatterUtils.TIME_SLOT_MILLIS,
+                ApplicationScatterUtils.X_BUCKET_MILLIS, rowKeyDistributor);
+        ScatterDensity scatterDensity = mapper.mapRow(Result.create(cells), 0);
+
+        Assert.assertEquals(2, scatterDensity.getCellSize());
+        Assert.assertEquals(5, scatterDensity.getTotalCount());
+        Assert.assertEquals(3, scatterDensity.getCount(new ScatterDensity.Cell(ApplicationScatterUtils.X_BUCKET_MILLIS, 10, false)));
+        Assert.assertEquals(2, scatterDensity.getCount(new ScatterDensity.Cell(2 * ApplicationScatterUtils.X_BUCKET_MILLIS, 10, true)));
+    }
+
+    @Test
+    public void mapEmptyRow() throws Exception {
+        ApplicationScatterMapper mapper = new ApplicationScatterMapper(TIME_SLOT, TIME_SLOT + ApplicationScatterUtils.TIME_SLOT_MILLIS,
+                ApplicationScatterUtils.X_BUCKET_MILLIS, rowKeyDistributor);
+        ScatterDensity scatterDensity = mapper.mapRow(Result.create(new Cell[0]), 0);
+
+        Assert.assertEquals(0, scatterDensity.getCellSize());
+        Assert.assertEquals(0, scatterDensity.getTotalCount());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.scatter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnarScatterDataTest {
+
+    private static final String AGENT_ID = "agent";
+    private static final String TRANSACTION_AGENT_ID = "transactionAgent";
+    private static final long AGENT_START_TIME = 1546300800000L;
+
+    private static final long FROM = 1546300800000L;
+    private static final long TO = FROM + 60 * 1000;
+    private static final int X_GROUP_UNIT = 100;
+    private static final int Y_GROUP_UNIT = 100;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void sameJsonAsScatterData() throws Exception {
+        ScatterData scatterData = new ScatterData(FROM, TO, X_GROUP_UNIT, Y_GROUP_UNIT);
+        ColumnarScatterData columnarScatterData = new ColumnarScatterData(FROM, TO, X_GROUP_UNIT, Y_GROUP_UNIT);
+        for (int i = 0; i < 1000; i++) {
+            // several dots of a group, both before and after the leader
+            long acceptedTime = FROM + ((i * 37) % 1000) * 13;
+            int elapsedTime = (i * 7) % 300;
+            int exceptionCode = i % 5 == 0 ? 1 : 0;
+            TransactionId transactionId = new TransactionId(TRANSACTION_AGENT_ID, AGENT_START_TIME, i);
+
+            scatterData.addDot(new Dot(transactionId, acceptedTime, elapsedTime, exceptionCode, AGENT_ID));
+            columnarScatterData.addDot(transactionId, acceptedTime, elapsedTime, exceptionCode, AGENT_ID);
+        }
+
+        Assert.assertEquals(scatterData.getDotSize(), columnarScatterData.getDotSize());
+        Assert.assertEquals(scatterData.getOldestAcceptedTime(), columnarScatterData.getOldestAcceptedTime());
+        Assert.assertEquals(scatterData.getLatestAcceptedTime(), columnarScatterData.getLatestAcceptedTime());
+        Assert.assertEquals(mapper.writeValueAsString(scatterData), mapper.writeValueAsString(columnarScatterData));
+    }
+
+    @Test
+    public void merge() throws Exception {
+        ColumnarScatterData scatterData = new ColumnarScatterData(FROM, TO, X_GROUP_UNIT, Y_GROUP_UNIT);
+        scatterData.addDot(new TransactionId(TRANSACTION_AGENT_ID, AGENT_START_TIME, 0), FROM + 10, 10, 0, AGENT_ID);
+
+        ColumnarScatterData other = new ColumnarScatterData(FROM, TO, X_GROUP_UNIT, Y_GROUP_UNIT);
+        other.addDot(new TransactionId("otherTransactionAgent", AGENT_START_TIME, 1), FROM + 20, 10, 0, "otherAgent");
+        other.addDot(new TransactionId(TRANSACTION_AGENT_ID, AGENT_START_TIME, 2), FROM + 30, 10, 1, AGENT_ID);
+        scatterData.merge(other);
+
+        Assert.assertEquals(3, scatterData.getDotSize());
+        Assert.assertEquals(2, scatterData.getAgentList().size());
+        Assert.assertEquals(scatterData.getAgentIndex(0), scatterData.getAgentIndex(2));
+        Assert.assertEquals(Dot.FAILED_STATE, scatterData.getSimpleExceptionCode(2));
+
+        int[] sortedIndexes = scatterData.getSortedIndexes();
+        Assert.assertArrayEquals(new int[]{2, 1, 0}, sortedIndexes);
+
+        // the first two share a group, led by the dot added first
+        Assert.assertArrayEquals(new int[]{2, 0, 1}, scatterData.getDotGroupSizes());
+    }
+}
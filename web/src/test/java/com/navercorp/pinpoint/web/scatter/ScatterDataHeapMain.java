@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.scatter;
+
+import com.navercorp.pinpoint.common.util.TransactionId;
+import com.navercorp.pinpoint.web.vo.scatter.Dot;
+
+/**
+ * Rough heap comparison of {@link ScatterData} and {@link ColumnarScatterData}.
+ * The numbers depend on the gc and the heap settings, so run it with a fixed heap and a serial gc.
+ * <pre>
+ * java -Xms1g -Xmx1g -XX:+UseSerialGC ScatterDataHeapMain [dotSize]
+ * </pre>
+ */
+public class ScatterDataHeapMain {
+
+    private static final String AGENT_ID = "agent";
+    private static final String TRANSACTION_AGENT_ID = "transactionAgent";
+    private static final long AGENT_START_TIME = 1546300800000L;
+
+    private static final long FROM = 1546300800000L;
+    private static final long TO = FROM + 60 * 1000;
+    private static final int X_GROUP_UNIT = 100;
+    private static final int Y_GROUP_UNIT = 100;
+
+    public static void main(String[] args) {
+        final int dotSize = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+        long before = usedMemory();
+        ScatterData scatterData = new ScatterData(FROM, TO, X_GROUP_UNIT, Y_GROUP_UNIT);
+        for (int i = 0; i < dotSize; i++) {
+            // a TransactionId and an agentId per cell, as read by the mapper
+            TransactionId transactionId = new TransactionId(new String(TRANSACTION_AGENT_ID), AGENT_START_TIME, i);
+            scatterData.addDot(new Dot(transactionId, FROM + i % 60000, i % 3000, i % 10 == 0 ? 1 : 0, new String(AGENT_ID)));
+        }
+        final long scatterDataBytes = usedMemory() - before;
+        System.out.println("ScatterData dots:" + scatterData.getDotSize() + " " + (scatterDataBytes / dotSize) + " bytes/dot");
+        scatterData = null;
+
+        before = usedMemory();
+        ColumnarScatterData columnarScatterData = new ColumnarScatterData(FROM, TO, X_GROUP_UNIT, Y_GROUP_UNIT);
+        for (int i = 0; i < dotSize; i++) {
+            TransactionId transactionId = new TransactionId(new String(TRANSACTION_AGENT_ID), AGENT_START_TIME, i);
+            columnarScatterData.addDot(transactionId, FROM + i % 60000, i % 3000, i % 10 == 0 ? 1 : 0, new String(AGENT_ID));
+        }
+        final long columnarBytes = usedMemory() - before;
+        System.out.println("ColumnarScatterData dots:" + columnarScatterData.getDotSize() + " " + (columnarBytes / dotSize) + " bytes/dot");
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.scatter;
+
+import com.navercorp.pinpoint.common.server.util.ApplicationScatterUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ScatterDensityTest {
+
+    private static final long TIME_SLOT = ApplicationScatterUtils.getTimeSlot(1560000000000L);
+    private static final long FROM = TIME_SLOT;
+    private static final long TO = TIME_SLOT + 10 * ApplicationScatterUtils.TIME_SLOT_MILLIS;
+    private static final int X_GROUP_UNIT = ApplicationScatterUtils.TIME_SLOT_MILLIS;
+
+    @Test
+    public void merge() {
+        ScatterDensity scatterDensity = new ScatterDensity(FROM, TO, X_GROUP_UNIT);
+        scatterDensity.addCount(TIME_SLOT, 0, 5, false, 3);
+        scatterDensity.addCount(TIME_SLOT, 3, 5, false, 2);
+
+        ScatterDensity other = new ScatterDensity(FROM, TO, X_GROUP_UNIT);
+        other.addCount(TIME_SLOT, 1, 5, false, 4);
+        other.addCount(TIME_SLOT + ApplicationScatterUtils.TIME_SLOT_MILLIS, 0, 5, true, 1);
+
+        scatterDensity.merge(other);
+        scatterDensity.merge(null);
+
+        Assert.assertEquals(2, scatterDensity.getCellSize());
+        Assert.assertEquals(10, scatterDensity.getTotalCount());
+        Assert.assertEquals(9, scatterDensity.getCount(new ScatterDensity.Cell(0, 5, false)));
+        Assert.assertEquals(1, scatterDensity.getCount(new ScatterDensity.Cell(X_GROUP_UNIT, 5, true)));
+        Assert.assertEquals(0, scatterDensity.getCount(new ScatterDensity.Cell(X_GROUP_UNIT, 5, false)));
+
+        // the merged scatter density is left as it is
+        Assert.assertEquals(2, other.getCellSize());
+        Assert.assertEquals(5, other.getTotalCount());
+    }
+
+    @Test
+    public void sortedCellList() {
+        ScatterDensity scatterDensity = new ScatterDensity(FROM, TO, X_GROUP_UNIT);
+        scatterDensity.addCount(TIME_SLOT, 0, 7, true, 1);
+        scatterDensity.addCount(TIME_SLOT, 0, 7, false, 1);
+        scatterDensity.addCount(TIME_SLOT, 0, 3, false, 1);
+        scatterDensity.addCount(TIME_SLOT + ApplicationScatterUtils.TIME_SLOT_MILLIS, 0, 9, false, 1);
+
+        List<ScatterDensity.Cell> cellList = scatterDensity.getSortedCellList();
+        Assert.assertEquals(new ScatterDensity.Cell(X_GROUP_UNIT, 9, false), cellList.get(0));
+        Assert.assertEquals(new ScatterDensity.Cell(0, 3, false), cellList.get(1));
+        Assert.assertEquals(new ScatterDensity.Cell(0, 7, false), cellList.get(2));
+        Assert.assertEquals(new ScatterDensity.Cell(0, 7, true), cellList.get(3));
+    }
+
+    @Test
+    public void countsOutOfRange() {
+        final long from = FROM + 5000;
+        ScatterDensity scatterDensity = new ScatterDensity(from, TO, X_GROUP_UNIT);
+        // the x bucket ending at from
+        scatterDensity.addCount(TIME_SLOT - ApplicationScatterUtils.TIME_SLOT_MILLIS, ApplicationScatterUtils.X_BUCKET_COUNT - 1, 1, false, 1);
+        // the x bucket starting after to
+        scatterDensity.addCount(TO, 1, 1, false, 1);
+        Assert.assertEquals(0, scatterDensity.getTotalCount());
+
+        // the x bucket overlapping from is drawn at from
+        scatterDensity.addCount(TIME_SLOT, 0, 1, false, 1);
+        // the x bucket starting at to
+        scatterDensity.addCount(TO, 0, 1, false, 1);
+        Assert.assertEquals(2, scatterDensity.getTotalCount());
+        Assert.assertEquals(1, scatterDensity.getCount(new ScatterDensity.Cell(0, 1, false)));
+    }
+
+    @Test
+    public void xGroupUnitIsNotFinerThanXBucket() {
+        ScatterDensity scatterDensity = new ScatterDensity(FROM, TO, 1000);
+        Assert.assertEquals(ApplicationScatterUtils.X_BUCKET_MILLIS, scatterDensity.getXGroupUnitMillis());
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.dao.MapStatisticsCalleeDao;
+import com.navercorp.pinpoint.web.dao.MapStatisticsCallerDao;
+import com.navercorp.pinpoint.web.service.MapStatisticsSliceCache.SliceLoader;
+import com.navercorp.pinpoint.web.service.MapStatisticsSliceCache.SliceType;
+import com.navercorp.pinpoint.web.util.TimeWindow;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MapStatisticsSliceCacheTest {
+
+    private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    // 2019-01-01 00:00:00 UTC
+    private static final long BASE = 1546300800000L;
+    private static final long NOW = BASE + TimeUnit.DAYS.toMillis(1);
+    private static final long LATE_WRITE_WINDOW = 15 * ONE_MINUTE;
+    private static final long RECENT_SLICE_TTL = ONE_MINUTE;
+
+    private final Application application = new Application("APP_A", ServiceType.TEST_STAND_ALONE);
+    private final Application toApplication = new Application("APP_B", ServiceType.TEST_STAND_ALONE);
+
+    @Mock
+    private MapStatisticsCallerDao mapStatisticsCallerDao;
+
+    @Mock
+    private MapStatisticsCalleeDao mapStatisticsCalleeDao;
+
+    @Spy
+    private MapStatisticsSliceCache mapStatisticsSliceCache = new MapStatisticsSliceCache(1024 * 1024, ONE_MINUTE, LATE_WRITE_WINDOW, RECENT_SLICE_TTL);
+
+    @InjectMocks
+    private LinkDataMapService linkDataMapService = new LinkDataMapServiceImpl();
+
+    @Test
+    public void cachedMinutes() {
+        final CountingSliceLoader sliceLoader = new CountingSliceLoader();
+        final Range range = new Range(BASE + 30000, BASE + 4 * ONE_MINUTE + 30000);
+
+        List<String> slices = mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, NOW);
+        Assert.assertEquals(5, slices.size());
+        Assert.assertEquals(1, sliceLoader.loadedRanges.size());
+        Assert.assertEquals(new Range(BASE, BASE + 4 * ONE_MINUTE), sliceLoader.loadedRanges.get(0));
+
+        slices = mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, NOW);
+        Assert.assertEquals(5, slices.size());
+        Assert.assertEquals(1, sliceLoader.loadedRanges.size());
+
+        // other slice types and applications are cached separately
+        mapStatisticsSliceCache.getSlices(SliceType.CALLEE, application, range, sliceLoader, NOW);
+        mapStatisticsSliceCache.getSlices(SliceType.CALLER, toApplication, range, sliceLoader, NOW);
+        Assert.assertEquals(3, sliceLoader.loadedRanges.size());
+    }
+
+    @Test
+    public void scanMissingMinutesOnly() {
+        final CountingSliceLoader sliceLoader = new CountingSliceLoader();
+        mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, new Range(BASE + 2 * ONE_MINUTE, BASE + 4 * ONE_MINUTE), sliceLoader, NOW);
+
+        final List<String> slices = mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, new Range(BASE, BASE + 6 * ONE_MINUTE), sliceLoader, NOW);
+        Assert.assertEquals(7, slices.size());
+        Assert.assertEquals(3, sliceLoader.loadedRanges.size());
+        Assert.assertEquals(new Range(BASE, BASE + ONE_MINUTE), sliceLoader.loadedRanges.get(1));
+        Assert.assertEquals(new Range(BASE + 5 * ONE_MINUTE, BASE + 6 * ONE_MINUTE), sliceLoader.loadedRanges.get(2));
+    }
+
+    @Test
+    public void emptyMinutesAreCached() {
+        final CountingSliceLoader sliceLoader = new CountingSliceLoader();
+        sliceLoader.emptyMinute = BASE + ONE_MINUTE;
+        final Range range = new Range(BASE, BASE + 2 * ONE_MINUTE);
+
+        Assert.assertEquals(2, mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, NOW).size());
+        Assert.assertEquals(2, mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, NOW).size());
+        Assert.assertEquals(1, sliceLoader.loadedRanges.size());
+    }
+
+    @Test
+    public void unfinishedMinutesAreScanned() {
+        final CountingSliceLoader sliceLoader = new CountingSliceLoader();
+        final long now = BASE + 10 * ONE_MINUTE + 30000;
+        // the last two minutes are not finished yet
+        final Range range = new Range(BASE + 5 * ONE_MINUTE, now);
+
+        mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, now);
+        final List<String> slices = mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, now);
+        Assert.assertEquals(6, slices.size());
+        Assert.assertEquals(2, sliceLoader.loadedRanges.size());
+        Assert.assertEquals(new Range(BASE + 9 * ONE_MINUTE, BASE + 10 * ONE_MINUTE), sliceLoader.loadedRanges.get(1));
+    }
+
+    @Test
+    public void recentMinutesExpire() {
+        final CountingSliceLoader sliceLoader = new CountingSliceLoader();
+        final long now = BASE + 10 * ONE_MINUTE + 30000;
+        final Range range = new Range(BASE + 5 * ONE_MINUTE, BASE + 8 * ONE_MINUTE);
+
+        mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, now);
+        mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, now + RECENT_SLICE_TTL - 1);
+        Assert.assertEquals(1, sliceLoader.loadedRanges.size());
+
+        // finished within the late write window, scanned again to pick up late writes
+        mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, now + RECENT_SLICE_TTL);
+        Assert.assertEquals(2, sliceLoader.loadedRanges.size());
+        Assert.assertEquals(range, sliceLoader.loadedRanges.get(1));
+
+        // past the late write window, kept for good
+        final long later = now + LATE_WRITE_WINDOW;
+        mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, later);
+        mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, later + TimeUnit.DAYS.toMillis(1));
+        Assert.assertEquals(3, sliceLoader.loadedRanges.size());
+    }
+
+    @Test
+    public void emptyMinutesExpire() {
+        final CountingSliceLoader sliceLoader = new CountingSliceLoader();
+        sliceLoader.emptyMinute = BASE + ONE_MINUTE;
+        final Range range = new Range(BASE, BASE + 2 * ONE_MINUTE);
+
+        Assert.assertEquals(2, mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, NOW).size());
+        Assert.assertEquals(2, mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, NOW).size());
+
+        // a late write may have filled the empty minute
+        sliceLoader.emptyMinute = -1;
+        Assert.assertEquals(3, mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, NOW + RECENT_SLICE_TTL).size());
+        Assert.assertEquals(2, sliceLoader.loadedRanges.size());
+        Assert.assertEquals(new Range(BASE + ONE_MINUTE, BASE + ONE_MINUTE), sliceLoader.loadedRanges.get(1));
+    }
+
+    @Test
+    public void isCacheable() {
+        Assert.assertTrue(mapStatisticsSliceCache.isCacheable(new Range(BASE, BASE + TimeUnit.HOURS.toMillis(1))));
+        // down sampled above a minute
+        Assert.assertFalse(mapStatisticsSliceCache.isCacheable(new Range(BASE, BASE + TimeUnit.HOURS.toMillis(1) + 1)));
+
+        final MapStatisticsSliceCache disabled = new MapStatisticsSliceCache(0, ONE_MINUTE, LATE_WRITE_WINDOW, RECENT_SLICE_TTL);
+        Assert.assertFalse(disabled.isCacheable(new Range(BASE, BASE + ONE_MINUTE)));
+    }
+
+    @Test
+    public void longRangeBypassesCache() {
+        final Range range = new Range(BASE, BASE + TimeUnit.DAYS.toMillis(2));
+        when(mapStatisticsCallerDao.selectCaller(application, range)).thenReturn(new LinkDataMap());
+
+        linkDataMapService.selectCallerLinkDataMap(application, range);
+        verify(mapStatisticsCallerDao, times(1)).selectCaller(application, range);
+        Assert.assertEquals(0, mapStatisticsSliceCache.size());
+    }
+
+    @Test
+    public void scanAtMostAnHourAtOnce() {
+        final CountingSliceLoader sliceLoader = new CountingSliceLoader();
+        final Range range = new Range(BASE, BASE + 150 * ONE_MINUTE);
+
+        final List<String> slices = mapStatisticsSliceCache.getSlices(SliceType.CALLER, application, range, sliceLoader, NOW);
+        Assert.assertEquals(151, slices.size());
+        Assert.assertEquals(3, sliceLoader.loadedRanges.size());
+        for (Range loadedRange : sliceLoader.loadedRanges) {
+            Assert.assertTrue(loadedRange.getRange() < MapStatisticsSliceCache.MAX_SCAN_MINUTES * ONE_MINUTE);
+        }
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        final MapStatisticsSliceCache sliceCache = new MapStatisticsSliceCache(CountingSliceLoader.SLICE_BYTES * 3, ONE_MINUTE, LATE_WRITE_WINDOW, RECENT_SLICE_TTL);
+        final CountingSliceLoader sliceLoader = new CountingSliceLoader();
+
+        sliceCache.getSlices(SliceType.CALLER, application, new Range(BASE, BASE + 2 * ONE_MINUTE), sliceLoader, NOW);
+        // BASE becomes the most recently used
+        sliceCache.getSlices(SliceType.CALLER, application, new Range(BASE, BASE), sliceLoader, NOW);
+        sliceCache.getSlices(SliceType.CALLER, application, new Range(BASE + 3 * ONE_MINUTE, BASE + 3 * ONE_MINUTE), sliceLoader, NOW);
+        Assert.assertEquals(3, sliceCache.size());
+        Assert.assertEquals(CountingSliceLoader.SLICE_BYTES * 3, sliceCache.getTotalBytes());
+        Assert.assertEquals(2, sliceLoader.loadedRanges.size());
+
+        sliceCache.getSlices(SliceType.CALLER, application, new Range(BASE, BASE), sliceLoader, NOW);
+        Assert.assertEquals(2, sliceLoader.loadedRanges.size());
+        // BASE + 1 minute was evicted
+        sliceCache.getSlices(SliceType.CALLER, application, new Range(BASE + ONE_MINUTE, BASE + ONE_MINUTE), sliceLoader, NOW);
+        Assert.assertEquals(3, sliceLoader.loadedRanges.size());
+    }
+
+    @Test
+    public void stitchLinkDataMap() {
+        final Range range = new Range(BASE, BASE + 9 * ONE_MINUTE);
+        final LinkDataMap linkDataMap = new LinkDataMap(new TimeWindow(range));
+        for (int i = 0; i < 10; i++) {
+            final long timestamp = BASE + i * ONE_MINUTE;
+            linkDataMap.addLinkData(application, "agentA", toApplication, "agentB", timestamp, (short) 1000, i + 1);
+            linkDataMap.addLinkData(application, "agentA2", toApplication, "agentB", timestamp, (short) 1000, 1);
+        }
+        when(mapStatisticsCallerDao.selectCaller(eq(application), any(Range.class))).thenReturn(linkDataMap);
+
+        final LinkDataMap selected = linkDataMapService.selectCallerLinkDataMap(application, range);
+        Assert.assertEquals(linkDataMap.getTotalCount(), selected.getTotalCount());
+        Assert.assertEquals(1, selected.size());
+
+        // stitched from cached minutes only
+        final LinkDataMap stitched = linkDataMapService.selectCallerLinkDataMap(application, new Range(BASE + 2 * ONE_MINUTE, BASE + 3 * ONE_MINUTE));
+        Assert.assertEquals(3 + 1 + 4 + 1, stitched.getTotalCount());
+        Assert.assertEquals(2, stitched.getLinkDataList().iterator().next().getLinkCallDataMap().getLinkDataList().size());
+        verify(mapStatisticsCallerDao, times(1)).selectCaller(eq(application), any(Range.class));
+
+        // cached slices are left untouched
+        Assert.assertEquals(linkDataMap.getTotalCount(), linkDataMapService.selectCallerLinkDataMap(application, range).getTotalCount());
+    }
+
+    private static class CountingSliceLoader implements SliceLoader<String> {
+
+        private static final long SLICE_BYTES = 100;
+
+        private final List<Range> loadedRanges = new ArrayList<>();
+        private long emptyMinute = -1;
+
+        @Override
+        public Map<Long, String> load(Application application, Range range) {
+            loadedRanges.add(range);
+            final Map<Long, String> slices = new HashMap<>();
+            for (long minute = range.getFrom(); minute <= range.getTo(); minute += ONE_MINUTE) {
+                if (minute != emptyMinute) {
+                    slices.put(minute, application.getName() + "-" + minute);
+                }
+            }
+            return slices;
+        }
+
+        @Override
+        public long estimateBytes(String slice) {
+            return SLICE_BYTES;
+        }
+    }
+}
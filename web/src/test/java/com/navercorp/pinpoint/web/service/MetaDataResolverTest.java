@@ -0,0 +1,159 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service;
+
+import com.navercorp.pinpoint.common.server.bo.ApiMetaDataBo;
+import com.navercorp.pinpoint.common.server.bo.SqlMetaDataBo;
+import com.navercorp.pinpoint.common.server.bo.StringMetaDataBo;
+import com.navercorp.pinpoint.web.dao.ApiMetaDataDao;
+import com.navercorp.pinpoint.web.dao.SqlMetaDataDao;
+import com.navercorp.pinpoint.web.dao.StringMetaDataDao;
+import com.navercorp.pinpoint.web.vo.MetaDataKey;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MetaDataResolverTest {
+
+    private static final String AGENT_ID = "agentId";
+    private static final long AGENT_START_TIME = 1000L;
+
+    @Test
+    public void resolveWithSingleMultiGet() {
+        CountingStringMetaDataDao stringMetaDataDao = new CountingStringMetaDataDao();
+        MetaDataResolver resolver = newResolver(stringMetaDataDao, null);
+
+        for (int i = 0; i < 100; i++) {
+            // the same string referenced over and over across the call stack
+            resolver.addStringId(AGENT_ID, AGENT_START_TIME, i % 10);
+        }
+        resolver.resolve();
+
+        Assert.assertEquals(1, stringMetaDataDao.multiGetCount);
+        Assert.assertEquals(10, stringMetaDataDao.fetchedKeys);
+        for (int i = 0; i < 10; i++) {
+            List<StringMetaDataBo> stringMetaDataList = resolver.getStringMetaData(AGENT_ID, AGENT_START_TIME, i);
+            Assert.assertEquals("string-" + i, stringMetaDataList.get(0).getStringValue());
+        }
+        Assert.assertEquals(0, stringMetaDataDao.getCount);
+    }
+
+    @Test
+    public void resolveFromSharedCache() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager(MetaDataResolver.API_META_DATA_CACHE,
+                MetaDataResolver.SQL_META_DATA_CACHE, MetaDataResolver.STRING_META_DATA_CACHE);
+
+        CountingStringMetaDataDao stringMetaDataDao = new CountingStringMetaDataDao();
+        MetaDataResolver first = newResolver(stringMetaDataDao, cacheManager);
+        first.addStringId(AGENT_ID, AGENT_START_TIME, 1);
+        first.addStringId(AGENT_ID, AGENT_START_TIME, CountingStringMetaDataDao.NOT_FOUND_ID);
+        first.resolve();
+        Assert.assertTrue(first.getStringMetaData(AGENT_ID, AGENT_START_TIME, CountingStringMetaDataDao.NOT_FOUND_ID).isEmpty());
+
+        MetaDataResolver second = newResolver(stringMetaDataDao, cacheManager);
+        second.addStringId(AGENT_ID, AGENT_START_TIME, 1);
+        second.addStringId(AGENT_ID, AGENT_START_TIME, CountingStringMetaDataDao.NOT_FOUND_ID);
+        second.resolve();
+
+        // only the metadata not found is fetched again
+        Assert.assertEquals(2, stringMetaDataDao.multiGetCount);
+        Assert.assertEquals(3, stringMetaDataDao.fetchedKeys);
+        Assert.assertEquals("string-1", second.getStringMetaData(AGENT_ID, AGENT_START_TIME, 1).get(0).getStringValue());
+        Assert.assertEquals(0, stringMetaDataDao.getCount);
+    }
+
+    @Test
+    public void fallbackToSingleGet() {
+        CountingStringMetaDataDao stringMetaDataDao = new CountingStringMetaDataDao();
+        MetaDataResolver resolver = newResolver(stringMetaDataDao, null);
+        resolver.resolve();
+
+        Assert.assertEquals(0, stringMetaDataDao.multiGetCount);
+        Assert.assertEquals("string-5", resolver.getStringMetaData(AGENT_ID, AGENT_START_TIME, 5).get(0).getStringValue());
+        Assert.assertEquals(1, stringMetaDataDao.getCount);
+    }
+
+    private MetaDataResolver newResolver(StringMetaDataDao stringMetaDataDao, CacheManager cacheManager) {
+        return new MetaDataResolver(new EmptyApiMetaDataDao(), new EmptySqlMetaDataDao(), stringMetaDataDao, cacheManager);
+    }
+
+    private static class CountingStringMetaDataDao implements StringMetaDataDao {
+
+        private static final int NOT_FOUND_ID = -1;
+
+        private int getCount;
+        private int multiGetCount;
+        private int fetchedKeys;
+
+        @Override
+        public List<StringMetaDataBo> getStringMetaData(String agentId, long time, int stringId) {
+            getCount++;
+            return createStringMetaData(agentId, time, stringId);
+        }
+
+        @Override
+        public Map<MetaDataKey, List<StringMetaDataBo>> getStringMetaData(Collection<MetaDataKey> keys) {
+            multiGetCount++;
+            fetchedKeys += keys.size();
+            Map<MetaDataKey, List<StringMetaDataBo>> result = new HashMap<>();
+            for (MetaDataKey key : keys) {
+                result.put(key, createStringMetaData(key.getAgentId(), key.getAgentStartTime(), key.getId()));
+            }
+            return result;
+        }
+
+        private List<StringMetaDataBo> createStringMetaData(String agentId, long time, int stringId) {
+            if (stringId == NOT_FOUND_ID) {
+                return Collections.emptyList();
+            }
+            StringMetaDataBo stringMetaDataBo = new StringMetaDataBo(agentId, time, stringId);
+            stringMetaDataBo.setStringValue("string-" + stringId);
+            return Collections.singletonList(stringMetaDataBo);
+        }
+    }
+
+    private static class EmptyApiMetaDataDao implements ApiMetaDataDao {
+        @Override
+        public List<ApiMetaDataBo> getApiMetaData(String agentId, long time, int apiId) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<MetaDataKey, List<ApiMetaDataBo>> getApiMetaData(Collection<MetaDataKey> keys) {
+            return Collections.emptyMap();
+        }
+    }
+
+    private static class EmptySqlMetaDataDao implements SqlMetaDataDao {
+        @Override
+        public List<SqlMetaDataBo> getSqlMetaData(String agentId, long time, int sqlId) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<MetaDataKey, List<SqlMetaDataBo>> getSqlMetaData(Collection<MetaDataKey> keys) {
+            return Collections.emptyMap();
+        }
+    }
+}
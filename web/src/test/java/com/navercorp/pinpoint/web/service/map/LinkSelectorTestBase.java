@@ -59,7 +59,7 @@ public abstract class LinkSelectorTestBase {
 
     private final ExecutorService executor = Executors.newFixedThreadPool(4);
 
-    private final ApplicationsMapCreatorFactory applicationsMapCreatorFactory = new ApplicationsMapCreatorFactory(executor);
+    private final ApplicationsMapCreatorFactory applicationsMapCreatorFactory = new ApplicationsMapCreatorFactory(executor, executor);
 
     protected final ServiceType testRpcServiceType = ServiceTypeFactory.of(9000, "TEST_RPC_CLIENT", ServiceTypeProperty.RECORD_STATISTICS);
 
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.service.map;
+
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.web.applicationmap.rawdata.LinkDataMap;
+import com.navercorp.pinpoint.web.service.LinkDataMapService;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PrefetchLinkDataMapServiceTest {
+
+    private final Range range = new Range(0, 100);
+    private final Application application = new Application("APP_A", ServiceType.TEST_STAND_ALONE);
+
+    private LinkDataMapService linkDataMapService;
+    private final List<Runnable> queuedTasks = new ArrayList<>();
+    private final Executor queueingExecutor = queuedTasks::add;
+    private final AtomicInteger listenerCount = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        linkDataMapService = mock(LinkDataMapService.class);
+        when(linkDataMapService.selectCallerLinkDataMap(any(Application.class), any(Range.class))).thenReturn(new LinkDataMap());
+        when(linkDataMapService.selectCalleeLinkDataMap(any(Application.class), any(Range.class))).thenReturn(new LinkDataMap());
+    }
+
+    private PrefetchLinkDataMapService newPrefetchLinkDataMapService(Executor executor, int maxSize) {
+        return new PrefetchLinkDataMapService(linkDataMapService, executor, maxSize, (linkDataMap, range) -> listenerCount.incrementAndGet());
+    }
+
+    @Test
+    public void prefetch() {
+        PrefetchLinkDataMapService prefetchLinkDataMapService = newPrefetchLinkDataMapService(Runnable::run, 10);
+        prefetchLinkDataMapService.prefetchCallerLinkDataMap(application, range);
+        prefetchLinkDataMapService.prefetchCallerLinkDataMap(application, range);
+        Assert.assertEquals(1, listenerCount.get());
+
+        Assert.assertNotNull(prefetchLinkDataMapService.selectCallerLinkDataMap(application, range));
+        Assert.assertEquals(0, prefetchLinkDataMapService.getPrefetchSize());
+        verify(linkDataMapService, times(1)).selectCallerLinkDataMap(application, range);
+
+        // handed over once, fetched again afterwards
+        prefetchLinkDataMapService.selectCallerLinkDataMap(application, range);
+        verify(linkDataMapService, times(2)).selectCallerLinkDataMap(application, range);
+    }
+
+    @Test
+    public void queuedPrefetchRunsInSearchingThread() {
+        PrefetchLinkDataMapService prefetchLinkDataMapService = newPrefetchLinkDataMapService(queueingExecutor, 10);
+        prefetchLinkDataMapService.prefetchCalleeLinkDataMap(application, range);
+        Assert.assertEquals(1, queuedTasks.size());
+
+        Assert.assertNotNull(prefetchLinkDataMapService.selectCalleeLinkDataMap(application, range));
+        verify(linkDataMapService, times(1)).selectCalleeLinkDataMap(application, range);
+
+        // the worker picking it up late does not fetch again
+        queuedTasks.get(0).run();
+        verify(linkDataMapService, times(1)).selectCalleeLinkDataMap(application, range);
+        Assert.assertEquals(0, listenerCount.get());
+    }
+
+    @Test
+    public void maxSize() {
+        PrefetchLinkDataMapService prefetchLinkDataMapService = newPrefetchLinkDataMapService(queueingExecutor, 1);
+        prefetchLinkDataMapService.prefetchCallerLinkDataMap(application, range);
+        prefetchLinkDataMapService.prefetchCalleeLinkDataMap(application, range);
+        Assert.assertEquals(1, prefetchLinkDataMapService.getPrefetchSize());
+        Assert.assertEquals(1, queuedTasks.size());
+    }
+
+    @Test
+    public void cancelPrefetches() {
+        PrefetchLinkDataMapService prefetchLinkDataMapService = newPrefetchLinkDataMapService(queueingExecutor, 10);
+        prefetchLinkDataMapService.prefetchCallerLinkDataMap(application, range);
+        prefetchLinkDataMapService.prefetchCalleeLinkDataMap(application, range);
+        Assert.assertEquals(2, queuedTasks.size());
+
+        prefetchLinkDataMapService.cancelPrefetches();
+        Assert.assertEquals(0, prefetchLinkDataMapService.getPrefetchSize());
+
+        // queued prefetches are not fetched once cancelled
+        for (Runnable queuedTask : queuedTasks) {
+            queuedTask.run();
+        }
+        verify(linkDataMapService, never()).selectCallerLinkDataMap(application, range);
+        verify(linkDataMapService, never()).selectCalleeLinkDataMap(application, range);
+        Assert.assertEquals(0, listenerCount.get());
+    }
+
+    @Test
+    public void rejected() {
+        Executor rejectingExecutor = command -> {
+            throw new RejectedExecutionException("full");
+        };
+        PrefetchLinkDataMapService prefetchLinkDataMapService = newPrefetchLinkDataMapService(rejectingExecutor, 10);
+        prefetchLinkDataMapService.prefetchCallerLinkDataMap(application, range);
+
+        Assert.assertNotNull(prefetchLinkDataMapService.selectCallerLinkDataMap(application, range));
+        verify(linkDataMapService, times(1)).selectCallerLinkDataMap(application, range);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void prefetchError() {
+        when(linkDataMapService.selectCallerLinkDataMap(application, range)).thenThrow(new IllegalStateException("hbase"));
+        PrefetchLinkDataMapService prefetchLinkDataMapService = newPrefetchLinkDataMapService(Runnable::run, 10);
+        prefetchLinkDataMapService.prefetchCallerLinkDataMap(application, range);
+
+        prefetchLinkDataMapService.selectCallerLinkDataMap(application, range);
+    }
+}
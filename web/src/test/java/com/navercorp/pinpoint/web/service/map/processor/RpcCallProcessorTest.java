@@ -40,6 +40,8 @@ import static com.navercorp.pinpoint.common.trace.ServiceTypeProperty.ALIAS;
 import static com.navercorp.pinpoint.common.trace.ServiceTypeProperty.RECORD_STATISTICS;
 import static com.navercorp.pinpoint.common.trace.ServiceTypeProperty.TERMINAL;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -263,4 +265,32 @@ public class RpcCallProcessorTest {
         Assert.assertEquals(expectedToApplication2, replacedLinkData2.getToApplication());
 
     }
+
+    @Test
+    public void prefetchedAcceptApplications() {
+        // Given
+        ServiceType rpcClientServiceType = mock(ServiceType.class);
+        when(rpcClientServiceType.isRpcClient()).thenReturn(true);
+        String rpcUri = "accept.host/foo";
+
+        Application fromApplication = new Application("WAS", ServiceType.TEST_STAND_ALONE);
+        Application toApplication = new Application(rpcUri, rpcClientServiceType);
+
+        LinkDataMap linkDataMap = new LinkDataMap();
+        linkDataMap.addLinkData(new LinkData(fromApplication, toApplication));
+
+        Application expectedToApplication = new Application("ACCEPT_WAS", ServiceType.TEST_STAND_ALONE);
+        when(hostApplicationMapDao.findAcceptApplicationName(fromApplication, testRange))
+                .thenReturn(Sets.newHashSet(new AcceptApplication(rpcUri, expectedToApplication)));
+
+        // When
+        VirtualLinkMarker virtualLinkMarker = new VirtualLinkMarker();
+        RpcCallProcessor rpcCallProcessor = new RpcCallProcessor(hostApplicationMapDao, virtualLinkMarker);
+        rpcCallProcessor.prefetchAcceptApplications(linkDataMap, testRange);
+        LinkDataMap replacedLinkDataMap = rpcCallProcessor.processLinkDataMap(linkDataMap, testRange);
+
+        // Then
+        Assert.assertNotNull(replacedLinkDataMap.getLinkData(new LinkKey(fromApplication, expectedToApplication)));
+        verify(hostApplicationMapDao, times(1)).findAcceptApplicationName(fromApplication, testRange);
+    }
 }